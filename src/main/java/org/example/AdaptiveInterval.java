@@ -0,0 +1,74 @@
+package org.example;
+
+/**
+ * Intervalo de muestreo del cliente, adaptado a la volatilidad de sus métricas y a lo que
+ * pide el servidor.
+ *
+ * Si la muestra cambió más que los umbrales del {@link DeltaTracker} el intervalo se reduce
+ * a la mitad (hasta {@code minMillis}); si no, crece un 50% (hasta {@code maxMillis}). Sólo se
+ * envía algo cuando hay cambios o cuando pasó {@code keepaliveMillis} sin enviar, así un
+ * equipo quieto manda pocos mensajes y uno que cambia se muestrea seguido.
+ *
+ * El servidor puede imponer un intervalo mínimo en su confirmación (ver
+ * {@link IngestionPressure}); se respeta hasta que envíe otro valor.
+ */
+class AdaptiveInterval {
+    private final long minMillis;
+    private final long maxMillis;
+    private final long keepaliveMillis;
+    private long intervalMillis;
+    private volatile long serverMinMillis;
+    private long lastSentMillis = Long.MIN_VALUE / 2;
+
+    AdaptiveInterval(long minMillis, long maxMillis, long keepaliveMillis) {
+        if (minMillis <= 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Intervalo inválido: " + minMillis + ".." + maxMillis + " ms");
+        }
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.keepaliveMillis = keepaliveMillis;
+        this.intervalMillis = maxMillis;
+    }
+
+    // Configurable con computer.client.minIntervalMillis, computer.client.maxIntervalMillis y
+    // computer.client.keepaliveMillis
+    static AdaptiveInterval fromSystemProperties() {
+        return new AdaptiveInterval(
+                Long.getLong("computer.client.minIntervalMillis", 1000),
+                Long.getLong("computer.client.maxIntervalMillis", 10_000),
+                Long.getLong("computer.client.keepaliveMillis", 15_000));
+    }
+
+    // Ajusta el intervalo según si la última muestra cambió
+    synchronized void sampled(boolean changed) {
+        intervalMillis = changed
+                ? Math.max(minMillis, intervalMillis / 2)
+                : Math.min(maxMillis, intervalMillis + intervalMillis / 2);
+    }
+
+    // Hay que enviar si algún campo cambió o si el servidor lleva mucho sin saber del equipo
+    synchronized boolean shouldSend(int fields, long nowMillis) {
+        return fields != 0 || nowMillis - lastSentMillis >= keepaliveMillis;
+    }
+
+    synchronized void sent(long nowMillis) {
+        lastSentMillis = nowMillis;
+    }
+
+    // Intervalo mínimo pedido por el servidor; 0 quita la restricción
+    void serverHint(long minIntervalMillis) {
+        serverMinMillis = Math.max(0, minIntervalMillis);
+    }
+
+    synchronized long nextDelayMillis() {
+        return Math.max(intervalMillis, serverMinMillis);
+    }
+
+    synchronized long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    long getServerMinMillis() {
+        return serverMinMillis;
+    }
+}
@@ -0,0 +1,492 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de alertas que se evalúa con cada cambio del registro ({@link AlertRule} describe las
+ * reglas). No recorre las reglas en cada actualización: se compilan en índices por grupo
+ * (toda la flota o un valor de una dimensión), métrica y sentido, ordenados por umbral. Cuando
+ * un valor del host pasa de {@code old} a {@code new}, las únicas reglas que pueden cambiar de
+ * estado son las que tienen su umbral (o su umbral de clear) entre ambos: se encuentran con
+ * una búsqueda binaria. Un valor que no cambió no cuesta nada.
+ *
+ * Cada par regla-host sin alerta no ocupa memoria; al cumplirse la condición pasa a pendiente
+ * y, si se mantiene la duración de la regla, a disparada ({@link #tick} revisa los pendientes).
+ * Una alerta disparada se notifica una sola vez y se resuelve (con otra notificación) cuando
+ * el valor cruza el umbral de clear; mientras quede en la banda de histéresis no pasa nada.
+ * Un host desconectado descarta sus pendientes y conserva las disparadas.
+ *
+ * Las notificaciones van a los {@link Sink} fuera de los bloqueos, en el ejecutor de entrega:
+ * un destino lento (un archivo, la ventana) no frena la ingesta.
+ */
+class AlertEngine implements HostRegistry.Listener, Closeable {
+
+    interface Sink {
+        void alert(Alert alert);
+    }
+
+    /** Una alerta que se dispara o se resuelve. */
+    static final class Alert {
+        final AlertRule rule;
+        final String hostId;
+        final double value;
+        final boolean firing;
+        final long timestamp;
+
+        Alert(AlertRule rule, String hostId, double value, boolean firing, long timestamp) {
+            this.rule = rule;
+            this.hostId = hostId;
+            this.value = value;
+            this.firing = firing;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s: %s (valor %.2f)",
+                    firing ? "ALERTA" : "RESUELTA", hostId, rule.text, value);
+        }
+    }
+
+    private static final int COLUMNS = TimeSeriesStore.METRIC_COUNT * 2;
+
+    private final List<AlertRule> rules;
+    private final RuleIndex fleet;
+    private final List<Map<String, RuleIndex>> byDimension = new ArrayList<>();
+    private final ConcurrentHashMap<HostEntry, HostAlerts> hosts = new ConcurrentHashMap<>();
+    private final Set<HostAlerts> pendingHosts = ConcurrentHashMap.newKeySet();
+    private final CopyOnWriteArrayList<Sink> sinks = new CopyOnWriteArrayList<>();
+    private final Executor delivery;
+    private final AtomicLong notifications = new AtomicLong();
+
+    AlertEngine(List<AlertRule> rules, Executor delivery) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.delivery = delivery;
+        List<AlertRule> fleetRules = new ArrayList<>();
+        List<Map<String, List<AlertRule>>> grouped = new ArrayList<>();
+        for (int d = 0; d < AlertRule.DIMENSIONS.length; d++) {
+            grouped.add(new HashMap<>());
+        }
+        for (AlertRule rule : rules) {
+            if (rule.dimension < 0) {
+                fleetRules.add(rule);
+            } else {
+                grouped.get(rule.dimension).computeIfAbsent(rule.value, v -> new ArrayList<>()).add(rule);
+            }
+        }
+        this.fleet = fleetRules.isEmpty() ? null : new RuleIndex(fleetRules);
+        for (Map<String, List<AlertRule>> groups : grouped) {
+            Map<String, RuleIndex> indexes = new HashMap<>();
+            for (Map.Entry<String, List<AlertRule>> group : groups.entrySet()) {
+                indexes.put(group.getKey(), new RuleIndex(group.getValue()));
+            }
+            byDimension.add(indexes);
+        }
+    }
+
+    // Reglas de computer.alerts.rules (un archivo, una por línea; '#' comenta) y registro de las
+    // notificaciones en computer.alerts.log. Sin archivo de reglas el motor no hace nada.
+    static AlertEngine fromSystemProperties() {
+        String rulesPath = System.getProperty("computer.alerts.rules");
+        List<AlertRule> rules = rulesPath == null ? Collections.emptyList() : loadRules(Paths.get(rulesPath));
+        AlertEngine engine = new AlertEngine(rules, Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "alertas");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        String logPath = System.getProperty("computer.alerts.log");
+        if (logPath != null) {
+            engine.addSink(logFile(Paths.get(logPath)));
+        }
+        return engine;
+    }
+
+    static List<AlertRule> loadRules(Path path) {
+        try {
+            return parseRules(Files.readAllLines(path, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("No se pudieron leer las reglas de alerta: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    // Las líneas inválidas se informan y se omiten: una regla mal escrita no deja sin alertas al resto
+    static List<AlertRule> parseRules(List<String> lines) {
+        List<AlertRule> rules = new ArrayList<>();
+        for (String line : lines) {
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(AlertRule.parse(rules.size(), text));
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    // Una línea por notificación al final del archivo
+    static Sink logFile(Path path) {
+        return alert -> {
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(Instant.ofEpochMilli(alert.timestamp) + " " + alert + System.lineSeparator());
+            } catch (IOException e) {
+                System.err.println("No se pudo escribir el registro de alertas: " + e.getMessage());
+            }
+        };
+    }
+
+    void addSink(Sink sink) {
+        sinks.add(sink);
+    }
+
+    List<AlertRule> getRules() {
+        return rules;
+    }
+
+    // Notificaciones emitidas (disparos y resoluciones)
+    long getNotificationCount() {
+        return notifications.get();
+    }
+
+    // Alertas disparadas y sin resolver, con el último valor de cada host
+    List<Alert> firing() {
+        List<Alert> result = new ArrayList<>();
+        for (HostAlerts host : hosts.values()) {
+            synchronized (host) {
+                for (Map.Entry<AlertRule, State> state : host.states.entrySet()) {
+                    if (state.getValue().firing) {
+                        AlertRule rule = state.getKey();
+                        result.add(new Alert(rule, host.entry.getHostId(), host.values[rule.metric], true,
+                                state.getValue().since));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void hostChanged(HostEntry entry) {
+        update(entry, entry.live(), System.currentTimeMillis());
+    }
+
+    void update(HostEntry entry, Computer1 computer, long now) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        HostAlerts host = hosts.get(entry);
+        if (host == null) {
+            host = hosts.computeIfAbsent(entry, HostAlerts::new);
+        }
+        List<Alert> alerts = null;
+        synchronized (host) {
+            if (LivenessMonitor.DEAD_STATUS.equals(computer.getConnectionStatus())) {
+                dropPending(host);
+                return;
+            }
+            if (host.indexes == null || !host.sameGroups(computer)) {
+                alerts = regroup(host, computer, now, alerts);
+            }
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                double value = FleetAggregates.value(computer, m);
+                double old = host.values[m];
+                if (Double.isNaN(value) || value == old) {
+                    continue;
+                }
+                host.values[m] = value;
+                for (RuleIndex index : host.indexes) {
+                    alerts = evaluate(host, index.columns[m * 2], true, old, value, now, alerts);
+                    alerts = evaluate(host, index.columns[m * 2 + 1], false, old, value, now, alerts);
+                }
+            }
+            if (host.pending > 0) {
+                pendingHosts.add(host);
+            }
+        }
+        deliver(alerts);
+    }
+
+    // Dispara los pendientes que cumplieron su duración
+    void tick(long now) {
+        for (HostAlerts host : pendingHosts) {
+            List<Alert> alerts = null;
+            synchronized (host) {
+                for (Map.Entry<AlertRule, State> entry : host.states.entrySet()) {
+                    State state = entry.getValue();
+                    AlertRule rule = entry.getKey();
+                    if (!state.firing && now - state.since >= rule.forMillis) {
+                        state.firing = true;
+                        host.pending--;
+                        alerts = add(alerts, new Alert(rule, host.entry.getHostId(), host.values[rule.metric], true, now));
+                    }
+                }
+                if (host.pending == 0) {
+                    pendingHosts.remove(host);
+                }
+            }
+            deliver(alerts);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (delivery instanceof ExecutorService) {
+            ((ExecutorService) delivery).shutdown();
+        }
+    }
+
+    // El host cambió de grupo (o es nuevo): sus alertas de antes se resuelven y se evalúa desde cero
+    private List<Alert> regroup(HostAlerts host, Computer1 computer, long now, List<Alert> alerts) {
+        for (Map.Entry<AlertRule, State> state : host.states.entrySet()) {
+            if (state.getValue().firing) {
+                AlertRule rule = state.getKey();
+                alerts = add(alerts, new Alert(rule, host.entry.getHostId(), host.values[rule.metric], false, now));
+            }
+        }
+        host.states.clear();
+        host.pending = 0;
+        pendingHosts.remove(host);
+        Arrays.fill(host.values, Double.NaN);
+        List<RuleIndex> indexes = new ArrayList<>(1 + AlertRule.DIMENSIONS.length);
+        if (fleet != null) {
+            indexes.add(fleet);
+        }
+        for (int d = 0; d < AlertRule.DIMENSIONS.length; d++) {
+            host.groups[d] = AlertRule.dimensionValue(computer, d);
+            RuleIndex index = byDimension.get(d).get(host.groups[d]);
+            if (index != null) {
+                indexes.add(index);
+            }
+        }
+        host.indexes = indexes.toArray(new RuleIndex[0]);
+        return alerts;
+    }
+
+    // Reglas de una columna cuyo estado puede cambiar porque el valor pasó de old a value. Con
+    // "<" la condición empieza a cumplirse para los umbrales en (value, old] y deja de cumplirse
+    // para los de (old, value]; con ">" es simétrico. Lo mismo para los umbrales de clear.
+    private List<Alert> evaluate(HostAlerts host, Column column, boolean below, double old, double value,
+                                 long now, List<Alert> alerts) {
+        if (column == null) {
+            return alerts;
+        }
+        if (Double.isNaN(old)) {
+            // Primer valor del host: se parte del extremo sano
+            old = below ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        boolean worse = below ? value < old : value > old;
+        if (worse) {
+            int from = below ? firstAbove(column.thresholds, value) : firstAtLeast(column.thresholds, old);
+            int to = below ? firstAbove(column.thresholds, old) : firstAtLeast(column.thresholds, value);
+            for (int i = from; i < to; i++) {
+                alerts = enter(host, column.byThreshold[i], value, now, alerts);
+            }
+            return alerts;
+        }
+        int from = below ? firstAbove(column.thresholds, old) : firstAtLeast(column.thresholds, value);
+        int to = below ? firstAbove(column.thresholds, value) : firstAtLeast(column.thresholds, old);
+        for (int i = from; i < to; i++) {
+            State state = host.states.get(column.byThreshold[i]);
+            if (state != null && !state.firing) {
+                // Se cortó antes de cumplir la duración
+                host.states.remove(column.byThreshold[i]);
+                host.pending--;
+            }
+        }
+        from = below ? firstAbove(column.clears, old) : firstAtLeast(column.clears, value);
+        to = below ? firstAbove(column.clears, value) : firstAtLeast(column.clears, old);
+        for (int i = from; i < to; i++) {
+            AlertRule rule = column.byClear[i];
+            State state = host.states.get(rule);
+            if (state != null && state.firing) {
+                host.states.remove(rule);
+                alerts = add(alerts, new Alert(rule, host.entry.getHostId(), value, false, now));
+            }
+        }
+        return alerts;
+    }
+
+    // La condición empezó a cumplirse; si ya había una alerta (pendiente o en la banda) no se repite
+    private List<Alert> enter(HostAlerts host, AlertRule rule, double value, long now, List<Alert> alerts) {
+        if (host.states.containsKey(rule)) {
+            return alerts;
+        }
+        State state = new State(now);
+        host.states.put(rule, state);
+        if (rule.forMillis == 0) {
+            state.firing = true;
+            return add(alerts, new Alert(rule, host.entry.getHostId(), value, true, now));
+        }
+        host.pending++;
+        return alerts;
+    }
+
+    private void dropPending(HostAlerts host) {
+        if (host.pending == 0) {
+            return;
+        }
+        host.states.values().removeIf(state -> !state.firing);
+        host.pending = 0;
+        pendingHosts.remove(host);
+    }
+
+    private static List<Alert> add(List<Alert> alerts, Alert alert) {
+        if (alerts == null) {
+            alerts = new ArrayList<>(2);
+        }
+        alerts.add(alert);
+        return alerts;
+    }
+
+    private void deliver(List<Alert> alerts) {
+        if (alerts == null) {
+            return;
+        }
+        notifications.addAndGet(alerts.size());
+        delivery.execute(() -> {
+            for (Alert alert : alerts) {
+                for (Sink sink : sinks) {
+                    try {
+                        sink.alert(alert);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error al notificar una alerta: " + e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    // Primer índice con un valor mayor que x
+    private static int firstAbove(double[] sorted, double x) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] > x) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Primer índice con un valor mayor o igual que x
+    private static int firstAtLeast(double[] sorted, double x) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] >= x) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Reglas de una métrica y un sentido, ordenadas por umbral y por umbral de clear
+    private static final class Column {
+        final AlertRule[] byThreshold;
+        final double[] thresholds;
+        final AlertRule[] byClear;
+        final double[] clears;
+
+        Column(List<AlertRule> rules) {
+            byThreshold = rules.toArray(new AlertRule[0]);
+            Arrays.sort(byThreshold, Comparator.comparingDouble(rule -> rule.threshold));
+            thresholds = new double[byThreshold.length];
+            for (int i = 0; i < byThreshold.length; i++) {
+                thresholds[i] = byThreshold[i].threshold;
+            }
+            byClear = rules.toArray(new AlertRule[0]);
+            Arrays.sort(byClear, Comparator.comparingDouble(rule -> rule.clear));
+            clears = new double[byClear.length];
+            for (int i = 0; i < byClear.length; i++) {
+                clears[i] = byClear[i].clear;
+            }
+        }
+    }
+
+    // Reglas de un grupo: una columna por métrica y sentido (null si no hay ninguna)
+    private static final class RuleIndex {
+        final Column[] columns = new Column[COLUMNS];
+
+        RuleIndex(List<AlertRule> rules) {
+            for (int c = 0; c < COLUMNS; c++) {
+                List<AlertRule> column = new ArrayList<>();
+                for (AlertRule rule : rules) {
+                    if (rule.metric * 2 + (rule.below ? 0 : 1) == c) {
+                        column.add(rule);
+                    }
+                }
+                if (!column.isEmpty()) {
+                    columns[c] = new Column(column);
+                }
+            }
+        }
+    }
+
+    // Estado de alerta de un par regla-host que no está en reposo
+    private static final class State {
+        final long since;
+        boolean firing;
+
+        State(long since) {
+            this.since = since;
+        }
+    }
+
+    // Últimos valores evaluados de un host y sus alertas; se protege con su propio monitor
+    private static final class HostAlerts {
+        final HostEntry entry;
+        final double[] values = new double[TimeSeriesStore.METRIC_COUNT];
+        final String[] groups = new String[AlertRule.DIMENSIONS.length];
+        final HashMap<AlertRule, State> states = new HashMap<>();
+        RuleIndex[] indexes;
+        int pending;
+
+        HostAlerts(HostEntry entry) {
+            this.entry = entry;
+            Arrays.fill(values, Double.NaN);
+        }
+
+        boolean sameGroups(Computer1 computer) {
+            for (int d = 0; d < groups.length; d++) {
+                String value = AlertRule.dimensionValue(computer, d);
+                if (value != groups[d] && !value.equals(groups[d])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Una regla de alerta ya compilada. La sintaxis es
+ *
+ * <pre>
+ * &lt;métrica&gt; (&lt; | &gt;) &lt;umbral&gt; [for &lt;duración&gt;] [on &lt;dimensión&gt;=&lt;valor&gt;] [clear &lt;umbral&gt;]
+ *
+ * freeDiskSpace &lt; 5 for 2m
+ * freeCpuPercentage &lt; 10 on type=Cliente
+ * freeMemory &lt; 1.5 for 30s on operatingSystemVersion=Windows 11 clear 2
+ * </pre>
+ *
+ * La métrica es una de {@link TimeSeriesStore#METRIC_NAMES}; la duración lleva unidad (ms, s,
+ * m o h) y la dimensión es type, operatingSystemVersion, processorModel o hostId. El valor
+ * llega hasta la siguiente palabra clave, así que puede tener espacios.
+ *
+ * La alerta se dispara cuando la condición se cumple sin interrupción durante la duración y
+ * se resuelve recién cuando el valor cruza el umbral de {@code clear} (histéresis). Sin
+ * {@code clear}, la banda es un {@link #DEFAULT_HYSTERESIS} del umbral hacia el lado sano.
+ */
+final class AlertRule {
+    static final double DEFAULT_HYSTERESIS = 0.05;
+    static final String[] DIMENSIONS = {"type", "operatingSystemVersion", "processorModel", "hostId"};
+
+    final int id;
+    final String text;
+    final int metric;
+    // true para "<": la alerta es por valores bajos
+    final boolean below;
+    final double threshold;
+    final double clear;
+    final long forMillis;
+    // Índice en DIMENSIONS, o -1 si la regla vale para toda la flota
+    final int dimension;
+    final String value;
+
+    private AlertRule(int id, String text, int metric, boolean below, double threshold, double clear,
+                      long forMillis, int dimension, String value) {
+        this.id = id;
+        this.text = text;
+        this.metric = metric;
+        this.below = below;
+        this.threshold = threshold;
+        this.clear = clear;
+        this.forMillis = forMillis;
+        this.dimension = dimension;
+        this.value = value;
+    }
+
+    static AlertRule parse(int id, String text) {
+        String[] tokens = text.trim().split("\\s+");
+        if (tokens.length < 3) {
+            throw invalid(text, "se esperaba <métrica> <operador> <umbral>");
+        }
+        int metric;
+        try {
+            metric = FleetAggregates.metric(tokens[0]);
+        } catch (IllegalArgumentException e) {
+            throw invalid(text, e.getMessage());
+        }
+        boolean below;
+        if (tokens[1].equals("<")) {
+            below = true;
+        } else if (tokens[1].equals(">")) {
+            below = false;
+        } else {
+            throw invalid(text, "operador desconocido: " + tokens[1]);
+        }
+        double threshold = number(text, tokens[2]);
+        long forMillis = 0;
+        int dimension = -1;
+        String value = null;
+        Double clear = null;
+        int i = 3;
+        while (i < tokens.length) {
+            String keyword = tokens[i++];
+            if (i >= tokens.length) {
+                throw invalid(text, "falta el valor de " + keyword);
+            }
+            switch (keyword) {
+                case "for":
+                    forMillis = duration(text, tokens[i++]);
+                    break;
+                case "clear":
+                    clear = number(text, tokens[i++]);
+                    break;
+                case "on":
+                    if (dimension >= 0) {
+                        throw invalid(text, "sólo se admite un filtro");
+                    }
+                    StringBuilder filter = new StringBuilder(tokens[i++]);
+                    while (i < tokens.length && !isKeyword(tokens[i])) {
+                        filter.append(' ').append(tokens[i++]);
+                    }
+                    int equals = filter.indexOf("=");
+                    if (equals <= 0 || equals == filter.length() - 1) {
+                        throw invalid(text, "filtro inválido: " + filter);
+                    }
+                    dimension = dimension(text, filter.substring(0, equals));
+                    value = filter.substring(equals + 1);
+                    break;
+                default:
+                    throw invalid(text, "palabra desconocida: " + keyword);
+            }
+        }
+        double band = Math.max(Math.abs(threshold) * DEFAULT_HYSTERESIS, 0.01);
+        double clearAt = clear != null ? clear : below ? threshold + band : threshold - band;
+        if (below ? clearAt < threshold : clearAt > threshold) {
+            throw invalid(text, "el umbral de clear debe quedar del lado sano del umbral");
+        }
+        return new AlertRule(id, text.trim(), metric, below, threshold, clearAt, forMillis, dimension, value);
+    }
+
+    private static boolean isKeyword(String token) {
+        return token.equals("for") || token.equals("clear") || token.equals("on");
+    }
+
+    private static double number(String text, String token) {
+        try {
+            double value = Double.parseDouble(token);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw invalid(text, "número inválido: " + token);
+        }
+    }
+
+    private static long duration(String text, String token) {
+        String lower = token.toLowerCase(Locale.ROOT);
+        long unit;
+        String digits;
+        if (lower.endsWith("ms")) {
+            unit = 1;
+            digits = lower.substring(0, lower.length() - 2);
+        } else if (lower.endsWith("s")) {
+            unit = 1000;
+            digits = lower.substring(0, lower.length() - 1);
+        } else if (lower.endsWith("m")) {
+            unit = 60_000;
+            digits = lower.substring(0, lower.length() - 1);
+        } else if (lower.endsWith("h")) {
+            unit = 3_600_000;
+            digits = lower.substring(0, lower.length() - 1);
+        } else {
+            throw invalid(text, "duración sin unidad: " + token);
+        }
+        try {
+            long amount = Long.parseLong(digits);
+            if (amount < 0) {
+                throw new NumberFormatException();
+            }
+            return amount * unit;
+        } catch (NumberFormatException e) {
+            throw invalid(text, "duración inválida: " + token);
+        }
+    }
+
+    private static int dimension(String text, String name) {
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            if (DIMENSIONS[d].equals(name)) {
+                return d;
+            }
+        }
+        throw invalid(text, "dimensión desconocida: " + name);
+    }
+
+    private static IllegalArgumentException invalid(String text, String reason) {
+        return new IllegalArgumentException("Regla inválida \"" + text.trim() + "\": " + reason);
+    }
+
+    // Valor de la dimensión del host; null o vacío cuentan como "desconocido", como en los agregados
+    static String dimensionValue(Computer1 computer, int dimension) {
+        String value;
+        switch (dimension) {
+            case 0:
+                value = computer.getType();
+                break;
+            case 1:
+                value = computer.getOperatingSystemVersion();
+                break;
+            case 2:
+                value = computer.getProcessorModel();
+                break;
+            default:
+                value = computer.getHostId();
+                break;
+        }
+        return value == null || value.isEmpty() ? FleetAggregates.UNKNOWN : value;
+    }
+
+    boolean matches(double value) {
+        return below ? value < threshold : value > threshold;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Espera entre reintentos de conexión: crece al doble en cada fallo, desde {@code baseMillis}
+ * hasta {@code maxMillis}. Con jitter la espera es un valor al azar entre la mitad y el total,
+ * así los clientes que se cayeron juntos no vuelven todos en el mismo instante.
+ */
+class Backoff {
+    private final long baseMillis;
+    private final long maxMillis;
+    private final boolean jitter;
+    private final Random random;
+    private int attempts;
+
+    Backoff(long baseMillis, long maxMillis, boolean jitter, Random random) {
+        if (baseMillis <= 0 || maxMillis < baseMillis) {
+            throw new IllegalArgumentException("Espera inválida: " + baseMillis + ".." + maxMillis + " ms");
+        }
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+        this.jitter = jitter;
+        this.random = random;
+    }
+
+    // Configurable con computer.client.backoff.baseMillis, computer.client.backoff.maxMillis y
+    // computer.client.backoff.jitter
+    static Backoff fromSystemProperties() {
+        return new Backoff(
+                Long.getLong("computer.client.backoff.baseMillis", 1000),
+                Long.getLong("computer.client.backoff.maxMillis", 60_000),
+                Boolean.parseBoolean(System.getProperty("computer.client.backoff.jitter", "true")),
+                new Random());
+    }
+
+    synchronized long nextDelayMillis() {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempts, 30));
+        if (ceiling <= 0) {
+            ceiling = maxMillis; // desborde del corrimiento
+        }
+        attempts++;
+        if (!jitter) {
+            return ceiling;
+        }
+        long half = ceiling / 2;
+        return half + (long) (random.nextDouble() * (ceiling - half + 1));
+    }
+
+    // Conexión lograda: el próximo fallo vuelve a empezar desde la espera base
+    synchronized void reset() {
+        attempts = 0;
+    }
+
+    synchronized int attempts() {
+        return attempts;
+    }
+}
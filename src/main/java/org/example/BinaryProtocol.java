@@ -0,0 +1,392 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocolo binario opcional entre cliente y servidor.
+ *
+ * Al conectar, el cliente envía el byte {@link #MAGIC} seguido de una trama HELLO con la
+ * versión más alta que soporta; el servidor responde HELLO_ACK con la versión elegida.
+ * Cada trama es: longitud (varint) + tipo (1 byte) + contenido. Los datos estáticos del
+ * equipo viajan una sola vez por sesión (STATIC); después sólo se envían UPDATE.
+ *
+ * Desde la versión 2 el cliente manda DELTA con sólo los campos que cambiaron (precedidos
+ * de una máscara de bits) y KEEPALIVE cuando no cambió nada.
+ *
+ * Desde la versión 3 un relay puede reenviar muchos hosts por una sola conexión: se presenta
+ * con RELAY_HELLO, declara cada host una vez con RELAY_HOST (un número de ranura más sus datos
+ * estáticos) y después manda RELAY_BATCH con el último estado de los hosts que cambiaron.
+ *
+ * Desde la versión 4 el cliente puede enviar, después de STATIC, tramas HISTORY con las
+ * muestras que tomó mientras estaba desconectado: cada registro es la marca de tiempo (en ms,
+ * como diferencia con la del registro anterior; la primera es absoluta) seguida de un UPDATE.
+ *
+ * Desde la versión 5 las confirmaciones van en tubería: cada UPDATE, DELTA o KEEPALIVE de la
+ * sesión lleva implícito el número de secuencia siguiente (el primero es 1, por orden de
+ * llegada sobre la conexión) y el servidor ya no responde uno por uno, sino con ACK_UPTO
+ * (secuencia acumulada, más el intervalo mínimo opcional) cada N mensajes o a los T ms del
+ * primero sin confirmar. El cliente puede tener varios mensajes en vuelo a la vez.
+ *
+ * Desde la versión 6 el cliente puede enviar DETAIL con el detalle por dispositivo (ver
+ * {@link DeviceMetrics}): cada registro es la ranura del dispositivo en la sesión (la primera
+ * vez seguida de su tipo y nombre) y sus valores en centésimas. Reemplaza el detalle anterior
+ * del host; no lleva secuencia ni se confirma.
+ *
+ * Desde la versión 7 DETAIL también puede declarar núcleos lógicos (tipo core) con su
+ * porcentaje libre; con un servidor anterior el cliente los omite.
+ *
+ * Un ACK puede llevar un varint con el intervalo mínimo de envío (en ms) que pide el servidor
+ * cuando la ingesta está saturada; los clientes que no lo conocen lo ignoran.
+ *
+ * Las líneas JSON siguen siendo válidas: el servidor distingue el modo por el primer byte.
+ */
+final class BinaryProtocol {
+    // No es ASCII, así que nunca puede ser el comienzo de una línea JSON
+    static final byte MAGIC = (byte) 0xC7;
+    static final int VERSION = 7;
+    static final int MIN_DELTA_VERSION = 2;
+    static final int MIN_RELAY_VERSION = 3;
+    static final int MIN_HISTORY_VERSION = 4;
+    static final int MIN_PIPELINE_VERSION = 5;
+    static final int MIN_DETAIL_VERSION = 6;
+    static final int MIN_CORE_DETAIL_VERSION = 7;
+
+    static final byte HELLO = 0x00;
+    static final byte HELLO_ACK = 0x01;
+    static final byte STATIC = 0x02;
+    static final byte UPDATE = 0x03;
+    static final byte ACK = 0x04;
+    static final byte DELTA = 0x05;
+    static final byte KEEPALIVE = 0x06;
+    static final byte RELAY_HELLO = 0x07;
+    static final byte RELAY_HOST = 0x08;
+    static final byte RELAY_BATCH = 0x09;
+    static final byte HISTORY = 0x0A;
+    static final byte ACK_UPTO = 0x0B;
+    static final byte DETAIL = 0x0C;
+
+    // Estado de conexión de un host dentro de RELAY_BATCH
+    static final String[] RELAY_STATUS = {"Desconectado", "Conectado", "Activo", LivenessMonitor.SUSPECT_STATUS};
+    // Tamaño máximo de un registro de RELAY_BATCH: ranura, estado y UPDATE
+    static final int MAX_RELAY_RECORD = 5 + 1 + 2 + 10 + 10 + 2 + 2;
+    // Tamaño máximo de un registro de HISTORY: marca de tiempo y UPDATE
+    static final int MAX_HISTORY_RECORD = 10 + 2 + 10 + 10 + 2 + 2;
+
+    // Longitud máxima de una trama, contando el byte de tipo
+    static final int MAX_FRAME = 4096;
+    // Dispositivos distintos que puede declarar una sesión
+    static final int MAX_DEVICE_SLOTS = 256;
+
+    private BinaryProtocol() {
+    }
+
+    // ---- Tramas ----
+
+    // Escribe una trama completa; el contenido es lo que hay entre position y limit de payload
+    static void writeFrame(ByteBuffer out, byte type, ByteBuffer payload) {
+        writeVarint(out, payload.remaining() + 1);
+        out.put(type);
+        out.put(payload);
+    }
+
+    static void writeHello(ByteBuffer out, int version) {
+        writeVarint(out, 1 + varintSize(version));
+        out.put(HELLO);
+        writeVarint(out, version);
+    }
+
+    static void writeHelloAck(ByteBuffer out, int version) {
+        writeVarint(out, 1 + varintSize(version));
+        out.put(HELLO_ACK);
+        writeVarint(out, version);
+    }
+
+    static void writeKeepalive(ByteBuffer out) {
+        writeVarint(out, 1);
+        out.put(KEEPALIVE);
+    }
+
+    static void writeAck(ByteBuffer out) {
+        writeVarint(out, 1);
+        out.put(ACK);
+    }
+
+    // ACK con contrapresión: intervalo mínimo de envío en milisegundos (0 = sin restricción)
+    static void writeAck(ByteBuffer out, long minIntervalMillis) {
+        if (minIntervalMillis <= 0) {
+            writeAck(out);
+            return;
+        }
+        writeVarint(out, 1 + varintSize(minIntervalMillis));
+        out.put(ACK);
+        writeVarint(out, minIntervalMillis);
+    }
+
+    // Intervalo mínimo que trae un ACK ya leído hasta su tipo; 0 si no trae ninguno
+    static long readAckHint(ByteBuffer frame) {
+        return frame.hasRemaining() ? readVarint(frame) : 0;
+    }
+
+    // Confirmación acumulada: todos los mensajes hasta sequence inclusive
+    static void writeAckUpTo(ByteBuffer out, long sequence, long minIntervalMillis) {
+        int hintSize = minIntervalMillis > 0 ? varintSize(minIntervalMillis) : 0;
+        writeVarint(out, 1 + varintSize(sequence) + hintSize);
+        out.put(ACK_UPTO);
+        writeVarint(out, sequence);
+        if (hintSize > 0) {
+            writeVarint(out, minIntervalMillis);
+        }
+    }
+
+    static int negotiate(int clientVersion) {
+        return Math.min(clientVersion, VERSION);
+    }
+
+    // ---- Contenido ----
+
+    static void encodeStatic(ByteBuffer out, Computer1 computer) {
+        writeString(out, computer.getProcessorModel());
+        writeString(out, computer.getOperatingSystemVersion());
+        writeVarint(out, computer.getCoreCount());
+        writeVarint(out, computer.getDiskCapacity());
+        // Al final: los servidores anteriores ignoran los bytes sobrantes
+        writeString(out, computer.getHostId());
+    }
+
+    static void decodeStatic(ByteBuffer in, Computer1 target) {
+        target.setProcessorModel(readString(in, target.getProcessorModel()));
+        target.setOperatingSystemVersion(readString(in, target.getOperatingSystemVersion()));
+        target.setCoreCount((int) readVarint(in));
+        target.setDiskCapacity(readVarint(in));
+        if (in.hasRemaining()) {
+            String hostId = readString(in, target.getHostId());
+            target.setHostId(hostId.isEmpty() ? null : hostId);
+        }
+    }
+
+    // Porcentajes y velocidad en centésimas, ancho fijo de 2 bytes; GB en centésimas como varint
+    static void encodeUpdate(ByteBuffer out, Computer1 computer) {
+        out.putShort((short) hundredths(computer.getProcessorSpeed()));
+        writeVarint(out, hundredths(computer.getFreeMemory()));
+        writeVarint(out, hundredths(computer.getFreeDiskSpace()));
+        out.putShort((short) hundredths(computer.getFreeBandwidthPercentage()));
+        out.putShort((short) hundredths(computer.getFreeCpuPercentage()));
+    }
+
+    static void decodeUpdate(ByteBuffer in, Computer1 target) {
+        target.setProcessorSpeed((in.getShort() & 0xFFFF) / 100.0);
+        target.setFreeMemory(readVarint(in) / 100.0);
+        target.setFreeDiskSpace(readVarint(in) / 100.0);
+        target.setFreeBandwidthPercentage((in.getShort() & 0xFFFF) / 100.0);
+        target.setFreeCpuPercentage((in.getShort() & 0xFFFF) / 100.0);
+    }
+
+    // Máscara (bits de TelemetryParser) seguida sólo de los campos dinámicos presentes
+    static void encodeDelta(ByteBuffer out, Computer1 computer, int fields) {
+        fields &= DeltaTracker.DYNAMIC_FIELDS;
+        writeVarint(out, fields);
+        if ((fields & TelemetryParser.PROCESSOR_SPEED) != 0) {
+            out.putShort((short) hundredths(computer.getProcessorSpeed()));
+        }
+        if ((fields & TelemetryParser.FREE_MEMORY) != 0) writeVarint(out, hundredths(computer.getFreeMemory()));
+        if ((fields & TelemetryParser.FREE_DISK_SPACE) != 0) writeVarint(out, hundredths(computer.getFreeDiskSpace()));
+        if ((fields & TelemetryParser.FREE_BANDWIDTH_PERCENTAGE) != 0) {
+            out.putShort((short) hundredths(computer.getFreeBandwidthPercentage()));
+        }
+        if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+            out.putShort((short) hundredths(computer.getFreeCpuPercentage()));
+        }
+    }
+
+    static int decodeDelta(ByteBuffer in, Computer1 target) {
+        int fields = (int) readVarint(in);
+        if ((fields & ~DeltaTracker.DYNAMIC_FIELDS) != 0) {
+            throw new TelemetryFormatException("Máscara de DELTA inválida: " + fields, in.position());
+        }
+        if ((fields & TelemetryParser.PROCESSOR_SPEED) != 0) {
+            target.setProcessorSpeed((in.getShort() & 0xFFFF) / 100.0);
+        }
+        if ((fields & TelemetryParser.FREE_MEMORY) != 0) target.setFreeMemory(readVarint(in) / 100.0);
+        if ((fields & TelemetryParser.FREE_DISK_SPACE) != 0) target.setFreeDiskSpace(readVarint(in) / 100.0);
+        if ((fields & TelemetryParser.FREE_BANDWIDTH_PERCENTAGE) != 0) {
+            target.setFreeBandwidthPercentage((in.getShort() & 0xFFFF) / 100.0);
+        }
+        if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+            target.setFreeCpuPercentage((in.getShort() & 0xFFFF) / 100.0);
+        }
+        return fields;
+    }
+
+    // RELAY_HOST: ranura, tipo y los datos estáticos (incluido el identificador)
+    static void encodeRelayHost(ByteBuffer out, int slot, Computer1 computer) {
+        writeVarint(out, slot);
+        writeString(out, computer.getType());
+        encodeStatic(out, computer);
+    }
+
+    // Un registro de RELAY_BATCH; el contenido de la trama es una secuencia de ellos
+    static void encodeRelayRecord(ByteBuffer out, int slot, Computer1 computer) {
+        writeVarint(out, slot);
+        out.put(relayStatus(computer.getConnectionStatus()));
+        encodeUpdate(out, computer);
+    }
+
+    // Registro de HISTORY; las marcas de tiempo deben ir en orden (previousTimestamp = 0 en el primero)
+    static void encodeHistoryRecord(ByteBuffer out, long previousTimestamp, long timestamp, Computer1 computer) {
+        writeVarint(out, timestamp - previousTimestamp);
+        encodeUpdate(out, computer);
+    }
+
+    // Devuelve la marca de tiempo del registro y deja sus métricas en target
+    static long decodeHistoryRecord(ByteBuffer in, long previousTimestamp, Computer1 target) {
+        long timestamp = previousTimestamp + readVarint(in);
+        decodeUpdate(in, target);
+        return timestamp;
+    }
+
+    // Registros de DETAIL mientras quepan en out; los que no caben se omiten. slots asigna una
+    // ranura a cada dispositivo ya declarado en la sesión (tipo y nombre). Devuelve cuántos
+    // dispositivos se escribieron.
+    static int encodeDetail(ByteBuffer out, DeviceMetrics devices, Map<String, Integer> slots) {
+        int written = 0;
+        for (int i = 0; i < devices.size(); i++) {
+            DeviceMetrics.Device device = devices.get(i);
+            String key = device.kind + ":" + device.name;
+            Integer slot = slots.get(key);
+            byte[] name = slot == null ? (device.name == null ? "" : device.name).getBytes(StandardCharsets.UTF_8) : null;
+            if (slot == null && slots.size() >= MAX_DEVICE_SLOTS) {
+                continue;
+            }
+            int number = slot != null ? slot : slots.size();
+            int size = varintSize(number) + (name != null ? 1 + varintSize(name.length) + name.length : 0);
+            for (double value : device.values) {
+                size += varintSize(hundredths(value));
+            }
+            if (size > out.remaining()) {
+                continue;
+            }
+            writeVarint(out, number);
+            if (name != null) {
+                out.put(device.kind);
+                writeVarint(out, name.length);
+                out.put(name);
+                slots.put(key, number);
+            }
+            for (double value : device.values) {
+                writeVarint(out, hundredths(value));
+            }
+            written++;
+        }
+        return written;
+    }
+
+    // slots son los dispositivos declarados en la sesión, en orden de ranura
+    static DeviceMetrics decodeDetail(ByteBuffer in, List<DeviceMetrics.Device> slots) {
+        List<DeviceMetrics.Device> devices = new ArrayList<>();
+        while (in.hasRemaining()) {
+            int slot = readCount(in);
+            DeviceMetrics.Device declared;
+            if (slot == slots.size() && slot < MAX_DEVICE_SLOTS) {
+                byte kind = in.get();
+                if (kind < 0 || kind >= DeviceMetrics.KIND_NAMES.length) {
+                    throw new TelemetryFormatException("Tipo de dispositivo inválido: " + kind, in.position());
+                }
+                String name = readString(in, null);
+                declared = new DeviceMetrics.Device(kind, name, new double[DeviceMetrics.VALUE_NAMES[kind].length]);
+                slots.add(declared);
+            } else if (slot < slots.size()) {
+                declared = slots.get(slot);
+            } else {
+                throw new TelemetryFormatException("Ranura de dispositivo fuera de orden: " + slot, in.position());
+            }
+            double[] values = new double[declared.values.length];
+            for (int v = 0; v < values.length; v++) {
+                values[v] = readVarint(in) / 100.0;
+            }
+            devices.add(new DeviceMetrics.Device(declared.kind, declared.name, values));
+        }
+        return new DeviceMetrics(devices);
+    }
+
+    static byte relayStatus(String connectionStatus) {
+        for (byte i = 0; i < RELAY_STATUS.length; i++) {
+            if (RELAY_STATUS[i].equals(connectionStatus)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    static String relayStatus(byte code) {
+        if (code < 0 || code >= RELAY_STATUS.length) {
+            throw new TelemetryFormatException("Estado de relay inválido: " + code, 0);
+        }
+        return RELAY_STATUS[code];
+    }
+
+    private static long hundredths(double value) {
+        return Math.max(0, Math.round(value * 100.0));
+    }
+
+    // ---- Primitivas ----
+
+    static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new TelemetryFormatException("Varint demasiado largo", in.position());
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static void writeString(ByteBuffer out, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.put(bytes);
+    }
+
+    // Varint usado como longitud o índice: fuera del rango de int es un error de formato, no un
+    // número negativo que llegue a crear arreglos
+    static int readCount(ByteBuffer in) {
+        long value = readVarint(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new TelemetryFormatException("Valor fuera de rango: " + value, in.position());
+        }
+        return (int) value;
+    }
+
+    static String readString(ByteBuffer in, String previous) {
+        int length = readCount(in);
+        if (length > in.remaining()) {
+            throw new TelemetryFormatException("Cadena truncada", in.position());
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        return value.equals(previous) ? previous : value;
+    }
+}
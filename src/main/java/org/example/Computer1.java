@@ -1,17 +1,25 @@
 package org.example;
 
 class Computer1 {
-    private String processorModel;
-    private double processorSpeed;
-    private int coreCount;
-    private long diskCapacity;
-    private String operatingSystemVersion;
-    private double freeMemory;
-    private double freeDiskSpace;
-    private double freeBandwidthPercentage;
-    private String connectionStatus;
-    private String type;
-    private double freeCpuPercentage; // Nuevo campo
+    // Campos volatile: el registro de hosts los lee sin bloqueo mientras otro hilo los actualiza
+    private volatile String hostId;
+    private volatile String processorModel;
+    private volatile double processorSpeed;
+    private volatile int coreCount;
+    private volatile long diskCapacity;
+    private volatile String operatingSystemVersion;
+    private volatile double freeMemory;
+    private volatile double freeDiskSpace;
+    private volatile double freeBandwidthPercentage;
+    private volatile String connectionStatus;
+    private volatile String type;
+    private volatile double freeCpuPercentage; // Nuevo campo
+    // Porcentaje libre por núcleo lógico; el arreglo no se modifica después de asignarlo
+    private volatile double[] freeCpuPerCore;
+    // Detalle por disco, sistema de archivos e interfaz (null si el equipo no lo informa)
+    private volatile DeviceMetrics devices;
+    // Relay por el que llegó el host al servidor central (null si reporta directamente)
+    private volatile String relay;
 
     public Computer1(String processorModel, double processorSpeed, int coreCount,
                      long diskCapacity, String operatingSystemVersion, double freeMemory,
@@ -33,6 +41,15 @@ class Computer1 {
         return type;
     }
 
+    // Identificador estable del equipo (UUID de hardware o MAC), no el modelo de CPU
+    public String getHostId() {
+        return hostId;
+    }
+
+    public void setHostId(String hostId) {
+        this.hostId = hostId;
+    }
+
     // Agregar setters para actualización de datos
     public void setFreeMemory(double freeMemory) {
         this.freeMemory = freeMemory;
@@ -58,6 +75,14 @@ class Computer1 {
         return connectionStatus;
     }
 
+    public String getRelay() {
+        return relay;
+    }
+
+    public void setRelay(String relay) {
+        this.relay = relay;
+    }
+
     public String getProcessorModel() {
         return processorModel;
     }
@@ -96,7 +121,64 @@ class Computer1 {
     public void setFreeCpuPercentage(double percentage) {
         this.freeCpuPercentage = percentage;
     }
+
+    public double[] getFreeCpuPerCore() {
+        return freeCpuPerCore;
+    }
+
+    public void setFreeCpuPerCore(double[] freeCpuPerCore) {
+        this.freeCpuPerCore = freeCpuPerCore;
+    }
+
+    public DeviceMetrics getDevices() {
+        return devices;
+    }
+
+    public void setDevices(DeviceMetrics devices) {
+        this.devices = devices;
+    }
+
     public void setFreeBandwidthPercentage(double percentage) {
         this.freeBandwidthPercentage = percentage;
     }
-}
\ No newline at end of file
+
+    public void setProcessorModel(String processorModel) {
+        this.processorModel = processorModel;
+    }
+
+    public void setCoreCount(int coreCount) {
+        this.coreCount = coreCount;
+    }
+
+    public void setDiskCapacity(long diskCapacity) {
+        this.diskCapacity = diskCapacity;
+    }
+
+    public void setOperatingSystemVersion(String operatingSystemVersion) {
+        this.operatingSystemVersion = operatingSystemVersion;
+    }
+
+    // Copia las métricas reportadas por el equipo (no el tipo ni el estado de conexión)
+    public void updateFrom(Computer1 other) {
+        this.processorModel = other.processorModel;
+        this.processorSpeed = other.processorSpeed;
+        this.coreCount = other.coreCount;
+        this.diskCapacity = other.diskCapacity;
+        this.operatingSystemVersion = other.operatingSystemVersion;
+        this.freeMemory = other.freeMemory;
+        this.freeDiskSpace = other.freeDiskSpace;
+        this.freeBandwidthPercentage = other.freeBandwidthPercentage;
+        this.freeCpuPercentage = other.freeCpuPercentage;
+        this.freeCpuPerCore = other.freeCpuPerCore;
+        this.devices = other.devices;
+    }
+
+    // Copia completa, incluidos identidad, tipo, estado y relay
+    public void copyFrom(Computer1 other) {
+        updateFrom(other);
+        this.hostId = other.hostId;
+        this.type = other.type;
+        this.connectionStatus = other.connectionStatus;
+        this.relay = other.relay;
+    }
+}
@@ -1,179 +1,96 @@
 package org.example;
 
-import oshi.SystemInfo;
-import oshi.hardware.CentralProcessor;
-import oshi.hardware.GlobalMemory;
-import oshi.hardware.HWDiskStore;
-import oshi.hardware.NetworkIF;
-import oshi.software.os.OperatingSystem;
-import oshi.software.os.OSFileStore;
-import java.io.*;
-import java.net.Socket;
-import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
 
+/**
+ * Cliente de este equipo: arranca un {@link TelemetryClient} con las muestras del
+ * {@link SamplingService}. La conexión, el envío y los reintentos están en esa clase.
+ */
 public class ComputerClient {
     private static final String SERVER_ADDRESS = "25.54.76.182";
     private static final int SERVER_PORT = 12345;
-    private static final long UPDATE_INTERVAL = 10; // segundos
-    private static PrintWriter out;
-    private static BufferedReader in;
-    private static Socket socket;
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
 
     public static void main(String[] args) {
-        try {
-            connectToServer();
-            startPeriodicUpdates();
-
-            // Mantener la aplicación ejecutándose
-            while (true) {
-                try {
-                    String serverResponse = in.readLine();
-                    if (serverResponse == null) {
-                        System.out.println("Conexión perdida. Intentando reconectar...");
-                        reconnect();
-                    } else {
-                        System.out.println("Respuesta del servidor: " + serverResponse);
-                    }
-                } catch (IOException e) {
-                    System.out.println("Error en la conexión. Intentando reconectar...");
-                    reconnect();
-                }
-                Thread.sleep(1000); // Pequeña pausa para no saturar el CPU
-            }
-        } catch (Exception e) {
-            System.err.println("Error fatal: " + e.getMessage());
-        } finally {
-            cleanup();
-        }
+        // El hilo de conexión mantiene viva la aplicación
+        TelemetryClient.fromSystemProperties(SERVER_ADDRESS, SERVER_PORT, ComputerClient::sample).start();
     }
 
-    private static void connectToServer() throws IOException {
-        socket = new Socket(SERVER_ADDRESS, SERVER_PORT);
-        out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        System.out.println("Conectado al servidor");
+    // Estáticos cacheados y métricas dinámicas con TTL desde el servicio compartido. El ancho
+    // de banda libre sale del tráfico entre dos refrescos de las interfaces; el detalle por
+    // dispositivo sólo se envía cuando el servicio lo renueva.
+    private static Computer1 sample() {
+        SamplingService service = SamplingService.get();
+        Computer1 sample = service.sample(new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente"));
+        sample.setFreeBandwidthPercentage(service.getFreeBandwidthPercentage());
+        sample.setDevices(service.getDeviceMetrics());
+        return sample;
     }
 
-    private static void reconnect() {
-        cleanup();
-        try {
-            Thread.sleep(5000); // Esperar 5 segundos antes de reconectar
-            connectToServer();
-        } catch (Exception e) {
-            System.err.println("Error al reconectar: " + e.getMessage());
-        }
+    static String toJson(Computer1 sample) {
+        return toJson(sample, TelemetryParser.ALL_FIELDS);
     }
 
-    private static void cleanup() {
-        try {
-            if (out != null) out.close();
-            if (in != null) in.close();
-            if (socket != null) socket.close();
-        } catch (IOException e) {
-            System.err.println("Error al cerrar conexiones: " + e.getMessage());
+    // Objeto JSON con sólo los campos indicados; "{}" funciona como keepalive
+    static String toJson(Computer1 sample, int fields) {
+        StringBuilder json = new StringBuilder(256).append('{');
+        // La identidad va en cada registro completo: el servidor la usa como clave
+        if (fields == TelemetryParser.ALL_FIELDS && sample.getHostId() != null) {
+            appendField(json, "hostId", jsonString(sample.getHostId()));
         }
+        if ((fields & TelemetryParser.PROCESSOR_MODEL) != 0) {
+            appendField(json, "processorModel", jsonString(sample.getProcessorModel()));
+        }
+        if ((fields & TelemetryParser.PROCESSOR_SPEED) != 0) {
+            appendField(json, "processorSpeed", decimal(sample.getProcessorSpeed()));
+        }
+        if ((fields & TelemetryParser.CORE_COUNT) != 0) {
+            appendField(json, "coreCount", String.valueOf(sample.getCoreCount()));
+        }
+        if ((fields & TelemetryParser.DISK_CAPACITY) != 0) {
+            appendField(json, "diskCapacity", String.valueOf(sample.getDiskCapacity()));
+        }
+        if ((fields & TelemetryParser.OPERATING_SYSTEM_VERSION) != 0) {
+            appendField(json, "operatingSystemVersion", jsonString(sample.getOperatingSystemVersion()));
+        }
+        if ((fields & TelemetryParser.FREE_MEMORY) != 0) {
+            appendField(json, "freeMemory", decimal(sample.getFreeMemory()));
+        }
+        if ((fields & TelemetryParser.FREE_DISK_SPACE) != 0) {
+            appendField(json, "freeDiskSpace", decimal(sample.getFreeDiskSpace()));
+        }
+        if ((fields & TelemetryParser.FREE_BANDWIDTH_PERCENTAGE) != 0) {
+            appendField(json, "freeBandwidthPercentage", decimal(sample.getFreeBandwidthPercentage()));
+        }
+        if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+            appendField(json, "freeCpuPercentage", decimal(sample.getFreeCpuPercentage()));
+        }
+        return json.append('}').toString();
     }
 
-    private static void startPeriodicUpdates() {
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                sendSystemInfo();
-            } catch (Exception e) {
-                System.err.println("Error al enviar actualización: " + e.getMessage());
-                reconnect();
-            }
-        }, 0, UPDATE_INTERVAL, TimeUnit.SECONDS);
-    }
-
-    private static void sendSystemInfo() {
-        try {
-            SystemInfo systemInfo = new SystemInfo();
-            CentralProcessor processor = systemInfo.getHardware().getProcessor();
-            GlobalMemory memory = systemInfo.getHardware().getMemory();
-            OperatingSystem os = systemInfo.getOperatingSystem();
-
-            String processorModel = processor.getProcessorIdentifier().getName();
-            double processorSpeed = processor.getMaxFreq() / 1_000_000_000.0;
-            int coreCount = processor.getLogicalProcessorCount();
-
-            List<HWDiskStore> diskStores = systemInfo.getHardware().getDiskStores();
-            long diskCapacity = 0;
-            double freeDiskSpace = 0;
-
-            if (!diskStores.isEmpty()) {
-                diskCapacity = diskStores.get(0).getSize() / (1024 * 1024 * 1024);
-                List<OSFileStore> fileStores = os.getFileSystem().getFileStores();
-                for (OSFileStore fileStore : fileStores) {
-                    freeDiskSpace = fileStore.getUsableSpace() / (1024 * 1024 * 1024);
-                    break;
-                }
-            }
-
-            // Obtener el uso de CPU de manera más precisa
-            double cpuLoad = processor.getSystemCpuLoad(1000L); // Espera 1 segundo para obtener una medición precisa
-            double freeCpuPercentage = 100.0 - (cpuLoad * 100.0);
-
-            // Si por alguna razón no podemos obtener la carga (valor -1), asumimos 0% de uso
-            if (cpuLoad < 0) {
-                freeCpuPercentage = 100.0;
-            }
-
-            String operatingSystemVersion = os.getVersionInfo().getVersion();
-            double freeMemory = memory.getAvailable() / (1024 * 1024 * 1024);
-            double freeBandwidthPercentage = calculateFreeBandwidth();
-
-            String systemData = String.format(
-                    "{\"processorModel\":\"%s\"," +
-                            "\"processorSpeed\":%.2f," +
-                            "\"coreCount\":%d," +
-                            "\"diskCapacity\":%d," +
-                            "\"operatingSystemVersion\":\"%s\"," +
-                            "\"freeMemory\":%.2f," +
-                            "\"freeDiskSpace\":%.2f," +
-                            "\"freeBandwidthPercentage\":%.2f," +
-                            "\"freeCpuPercentage\":%.2f}",
-                    processorModel, processorSpeed, coreCount, diskCapacity,
-                    operatingSystemVersion, freeMemory, freeDiskSpace,
-                    freeBandwidthPercentage, freeCpuPercentage
-            );
-
-            out.println(systemData);
-            System.out.println("Información del sistema enviada");
-        } catch (Exception e) {
-            throw new RuntimeException("Error al recopilar o enviar información del sistema", e);
+    private static void appendField(StringBuilder json, String name, String value) {
+        if (json.length() > 1) {
+            json.append(',');
         }
+        json.append('"').append(name).append("\":").append(value);
     }
 
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
 
-    private static double calculateFreeBandwidth() {
-        try {
-            SystemInfo si = new SystemInfo();
-            List<NetworkIF> networkIFs = si.getHardware().getNetworkIFs();
-            double maxBandwidth = 1000.0; // 1 Gbps como valor de referencia
-            double totalUsedBandwidth = 0.0;
-
-            for (NetworkIF net : networkIFs) {
-                net.updateAttributes();
-
-                // Si la interfaz reporta una velocidad válida, usarla como referencia
-                if (net.getSpeed() > 0) {
-                    maxBandwidth = Math.max(maxBandwidth, net.getSpeed() / 1_000_000.0);
-                }
-
-                // Calcular el uso actual basado en las tasas de transferencia
-                double currentBandwidth = (net.getBytesRecv() + net.getBytesSent()) * 8.0 / 1_000_000;
-                totalUsedBandwidth += currentBandwidth;
+    // Cadena JSON entre comillas, escapando comillas, barras y caracteres de control
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
             }
-
-            double usedPercentage = (totalUsedBandwidth / maxBandwidth) * 100;
-            return Math.max(0, Math.min(100, 100 - usedPercentage));
-        } catch (Exception e) {
-            System.err.println("Error al calcular el ancho de banda: " + e.getMessage());
-            return 0.0;
         }
+        return sb.append('"').toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+/**
+ * Tasas por segundo de contadores acumulados de varios dispositivos (bytes, paquetes,
+ * lecturas de disco...), calculadas con la diferencia respecto de la muestra anterior.
+ *
+ * Cada muestra se carga con {@link #begin}, {@link #set} y {@link #end}. Los valores viven en
+ * arreglos primitivos que se reutilizan entre muestras; sólo se recrean si cambia la cantidad
+ * de dispositivos, y en ese caso la muestra no tiene con qué compararse y sus tasas quedan en
+ * cero. Un contador que retrocede (reinicio del dispositivo) también cuenta como cero. No es
+ * seguro entre hilos: lo usa un solo muestreador.
+ */
+class CounterRates {
+    private final int counters;
+    private long[] current = new long[0];
+    private long[] last = new long[0];
+    private double[] rates = new double[0];
+    private int devices;
+    private long lastNanos;
+    private boolean primed;
+
+    CounterRates(int counters) {
+        this.counters = counters;
+    }
+
+    // Empieza una muestra de n dispositivos
+    void begin(int n) {
+        if (n != devices) {
+            if (n * counters > current.length) {
+                current = new long[n * counters];
+                last = new long[n * counters];
+                rates = new double[n * counters];
+            }
+            devices = n;
+            primed = false;
+        }
+    }
+
+    void set(int device, int counter, long value) {
+        current[device * counters + counter] = value;
+    }
+
+    // Cierra la muestra y recalcula las tasas
+    void end(long nowNanos) {
+        double seconds = (nowNanos - lastNanos) / 1e9;
+        for (int i = 0; i < devices * counters; i++) {
+            long delta = current[i] - last[i];
+            rates[i] = primed && seconds > 0 && delta > 0 ? delta / seconds : 0;
+            last[i] = current[i];
+        }
+        lastNanos = nowNanos;
+        primed = true;
+    }
+
+    int devices() {
+        return devices;
+    }
+
+    // Unidades por segundo del contador en la última muestra
+    double rate(int device, int counter) {
+        return rates[device * counters + counter];
+    }
+}
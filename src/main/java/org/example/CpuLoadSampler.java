@@ -0,0 +1,77 @@
+package org.example;
+
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.TickType;
+
+import java.util.Arrays;
+
+/**
+ * Carga de CPU sin esperas: guarda los ticks de la muestra anterior y calcula la carga
+ * con la diferencia respecto a los ticks actuales, así que la ventana medida es el tiempo
+ * entre dos llamadas a {@link #sample()} (el intervalo del planificador).
+ *
+ * No es thread-safe: quien lo usa serializa las llamadas.
+ */
+class CpuLoadSampler {
+    private final CentralProcessor processor;
+    private long[] previousTicks;
+    private long[][] previousCoreTicks;
+    private double freeCpuPercentage = 100.0;
+    private double[] freeCpuPerCore;
+
+    CpuLoadSampler(CentralProcessor processor) {
+        this.processor = processor;
+        this.previousTicks = processor.getSystemCpuLoadTicks();
+        this.previousCoreTicks = processor.getProcessorCpuLoadTicks();
+        this.freeCpuPerCore = new double[previousCoreTicks.length];
+        Arrays.fill(freeCpuPerCore, 100.0);
+    }
+
+    // Toma los ticks actuales y recalcula la carga desde la muestra anterior
+    void sample() {
+        long[] ticks = processor.getSystemCpuLoadTicks();
+        double load = load(previousTicks, ticks);
+        // Sin ticks nuevos (llamadas demasiado seguidas) se conserva la muestra anterior como base
+        if (load < 0) {
+            return;
+        }
+        freeCpuPercentage = 100.0 - load * 100.0;
+        previousTicks = ticks;
+
+        long[][] coreTicks = processor.getProcessorCpuLoadTicks();
+        double[] perCore = new double[coreTicks.length];
+        for (int i = 0; i < coreTicks.length; i++) {
+            double coreLoad = i < previousCoreTicks.length ? load(previousCoreTicks[i], coreTicks[i]) : -1;
+            if (coreLoad >= 0) {
+                perCore[i] = 100.0 - coreLoad * 100.0;
+            } else {
+                perCore[i] = i < freeCpuPerCore.length ? freeCpuPerCore[i] : 100.0;
+            }
+        }
+        // Arreglo nuevo en cada muestra: quien lo recibe puede compartirlo sin copiarlo
+        freeCpuPerCore = perCore;
+        previousCoreTicks = coreTicks;
+    }
+
+    double getFreeCpuPercentage() {
+        return freeCpuPercentage;
+    }
+
+    double[] getFreeCpuPerCore() {
+        return freeCpuPerCore;
+    }
+
+    // Fracción ocupada entre dos lecturas de ticks, o -1 si no transcurrió ningún tick
+    static double load(long[] previous, long[] current) {
+        long total = 0;
+        for (int i = 0; i < current.length; i++) {
+            total += current[i] - previous[i];
+        }
+        if (total <= 0) {
+            return -1;
+        }
+        long idle = current[TickType.IDLE.getIndex()] - previous[TickType.IDLE.getIndex()]
+                + current[TickType.IOWAIT.getIndex()] - previous[TickType.IOWAIT.getIndex()];
+        return Math.max(0, Math.min(1, (double) (total - idle) / total));
+    }
+}
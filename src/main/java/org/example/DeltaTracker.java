@@ -0,0 +1,128 @@
+package org.example;
+
+/**
+ * Recuerda lo último que el cliente envió y decide qué campos vale la pena volver a enviar.
+ * Un campo numérico sólo se reenvía cuando se aleja de su último valor enviado más que su
+ * umbral; cada {@code resyncEvery} envíos se manda el registro completo para corregir
+ * cualquier deriva en el servidor.
+ *
+ * Los campos usan los mismos bits que {@link TelemetryParser}.
+ */
+class DeltaTracker {
+    static final int STATIC_FIELDS = TelemetryParser.PROCESSOR_MODEL | TelemetryParser.CORE_COUNT
+            | TelemetryParser.DISK_CAPACITY | TelemetryParser.OPERATING_SYSTEM_VERSION;
+    static final int DYNAMIC_FIELDS = TelemetryParser.ALL_FIELDS & ~STATIC_FIELDS;
+
+    private final double speedThreshold;
+    private final double memoryThreshold;
+    private final double diskThreshold;
+    private final double bandwidthThreshold;
+    private final double cpuThreshold;
+    private final int resyncEvery;
+
+    private final Computer1 lastSent = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+    private boolean hasBaseline;
+    private int sendsSinceResync;
+
+    DeltaTracker(double speedThreshold, double memoryThreshold, double diskThreshold,
+                 double bandwidthThreshold, double cpuThreshold, int resyncEvery) {
+        this.speedThreshold = speedThreshold;
+        this.memoryThreshold = memoryThreshold;
+        this.diskThreshold = diskThreshold;
+        this.bandwidthThreshold = bandwidthThreshold;
+        this.cpuThreshold = cpuThreshold;
+        this.resyncEvery = resyncEvery;
+    }
+
+    // Umbrales configurables con propiedades del sistema computer.client.threshold.*
+    static DeltaTracker fromSystemProperties() {
+        return new DeltaTracker(
+                doubleProperty("computer.client.threshold.processorSpeed", 0.05),
+                doubleProperty("computer.client.threshold.freeMemory", 0.1),
+                doubleProperty("computer.client.threshold.freeDiskSpace", 0.5),
+                doubleProperty("computer.client.threshold.freeBandwidthPercentage", 2.0),
+                doubleProperty("computer.client.threshold.freeCpuPercentage", 2.0),
+                Integer.getInteger("computer.client.resyncEvery", 6));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    // Olvida lo enviado: la próxima actualización será completa (p. ej. tras reconectar)
+    void reset() {
+        hasBaseline = false;
+        sendsSinceResync = 0;
+    }
+
+    // Campos que hay que enviar para esta muestra; 0 significa que basta con un keepalive
+    int fieldsToSend(Computer1 sample) {
+        if (!hasBaseline || sendsSinceResync >= resyncEvery) {
+            return TelemetryParser.ALL_FIELDS;
+        }
+        int fields = 0;
+        if (!equals(sample.getProcessorModel(), lastSent.getProcessorModel())) {
+            fields |= TelemetryParser.PROCESSOR_MODEL;
+        }
+        if (sample.getCoreCount() != lastSent.getCoreCount()) {
+            fields |= TelemetryParser.CORE_COUNT;
+        }
+        if (sample.getDiskCapacity() != lastSent.getDiskCapacity()) {
+            fields |= TelemetryParser.DISK_CAPACITY;
+        }
+        if (!equals(sample.getOperatingSystemVersion(), lastSent.getOperatingSystemVersion())) {
+            fields |= TelemetryParser.OPERATING_SYSTEM_VERSION;
+        }
+        if (moved(sample.getProcessorSpeed(), lastSent.getProcessorSpeed(), speedThreshold)) {
+            fields |= TelemetryParser.PROCESSOR_SPEED;
+        }
+        if (moved(sample.getFreeMemory(), lastSent.getFreeMemory(), memoryThreshold)) {
+            fields |= TelemetryParser.FREE_MEMORY;
+        }
+        if (moved(sample.getFreeDiskSpace(), lastSent.getFreeDiskSpace(), diskThreshold)) {
+            fields |= TelemetryParser.FREE_DISK_SPACE;
+        }
+        if (moved(sample.getFreeBandwidthPercentage(), lastSent.getFreeBandwidthPercentage(), bandwidthThreshold)) {
+            fields |= TelemetryParser.FREE_BANDWIDTH_PERCENTAGE;
+        }
+        if (moved(sample.getFreeCpuPercentage(), lastSent.getFreeCpuPercentage(), cpuThreshold)) {
+            fields |= TelemetryParser.FREE_CPU_PERCENTAGE;
+        }
+        return fields;
+    }
+
+    // Registra lo que efectivamente se envió
+    void sent(Computer1 sample, int fields) {
+        if (fields == TelemetryParser.ALL_FIELDS) {
+            lastSent.updateFrom(sample);
+            hasBaseline = true;
+            sendsSinceResync = 0;
+            return;
+        }
+        sendsSinceResync++;
+        if ((fields & TelemetryParser.PROCESSOR_MODEL) != 0) lastSent.setProcessorModel(sample.getProcessorModel());
+        if ((fields & TelemetryParser.CORE_COUNT) != 0) lastSent.setCoreCount(sample.getCoreCount());
+        if ((fields & TelemetryParser.DISK_CAPACITY) != 0) lastSent.setDiskCapacity(sample.getDiskCapacity());
+        if ((fields & TelemetryParser.OPERATING_SYSTEM_VERSION) != 0) {
+            lastSent.setOperatingSystemVersion(sample.getOperatingSystemVersion());
+        }
+        if ((fields & TelemetryParser.PROCESSOR_SPEED) != 0) lastSent.setProcessorSpeed(sample.getProcessorSpeed());
+        if ((fields & TelemetryParser.FREE_MEMORY) != 0) lastSent.setFreeMemory(sample.getFreeMemory());
+        if ((fields & TelemetryParser.FREE_DISK_SPACE) != 0) lastSent.setFreeDiskSpace(sample.getFreeDiskSpace());
+        if ((fields & TelemetryParser.FREE_BANDWIDTH_PERCENTAGE) != 0) {
+            lastSent.setFreeBandwidthPercentage(sample.getFreeBandwidthPercentage());
+        }
+        if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+            lastSent.setFreeCpuPercentage(sample.getFreeCpuPercentage());
+        }
+    }
+
+    private static boolean moved(double current, double previous, double threshold) {
+        return Math.abs(current - previous) > threshold;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detalle por dispositivo de un equipo: cada sistema de archivos, disco físico, interfaz de
+ * red y núcleo lógico con sus propias métricas, para ver qué volumen se está llenando, qué
+ * interfaz está saturada o qué núcleo va al máximo aunque los totales del equipo se vean bien.
+ *
+ * La cantidad de dispositivos varía de un equipo a otro; la de valores es fija según el tipo
+ * (ver {@link #VALUE_NAMES}). Como {@code freeCpuPerCore}, no se modifica después de crearse:
+ * cada muestra reemplaza la anterior entera.
+ */
+final class DeviceMetrics {
+    static final byte FILESYSTEM = 0;
+    static final byte DISK = 1;
+    static final byte INTERFACE = 2;
+    static final byte CORE = 3;
+
+    static final String[] KIND_NAMES = {"filesystem", "disk", "interface", "core"};
+    // Nombre de cada tipo para la interfaz, paralelo a KIND_NAMES
+    static final String[] KIND_LABELS = {"Sistema de archivos", "Disco", "Interfaz de red", "Núcleo"};
+    // Valores de cada tipo de dispositivo, en el orden en que viajan
+    static final String[][] VALUE_NAMES = {
+            {"usableGb", "totalGb"},
+            {"readsPerSecond", "writesPerSecond", "readBytesPerSecond", "writeBytesPerSecond"},
+            {"recvBytesPerSecond", "sentBytesPerSecond", "packetsPerSecond", "errorsPerSecond", "speedMbps"},
+            {"freeCpuPercentage"}
+    };
+
+    static final DeviceMetrics EMPTY = new DeviceMetrics(new Device[0]);
+
+    static final class Device {
+        final byte kind;
+        final String name;
+        final double[] values;
+
+        Device(byte kind, String name, double... values) {
+            if (kind < 0 || kind >= KIND_NAMES.length || values.length != VALUE_NAMES[kind].length) {
+                throw new IllegalArgumentException("Dispositivo inválido: tipo " + kind + " con " + values.length + " valores");
+            }
+            this.kind = kind;
+            this.name = name;
+            this.values = values;
+        }
+
+        String kindName() {
+            return KIND_NAMES[kind];
+        }
+    }
+
+    private final Device[] devices;
+
+    DeviceMetrics(Device[] devices) {
+        this.devices = devices;
+    }
+
+    DeviceMetrics(List<Device> devices) {
+        this(devices.toArray(new Device[0]));
+    }
+
+    int size() {
+        return devices.length;
+    }
+
+    Device get(int i) {
+        return devices[i];
+    }
+
+    // El mismo detalle sin los dispositivos del tipo dado (para un servidor que no lo conoce)
+    DeviceMetrics without(byte kind) {
+        List<Device> kept = new ArrayList<>(devices.length);
+        for (Device device : devices) {
+            if (device.kind != kind) {
+                kept.add(device);
+            }
+        }
+        return kept.size() == devices.length ? this : new DeviceMetrics(kept);
+    }
+
+    // Porcentaje libre de cada núcleo, en el orden en que vinieron; null si no trae núcleos
+    double[] freeCpuPerCore() {
+        int cores = 0;
+        for (Device device : devices) {
+            if (device.kind == CORE) {
+                cores++;
+            }
+        }
+        if (cores == 0) {
+            return null;
+        }
+        double[] perCore = new double[cores];
+        int i = 0;
+        for (Device device : devices) {
+            if (device.kind == CORE) {
+                perCore[i++] = device.values[0];
+            }
+        }
+        return perCore;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de la tabla de detalle de un host: una fila por sistema de archivos, disco,
+ * interfaz y núcleo. Muestra un {@link DeviceMetrics} entero; como éste no cambia después de creado,
+ * basta con reemplazarlo cuando llega uno nuevo.
+ */
+class DeviceTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Dispositivo", "Nombre", "Detalle"};
+
+    private DeviceMetrics devices = DeviceMetrics.EMPTY;
+
+    // Devuelve si hubo cambios; debe llamarse en el EDT
+    boolean setDevices(DeviceMetrics devices) {
+        DeviceMetrics next = devices == null ? DeviceMetrics.EMPTY : devices;
+        if (next == this.devices) {
+            return false;
+        }
+        this.devices = next;
+        fireTableDataChanged();
+        return true;
+    }
+
+    @Override
+    public int getRowCount() {
+        return devices.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        DeviceMetrics.Device device = devices.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return DeviceMetrics.KIND_LABELS[device.kind];
+            case 1:
+                return device.name;
+            case 2:
+                return describe(device);
+            default:
+                return null;
+        }
+    }
+
+    static String describe(DeviceMetrics.Device device) {
+        double[] v = device.values;
+        switch (device.kind) {
+            case DeviceMetrics.FILESYSTEM:
+                return String.format("%.2f GB libres de %.2f GB (%.1f%%)", v[0], v[1], v[1] > 0 ? v[0] / v[1] * 100 : 0);
+            case DeviceMetrics.DISK:
+                return String.format("%.1f lecturas/s, %.1f escrituras/s, %.2f MB/s leídos, %.2f MB/s escritos",
+                        v[0], v[1], v[2] / 1_000_000, v[3] / 1_000_000);
+            case DeviceMetrics.CORE:
+                return String.format("%.1f%% libre", v[0]);
+            default:
+                String traffic = String.format("%.2f Mbps recibidos, %.2f Mbps enviados, %.1f paquetes/s, %.1f errores/s",
+                        v[0] * 8 / 1_000_000, v[1] * 8 / 1_000_000, v[2], v[3]);
+                return v[4] > 0 ? traffic + String.format(", capacidad %.0f Mbps", v[4]) : traffic;
+        }
+    }
+}
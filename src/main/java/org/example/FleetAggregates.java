@@ -0,0 +1,289 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agregados de la flota que se mantienen al día con cada ingesta, sin recorrer los hosts:
+ * percentiles de cada métrica (índices de {@link TimeSeriesStore}) sobre toda la flota o
+ * agrupados por tipo, sistema operativo o modelo de procesador.
+ *
+ * Hay dos vistas, ambas con {@link LogHistogram}:
+ * <ul>
+ * <li>Ventana deslizante: cada muestra aceptada cae en una porción de {@code sliceMillis}
+ * según su marca de tiempo; la ventana es la suma de las últimas {@code slices} porciones y
+ * la más vieja se recicla al empezar una nueva ("p95 de CPU libre en los últimos 5 min").</li>
+ * <li>Estado actual: un valor por host conectado; cuando el host cambia se resta su valor
+ * anterior y se suma el nuevo ("cuántos hosts tienen menos de 1 GB libre").</li>
+ * </ul>
+ * El estado actual se alimenta como {@link HostRegistry.Listener}; la ventana, desde la
+ * ingesta con {@link #record}. Cada grupo y cada host tienen su propio cerrojo.
+ */
+class FleetAggregates implements HostRegistry.Listener {
+    static final String UNKNOWN = "desconocido";
+
+    /** Dimensión por la que se agrupan los hosts. */
+    enum GroupBy {
+        FLEET("fleet"),
+        TYPE("type"),
+        OPERATING_SYSTEM("operatingSystemVersion"),
+        PROCESSOR_MODEL("processorModel");
+
+        final String parameter;
+
+        GroupBy(String parameter) {
+            this.parameter = parameter;
+        }
+
+        String key(Computer1 computer) {
+            String key;
+            switch (this) {
+                case TYPE:
+                    key = computer.getType();
+                    break;
+                case OPERATING_SYSTEM:
+                    key = computer.getOperatingSystemVersion();
+                    break;
+                case PROCESSOR_MODEL:
+                    key = computer.getProcessorModel();
+                    break;
+                default:
+                    return "";
+            }
+            return key == null || key.isEmpty() ? UNKNOWN : key;
+        }
+
+        static GroupBy fromParameter(String parameter) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.parameter.equals(parameter)) {
+                    return groupBy;
+                }
+            }
+            throw new IllegalArgumentException("Agrupación desconocida: " + parameter);
+        }
+    }
+
+    private static final GroupBy[] GROUPINGS = GroupBy.values();
+
+    private final long sliceMillis;
+    private final int slices;
+    private final Map<GroupBy, ConcurrentHashMap<String, Group>> groups = new HashMap<>();
+    // Último valor contado de cada host en el estado actual; cada uno se protege a sí mismo
+    private final ConcurrentHashMap<HostEntry, HostState> hosts = new ConcurrentHashMap<>();
+
+    FleetAggregates(long windowMillis, int slices) {
+        if (slices < 1 || windowMillis < slices) {
+            throw new IllegalArgumentException("Ventana inválida: " + windowMillis + " ms en " + slices + " porciones");
+        }
+        this.sliceMillis = windowMillis / slices;
+        this.slices = slices;
+        for (GroupBy groupBy : GROUPINGS) {
+            groups.put(groupBy, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Configurable con computer.aggregates.windowMillis y computer.aggregates.slices
+    static FleetAggregates fromSystemProperties() {
+        return new FleetAggregates(
+                Long.getLong("computer.aggregates.windowMillis", 300_000),
+                Integer.getInteger("computer.aggregates.slices", 10));
+    }
+
+    long getWindowMillis() {
+        return sliceMillis * slices;
+    }
+
+    static double value(Computer1 computer, int metric) {
+        switch (metric) {
+            case TimeSeriesStore.FREE_MEMORY:
+                return computer.getFreeMemory();
+            case TimeSeriesStore.FREE_DISK_SPACE:
+                return computer.getFreeDiskSpace();
+            case TimeSeriesStore.FREE_CPU_PERCENTAGE:
+                return computer.getFreeCpuPercentage();
+            case TimeSeriesStore.FREE_BANDWIDTH_PERCENTAGE:
+                return computer.getFreeBandwidthPercentage();
+            case TimeSeriesStore.PROCESSOR_SPEED:
+                return computer.getProcessorSpeed();
+            default:
+                throw new IllegalArgumentException("Métrica desconocida: " + metric);
+        }
+    }
+
+    static int metric(String name) {
+        for (int i = 0; i < TimeSeriesStore.METRIC_COUNT; i++) {
+            if (TimeSeriesStore.METRIC_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Métrica desconocida: " + name);
+    }
+
+    private Group group(GroupBy groupBy, String key) {
+        ConcurrentHashMap<String, Group> byKey = groups.get(groupBy);
+        Group group = byKey.get(key);
+        if (group == null) {
+            group = byKey.computeIfAbsent(key, k -> new Group());
+        }
+        return group;
+    }
+
+    // ---- Ventana deslizante ----
+
+    // Una muestra aceptada; los grupos salen de host (datos estáticos) y los valores de sample
+    void record(Computer1 host, long timestamp, Computer1 sample) {
+        long slice = Math.floorDiv(timestamp, sliceMillis);
+        for (GroupBy groupBy : GROUPINGS) {
+            group(groupBy, groupBy.key(host)).record(slice, sample);
+        }
+    }
+
+    // Distribución de la métrica en la ventana que termina en now, para un grupo
+    LogHistogram window(int metric, GroupBy groupBy, String key, long now) {
+        LogHistogram result = new LogHistogram();
+        Group group = groups.get(groupBy).get(groupBy == GroupBy.FLEET ? "" : key);
+        if (group != null) {
+            group.mergeWindow(metric, Math.floorDiv(now, sliceMillis), result);
+        }
+        return result;
+    }
+
+    // La ventana de cada grupo de la dimensión, ordenados por clave; se omiten los vacíos
+    Map<String, LogHistogram> windowByGroup(int metric, GroupBy groupBy, long now) {
+        long slice = Math.floorDiv(now, sliceMillis);
+        Map<String, LogHistogram> result = new TreeMap<>();
+        for (Map.Entry<String, Group> group : groups.get(groupBy).entrySet()) {
+            LogHistogram histogram = new LogHistogram();
+            group.getValue().mergeWindow(metric, slice, histogram);
+            if (histogram.count() > 0) {
+                result.put(group.getKey(), histogram);
+            }
+        }
+        return result;
+    }
+
+    // ---- Estado actual ----
+
+    // Los hosts desconectados dejan de contar; al volver a reportar se suman otra vez
+    @Override
+    public void hostChanged(HostEntry entry) {
+        Computer1 live = entry.live();
+        boolean connected = !"Desconectado".equals(live.getConnectionStatus());
+        // El estado de un host no se borra del mapa (el registro tampoco borra entradas): así
+        // nunca hay dos para la misma entrada
+        HostState state = hosts.get(entry);
+        if (state == null) {
+            if (!connected) {
+                return;
+            }
+            state = hosts.computeIfAbsent(entry, e -> new HostState());
+        }
+        synchronized (state) {
+            if (state.counted) {
+                state.count(-1);
+                state.counted = false;
+            }
+            if (!connected) {
+                return;
+            }
+            for (int g = 0; g < GROUPINGS.length; g++) {
+                state.groups[g] = group(GROUPINGS[g], GROUPINGS[g].key(live));
+            }
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                state.values[m] = value(live, m);
+            }
+            state.count(1);
+            state.counted = true;
+        }
+    }
+
+    LogHistogram current(int metric, GroupBy groupBy, String key) {
+        LogHistogram result = new LogHistogram();
+        Group group = groups.get(groupBy).get(groupBy == GroupBy.FLEET ? "" : key);
+        if (group != null) {
+            group.mergeCurrent(metric, result);
+        }
+        return result;
+    }
+
+    Map<String, LogHistogram> currentByGroup(int metric, GroupBy groupBy) {
+        Map<String, LogHistogram> result = new TreeMap<>();
+        for (Map.Entry<String, Group> group : groups.get(groupBy).entrySet()) {
+            LogHistogram histogram = new LogHistogram();
+            group.getValue().mergeCurrent(metric, histogram);
+            if (histogram.count() > 0) {
+                result.put(group.getKey(), histogram);
+            }
+        }
+        return result;
+    }
+
+    private static final class HostState {
+        final Group[] groups = new Group[GROUPINGS.length];
+        final double[] values = new double[TimeSeriesStore.METRIC_COUNT];
+        // Si sus valores están sumados en los grupos (false mientras está desconectado)
+        boolean counted;
+
+        void count(long delta) {
+            for (Group group : groups) {
+                group.adjust(values, delta);
+            }
+        }
+    }
+
+    // Histogramas de un grupo: una fila por porción de la ventana y el estado actual
+    private final class Group {
+        final LogHistogram[][] window = new LogHistogram[slices][TimeSeriesStore.METRIC_COUNT];
+        final long[] sliceOf = new long[slices];
+        final LogHistogram[] current = new LogHistogram[TimeSeriesStore.METRIC_COUNT];
+
+        Group() {
+            for (int s = 0; s < slices; s++) {
+                sliceOf[s] = Long.MIN_VALUE;
+                for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                    window[s][m] = new LogHistogram();
+                }
+            }
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                current[m] = new LogHistogram();
+            }
+        }
+
+        synchronized void record(long slice, Computer1 sample) {
+            int s = (int) Math.floorMod(slice, (long) slices);
+            if (sliceOf[s] != slice) {
+                if (sliceOf[s] > slice) {
+                    return; // más vieja que la ventana que se está guardando
+                }
+                for (LogHistogram histogram : window[s]) {
+                    histogram.clear();
+                }
+                sliceOf[s] = slice;
+            }
+            LogHistogram[] row = window[s];
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                row[m].add(value(sample, m));
+            }
+        }
+
+        synchronized void mergeWindow(int metric, long lastSlice, LogHistogram into) {
+            for (int s = 0; s < slices; s++) {
+                if (sliceOf[s] > lastSlice - slices && sliceOf[s] <= lastSlice) {
+                    into.merge(window[s][metric]);
+                }
+            }
+        }
+
+        synchronized void adjust(double[] values, long delta) {
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                current[m].add(values[m], delta);
+            }
+        }
+
+        synchronized void mergeCurrent(int metric, LogHistogram into) {
+            into.merge(current[metric]);
+        }
+    }
+}
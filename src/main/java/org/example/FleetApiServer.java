@@ -0,0 +1,484 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API HTTP/JSON de consulta del estado de la flota, sobre el servidor HTTP del JDK.
+ *
+ * <pre>
+ * GET /hosts                              todos los hosts
+ * GET /hosts/{id}                         un host, con el detalle por dispositivo
+ * GET /hosts/{id}/history?metric=&amp;from=&amp;to=   muestras del historial y resumen de la ventana
+ * GET /ranking?metric=&amp;k=                 los k mejores hosts por la métrica
+ * GET /aggregates?metric=&amp;groupBy=&amp;scope=&amp;below=   percentiles de la flota por grupo
+ * GET /events                             Server-Sent Events con los hosts que cambian
+ * </pre>
+ *
+ * Las respuestas se escriben desde el registro a un {@link JsonOutput} por hilo, sin pasar
+ * por cadenas intermedias. Los eventos se agrupan: cada {@code sseMillis} se serializan una
+ * sola vez los hosts que cambiaron y los mismos bytes van a todos los suscriptores.
+ */
+class FleetApiServer implements HostRegistry.Listener {
+    private static final long DEFAULT_HISTORY_WINDOW = 3_600_000L; // una hora
+    private static final int MAX_RANKING = 1000;
+
+    private static final Map<String, RankingIndex.Metric> RANKING_METRICS = new HashMap<>();
+
+    static {
+        RANKING_METRICS.put("freeMemory", RankingIndex.FREE_MEMORY);
+        RANKING_METRICS.put("freeCpuPercentage", RankingIndex.FREE_CPU);
+        RANKING_METRICS.put("freeBandwidthPercentage", RankingIndex.FREE_BANDWIDTH);
+        RANKING_METRICS.put("freeDiskSpace", RankingIndex.FREE_DISK);
+    }
+
+    // Buffers de respuesta y de copia de hosts, uno por hilo de atención
+    private static final ThreadLocal<JsonOutput> OUTPUT = ThreadLocal.withInitial(() -> new JsonOutput(64 * 1024));
+    private static final ThreadLocal<Computer1> SNAPSHOT =
+            ThreadLocal.withInitial(() -> new Computer1(null, 0, 0, 0, null, 0, 0, 0, null));
+
+    private final HostRegistry registry;
+    private final TimeSeriesStore history;
+    private final FleetAggregates aggregates;
+    private final int requestedPort;
+    private final int threads;
+    private final long sseMillis;
+    private final Map<String, RankingIndex> rankings = new ConcurrentHashMap<>();
+    private final Set<HostEntry> changed = ConcurrentHashMap.newKeySet();
+    private final CopyOnWriteArrayList<HttpExchange> subscribers = new CopyOnWriteArrayList<>();
+    // Sólo lo usa el hilo que publica los eventos
+    private final JsonOutput events = new JsonOutput(64 * 1024);
+    private final Computer1 eventSnapshot = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService publisher;
+
+    FleetApiServer(HostRegistry registry, TimeSeriesStore history, int port, int threads, long sseMillis) {
+        this(registry, history, null, port, threads, sseMillis);
+    }
+
+    // Sin agregados (null) /aggregates responde 404
+    FleetApiServer(HostRegistry registry, TimeSeriesStore history, FleetAggregates aggregates,
+                   int port, int threads, long sseMillis) {
+        this.registry = registry;
+        this.history = history;
+        this.aggregates = aggregates;
+        this.requestedPort = port;
+        this.threads = threads;
+        this.sseMillis = sseMillis;
+    }
+
+    // Configurable con computer.http.port, computer.http.threads y computer.http.sseMillis
+    static FleetApiServer fromSystemProperties(HostRegistry registry, TimeSeriesStore history,
+                                               FleetAggregates aggregates) {
+        return new FleetApiServer(registry, history, aggregates,
+                Integer.getInteger("computer.http.port", 8080),
+                Integer.getInteger("computer.http.threads", 4),
+                Long.getLong("computer.http.sseMillis", 1000));
+    }
+
+    void start() throws IOException {
+        // Sin TCP_NODELAY la cabecera y el cuerpo van en escrituras separadas y Nagle más el
+        // ACK diferido del cliente suman ~40 ms a cada respuesta
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(requestedPort), 128);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "http-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/hosts", exchange -> handle(exchange, this::hosts));
+        server.createContext("/ranking", exchange -> handle(exchange, this::ranking));
+        server.createContext("/aggregates", exchange -> handle(exchange, this::aggregates));
+        server.createContext("/events", this::subscribe);
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::publishChanges, sseMillis, sseMillis, TimeUnit.MILLISECONDS);
+        registry.addListener(this);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void close() {
+        registry.removeListener(this);
+        publisher.shutdownNow();
+        for (HttpExchange exchange : subscribers) {
+            exchange.close();
+        }
+        subscribers.clear();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Sólo se acumulan cambios mientras haya alguien escuchando
+    @Override
+    public void hostChanged(HostEntry entry) {
+        if (!subscribers.isEmpty()) {
+            changed.add(entry);
+        }
+    }
+
+    // ---- Consultas ----
+
+    private interface Endpoint {
+        // Escribe la respuesta en out y devuelve el código HTTP
+        int write(HttpExchange exchange, Map<String, String> query, JsonOutput out);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try {
+            JsonOutput out = OUTPUT.get().reset();
+            int status;
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = error(out, 405, "Sólo se admite GET");
+            } else {
+                try {
+                    status = endpoint.write(exchange, parseQuery(exchange.getRequestURI().getRawQuery()), out);
+                } catch (IllegalArgumentException e) {
+                    status = error(out.reset(), 400, e.getMessage());
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, out.length());
+            OutputStream body = exchange.getResponseBody();
+            body.write(out.array(), 0, out.length());
+            body.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private int hosts(HttpExchange exchange, Map<String, String> query, JsonOutput out) {
+        String path = exchange.getRequestURI().getRawPath();
+        if (path.equals("/hosts") || path.equals("/hosts/")) {
+            Computer1 snapshot = SNAPSHOT.get();
+            out.beginArray();
+            for (HostEntry entry : registry.entries()) {
+                writeHost(out, entry.snapshot(snapshot));
+            }
+            out.endArray();
+            return 200;
+        }
+        if (!path.startsWith("/hosts/")) {
+            return error(out, 404, "Ruta desconocida: " + path);
+        }
+        String rest = path.substring("/hosts/".length());
+        // El identificador se decodifica después de separar la ruta: puede traer %2F
+        boolean historyRequest = rest.endsWith("/history");
+        String hostId = decode(historyRequest ? rest.substring(0, rest.length() - "/history".length()) : rest);
+        HostEntry entry = registry.get(hostId);
+        if (entry == null) {
+            return error(out, 404, "Host desconocido: " + hostId);
+        }
+        if (historyRequest) {
+            return history(hostId, query, out);
+        }
+        writeHost(out, entry.snapshot(SNAPSHOT.get()), true);
+        return 200;
+    }
+
+    private int history(String hostId, Map<String, String> query, JsonOutput out) {
+        String metricName = query.getOrDefault("metric", "freeMemory");
+        int metric = -1;
+        for (int i = 0; i < TimeSeriesStore.METRIC_COUNT; i++) {
+            if (TimeSeriesStore.METRIC_NAMES[i].equals(metricName)) {
+                metric = i;
+            }
+        }
+        if (metric < 0) {
+            throw new IllegalArgumentException("Métrica desconocida: " + metricName);
+        }
+        long to = longParameter(query, "to", System.currentTimeMillis());
+        long from = longParameter(query, "from", to - DEFAULT_HISTORY_WINDOW);
+
+        out.beginObject()
+                .name("hostId").value(hostId)
+                .name("metric").value(metricName)
+                .name("from").value(from)
+                .name("to").value(to)
+                .name("samples").beginArray();
+        SampleWriter samples = new SampleWriter(out);
+        history.scan(hostId, metric, from, to, samples);
+        out.endArray()
+                .name("count").value(samples.count)
+                .name("min").value(samples.count == 0 ? Double.NaN : samples.min)
+                .name("max").value(samples.count == 0 ? Double.NaN : samples.max)
+                .name("average").value(samples.count == 0 ? Double.NaN : samples.sum / samples.count)
+                .endObject();
+        return 200;
+    }
+
+    // Escribe cada muestra como [marca, valor] y de paso resume la ventana
+    private static final class SampleWriter implements TimeSeriesStore.SampleVisitor {
+        final JsonOutput out;
+        int count;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum;
+
+        SampleWriter(JsonOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void sample(long timestamp, double value) {
+            out.beginArray().value(timestamp).value(value).endArray();
+            if (value < min) min = value;
+            if (value > max) max = value;
+            sum += value;
+            count++;
+        }
+    }
+
+    private int ranking(HttpExchange exchange, Map<String, String> query, JsonOutput out) {
+        String metricName = query.getOrDefault("metric", "freeMemory");
+        RankingIndex.Metric metric = RANKING_METRICS.get(metricName);
+        if (metric == null) {
+            throw new IllegalArgumentException("Métrica desconocida: " + metricName);
+        }
+        int k = (int) Math.min(MAX_RANKING, Math.max(1, longParameter(query, "k", 10)));
+        // Los rankings se crean la primera vez que se piden y después el registro los mantiene
+        RankingIndex ranking = rankings.computeIfAbsent(metricName, name -> registry.addRanking(metric));
+        Computer1 snapshot = SNAPSHOT.get();
+        out.beginObject().name("metric").value(metricName).name("hosts").beginArray();
+        int rank = 0;
+        for (HostEntry entry : ranking.topK(k)) {
+            out.beginObject().name("rank").value(++rank).name("score").value(ranking.scoreOf(entry))
+                    .name("host");
+            writeHost(out, entry.snapshot(snapshot));
+            out.endObject();
+        }
+        out.endArray().endObject();
+        return 200;
+    }
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p95", "p99"};
+
+    // scope=window (por defecto): muestras de la ventana deslizante; scope=current: un valor
+    // por host conectado. below=x agrega cuántos quedan por debajo de x.
+    private int aggregates(HttpExchange exchange, Map<String, String> query, JsonOutput out) {
+        if (aggregates == null) {
+            return error(out, 404, "Agregados no disponibles");
+        }
+        String metricName = query.getOrDefault("metric", "freeCpuPercentage");
+        int metric = FleetAggregates.metric(metricName);
+        FleetAggregates.GroupBy groupBy = FleetAggregates.GroupBy.fromParameter(query.getOrDefault("groupBy", "fleet"));
+        String scope = query.getOrDefault("scope", "window");
+        Map<String, LogHistogram> groups;
+        if ("window".equals(scope)) {
+            groups = aggregates.windowByGroup(metric, groupBy, System.currentTimeMillis());
+        } else if ("current".equals(scope)) {
+            groups = aggregates.currentByGroup(metric, groupBy);
+        } else {
+            throw new IllegalArgumentException("Alcance desconocido: " + scope);
+        }
+        String below = query.get("below");
+        double threshold;
+        try {
+            threshold = below == null ? Double.NaN : Double.parseDouble(below);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parámetro below inválido: " + below);
+        }
+
+        out.beginObject()
+                .name("metric").value(metricName)
+                .name("groupBy").value(groupBy.parameter)
+                .name("scope").value(scope);
+        if ("window".equals(scope)) {
+            out.name("windowMillis").value(aggregates.getWindowMillis());
+        }
+        out.name("groups").beginArray();
+        for (Map.Entry<String, LogHistogram> group : groups.entrySet()) {
+            LogHistogram histogram = group.getValue();
+            out.beginObject()
+                    .name("key").value(group.getKey())
+                    .name("count").value(histogram.count());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                out.name(QUANTILE_NAMES[i]).value(histogram.quantile(QUANTILES[i]));
+            }
+            if (below != null) {
+                out.name("below").value(histogram.countBelow(threshold));
+            }
+            out.endObject();
+        }
+        out.endArray().endObject();
+        return 200;
+    }
+
+    static void writeHost(JsonOutput out, Computer1 computer) {
+        writeHost(out, computer, false);
+    }
+
+    // Con devices, también el detalle por disco, sistema de archivos e interfaz si el host lo informa
+    static void writeHost(JsonOutput out, Computer1 computer, boolean devices) {
+        out.beginObject()
+                .name("hostId").value(computer.getHostId())
+                .name("type").value(computer.getType())
+                .name("connectionStatus").value(computer.getConnectionStatus())
+                .name("processorModel").value(computer.getProcessorModel())
+                .name("processorSpeed").value(computer.getProcessorSpeed())
+                .name("coreCount").value(computer.getCoreCount())
+                .name("diskCapacity").value(computer.getDiskCapacity())
+                .name("operatingSystemVersion").value(computer.getOperatingSystemVersion())
+                .name("freeMemory").value(computer.getFreeMemory())
+                .name("freeDiskSpace").value(computer.getFreeDiskSpace())
+                .name("freeCpuPercentage").value(computer.getFreeCpuPercentage())
+                .name("freeBandwidthPercentage").value(computer.getFreeBandwidthPercentage());
+        if (computer.getRelay() != null) {
+            out.name("relay").value(computer.getRelay());
+        }
+        double[] perCore = computer.getFreeCpuPerCore();
+        if (perCore != null) {
+            out.name("freeCpuPerCore").beginArray();
+            for (double core : perCore) {
+                out.value(core);
+            }
+            out.endArray();
+        }
+        DeviceMetrics detail = computer.getDevices();
+        if (devices && detail != null) {
+            out.name("devices").beginArray();
+            for (int i = 0; i < detail.size(); i++) {
+                DeviceMetrics.Device device = detail.get(i);
+                out.beginObject()
+                        .name("kind").value(device.kindName())
+                        .name("name").value(device.name);
+                String[] names = DeviceMetrics.VALUE_NAMES[device.kind];
+                for (int v = 0; v < names.length; v++) {
+                    out.name(names[v]).value(device.values[v]);
+                }
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static int error(JsonOutput out, int status, String message) {
+        out.beginObject().name("error").value(message).endObject();
+        return status;
+    }
+
+    // ---- Eventos ----
+
+    // La respuesta queda abierta sin ocupar un hilo: el publicador escribe en ella
+    private void subscribe(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        body.write(": conectado\n\n".getBytes(StandardCharsets.UTF_8));
+        body.flush();
+        subscribers.add(exchange);
+    }
+
+    private void publishChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        if (subscribers.isEmpty()) {
+            changed.clear();
+            return;
+        }
+        JsonOutput out = events.reset();
+        Iterator<HostEntry> pending = changed.iterator();
+        while (pending.hasNext()) {
+            HostEntry entry = pending.next();
+            pending.remove();
+            out.raw("event: host\ndata: ");
+            writeHost(out, entry.snapshot(eventSnapshot));
+            out.raw("\n\n");
+        }
+        List<HttpExchange> gone = null;
+        for (HttpExchange exchange : subscribers) {
+            try {
+                OutputStream body = exchange.getResponseBody();
+                body.write(out.array(), 0, out.length());
+                body.flush();
+            } catch (IOException e) {
+                if (gone == null) gone = new ArrayList<>();
+                gone.add(exchange);
+            }
+        }
+        if (gone != null) {
+            subscribers.removeAll(gone);
+            for (HttpExchange exchange : gone) {
+                exchange.close();
+            }
+        }
+    }
+
+    // ---- Parámetros ----
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static long longParameter(Map<String, String> query, String name, long defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parámetro " + name + " inválido: " + value);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
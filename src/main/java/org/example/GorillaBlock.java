@@ -0,0 +1,237 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Bloque sellado (inmutable) del historial de un host, comprimido al estilo Gorilla:
+ * las marcas de tiempo como delta-de-delta con prefijos de longitud variable y cada
+ * métrica como XOR contra el valor anterior, guardando sólo los bits significativos.
+ *
+ * Las columnas van una detrás de otra en el mismo flujo de bits; {@link Cursor} lee la
+ * columna de tiempos y la de una sola métrica a la vez, sin descomprimir el bloque.
+ */
+final class GorillaBlock {
+    private final long[] words;
+    private final int[] columnOffsets; // bit donde empieza cada columna: 0 = tiempos, 1.. = métricas
+    private final int count;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+
+    private GorillaBlock(long[] words, int[] columnOffsets, int count, long firstTimestamp, long lastTimestamp) {
+        this.words = words;
+        this.columnOffsets = columnOffsets;
+        this.count = count;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    // Comprime las primeras count muestras (count >= 1) de los arreglos dados
+    static GorillaBlock encode(long[] timestamps, double[][] columns, int count) {
+        BitWriter out = new BitWriter(Math.max(4, count * (1 + columns.length) / 4));
+        int[] offsets = new int[1 + columns.length];
+
+        offsets[0] = out.bits;
+        out.write(timestamps[0], 64);
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            long dod = delta - previousDelta;
+            previousDelta = delta;
+            if (dod == 0) {
+                out.write(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                out.write(0b10, 2);
+                out.write(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                out.write(0b110, 3);
+                out.write(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                out.write(0b1110, 4);
+                out.write(dod + 2047, 12);
+            } else {
+                out.write(0b1111, 4);
+                out.write(dod, 64);
+            }
+        }
+
+        for (int c = 0; c < columns.length; c++) {
+            offsets[c + 1] = out.bits;
+            double[] column = columns[c];
+            long previous = Double.doubleToRawLongBits(column[0]);
+            out.write(previous, 64);
+            int previousLeading = -1;
+            int previousTrailing = 0;
+            for (int i = 1; i < count; i++) {
+                long bits = Double.doubleToRawLongBits(column[i]);
+                long xor = bits ^ previous;
+                previous = bits;
+                if (xor == 0) {
+                    out.write(0, 1);
+                    continue;
+                }
+                int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    // Cabe en la ventana de bits significativos anterior
+                    out.write(0b10, 2);
+                    out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int meaningful = 64 - leading - trailing;
+                    out.write(0b11, 2);
+                    out.write(leading, 5);
+                    out.write(meaningful - 1, 6);
+                    out.write(xor >>> trailing, meaningful);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+        }
+        return new GorillaBlock(out.trimmed(), offsets, count, timestamps[0], timestamps[count - 1]);
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    // Bytes ocupados en el heap (aprox.: arreglos más cabeceras)
+    long sizeBytes() {
+        return 16 + words.length * 8L + 16 + columnOffsets.length * 4L + 40;
+    }
+
+    Cursor cursor(int metric) {
+        return new Cursor(metric);
+    }
+
+    /** Recorre en orden las muestras de una métrica decodificando bajo demanda. */
+    final class Cursor {
+        private final BitReader timeBits;
+        private final BitReader valueBits;
+        private int index = -1;
+        private long timestamp;
+        private long delta;
+        private long valueBitsRaw;
+        private int leading;
+        private int trailing;
+
+        private Cursor(int metric) {
+            timeBits = new BitReader(words, columnOffsets[0]);
+            valueBits = new BitReader(words, columnOffsets[metric + 1]);
+        }
+
+        boolean next() {
+            if (index + 1 >= count) {
+                return false;
+            }
+            index++;
+            if (index == 0) {
+                timestamp = timeBits.read(64);
+                valueBitsRaw = valueBits.read(64);
+                return true;
+            }
+            timestamp += delta += readDeltaOfDelta();
+            readValue();
+            return true;
+        }
+
+        private long readDeltaOfDelta() {
+            if (timeBits.read(1) == 0) return 0;
+            if (timeBits.read(1) == 0) return timeBits.read(7) - 63;
+            if (timeBits.read(1) == 0) return timeBits.read(9) - 255;
+            if (timeBits.read(1) == 0) return timeBits.read(12) - 2047;
+            return timeBits.read(64);
+        }
+
+        private void readValue() {
+            if (valueBits.read(1) == 0) {
+                return;
+            }
+            if (valueBits.read(1) != 0) {
+                leading = (int) valueBits.read(5);
+                int meaningful = (int) valueBits.read(6) + 1;
+                trailing = 64 - leading - meaningful;
+            }
+            long xor = valueBits.read(64 - leading - trailing) << trailing;
+            valueBitsRaw ^= xor;
+        }
+
+        long timestamp() {
+            return timestamp;
+        }
+
+        double value() {
+            return Double.longBitsToDouble(valueBitsRaw);
+        }
+    }
+
+    // ---- Flujo de bits (más significativo primero) ----
+
+    private static final class BitWriter {
+        long[] words;
+        int bits;
+
+        BitWriter(int initialWords) {
+            words = new long[initialWords];
+        }
+
+        void write(long value, int n) {
+            if (n == 0) {
+                return;
+            }
+            if (n < 64) {
+                value &= (1L << n) - 1;
+            }
+            int word = bits >>> 6;
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            int free = 64 - (bits & 63);
+            if (n <= free) {
+                words[word] |= value << (free - n);
+            } else {
+                int rest = n - free;
+                words[word] |= value >>> rest;
+                words[word + 1] |= value << (64 - rest);
+            }
+            bits += n;
+        }
+
+        long[] trimmed() {
+            return Arrays.copyOf(words, (bits + 63) >>> 6);
+        }
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private int position;
+
+        BitReader(long[] words, int position) {
+            this.words = words;
+            this.position = position;
+        }
+
+        long read(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            int word = position >>> 6;
+            int free = 64 - (position & 63);
+            position += n;
+            long value;
+            if (n <= free) {
+                value = words[word] >>> (free - n);
+            } else {
+                int rest = n - free;
+                value = (words[word] << rest) | (words[word + 1] >>> (64 - rest));
+            }
+            return n == 64 ? value : value & ((1L << n) - 1);
+        }
+    }
+}
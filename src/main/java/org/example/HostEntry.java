@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/**
+ * Un host del registro. Las escrituras se serializan por entrada y usan un contador de
+ * secuencia (seqlock): es impar mientras hay una escritura en curso. Los lectores nunca
+ * bloquean; {@link #snapshot(Computer1)} reintenta si la copia coincidió con una escritura.
+ */
+class HostEntry {
+    private final String hostId;
+    private final Computer1 computer;
+    private volatile long sequence;
+    // Sesión que reportó por última vez este host; sólo ella puede marcarlo desconectado
+    private volatile Object owner;
+
+    HostEntry(String hostId, String type) {
+        this.hostId = hostId;
+        this.computer = new Computer1(null, 0, 0, 0, null, 0, 0, 0, type);
+        this.computer.setHostId(hostId);
+    }
+
+    String getHostId() {
+        return hostId;
+    }
+
+    // Vista en vivo: cada campo es coherente por sí mismo, pero no entre ellos
+    Computer1 live() {
+        return computer;
+    }
+
+    // Número de actualizaciones aplicadas
+    long version() {
+        return sequence >>> 1;
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    void setOwner(Object owner) {
+        this.owner = owner;
+    }
+
+    synchronized void update(Consumer<Computer1> mutator) {
+        sequence++;
+        try {
+            mutator.accept(computer);
+        } finally {
+            sequence++;
+        }
+    }
+
+    // Copia coherente de todos los campos en el objeto dado, sin bloquear
+    Computer1 snapshot(Computer1 into) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            into.copyFrom(computer);
+            if (sequence == before) {
+                return into;
+            }
+        }
+    }
+
+    Computer1 snapshot() {
+        return snapshot(new Computer1(null, 0, 0, 0, null, 0, 0, 0, null));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import oshi.SystemInfo;
+import oshi.hardware.NetworkIF;
+
+import java.net.InetAddress;
+
+/**
+ * Identificador estable de la máquina: el UUID de hardware que expone OSHI o, si no está
+ * disponible, la primera MAC física. Como último recurso, el nombre del equipo.
+ */
+final class HostIdentity {
+
+    private HostIdentity() {
+    }
+
+    static String detect(SystemInfo systemInfo) {
+        try {
+            String uuid = systemInfo.getHardware().getComputerSystem().getHardwareUUID();
+            if (isUsable(uuid)) {
+                return uuid.toLowerCase();
+            }
+        } catch (Exception e) {
+            System.err.println("No se pudo leer el UUID de hardware: " + e.getMessage());
+        }
+
+        try {
+            for (NetworkIF net : systemInfo.getHardware().getNetworkIFs()) {
+                String mac = net.getMacaddr();
+                if (isUsable(mac) && !mac.equals("00:00:00:00:00:00")) {
+                    return "mac:" + mac.toLowerCase();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("No se pudo leer la MAC: " + e.getMessage());
+        }
+
+        try {
+            return "host:" + InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "host:desconocido";
+        }
+    }
+
+    private static boolean isUsable(String value) {
+        return value != null && !value.isEmpty() && !value.equalsIgnoreCase("unknown");
+    }
+}
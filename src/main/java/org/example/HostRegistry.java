@@ -0,0 +1,124 @@
+package org.example;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Registro concurrente de hosts indexado por su identificador estable. Las búsquedas son
+ * O(1) y sin bloqueo; cada actualización sólo bloquea su propia entrada.
+ *
+ * Una entrada recién creada todavía tiene los valores del constructor hasta que se le aplica
+ * su primera actualización: {@link #get} y {@link #entries} no la muestran hasta entonces.
+ */
+class HostRegistry {
+
+    interface Listener {
+        // Se llama en el hilo que hizo la actualización, después de aplicarla
+        void hostChanged(HostEntry entry);
+    }
+
+    private final ConcurrentHashMap<String, HostEntry> hosts = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Collection<HostEntry> published = new AbstractCollection<HostEntry>() {
+        @Override
+        public Iterator<HostEntry> iterator() {
+            Iterator<HostEntry> all = hosts.values().iterator();
+            return new Iterator<HostEntry>() {
+                private HostEntry next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && all.hasNext()) {
+                        HostEntry entry = all.next();
+                        if (entry.version() > 0) {
+                            next = entry;
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public HostEntry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    HostEntry entry = next;
+                    next = null;
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (HostEntry entry : hosts.values()) {
+                if (entry.version() > 0) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    };
+
+    // null si no existe o si todavía no recibió su primera actualización
+    HostEntry get(String hostId) {
+        HostEntry entry = hosts.get(hostId);
+        return entry != null && entry.version() > 0 ? entry : null;
+    }
+
+    HostEntry getOrCreate(String hostId, String type) {
+        HostEntry entry = hosts.get(hostId);
+        if (entry == null) {
+            entry = hosts.computeIfAbsent(hostId, id -> new HostEntry(id, type));
+        }
+        return entry;
+    }
+
+    // Actualización atómica de una entrada, creándola si no existe
+    HostEntry update(String hostId, String type, Consumer<Computer1> mutator) {
+        HostEntry entry = getOrCreate(hostId, type);
+        update(entry, mutator);
+        return entry;
+    }
+
+    void update(HostEntry entry, Consumer<Computer1> mutator) {
+        entry.update(mutator);
+        for (Listener listener : listeners) {
+            listener.hostChanged(entry);
+        }
+    }
+
+    // Vista débilmente consistente de las entradas ya actualizadas: no bloquea a los escritores
+    Collection<HostEntry> entries() {
+        return published;
+    }
+
+    int size() {
+        return hosts.size();
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Crea un ranking por la métrica dada que el registro mantiene al día con cada actualización
+    RankingIndex addRanking(RankingIndex.Metric metric) {
+        RankingIndex ranking = new RankingIndex(metric);
+        // Primero se suscribe y después carga lo existente: ninguna actualización se pierde
+        addListener(ranking);
+        for (HostEntry entry : entries()) {
+            ranking.hostChanged(entry);
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,220 @@
+package org.example;
+
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modelo de la tabla de equipos respaldado por el {@link HostRegistry}, ordenado por memoria
+ * libre (de mayor a menor). Los cambios del registro sólo marcan el host como pendiente; como
+ * mucho una vez por intervalo de refresco se reubican en el EDT las filas afectadas y se
+ * notifican únicamente los rangos que cambiaron.
+ */
+class HostTableModel extends AbstractTableModel implements HostRegistry.Listener {
+    private static final String[] COLUMN_NAMES = {
+            "Ranking",
+            "Tipo",
+            "Modelo del Procesador",
+            "Velocidad (GHz)",
+            "Núcleos",
+            "Capacidad (GB)",
+            "Versión del SO",
+            "Memoria Libre (GB)",
+            "Espacio Libre (GB)",
+            "CPU Libre (%)", // Nueva columna
+            "Ancho de Banda Libre (%)",
+            "Estado de Conexión"
+    };
+
+    // Orden de la tabla: más memoria libre primero; a igualdad, por identificador
+    private static final Comparator<Row> ORDER = (a, b) -> {
+        int byMemory = Double.compare(b.freeMemory, a.freeMemory);
+        return byMemory != 0 ? byMemory : a.entry.getHostId().compareTo(b.entry.getHostId());
+    };
+
+    // Fila en pantalla: copia coherente del host tomada en el último refresco
+    private static final class Row {
+        final HostEntry entry;
+        final Computer1 snapshot = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+        double freeMemory;
+
+        Row(HostEntry entry) {
+            this.entry = entry;
+        }
+
+        void refresh() {
+            entry.snapshot(snapshot);
+            freeMemory = snapshot.getFreeMemory();
+        }
+    }
+
+    private final HostRegistry registry;
+    private final ArrayList<Row> rows = new ArrayList<>();
+    private final Map<HostEntry, Row> rowsByEntry = new HashMap<>();
+    private final Set<HostEntry> dirty = ConcurrentHashMap.newKeySet();
+    private Timer timer;
+
+    HostTableModel(HostRegistry registry) {
+        this.registry = registry;
+        for (HostEntry entry : registry.entries()) {
+            dirty.add(entry);
+        }
+        registry.addListener(this);
+    }
+
+    // Refresca en el EDT como mucho una vez cada frameMillis
+    void start(int frameMillis) {
+        timer = new Timer(frameMillis, e -> flush());
+        timer.start();
+    }
+
+    void stop() {
+        if (timer != null) timer.stop();
+        registry.removeListener(this);
+    }
+
+    @Override
+    public void hostChanged(HostEntry entry) {
+        dirty.add(entry);
+    }
+
+    int pendingCount() {
+        return dirty.size();
+    }
+
+    // Aplica los cambios pendientes. Debe llamarse en el EDT (o en un solo hilo si no hay UI).
+    void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        // Con muchos cambios a la vez sale más barato reordenar todo y redibujar entero
+        if (dirty.size() > Math.max(64, rows.size() / 4)) {
+            rebuild();
+            return;
+        }
+
+        Iterator<HostEntry> pending = dirty.iterator();
+        while (pending.hasNext()) {
+            HostEntry entry = pending.next();
+            pending.remove();
+            Row row = rowsByEntry.get(entry);
+            if (row == null) {
+                row = new Row(entry);
+                row.refresh();
+                rowsByEntry.put(entry, row);
+                int index = insertionPoint(row);
+                rows.add(index, row);
+                fireTableRowsInserted(index, index);
+                continue;
+            }
+
+            int oldIndex = indexOf(row);
+            row.refresh();
+            if (isInPlace(oldIndex, row)) {
+                fireTableRowsUpdated(oldIndex, oldIndex);
+                continue;
+            }
+            rows.remove(oldIndex);
+            int newIndex = insertionPoint(row);
+            rows.add(newIndex, row);
+            // Las filas intermedias cambian de ranking
+            fireTableRowsUpdated(Math.min(oldIndex, newIndex), Math.max(oldIndex, newIndex));
+        }
+    }
+
+    private void rebuild() {
+        Iterator<HostEntry> pending = dirty.iterator();
+        while (pending.hasNext()) {
+            HostEntry entry = pending.next();
+            pending.remove();
+            Row row = rowsByEntry.get(entry);
+            if (row == null) {
+                row = new Row(entry);
+                rowsByEntry.put(entry, row);
+                rows.add(row);
+            }
+            row.refresh();
+        }
+        rows.sort(ORDER);
+        fireTableDataChanged();
+    }
+
+    // La fila sigue ordenada respecto a sus vecinas: no hay que moverla
+    private boolean isInPlace(int index, Row row) {
+        return (index == 0 || ORDER.compare(rows.get(index - 1), row) <= 0)
+                && (index == rows.size() - 1 || ORDER.compare(row, rows.get(index + 1)) <= 0);
+    }
+
+    // Posición actual de la fila, buscándola por su clave antes de refrescarla
+    private int indexOf(Row row) {
+        int index = Collections.binarySearch(rows, row, ORDER);
+        if (index < 0 || rows.get(index) != row) {
+            throw new IllegalStateException("Fila fuera de orden: " + row.entry.getHostId());
+        }
+        return index;
+    }
+
+    private int insertionPoint(Row row) {
+        int index = Collections.binarySearch(rows, row, ORDER);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    HostEntry getEntryAt(int rowIndex) {
+        return rows.get(rowIndex).entry;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Computer1 computer = rows.get(rowIndex).snapshot;
+        switch (columnIndex) {
+            case 0:
+                return rowIndex + 1;
+            case 1:
+                return computer.getType();
+            case 2:
+                return computer.getProcessorModel();
+            case 3:
+                return String.format("%.2f", computer.getProcessorSpeed());
+            case 4:
+                return computer.getCoreCount();
+            case 5:
+                return computer.getDiskCapacity();
+            case 6:
+                return computer.getOperatingSystemVersion();
+            case 7:
+                return String.format("%.2f", computer.getFreeMemory());
+            case 8:
+                return String.format("%.2f", computer.getFreeDiskSpace());
+            case 9:
+                return String.format("%.1f", computer.getFreeCpuPercentage());       // CPU Libre
+            case 10:
+                return String.format("%.1f", computer.getFreeBandwidthPercentage()); // Ancho de Banda Libre
+            case 11:
+                return computer.getConnectionStatus();                                 // Estado de Conexión
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor de ingesta no bloqueante basado en {@link Selector}. Un hilo acepta conexiones
+ * y las reparte entre un número fijo de hilos de eventos; cada conexión sólo ocupa un
+ * buffer directo del pool mientras tiene una línea a medio recibir.
+ *
+ * La salida pendiente de cada conexión está acotada: si el cliente deja de leer y se
+ * acumulan más de {@value #PENDING_OUTPUT_FACTOR} buffers de respuestas, se deja de leerle
+ * hasta que las vacíe (y, si no vuelve, la vigilancia de actividad lo termina cerrando).
+ */
+class IngestionEngine implements Closeable {
+    private static final int ACCEPT_BACKLOG = 4096;
+    // Pausa tras un accept fallido
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+    private static final int MAX_POOLED_BUFFERS = 256;
+    // Salida pendiente máxima por conexión, en múltiplos del tamaño de buffer
+    static final int PENDING_OUTPUT_FACTOR = 4;
+    private static final int FRAMING_UNKNOWN = 0;
+    private static final int FRAMING_LINES = 1;
+    private static final int FRAMING_BINARY = 2;
+
+    private final int port;
+    private final int bufferSize;
+    private final IngestionHandler handler;
+    private final EventLoop[] loops;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    IngestionEngine(int port, int eventLoops, int bufferSize, IngestionHandler handler) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo de eventos");
+        }
+        this.port = port;
+        this.bufferSize = bufferSize;
+        this.handler = handler;
+        this.loops = new EventLoop[eventLoops];
+    }
+
+    void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        running = true;
+
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+            loops[i].thread.start();
+        }
+
+        acceptThread = new Thread(this::acceptLoop, "ingesta-accept");
+        acceptThread.start();
+        System.out.println("Servidor iniciado en el puerto: " + getLocalPort());
+    }
+
+    int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    int getEventLoopCount() {
+        return loops.length;
+    }
+
+    // Tiempo total que los hilos de eventos pasaron atendiendo conexiones, en nanosegundos
+    long getBusyNanos() {
+        long total = 0;
+        for (EventLoop loop : loops) {
+            if (loop != null) {
+                total += loop.busyNanos;
+            }
+        }
+        return total;
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                // Sin descriptores libres (EMFILE) accept falla en cada vuelta: se espera un poco
+                System.err.println("Error al aceptar conexión: " + e.getMessage());
+                if (!pauseAccepting()) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                System.err.println("Error al preparar conexión: " + e.getMessage());
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private static boolean pauseAccepting() {
+        try {
+            Thread.sleep(ACCEPT_RETRY_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ya no hay nada más que liberar
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverChannel != null) serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el servidor: " + e.getMessage());
+        }
+        for (EventLoop loop : loops) {
+            if (loop != null) loop.shutdown();
+        }
+    }
+
+    /**
+     * Estado de una conexión de cliente. Sólo debe tocarse desde su hilo de eventos.
+     */
+    final class Connection {
+        private final SocketChannel channel;
+        private final EventLoop loop;
+        private final String remoteAddress;
+        private SelectionKey key;
+        private ByteBuffer readBuffer;
+        private int scanned;
+        private int framing = FRAMING_UNKNOWN;
+        private ByteBuffer writeBuffer;
+        private Object attachment;
+        private boolean closed;
+        private boolean readingPaused;
+
+        private Connection(SocketChannel channel, EventLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+            String address;
+            try {
+                InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+                address = remote.getAddress().getHostAddress();
+            } catch (IOException e) {
+                address = "desconocido";
+            }
+            this.remoteAddress = address;
+        }
+
+        String getRemoteAddress() {
+            return remoteAddress;
+        }
+
+        Object getAttachment() {
+            return attachment;
+        }
+
+        void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+
+        // Encola bytes de respuesta; se envían al terminar de procesar la lectura actual
+        void send(byte[] data) {
+            ensureWritable(data.length);
+            writeBuffer.put(data);
+        }
+
+        void send(ByteBuffer data) {
+            ensureWritable(data.remaining());
+            writeBuffer.put(data);
+        }
+
+        void close() {
+            loop.close(this);
+        }
+
+        // Cierre pedido desde otro hilo: lo ejecuta el hilo de eventos de la conexión
+        void closeLater() {
+            loop.closeLater(this);
+        }
+
+        // Tarea pedida desde otro hilo (p. ej. un temporizador): corre en el hilo de eventos de
+        // la conexión, como los callbacks, y lo que encole con send sale al terminar
+        void execute(Runnable task) {
+            loop.execute(this, task);
+        }
+
+        private void ensureWritable(int length) {
+            if (writeBuffer == null) {
+                writeBuffer = ByteBuffer.allocate(Math.max(256, length));
+            } else if (writeBuffer.remaining() < length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(writeBuffer.capacity() * 2,
+                        writeBuffer.position() + length));
+                writeBuffer.flip();
+                bigger.put(writeBuffer);
+                writeBuffer = bigger;
+            }
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+        private final Thread thread;
+        private final Selector selector;
+        private final DirectBufferPool pool;
+        private final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Connection> closing = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // Tiempo acumulado atendiendo conexiones (fuera de select); lo escribe sólo este hilo
+        private volatile long busyNanos;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.pool = new DirectBufferPool(bufferSize, MAX_POOLED_BUFFERS);
+            this.thread = new Thread(this, "ingesta-" + index);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        void closeLater(Connection connection) {
+            closing.add(connection);
+            selector.wakeup();
+        }
+
+        void execute(Connection connection, Runnable task) {
+            tasks.add(() -> {
+                if (connection.closed) {
+                    return;
+                }
+                try {
+                    task.run();
+                    flush(connection);
+                } catch (Exception e) {
+                    System.err.println("Error en la comunicación con el cliente: " + e.getMessage());
+                    close(connection);
+                }
+            });
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            selector.wakeup();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    long busyStart = System.nanoTime();
+                    registerPending();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        try {
+                            if (key.isWritable()) {
+                                flush(connection);
+                            }
+                            if (key.isValid() && key.isReadable() && !connection.readingPaused) {
+                                read(connection);
+                            }
+                        } catch (Exception e) {
+                            System.err.println("Error en la comunicación con el cliente: " + e.getMessage());
+                            close(connection);
+                        }
+                    }
+                    busyNanos += System.nanoTime() - busyStart;
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                System.err.println("Error en el hilo de eventos: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    close((Connection) key.attachment());
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    System.err.println("Error al cerrar el selector: " + e.getMessage());
+                }
+            }
+        }
+
+        private void registerPending() {
+            Connection stale;
+            while ((stale = closing.poll()) != null) {
+                close(stale);
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                Connection connection = new Connection(channel, this);
+                try {
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (ClosedChannelException e) {
+                    continue;
+                }
+                openConnections.incrementAndGet();
+                handler.onConnect(connection);
+            }
+        }
+
+        private void read(Connection connection) throws IOException {
+            ByteBuffer buffer = connection.readBuffer;
+            if (buffer == null) {
+                buffer = pool.acquire();
+                connection.readBuffer = buffer;
+                connection.scanned = 0;
+            }
+
+            int read = connection.channel.read(buffer);
+            if (read < 0) {
+                close(connection);
+                return;
+            }
+
+            int end = buffer.position();
+            int start = 0;
+            if (connection.framing == FRAMING_UNKNOWN && end > 0) {
+                // El primer byte decide el modo de la conexión
+                if (buffer.get(0) == BinaryProtocol.MAGIC) {
+                    connection.framing = FRAMING_BINARY;
+                    start = 1;
+                } else {
+                    connection.framing = FRAMING_LINES;
+                }
+            }
+
+            int consumed = connection.framing == FRAMING_BINARY
+                    ? frameBinary(connection, buffer, start, end)
+                    : frameLines(connection, buffer, start, end);
+            if (connection.closed) {
+                return;
+            }
+
+            if (consumed == end) {
+                // No queda ninguna línea a medias: devolver el buffer al pool
+                connection.readBuffer = null;
+                pool.release(buffer);
+            } else {
+                buffer.limit(end).position(consumed);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("Línea demasiado larga (más de " + bufferSize + " bytes)");
+                }
+                connection.scanned = buffer.position();
+            }
+
+            flush(connection);
+        }
+
+        // Enmarca por '\n' directamente sobre el buffer, sin copiar bytes. Devuelve lo consumido.
+        private int frameLines(Connection connection, ByteBuffer buffer, int start, int end) {
+            int lineStart = start;
+            for (int i = Math.max(start, connection.scanned); i < end; i++) {
+                if (buffer.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = (i > lineStart && buffer.get(i - 1) == '\r') ? i - 1 : i;
+                buffer.limit(lineEnd).position(lineStart);
+                handler.onLine(connection, buffer);
+                if (connection.closed) {
+                    return end;
+                }
+                buffer.limit(buffer.capacity());
+                lineStart = i + 1;
+            }
+            return lineStart;
+        }
+
+        // Enmarca por prefijo de longitud (varint). Devuelve lo consumido.
+        private int frameBinary(Connection connection, ByteBuffer buffer, int start, int end) throws IOException {
+            int frameStart = start;
+            while (frameStart < end) {
+                int length = 0;
+                int shift = 0;
+                int p = frameStart;
+                boolean complete = false;
+                while (p < end) {
+                    byte b = buffer.get(p++);
+                    length |= (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0) {
+                        complete = true;
+                        break;
+                    }
+                    shift += 7;
+                    if (shift > 28) {
+                        throw new IOException("Longitud de trama inválida");
+                    }
+                }
+                if (!complete) {
+                    break;
+                }
+                if (length < 1 || length > Math.min(BinaryProtocol.MAX_FRAME, bufferSize - 5)) {
+                    throw new IOException("Trama de tamaño inválido: " + length);
+                }
+                if (p + length > end) {
+                    break;
+                }
+                buffer.limit(p + length).position(p);
+                handler.onFrame(connection, buffer);
+                if (connection.closed) {
+                    return end;
+                }
+                buffer.limit(buffer.capacity());
+                frameStart = p + length;
+            }
+            return frameStart;
+        }
+
+        private void flush(Connection connection) throws IOException {
+            ByteBuffer out = connection.writeBuffer;
+            if (out == null || out.position() == 0 || connection.closed) {
+                return;
+            }
+            out.flip();
+            connection.channel.write(out);
+            out.compact();
+            // Cliente que no lee sus respuestas: no se le lee más hasta que las vacíe
+            boolean paused = out.position() > bufferSize * PENDING_OUTPUT_FACTOR;
+            if (paused != connection.readingPaused) {
+                connection.readingPaused = paused;
+                if (paused) {
+                    System.err.println("El cliente " + connection.remoteAddress
+                            + " no lee las respuestas: se deja de leerle");
+                }
+            }
+            int ops = (paused ? 0 : SelectionKey.OP_READ) | (out.position() > 0 ? SelectionKey.OP_WRITE : 0);
+            if (connection.key.interestOps() != ops) {
+                connection.key.interestOps(ops);
+            }
+        }
+
+        private void close(Connection connection) {
+            if (connection == null || connection.closed) {
+                return;
+            }
+            connection.closed = true;
+            if (connection.readBuffer != null) {
+                pool.release(connection.readBuffer);
+                connection.readBuffer = null;
+            }
+            try {
+                connection.channel.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el socket del cliente: " + e.getMessage());
+            }
+            openConnections.decrementAndGet();
+            handler.onDisconnect(connection);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Callbacks del motor de ingesta. Se invocan siempre desde el hilo de eventos
+ * dueño de la conexión, así que no deben bloquear. Cada conexión recibe líneas o,
+ * si empieza con {@link BinaryProtocol#MAGIC}, tramas binarias.
+ */
+interface IngestionHandler {
+
+    void onConnect(IngestionEngine.Connection connection);
+
+    // La línea llega como una ventana [position, limit) del buffer de lectura, sin el '\n'.
+    // El buffer se reutiliza después de la llamada: no guardar referencias a él.
+    void onLine(IngestionEngine.Connection connection, ByteBuffer line);
+
+    // Trama del protocolo binario: ventana con el byte de tipo seguido del contenido
+    default void onFrame(IngestionEngine.Connection connection, ByteBuffer frame) {
+        connection.close();
+    }
+
+    void onDisconnect(IngestionEngine.Connection connection);
+}
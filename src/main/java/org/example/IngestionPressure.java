@@ -0,0 +1,106 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Contrapresión de la ingesta: según la fracción del tiempo que los hilos de eventos pasan
+ * ocupados, decide qué intervalo mínimo de envío pedirles a los clientes en cada confirmación.
+ *
+ * Por encima de {@code highWatermark} el intervalo pedido se duplica (empezando en
+ * {@code baseMillis}, hasta {@code maxMillis}); por debajo de {@code lowWatermark} se reduce a
+ * la mitad y, bajo {@code baseMillis}, se retira. Entre ambos umbrales no cambia, para no
+ * oscilar. El servidor limita {@code maxMillis} a la mitad del plazo de sospecha del
+ * {@link LivenessMonitor}: un cliente que obedece nunca calla tanto como para parecer caído.
+ *
+ * Las confirmaciones se arman una vez por cambio y se comparten entre conexiones: sin
+ * contrapresión la de texto es la de siempre, "Datos actualizados correctamente".
+ */
+class IngestionPressure {
+    static final String ACK_TEXT = "Datos actualizados correctamente";
+    private static final String HINT_PREFIX = "; intervaloMinimo=";
+
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final long baseMillis;
+    private final long maxMillis;
+    private volatile long hintMillis;
+    private volatile byte[] textAck;
+    private volatile byte[] binaryAck;
+
+    IngestionPressure(double highWatermark, double lowWatermark, long baseMillis, long maxMillis) {
+        if (lowWatermark > highWatermark) {
+            throw new IllegalArgumentException("Umbral bajo mayor que el alto: " + lowWatermark + " > " + highWatermark);
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.baseMillis = Math.min(baseMillis, maxMillis);
+        this.maxMillis = maxMillis;
+        setHint(0);
+    }
+
+    // Configurable con computer.server.pressure.high, computer.server.pressure.low,
+    // computer.server.pressure.baseMillis y computer.server.pressure.maxMillis; el máximo
+    // nunca supera ceilingMillis
+    static IngestionPressure fromSystemProperties(long ceilingMillis) {
+        return new IngestionPressure(
+                Double.parseDouble(System.getProperty("computer.server.pressure.high", "0.8")),
+                Double.parseDouble(System.getProperty("computer.server.pressure.low", "0.5")),
+                Long.getLong("computer.server.pressure.baseMillis", 2000),
+                Math.min(ceilingMillis, Long.getLong("computer.server.pressure.maxMillis", 60_000)));
+    }
+
+    long getMaxMillis() {
+        return maxMillis;
+    }
+
+    // Aplica la ocupación medida (0..1) del último periodo y devuelve el intervalo a pedir
+    synchronized long update(double busyFraction) {
+        long hint = hintMillis;
+        if (busyFraction > highWatermark) {
+            hint = hint == 0 ? baseMillis : Math.min(maxMillis, hint * 2);
+        } else if (busyFraction < lowWatermark && hint > 0) {
+            hint = hint / 2 < baseMillis ? 0 : hint / 2;
+        }
+        if (hint != hintMillis) {
+            setHint(hint);
+        }
+        return hint;
+    }
+
+    long getHintMillis() {
+        return hintMillis;
+    }
+
+    byte[] textAck() {
+        return textAck;
+    }
+
+    byte[] binaryAck() {
+        return binaryAck;
+    }
+
+    private void setHint(long hint) {
+        String text = hint == 0 ? ACK_TEXT : ACK_TEXT + HINT_PREFIX + hint;
+        textAck = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(16);
+        BinaryProtocol.writeAck(frame, hint);
+        byte[] binary = new byte[frame.position()];
+        System.arraycopy(frame.array(), 0, binary, 0, binary.length);
+        binaryAck = binary;
+        hintMillis = hint;
+    }
+
+    // Intervalo mínimo que trae una confirmación de texto; 0 si no trae (o es de un servidor antiguo)
+    static long parseTextHint(String ack) {
+        int at = ack.indexOf(HINT_PREFIX);
+        if (at < 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(ack.substring(at + HINT_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
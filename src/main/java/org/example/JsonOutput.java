@@ -0,0 +1,197 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Escritor de JSON sobre un arreglo de bytes (UTF-8) que se reutiliza entre respuestas:
+ * después del primer uso no reserva memoria salvo para crecer. Las comas entre elementos
+ * se ponen solas.
+ */
+final class JsonOutput {
+    private byte[] bytes;
+    private int length;
+    private boolean needsComma;
+
+    JsonOutput(int initialCapacity) {
+        bytes = new byte[initialCapacity];
+    }
+
+    JsonOutput reset() {
+        length = 0;
+        needsComma = false;
+        return this;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    JsonOutput beginObject() {
+        separate();
+        put((byte) '{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput endObject() {
+        put((byte) '}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput beginArray() {
+        separate();
+        put((byte) '[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput endArray() {
+        put((byte) ']');
+        needsComma = true;
+        return this;
+    }
+
+    // Nombre de un campo; el valor va con la llamada siguiente
+    JsonOutput name(String name) {
+        separate();
+        string(name);
+        put((byte) ':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonOutput value(String value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonOutput value(long value) {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+        } else {
+            if (value < 0) {
+                put((byte) '-');
+                value = -value;
+            }
+            digits(value, 1);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    // Con dos decimales, como los envía el cliente; NaN e infinitos como null
+    JsonOutput value(double value) {
+        separate();
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e16) {
+            ascii(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        } else {
+            long hundredths = Math.round(value * 100);
+            if (hundredths < 0) {
+                put((byte) '-');
+                hundredths = -hundredths;
+            }
+            digits(hundredths / 100, 1);
+            put((byte) '.');
+            digits(hundredths % 100, 2);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    // Texto ASCII tal cual, fuera de la estructura JSON (p. ej. el marco de un evento SSE)
+    JsonOutput raw(String ascii) {
+        ascii(ascii);
+        needsComma = false;
+        return this;
+    }
+
+    private void separate() {
+        if (needsComma) {
+            put((byte) ',');
+        }
+    }
+
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    // Entero no negativo con al menos minDigits cifras
+    private void digits(long value, int minDigits) {
+        int count = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            count++;
+        }
+        count = Math.max(count, minDigits);
+        ensure(count);
+        for (int i = length + count - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += count;
+    }
+
+    // Cadena entre comillas en UTF-8, escapando comillas, barras y caracteres de control
+    private void string(String value) {
+        ensure(value.length() * 3 + 2);
+        bytes[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                ensure(2 + (value.length() - i) * 3);
+                bytes[length++] = '\\';
+                bytes[length++] = (byte) c;
+            } else if (c < 0x20) {
+                ensure(6 + (value.length() - i) * 3);
+                bytes[length++] = '\\';
+                bytes[length++] = 'u';
+                bytes[length++] = '0';
+                bytes[length++] = '0';
+                bytes[length++] = (byte) Character.forDigit(c >> 4, 16);
+                bytes[length++] = (byte) Character.forDigit(c & 0xF, 16);
+            } else if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                bytes[length++] = (byte) (0xF0 | cp >> 18);
+                bytes[length++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                bytes[length++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | cp & 0x3F);
+            } else {
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        bytes[length++] = '"';
+    }
+
+    private void put(byte b) {
+        ensure(1);
+        bytes[length++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
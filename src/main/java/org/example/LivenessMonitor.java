@@ -0,0 +1,273 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Plazos de latido de los hosts sobre una rueda de temporizadores con hash (hashed timer
+ * wheel). Cada host seguido tiene un {@link Deadline} enlazado en la ranura del tic en que
+ * vence; avanzar la rueda sólo recorre la ranura del tic actual.
+ *
+ * Un latido ({@link #heartbeat}) sólo escribe la hora en el plazo, sin bloqueo ni mover
+ * nodos: al vencer, si hubo latidos se vuelve a enlazar en su nuevo vencimiento. Así
+ * refrescar y vencer cuestan O(1) y cada plazo se reprograma a lo sumo una vez por periodo
+ * de sospecha, lleguen los latidos que lleguen.
+ *
+ * Tras {@code suspectMillis} sin latidos el host pasa a "Sospechoso" y tras {@code deadMillis}
+ * a "Desconectado"; ambos cambios se escriben en el registro (los ven la tabla, la API y los
+ * rankings) y se avisan a los {@link Listener}. La vuelta a "Conectado" la escribe quien
+ * recibe el latido, como hasta ahora.
+ */
+class LivenessMonitor {
+    static final int ALIVE = 0;
+    static final int SUSPECT = 1;
+    static final int DEAD = 2;
+    static final int REMOVED = 3;
+    static final String SUSPECT_STATUS = "Sospechoso";
+    static final String DEAD_STATUS = "Desconectado";
+
+    interface Listener {
+        // Se llama en el hilo que avanza la rueda (o en el del latido al volver a ALIVE)
+        void stateChanged(Deadline deadline, int state);
+    }
+
+    /** Plazo de un host para una sesión dada. */
+    static final class Deadline {
+        final HostEntry entry;
+        final Object owner;
+        volatile long lastHeard;
+        volatile int state = ALIVE;
+        // Lo siguiente está protegido por el monitor
+        Deadline prev;
+        Deadline next;
+        long dueTick;
+
+        Deadline(HostEntry entry, Object owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        HostEntry getEntry() {
+            return entry;
+        }
+
+        Object getOwner() {
+            return owner;
+        }
+
+        int getState() {
+            return state;
+        }
+
+        boolean isLinked() {
+            return prev != null;
+        }
+    }
+
+    private final HostRegistry registry;
+    private final long tickMillis;
+    private final long suspectMillis;
+    private final long deadMillis;
+    private final long startMillis;
+    private final Deadline[] wheel;
+    private final int mask;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Transiciones detectadas en el último avance; se publican fuera del bloqueo
+    private final List<Deadline> transitions = new ArrayList<>();
+    private long processedTick = -1;
+    private int tracked;
+
+    LivenessMonitor(HostRegistry registry, long tickMillis, int wheelSize, long suspectMillis, long deadMillis,
+                    long nowMillis) {
+        if (tickMillis <= 0 || suspectMillis <= 0 || deadMillis < suspectMillis) {
+            throw new IllegalArgumentException("Plazos inválidos: tic " + tickMillis + " ms, sospecha "
+                    + suspectMillis + " ms, baja " + deadMillis + " ms");
+        }
+        this.registry = registry;
+        this.tickMillis = tickMillis;
+        this.suspectMillis = suspectMillis;
+        this.deadMillis = deadMillis;
+        this.startMillis = nowMillis;
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.wheel = new Deadline[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            Deadline head = new Deadline(null, null);
+            head.prev = head;
+            head.next = head;
+            wheel[i] = head;
+        }
+    }
+
+    // Configurable con computer.liveness.tickMillis, computer.liveness.wheelSize,
+    // computer.liveness.suspectMillis y computer.liveness.deadMillis
+    static LivenessMonitor fromSystemProperties(HostRegistry registry) {
+        return new LivenessMonitor(registry,
+                Long.getLong("computer.liveness.tickMillis", 100),
+                Integer.getInteger("computer.liveness.wheelSize", 1024),
+                Long.getLong("computer.liveness.suspectMillis", 30_000),
+                Long.getLong("computer.liveness.deadMillis", 90_000),
+                System.currentTimeMillis());
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+
+    long getSuspectMillis() {
+        return suspectMillis;
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // Empieza a seguir al host de la sesión dada, con un latido en este instante
+    Deadline track(HostEntry entry, Object owner, long nowMillis) {
+        Deadline deadline = new Deadline(entry, owner);
+        deadline.lastHeard = nowMillis;
+        synchronized (this) {
+            schedule(deadline, nowMillis + suspectMillis);
+            tracked++;
+        }
+        return deadline;
+    }
+
+    // Camino caliente: sin bloqueo mientras el host esté vivo
+    void heartbeat(Deadline deadline, long nowMillis) {
+        deadline.lastHeard = nowMillis;
+        if (deadline.state != ALIVE) {
+            revive(deadline, nowMillis);
+        }
+    }
+
+    // Deja de seguir el plazo (la sesión se cerró)
+    synchronized void untrack(Deadline deadline) {
+        if (deadline.state == REMOVED) {
+            return;
+        }
+        if (deadline.isLinked()) {
+            unlink(deadline);
+        }
+        deadline.state = REMOVED;
+        tracked--;
+    }
+
+    synchronized int trackedCount() {
+        return tracked;
+    }
+
+    private void revive(Deadline deadline, long nowMillis) {
+        synchronized (this) {
+            int state = deadline.state;
+            if (state == ALIVE || state == REMOVED) {
+                return;
+            }
+            deadline.state = ALIVE;
+            if (deadline.isLinked()) {
+                unlink(deadline); // seguía esperando la baja
+            }
+            schedule(deadline, nowMillis + suspectMillis);
+        }
+        for (Listener listener : listeners) {
+            listener.stateChanged(deadline, ALIVE);
+        }
+    }
+
+    /**
+     * Avanza la rueda hasta el instante dado y publica las transiciones. Lo llama un único
+     * hilo cada {@link #getTickMillis()}; si se atrasó más de una vuelta, recorre cada ranura
+     * una sola vez.
+     */
+    void advance(long nowMillis) {
+        synchronized (this) {
+            long target = (nowMillis - startMillis) / tickMillis;
+            if (target <= processedTick) {
+                return;
+            }
+            long from = Math.max(processedTick + 1, target - mask);
+            processedTick = target;
+            for (long tick = from; tick <= target; tick++) {
+                expire(wheel[(int) (tick & mask)], target, nowMillis);
+            }
+        }
+        publish();
+    }
+
+    private void expire(Deadline head, long target, long nowMillis) {
+        Deadline node = head.next;
+        while (node != head) {
+            Deadline next = node.next;
+            if (node.dueTick <= target) {
+                unlink(node);
+                long silent = nowMillis - node.lastHeard;
+                if (silent < suspectMillis) {
+                    // Hubo latidos desde que se programó: sólo se corre el plazo
+                    schedule(node, node.lastHeard + suspectMillis);
+                } else if (node.state == ALIVE) {
+                    node.state = SUSPECT;
+                    // Un latido concurrente que no vio SUSPECT ya dejó su hora: se respeta
+                    if (nowMillis - node.lastHeard < suspectMillis) {
+                        node.state = ALIVE;
+                        schedule(node, node.lastHeard + suspectMillis);
+                    } else {
+                        schedule(node, node.lastHeard + deadMillis);
+                        transitions.add(node);
+                    }
+                } else if (silent >= deadMillis) {
+                    node.state = DEAD;
+                    transitions.add(node);
+                } else {
+                    schedule(node, node.lastHeard + deadMillis);
+                }
+            }
+            node = next;
+        }
+    }
+
+    private void publish() {
+        List<Deadline> pending;
+        synchronized (this) {
+            if (transitions.isEmpty()) {
+                return;
+            }
+            pending = new ArrayList<>(transitions);
+            transitions.clear();
+        }
+        for (Deadline deadline : pending) {
+            int state = deadline.state;
+            if (state != SUSPECT && state != DEAD) {
+                continue; // volvió a latir antes de publicarse
+            }
+            String status = state == SUSPECT ? SUSPECT_STATUS : DEAD_STATUS;
+            // Bajo el bloqueo de la entrada: no pisa un "Conectado" de un latido posterior
+            // ni el estado que escribió otra sesión del mismo host
+            registry.update(deadline.entry, computer -> {
+                if (deadline.state == state && deadline.entry.getOwner() == deadline.owner) {
+                    computer.setConnectionStatus(status);
+                }
+            });
+            for (Listener listener : listeners) {
+                listener.stateChanged(deadline, state);
+            }
+        }
+    }
+
+    private void schedule(Deadline deadline, long dueMillis) {
+        long due = (dueMillis - startMillis + tickMillis - 1) / tickMillis;
+        deadline.dueTick = Math.max(due, processedTick + 1);
+        Deadline head = wheel[(int) (deadline.dueTick & mask)];
+        deadline.next = head.next;
+        deadline.prev = head;
+        head.next.prev = deadline;
+        head.next = deadline;
+    }
+
+    private static void unlink(Deadline deadline) {
+        deadline.prev.next = deadline.next;
+        deadline.next.prev = deadline.prev;
+        deadline.prev = null;
+        deadline.next = null;
+    }
+}
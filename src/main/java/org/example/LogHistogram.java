@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de valores no negativos con error relativo acotado, al estilo de HDR Histogram.
+ *
+ * Los valores se cuantizan en centésimas, como en el protocolo binario. Por debajo de 1,28
+ * cada centésima tiene su propio casillero; por encima, cada potencia de dos se divide en 64
+ * casilleros iguales, así que un percentil se aleja menos del 1 % del valor real. Los niveles
+ * se crean con el primer valor que cae en ellos: un porcentaje nunca pasa del nivel 7.
+ *
+ * Dos histogramas se combinan sumando casilleros, sin perder precisión: así se juntan las
+ * porciones de una ventana deslizante o los grupos de la flota. No es seguro entre hilos.
+ */
+class LogHistogram {
+    private static final int SUB_BUCKETS = 128;
+    private static final int HALF = SUB_BUCKETS / 2;
+    // Nivel 0 (valores directos) más un nivel por cada bit por encima de los 7 primeros
+    private static final int LEVELS = 58;
+
+    private final long[][] levels = new long[LEVELS][];
+    private long count;
+
+    // Resta con count negativo (un host que cambió de valor)
+    void add(double value, long count) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        long units = value <= 0 ? 0 : Math.round(Math.min(value, 1e15) * 100.0);
+        int level = level(units);
+        long[] buckets = levels[level];
+        if (buckets == null) {
+            buckets = new long[level == 0 ? SUB_BUCKETS : HALF];
+            levels[level] = buckets;
+        }
+        buckets[level == 0 ? (int) units : (int) (units >>> level) - HALF] += count;
+        this.count += count;
+    }
+
+    void add(double value) {
+        add(value, 1);
+    }
+
+    long count() {
+        return count;
+    }
+
+    // Valor por debajo del cual queda la fracción q de las muestras; NaN si está vacío
+    double quantile(double q) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * count));
+        long seen = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            long[] buckets = levels[level];
+            if (buckets == null) {
+                continue;
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return midpoint(level, i) / 100.0;
+                }
+            }
+        }
+        return midpoint(LEVELS - 1, HALF - 1) / 100.0;
+    }
+
+    // Muestras menores que value; el casillero del umbral cuenta según su punto medio
+    long countBelow(double value) {
+        double threshold = value * 100.0;
+        long below = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            long[] buckets = levels[level];
+            if (buckets == null) {
+                continue;
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                if (midpoint(level, i) >= threshold) {
+                    return below;
+                }
+                below += buckets[i];
+            }
+        }
+        return below;
+    }
+
+    void merge(LogHistogram other) {
+        for (int level = 0; level < LEVELS; level++) {
+            long[] source = other.levels[level];
+            if (source == null) {
+                continue;
+            }
+            long[] target = levels[level];
+            if (target == null) {
+                target = new long[source.length];
+                levels[level] = target;
+            }
+            for (int i = 0; i < source.length; i++) {
+                target[i] += source[i];
+            }
+        }
+        count += other.count;
+    }
+
+    // Vacía los casilleros sin soltar los niveles ya creados
+    void clear() {
+        for (long[] buckets : levels) {
+            if (buckets != null) {
+                Arrays.fill(buckets, 0);
+            }
+        }
+        count = 0;
+    }
+
+    private static int level(long units) {
+        return units < SUB_BUCKETS ? 0 : 57 - Long.numberOfLeadingZeros(units);
+    }
+
+    // Centro del casillero, en centésimas
+    private static double midpoint(int level, int index) {
+        if (level == 0) {
+            return index;
+        }
+        long lower = (long) (index + HALF) << level;
+        return lower + ((1L << level) - 1) / 2.0;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import oshi.hardware.NetworkIF;
+
+import java.util.List;
+
+/**
+ * Tasas de las interfaces de red del equipo local, calculadas una vez por tick.
+ *
+ * Cada muestra copia los contadores de OSHI (bytes recibidos y enviados, paquetes y errores)
+ * a un {@link CounterRates}: de ahí salen las tasas por interfaz y el porcentaje libre del
+ * equipo. Si cambia la cantidad de interfaces, ese tick las tasas quedan en cero. No es
+ * seguro entre hilos: lo usa un solo muestreador.
+ */
+class NetworkRates {
+    // Referencia si ninguna interfaz informa su velocidad, o si informa menos
+    static final double DEFAULT_CAPACITY_MBPS = 1000.0;
+
+    private static final int RECV = 0;
+    private static final int SENT = 1;
+    private static final int PACKETS = 2;
+    private static final int ERRORS = 3;
+
+    private final CounterRates rates = new CounterRates(4);
+    private String[] names = new String[0];
+    private long[] speed = new long[0];
+
+    // Lee los contadores de las interfaces (ya refrescadas) y recalcula las tasas
+    void sample(List<NetworkIF> interfaces, long nowNanos) {
+        int n = interfaces.size();
+        begin(n);
+        for (int i = 0; i < n; i++) {
+            NetworkIF net = interfaces.get(i);
+            rates.set(i, RECV, net.getBytesRecv());
+            rates.set(i, SENT, net.getBytesSent());
+            rates.set(i, PACKETS, net.getPacketsRecv() + net.getPacketsSent());
+            rates.set(i, ERRORS, net.getInErrors() + net.getOutErrors());
+            names[i] = net.getName();
+            speed[i] = net.getSpeed();
+        }
+        rates.end(nowNanos);
+    }
+
+    // Con contadores propios (pruebas y benchmarks): bits por segundo en speeds
+    void sample(long[] recv, long[] sent, long[] speeds, int n, long nowNanos) {
+        begin(n);
+        for (int i = 0; i < n; i++) {
+            rates.set(i, RECV, recv[i]);
+            rates.set(i, SENT, sent[i]);
+            speed[i] = speeds[i];
+        }
+        rates.end(nowNanos);
+    }
+
+    private void begin(int n) {
+        rates.begin(n);
+        if (n > speed.length) {
+            names = new String[n];
+            speed = new long[n];
+        }
+    }
+
+    int interfaceCount() {
+        return rates.devices();
+    }
+
+    String name(int i) {
+        return names[i];
+    }
+
+    double recvBytesPerSecond(int i) {
+        return rates.rate(i, RECV);
+    }
+
+    double sentBytesPerSecond(int i) {
+        return rates.rate(i, SENT);
+    }
+
+    double packetsPerSecond(int i) {
+        return rates.rate(i, PACKETS);
+    }
+
+    double errorsPerSecond(int i) {
+        return rates.rate(i, ERRORS);
+    }
+
+    double usedMbps(int i) {
+        return (recvBytesPerSecond(i) + sentBytesPerSecond(i)) * 8.0 / 1_000_000;
+    }
+
+    // Velocidad informada por la interfaz; 0 si no la conoce
+    double capacityMbps(int i) {
+        return speed[i] / 1_000_000.0;
+    }
+
+    double totalUsedMbps() {
+        double total = 0;
+        for (int i = 0; i < interfaceCount(); i++) {
+            total += usedMbps(i);
+        }
+        return total;
+    }
+
+    // Capacidad de referencia: la interfaz más rápida, con un mínimo de DEFAULT_CAPACITY_MBPS
+    double capacityMbps() {
+        double max = DEFAULT_CAPACITY_MBPS;
+        for (int i = 0; i < interfaceCount(); i++) {
+            max = Math.max(max, capacityMbps(i));
+        }
+        return max;
+    }
+
+    // Porcentaje libre del equipo, redondeado a dos decimales
+    double freeBandwidthPercentage() {
+        double usedPercentage = totalUsedMbps() / capacityMbps() * 100;
+        double free = Math.max(0, Math.min(100, 100 - usedPercentage));
+        return Math.round(free * 100.0) / 100.0;
+    }
+}
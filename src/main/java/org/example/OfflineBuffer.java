@@ -0,0 +1,221 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Muestras que el cliente tomó sin conexión, para enviarlas juntas al reconectar.
+ *
+ * Se guardan en un anillo de arreglos primitivos de capacidad fija. Si se llena y hay un
+ * archivo de desborde, la mitad más vieja se escribe al disco (hasta {@code maxSpillBytes});
+ * si no, se descarta la muestra más vieja. El recorrido entrega primero lo del disco y
+ * después lo de memoria, siempre de la más vieja a la más nueva.
+ *
+ * Lo enviado puede quedar marcado hasta que el servidor lo confirme ({@link #markSent}):
+ * la confirmación quita sólo lo marcado y lo que se agregó después sigue guardado.
+ */
+class OfflineBuffer {
+    // Marca de tiempo y las cinco métricas dinámicas
+    private static final int RECORD_BYTES = 8 + 5 * 8;
+
+    interface Sink {
+        void accept(long timestamp, Computer1 sample) throws IOException;
+    }
+
+    private final int capacity;
+    private final File spillFile;
+    private final long maxSpillBytes;
+    private final long[] timestamps;
+    private final double[] processorSpeed;
+    private final double[] freeMemory;
+    private final double[] freeDiskSpace;
+    private final double[] freeBandwidthPercentage;
+    private final double[] freeCpuPercentage;
+    private int head;
+    private int size;
+    private long spilledBytes;
+    // Bytes del principio del archivo que ya se confirmaron (el archivo se borra al vaciarse)
+    private long spillOffset;
+    // Muestras más viejas ya enviadas que esperan confirmación
+    private long sent;
+    private long dropped;
+
+    OfflineBuffer(int capacity, File spillFile, long maxSpillBytes) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacidad del búfer inválida: " + capacity);
+        }
+        this.capacity = capacity;
+        this.spillFile = spillFile;
+        this.maxSpillBytes = maxSpillBytes;
+        this.timestamps = new long[capacity];
+        this.processorSpeed = new double[capacity];
+        this.freeMemory = new double[capacity];
+        this.freeDiskSpace = new double[capacity];
+        this.freeBandwidthPercentage = new double[capacity];
+        this.freeCpuPercentage = new double[capacity];
+        if (spillFile != null && spillFile.exists()) {
+            // Lo que quedó de una ejecución anterior también se reenvía
+            spilledBytes = spillFile.length() - spillFile.length() % RECORD_BYTES;
+        }
+    }
+
+    // Configurable con computer.client.buffer.capacity, computer.client.buffer.spillFile y
+    // computer.client.buffer.maxSpillBytes; sin archivo no se usa el disco
+    static OfflineBuffer fromSystemProperties() {
+        String spill = System.getProperty("computer.client.buffer.spillFile");
+        return new OfflineBuffer(
+                Integer.getInteger("computer.client.buffer.capacity", 4096),
+                spill == null || spill.isEmpty() ? null : new File(spill),
+                Long.getLong("computer.client.buffer.maxSpillBytes", 16L * 1024 * 1024));
+    }
+
+    synchronized void add(long timestamp, Computer1 sample) {
+        if (size == capacity) {
+            makeRoom();
+        }
+        int i = (head + size) % capacity;
+        timestamps[i] = timestamp;
+        processorSpeed[i] = sample.getProcessorSpeed();
+        freeMemory[i] = sample.getFreeMemory();
+        freeDiskSpace[i] = sample.getFreeDiskSpace();
+        freeBandwidthPercentage[i] = sample.getFreeBandwidthPercentage();
+        freeCpuPercentage[i] = sample.getFreeCpuPercentage();
+        size++;
+    }
+
+    private void makeRoom() {
+        int half = capacity / 2;
+        if (spillFile != null && spilledBytes + (long) half * RECORD_BYTES <= maxSpillBytes) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(spillFile, true)))) {
+                for (int n = 0; n < half; n++) {
+                    int i = (head + n) % capacity;
+                    out.writeLong(timestamps[i]);
+                    out.writeDouble(processorSpeed[i]);
+                    out.writeDouble(freeMemory[i]);
+                    out.writeDouble(freeDiskSpace[i]);
+                    out.writeDouble(freeBandwidthPercentage[i]);
+                    out.writeDouble(freeCpuPercentage[i]);
+                }
+                spilledBytes += (long) half * RECORD_BYTES;
+                head = (head + half) % capacity;
+                size -= half;
+                return;
+            } catch (IOException e) {
+                System.err.println("No se pudo escribir el búfer en disco: " + e.getMessage());
+            }
+        }
+        if (sent > spilledRecords()) {
+            sent--;
+        }
+        head = (head + 1) % capacity;
+        size--;
+        dropped++;
+    }
+
+    private long spilledRecords() {
+        return (spilledBytes - spillOffset) / RECORD_BYTES;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0 && spilledBytes == 0;
+    }
+
+    // Muestras guardadas, en memoria y en disco
+    synchronized long size() {
+        return size + spilledRecords();
+    }
+
+    // Marca todo lo guardado como enviado: queda hasta confirmSent o releaseSent
+    synchronized void markSent() {
+        sent = size();
+    }
+
+    synchronized boolean hasUnconfirmed() {
+        return sent > 0;
+    }
+
+    // El servidor procesó lo marcado: se quita, y lo agregado después de marcar queda
+    synchronized void confirmSent() {
+        long onDisk = Math.min(sent, spilledRecords());
+        spillOffset += onDisk * RECORD_BYTES;
+        if (spillOffset == spilledBytes && spilledBytes > 0) {
+            deleteSpill();
+        }
+        int inMemory = (int) (sent - onDisk);
+        head = (head + inMemory) % capacity;
+        size -= inMemory;
+        sent = 0;
+    }
+
+    // La conexión se cayó antes de la confirmación: lo marcado vuelve a quedar pendiente
+    synchronized void releaseSent() {
+        sent = 0;
+    }
+
+    // Muestras descartadas por falta de lugar
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    // Entrega todas las muestras en orden sin quitarlas; si el destino falla, quedan guardadas
+    synchronized void forEach(Sink sink) throws IOException {
+        Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        if (spilledBytes > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)))) {
+                for (long skip = spillOffset; skip > 0; ) {
+                    long skipped = in.skip(skip);
+                    if (skipped <= 0) {
+                        throw new EOFException();
+                    }
+                    skip -= skipped;
+                }
+                for (long n = spilledRecords(); n > 0; n--) {
+                    long timestamp = in.readLong();
+                    sample.setProcessorSpeed(in.readDouble());
+                    sample.setFreeMemory(in.readDouble());
+                    sample.setFreeDiskSpace(in.readDouble());
+                    sample.setFreeBandwidthPercentage(in.readDouble());
+                    sample.setFreeCpuPercentage(in.readDouble());
+                    sink.accept(timestamp, sample);
+                }
+            } catch (EOFException e) {
+                System.err.println("Archivo de búfer truncado: " + spillFile);
+            }
+        }
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) % capacity;
+            sample.setProcessorSpeed(processorSpeed[i]);
+            sample.setFreeMemory(freeMemory[i]);
+            sample.setFreeDiskSpace(freeDiskSpace[i]);
+            sample.setFreeBandwidthPercentage(freeBandwidthPercentage[i]);
+            sample.setFreeCpuPercentage(freeCpuPercentage[i]);
+            sink.accept(timestamps[i], sample);
+        }
+    }
+
+    // Olvida todo lo guardado (después de enviarlo)
+    synchronized void clear() {
+        head = 0;
+        size = 0;
+        sent = 0;
+        if (spilledBytes > 0) {
+            deleteSpill();
+        }
+    }
+
+    private void deleteSpill() {
+        spilledBytes = 0;
+        spillOffset = 0;
+        if (!spillFile.delete()) {
+            System.err.println("No se pudo borrar el archivo de búfer: " + spillFile);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Elige el host conectado donde ubicar una carga de trabajo a partir de los datos en vivo
+ * del registro. Los candidatos salen de un {@link RankingIndex} por memoria disponible
+ * (la libre menos la reservada), así que una consulta recorre sólo los hosts que rodean
+ * la memoria pedida y no la lista completa.
+ *
+ * Cada ubicación reserva lo pedido durante {@code reservationMillis}: mientras tanto las
+ * consultas siguientes ven ese host con menos capacidad y no caen todas en el mismo, aunque
+ * la telemetría todavía no refleje la carga nueva.
+ */
+class PlacementEngine {
+
+    enum Strategy {
+        // El host que menos capacidad libre deja después de ubicar (llena hosts antes de usar otros)
+        BIN_PACK,
+        // El host con más capacidad libre (reparte la carga)
+        SPREAD
+    }
+
+    /** Una ubicación aceptada y la capacidad que reserva hasta que vence. */
+    static final class Reservation {
+        private final HostEntry entry;
+        private final ResourceRequest request;
+        private final long expiresAt;
+        private boolean released;
+
+        private Reservation(HostEntry entry, ResourceRequest request, long expiresAt) {
+            this.entry = entry;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+
+        HostEntry getEntry() {
+            return entry;
+        }
+
+        String getHostId() {
+            return entry.getHostId();
+        }
+
+        ResourceRequest getRequest() {
+            return request;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    // Capacidad reservada en un host. Se escribe con el cerrojo del motor y se lee sin él
+    // desde la métrica del ranking, que corre en los hilos que actualizan el registro.
+    private static final class Reserved {
+        volatile double cores;
+        volatile double memoryGB;
+        volatile double diskGB;
+        int count;
+    }
+
+    // Tope de candidatos revisados por consulta: acota la latencia si muchos no cumplen
+    // los demás requisitos (disco, núcleos, ancho de banda)
+    static final int MAX_CANDIDATES = 512;
+
+    private final RankingIndex byMemory;
+    private final long reservationMillis;
+    private final ConcurrentHashMap<String, Reserved> reserved = new ConcurrentHashMap<>();
+    // Todas las reservas duran lo mismo: vencen en el orden en que se crearon
+    private final ArrayDeque<Reservation> pending = new ArrayDeque<>();
+
+    PlacementEngine(HostRegistry registry, long reservationMillis) {
+        this.reservationMillis = reservationMillis;
+        this.byMemory = registry.addRanking(this::availableMemory);
+    }
+
+    // Configurable con computer.placement.reservationMillis
+    static PlacementEngine fromSystemProperties(HostRegistry registry) {
+        return new PlacementEngine(registry, Long.getLong("computer.placement.reservationMillis", 30_000));
+    }
+
+    // Ubica la carga y reserva la capacidad; devuelve null si ningún host conectado la admite
+    Reservation place(ResourceRequest request, Strategy strategy) {
+        return place(request, strategy, System.currentTimeMillis());
+    }
+
+    synchronized Reservation place(ResourceRequest request, Strategy strategy, long now) {
+        expire(now);
+        double memory = request.getMemoryGB();
+        // Posiciones [0, fits) del ranking: hosts conectados con memoria disponible suficiente
+        int fits = byMemory.countAtLeast(memory);
+        HostEntry chosen = null;
+        if (strategy == Strategy.SPREAD) {
+            for (int rank = 0; rank < fits && rank < MAX_CANDIDATES; rank++) {
+                HostEntry candidate = byMemory.get(rank);
+                if (candidate != null && admits(candidate, request)) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+        } else {
+            // El más ajustado está al final del tramo que alcanza; se sube hacia los más holgados
+            int last = Math.max(-1, fits - 1 - MAX_CANDIDATES);
+            for (int rank = fits - 1; rank > last; rank--) {
+                HostEntry candidate = byMemory.get(rank);
+                if (candidate != null && admits(candidate, request)) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+        }
+        if (chosen == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation(chosen, request, now + reservationMillis);
+        add(reservation, 1);
+        pending.addLast(reservation);
+        return reservation;
+    }
+
+    // Libera la reserva antes de que venza (p. ej. cuando la telemetría ya refleja la carga)
+    synchronized void release(Reservation reservation) {
+        if (!reservation.released) {
+            add(reservation, -1);
+        }
+    }
+
+    // Núcleos y disco que el host puede ofrecer ahora, descontando lo reservado
+    double availableCores(HostEntry entry) {
+        Computer1 computer = entry.live();
+        Reserved r = reserved.get(entry.getHostId());
+        double free = computer.getCoreCount() * computer.getFreeCpuPercentage() / 100.0;
+        return r == null ? free : free - r.cores;
+    }
+
+    double availableDisk(HostEntry entry) {
+        Reserved r = reserved.get(entry.getHostId());
+        double free = entry.live().getFreeDiskSpace();
+        return r == null ? free : free - r.diskGB;
+    }
+
+    // Métrica del ranking: los hosts desconectados quedan al final y nunca alcanzan
+    private double availableMemory(Computer1 computer) {
+        if (!isConnected(computer)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        Reserved r = reserved.get(computer.getHostId());
+        return r == null ? computer.getFreeMemory() : computer.getFreeMemory() - r.memoryGB;
+    }
+
+    synchronized int pendingReservations() {
+        return pending.size();
+    }
+
+    int candidateCount() {
+        return byMemory.size();
+    }
+
+    private boolean admits(HostEntry entry, ResourceRequest request) {
+        Computer1 computer = entry.live();
+        return isConnected(computer)
+                && availableCores(entry) >= request.getCores()
+                && availableDisk(entry) >= request.getDiskGB()
+                && computer.getFreeBandwidthPercentage() >= request.getMinFreeBandwidthPercentage();
+    }
+
+    private static boolean isConnected(Computer1 computer) {
+        String status = computer.getConnectionStatus();
+        return "Conectado".equals(status) || "Activo".equals(status);
+    }
+
+    private void expire(long now) {
+        Reservation head;
+        while ((head = pending.peekFirst()) != null && head.expiresAt <= now) {
+            pending.removeFirst();
+            if (!head.released) {
+                add(head, -1);
+            }
+        }
+    }
+
+    // Suma (sign = 1) o resta (sign = -1) la reserva y reubica el host en el ranking
+    private void add(Reservation reservation, int sign) {
+        ResourceRequest request = reservation.request;
+        String hostId = reservation.getHostId();
+        Reserved r = reserved.computeIfAbsent(hostId, id -> new Reserved());
+        r.cores += sign * request.getCores();
+        r.memoryGB += sign * request.getMemoryGB();
+        r.diskGB += sign * request.getDiskGB();
+        r.count += sign;
+        if (sign < 0) {
+            reservation.released = true;
+            if (r.count == 0) {
+                reserved.remove(hostId);
+            }
+        }
+        byMemory.hostChanged(reservation.entry);
+    }
+}
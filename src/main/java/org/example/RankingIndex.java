@@ -0,0 +1,251 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking de hosts por una métrica, de mayor a menor (a igualdad, por identificador).
+ * Es un árbol de estadísticos de orden (treap con tamaño de subárbol): cuando un host
+ * cambia sólo se reubica su nodo, en O(log N), y {@link #topK} y {@link #rankOf} no
+ * copian ni ordenan la lista completa.
+ *
+ * Se mantiene al día como {@link HostRegistry.Listener}; ver {@link HostRegistry#addRanking}.
+ */
+class RankingIndex implements HostRegistry.Listener {
+
+    /** Puntaje de un host: más alto es mejor. */
+    interface Metric {
+        double score(Computer1 computer);
+    }
+
+    static final Metric FREE_MEMORY = Computer1::getFreeMemory;
+    static final Metric FREE_CPU = Computer1::getFreeCpuPercentage;
+    static final Metric FREE_BANDWIDTH = Computer1::getFreeBandwidthPercentage;
+    static final Metric FREE_DISK = Computer1::getFreeDiskSpace;
+
+    // Suma ponderada; los pesos también ajustan las unidades (GB frente a porcentajes)
+    static Metric composite(double memoryWeight, double cpuWeight, double bandwidthWeight, double diskWeight) {
+        return computer -> memoryWeight * computer.getFreeMemory()
+                + cpuWeight * computer.getFreeCpuPercentage()
+                + bandwidthWeight * computer.getFreeBandwidthPercentage()
+                + diskWeight * computer.getFreeDiskSpace();
+    }
+
+    private static final class Node {
+        final HostEntry entry;
+        final double score;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(HostEntry entry, double score, int priority) {
+            this.entry = entry;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Metric metric;
+    private final Map<HostEntry, Node> nodes = new HashMap<>();
+    private Node root;
+    private int seed = 0x2545F491;
+
+    RankingIndex(Metric metric) {
+        this.metric = metric;
+    }
+
+    // El puntaje se lee dentro del cerrojo: la última reubicación siempre ve el último valor
+    @Override
+    public synchronized void hostChanged(HostEntry entry) {
+        double score = metric.score(entry.live());
+        Node old = nodes.get(entry);
+        if (old != null) {
+            if (Double.compare(old.score, score) == 0) {
+                return;
+            }
+            root = remove(root, old);
+        }
+        Node node = new Node(entry, score, nextPriority());
+        nodes.put(entry, node);
+        root = insert(root, node);
+    }
+
+    synchronized void remove(HostEntry entry) {
+        Node node = nodes.remove(entry);
+        if (node != null) {
+            root = remove(root, node);
+        }
+    }
+
+    synchronized int size() {
+        return size(root);
+    }
+
+    // Los k mejores hosts en orden, en O(log N + k)
+    synchronized List<HostEntry> topK(int k) {
+        List<HostEntry> result = new ArrayList<>(Math.min(k, size(root)));
+        collect(root, result, k);
+        return result;
+    }
+
+    // Posición del host (0 = el mejor) o -1 si no está en el índice
+    synchronized int rankOf(HostEntry entry) {
+        Node target = nodes.get(entry);
+        if (target == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(target, node);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    // Host en la posición dada (0 = el mejor) o null si está fuera de rango
+    synchronized HostEntry get(int rank) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.entry;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    // Cantidad de hosts con puntaje >= score: los que ocupan las posiciones [0, resultado)
+    synchronized int countAtLeast(double score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.score >= score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // Puntaje con el que el host está ubicado ahora
+    synchronized double scoreOf(HostEntry entry) {
+        Node node = nodes.get(entry);
+        return node == null ? Double.NaN : node.score;
+    }
+
+    private static void collect(Node node, List<HostEntry> out, int k) {
+        while (node != null && out.size() < k) {
+            collect(node.left, out, k);
+            if (out.size() >= k) {
+                return;
+            }
+            out.add(node.entry);
+            node = node.right;
+        }
+    }
+
+    // Orden del ranking: mayor puntaje primero; a igualdad, por identificador
+    private static int compare(Node a, Node b) {
+        int byScore = Double.compare(b.score, a.score);
+        return byScore != 0 ? byScore : a.entry.getHostId().compareTo(b.entry.getHostId());
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.priority > root.priority) {
+            Node[] parts = split(root, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            return update(node);
+        }
+        if (compare(node, root) < 0) {
+            root.left = insert(root.left, node);
+        } else {
+            root.right = insert(root.right, node);
+        }
+        return update(root);
+    }
+
+    // Separa en los nodos anteriores y posteriores a key
+    private static Node[] split(Node root, Node key) {
+        if (root == null) {
+            return new Node[2];
+        }
+        if (compare(root, key) < 0) {
+            Node[] parts = split(root.right, key);
+            root.right = parts[0];
+            parts[0] = update(root);
+            return parts;
+        }
+        Node[] parts = split(root.left, key);
+        root.left = parts[1];
+        parts[1] = update(root);
+        return parts;
+    }
+
+    private static Node remove(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        if (root == node) {
+            return merge(root.left, root.right);
+        }
+        if (compare(node, root) < 0) {
+            root.left = remove(root.left, node);
+        } else {
+            root.right = remove(root.right, node);
+        }
+        return update(root);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    // xorshift: prioridades pseudoaleatorias sin compartir un Random entre hilos
+    private int nextPriority() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+}
@@ -0,0 +1,298 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modo relay: reenvía al servidor central los hosts de este registro por una sola conexión
+ * binaria (ver {@link BinaryProtocol}, versión 3).
+ *
+ * Como {@link HostRegistry.Listener} sólo marca los hosts que cambiaron; cada
+ * {@code batchMillis} un hilo toma la última copia de cada uno y la envía en tramas
+ * RELAY_BATCH. Varias actualizaciones del mismo host dentro de un intervalo viajan como una
+ * sola. Los datos estáticos van en RELAY_HOST sólo la primera vez o cuando cambian.
+ *
+ * Si la conexión se cae, se reintenta cada {@code batchMillis} y al reconectar se vuelven a
+ * enviar todos los hosts.
+ */
+class RelayForwarder implements HostRegistry.Listener, Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int OUTPUT_BUFFER = 64 * 1024;
+
+    // Datos estáticos enviados por última vez para un host; null si no se declaró en esta conexión
+    private static final class Sent {
+        final int slot;
+        String type;
+        String processorModel;
+        String operatingSystemVersion;
+        int coreCount;
+        long diskCapacity;
+
+        Sent(int slot) {
+            this.slot = slot;
+        }
+
+        boolean matches(Computer1 computer) {
+            return Objects.equals(type, computer.getType())
+                    && Objects.equals(processorModel, computer.getProcessorModel())
+                    && Objects.equals(operatingSystemVersion, computer.getOperatingSystemVersion())
+                    && coreCount == computer.getCoreCount()
+                    && diskCapacity == computer.getDiskCapacity();
+        }
+
+        void remember(Computer1 computer) {
+            type = computer.getType();
+            processorModel = computer.getProcessorModel();
+            operatingSystemVersion = computer.getOperatingSystemVersion();
+            coreCount = computer.getCoreCount();
+            diskCapacity = computer.getDiskCapacity();
+        }
+    }
+
+    private final HostRegistry registry;
+    private final String relayId;
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final long batchMillis;
+    private final Set<HostEntry> changed = ConcurrentHashMap.newKeySet();
+    // Lo siguiente sólo lo usa el hilo de reenvío
+    private final Map<HostEntry, Sent> sent = new HashMap<>();
+    private final Computer1 snapshot = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+    private final ByteBuffer output = ByteBuffer.allocate(OUTPUT_BUFFER);
+    private final ByteBuffer batch = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME - 8);
+    private final ByteBuffer payload = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME - 8);
+    private Socket socket;
+    private volatile OutputStream out;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long forwardedRecords;
+    private volatile long forwardedBytes;
+
+    RelayForwarder(HostRegistry registry, String relayId, String upstreamHost, int upstreamPort, long batchMillis) {
+        this.registry = registry;
+        this.relayId = relayId;
+        this.upstreamHost = upstreamHost;
+        this.upstreamPort = upstreamPort;
+        this.batchMillis = batchMillis;
+    }
+
+    // Configurable con computer.relay.upstream (host:puerto), computer.relay.id y computer.relay.batchMillis;
+    // devuelve null si no se configuró un servidor central
+    static RelayForwarder fromSystemProperties(HostRegistry registry, String defaultRelayId) {
+        String upstream = System.getProperty("computer.relay.upstream");
+        if (upstream == null || upstream.isEmpty()) {
+            return null;
+        }
+        int colon = upstream.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("computer.relay.upstream debe ser host:puerto: " + upstream);
+        }
+        return new RelayForwarder(registry,
+                System.getProperty("computer.relay.id", defaultRelayId),
+                upstream.substring(0, colon),
+                Integer.parseInt(upstream.substring(colon + 1)),
+                Long.getLong("computer.relay.batchMillis", 100));
+    }
+
+    void start() {
+        running = true;
+        registry.addListener(this);
+        thread = new Thread(this::run, "relay-forward");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void hostChanged(HostEntry entry) {
+        changed.add(entry);
+    }
+
+    long getForwardedRecords() {
+        return forwardedRecords;
+    }
+
+    long getForwardedBytes() {
+        return forwardedBytes;
+    }
+
+    boolean isConnected() {
+        return out != null;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(batchMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                if (out == null) {
+                    connect();
+                }
+                forwardChanges();
+            } catch (IOException e) {
+                if (out != null) {
+                    System.err.println("Relay " + relayId + ": se perdió la conexión con el servidor central: "
+                            + e.getMessage());
+                }
+                disconnect();
+            }
+        }
+        disconnect();
+    }
+
+    private void connect() throws IOException {
+        Socket s = new Socket();
+        try {
+            s.setTcpNoDelay(true);
+            s.connect(new InetSocketAddress(upstreamHost, upstreamPort), CONNECT_TIMEOUT_MILLIS);
+            OutputStream o = s.getOutputStream();
+            output.clear();
+            output.put(BinaryProtocol.MAGIC);
+            BinaryProtocol.writeHello(output, BinaryProtocol.VERSION);
+            o.write(output.array(), 0, output.position());
+            o.flush();
+
+            // HELLO_ACK: longitud, tipo y versión elegida
+            DataInputStream in = new DataInputStream(s.getInputStream());
+            int length = readVarint(in);
+            byte[] ack = new byte[length];
+            in.readFully(ack);
+            ByteBuffer reply = ByteBuffer.wrap(ack);
+            if (reply.get() != BinaryProtocol.HELLO_ACK) {
+                throw new IOException("Respuesta inesperada del servidor central");
+            }
+            int version = (int) BinaryProtocol.readVarint(reply);
+            if (version < BinaryProtocol.MIN_RELAY_VERSION) {
+                throw new IOException("El servidor central no admite relays (versión " + version + ")");
+            }
+
+            output.clear();
+            payload.clear();
+            BinaryProtocol.writeString(payload, relayId);
+            payload.flip();
+            BinaryProtocol.writeFrame(output, BinaryProtocol.RELAY_HELLO, payload);
+            o.write(output.array(), 0, output.position());
+            o.flush();
+            output.clear();
+            socket = s;
+            out = o;
+        } catch (IOException e) {
+            s.close();
+            throw e;
+        }
+        // Conexión nueva: el central no conoce ninguna ranura, se reenvía todo
+        sent.clear();
+        changed.addAll(registry.entries());
+        System.out.println("Relay " + relayId + " conectado a " + upstreamHost + ":" + upstreamPort);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Conexión cerrada por el servidor central");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+
+    private void forwardChanges() throws IOException {
+        if (changed.isEmpty()) {
+            return;
+        }
+        output.clear();
+        batch.clear();
+        long records = 0;
+        Iterator<HostEntry> pending = changed.iterator();
+        while (pending.hasNext()) {
+            HostEntry entry = pending.next();
+            pending.remove();
+            entry.snapshot(snapshot);
+            Sent s = sent.get(entry);
+            if (s == null || !s.matches(snapshot)) {
+                if (s == null) {
+                    s = new Sent(sent.size());
+                    sent.put(entry, s);
+                }
+                // Lo acumulado en el lote va antes: la declaración tiene que llegar primero
+                flushBatch();
+                payload.clear();
+                BinaryProtocol.encodeRelayHost(payload, s.slot, snapshot);
+                payload.flip();
+                writeFrame(BinaryProtocol.RELAY_HOST, payload);
+                s.remember(snapshot);
+            }
+            if (batch.remaining() < BinaryProtocol.MAX_RELAY_RECORD) {
+                flushBatch();
+            }
+            BinaryProtocol.encodeRelayRecord(batch, s.slot, snapshot);
+            records++;
+        }
+        flushBatch();
+        drainOutput();
+        out.flush();
+        forwardedRecords += records;
+    }
+
+    private void flushBatch() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        writeFrame(BinaryProtocol.RELAY_BATCH, batch);
+        batch.clear();
+    }
+
+    private void writeFrame(byte type, ByteBuffer content) throws IOException {
+        if (output.remaining() < content.remaining() + 6) {
+            drainOutput();
+        }
+        BinaryProtocol.writeFrame(output, type, content);
+    }
+
+    private void drainOutput() throws IOException {
+        out.write(output.array(), 0, output.position());
+        forwardedBytes += output.position();
+        output.clear();
+    }
+
+    private void disconnect() {
+        out = null;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // ya estaba cerrada
+            }
+            socket = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        registry.removeListener(this);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
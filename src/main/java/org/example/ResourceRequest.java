@@ -0,0 +1,43 @@
+package org.example;
+
+/**
+ * Recursos que necesita una carga de trabajo para ubicarse en un host.
+ */
+final class ResourceRequest {
+    private final double cores;
+    private final double memoryGB;
+    private final double diskGB;
+    private final double minFreeBandwidthPercentage;
+
+    ResourceRequest(double cores, double memoryGB, double diskGB, double minFreeBandwidthPercentage) {
+        if (cores < 0 || memoryGB < 0 || diskGB < 0 || minFreeBandwidthPercentage < 0) {
+            throw new IllegalArgumentException("Los recursos pedidos no pueden ser negativos");
+        }
+        this.cores = cores;
+        this.memoryGB = memoryGB;
+        this.diskGB = diskGB;
+        this.minFreeBandwidthPercentage = minFreeBandwidthPercentage;
+    }
+
+    double getCores() {
+        return cores;
+    }
+
+    double getMemoryGB() {
+        return memoryGB;
+    }
+
+    double getDiskGB() {
+        return diskGB;
+    }
+
+    double getMinFreeBandwidthPercentage() {
+        return minFreeBandwidthPercentage;
+    }
+
+    @Override
+    public String toString() {
+        return cores + " núcleos, " + memoryGB + " GB de memoria, " + diskGB + " GB de disco, "
+                + minFreeBandwidthPercentage + "% de ancho de banda";
+    }
+}
@@ -0,0 +1,300 @@
+package org.example;
+
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OperatingSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio de muestreo compartido por todo el proceso. Crea los objetos de OSHI una sola vez,
+ * guarda los datos estáticos del equipo (modelo de CPU, núcleos, capacidad de disco, versión
+ * del SO) durante toda la vida del proceso y refresca cada métrica dinámica sólo cuando vence
+ * su TTL, que se configura con computer.sampling.ttl.*Millis.
+ *
+ * Además del total del equipo arma el detalle por sistema de archivos, disco e interfaz
+ * ({@link DeviceMetrics}); las tasas (IOPS, bytes y paquetes por segundo) salen de la
+ * diferencia de contadores entre dos refrescos.
+ */
+class SamplingService {
+    private static final double GB = 1024 * 1024 * 1024.0;
+    private static volatile SamplingService instance;
+
+    private final CentralProcessor processor;
+    private final CpuLoadSampler cpuLoad;
+    private final GlobalMemory memory;
+    private final FileSystem fileSystem;
+    private final List<NetworkIF> networkIFs;
+    private final List<HWDiskStore> diskStores;
+    private final NetworkRates networkRates = new NetworkRates();
+    // Lecturas, escrituras, bytes leídos y bytes escritos de cada disco
+    private final CounterRates diskRates = new CounterRates(4);
+
+    // Datos estáticos
+    private final String hostId;
+    private final String processorModel;
+    private final double processorSpeed;
+    private final int coreCount;
+    private final long diskCapacity;
+    private final String operatingSystemVersion;
+
+    // Datos dinámicos con su propio TTL
+    private final long memoryTtlNanos;
+    private final long diskTtlNanos;
+    private final long cpuTtlNanos;
+    private final long networkTtlNanos;
+    private final long devicesTtlNanos;
+    private double freeMemory;
+    private long memoryExpires;
+    private double freeDiskSpace;
+    private long diskExpires;
+    private long cpuExpires;
+    private long networkExpires;
+    private DeviceMetrics devices = DeviceMetrics.EMPTY;
+    private long devicesExpires;
+    // Un cerrojo por métrica: una lectura lenta (CPU) no bloquea a las demás
+    private final Object memoryLock = new Object();
+    private final Object diskLock = new Object();
+    private final Object cpuLock = new Object();
+    private final Object networkLock = new Object();
+    private final Object devicesLock = new Object();
+
+    SamplingService(long memoryTtlMillis, long diskTtlMillis, long cpuTtlMillis, long networkTtlMillis,
+                    long devicesTtlMillis) {
+        SystemInfo systemInfo = new SystemInfo();
+        HardwareAbstractionLayer hardware = systemInfo.getHardware();
+        OperatingSystem os = systemInfo.getOperatingSystem();
+        this.processor = hardware.getProcessor();
+        this.memory = hardware.getMemory();
+        this.fileSystem = os.getFileSystem();
+        this.networkIFs = hardware.getNetworkIFs();
+        this.cpuLoad = new CpuLoadSampler(processor);
+
+        this.hostId = HostIdentity.detect(systemInfo);
+        this.processorModel = processor.getProcessorIdentifier().getName();
+        this.processorSpeed = processor.getMaxFreq() / 1_000_000_000.0;
+        this.coreCount = processor.getLogicalProcessorCount();
+        this.diskStores = hardware.getDiskStores();
+        this.diskCapacity = diskStores.isEmpty() ? 0 : diskStores.get(0).getSize() / (1024 * 1024 * 1024);
+        this.operatingSystemVersion = os.getVersionInfo().getVersion();
+
+        this.memoryTtlNanos = memoryTtlMillis * 1_000_000L;
+        this.diskTtlNanos = diskTtlMillis * 1_000_000L;
+        this.cpuTtlNanos = cpuTtlMillis * 1_000_000L;
+        this.networkTtlNanos = networkTtlMillis * 1_000_000L;
+        this.devicesTtlNanos = devicesTtlMillis * 1_000_000L;
+        long now = System.nanoTime();
+        this.memoryExpires = now;
+        this.diskExpires = now;
+        // La primera carga de CPU cubre desde el arranque hasta el primer vencimiento
+        this.cpuExpires = now + cpuTtlNanos;
+        this.networkExpires = now;
+        this.devicesExpires = now;
+    }
+
+    static SamplingService get() {
+        SamplingService service = instance;
+        if (service == null) {
+            synchronized (SamplingService.class) {
+                service = instance;
+                if (service == null) {
+                    service = new SamplingService(
+                            Long.getLong("computer.sampling.ttl.memoryMillis", 1_000),
+                            Long.getLong("computer.sampling.ttl.diskMillis", 30_000),
+                            Long.getLong("computer.sampling.ttl.cpuMillis", 1_000),
+                            Long.getLong("computer.sampling.ttl.networkMillis", 1_000),
+                            Long.getLong("computer.sampling.ttl.devicesMillis", 10_000));
+                    instance = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    String getHostId() {
+        return hostId;
+    }
+
+    String getProcessorModel() {
+        return processorModel;
+    }
+
+    double getProcessorSpeed() {
+        return processorSpeed;
+    }
+
+    int getCoreCount() {
+        return coreCount;
+    }
+
+    long getDiskCapacity() {
+        return diskCapacity;
+    }
+
+    String getOperatingSystemVersion() {
+        return operatingSystemVersion;
+    }
+
+    CentralProcessor getProcessor() {
+        return processor;
+    }
+
+    // GB disponibles
+    double getFreeMemory() {
+        synchronized (memoryLock) {
+            long now = System.nanoTime();
+            if (now - memoryExpires >= 0) {
+                freeMemory = memory.getAvailable() / GB;
+                memoryExpires = now + memoryTtlNanos;
+            }
+            return freeMemory;
+        }
+    }
+
+    // GB utilizables en el primer sistema de archivos
+    double getFreeDiskSpace() {
+        synchronized (diskLock) {
+            long now = System.nanoTime();
+            if (now - diskExpires >= 0) {
+                List<OSFileStore> fileStores = fileSystem.getFileStores();
+                freeDiskSpace = fileStores.isEmpty() ? 0 : fileStores.get(0).getUsableSpace() / GB;
+                diskExpires = now + diskTtlNanos;
+            }
+            return freeDiskSpace;
+        }
+    }
+
+    // Carga calculada con la diferencia de ticks desde la muestra anterior: nunca espera
+    double getFreeCpuPercentage() {
+        synchronized (cpuLock) {
+            refreshCpuLoad();
+            return cpuLoad.getFreeCpuPercentage();
+        }
+    }
+
+    // Porcentaje libre de cada núcleo lógico, de la misma muestra que getFreeCpuPercentage
+    double[] getFreeCpuPerCore() {
+        synchronized (cpuLock) {
+            refreshCpuLoad();
+            return cpuLoad.getFreeCpuPerCore();
+        }
+    }
+
+    private void refreshCpuLoad() {
+        long now = System.nanoTime();
+        if (now - cpuExpires >= 0) {
+            cpuLoad.sample();
+            cpuExpires = now + cpuTtlNanos;
+        }
+    }
+
+    // Interfaces de red con sus contadores refrescados como mucho una vez por TTL
+    List<NetworkIF> getNetworkInterfaces() {
+        synchronized (networkLock) {
+            refreshNetwork();
+            return networkIFs;
+        }
+    }
+
+    // Porcentaje libre según el tráfico entre los dos últimos refrescos de las interfaces
+    double getFreeBandwidthPercentage() {
+        synchronized (networkLock) {
+            refreshNetwork();
+            return networkRates.freeBandwidthPercentage();
+        }
+    }
+
+    private void refreshNetwork() {
+        long now = System.nanoTime();
+        if (now - networkExpires >= 0) {
+            for (NetworkIF net : networkIFs) {
+                net.updateAttributes();
+            }
+            networkRates.sample(networkIFs, now);
+            networkExpires = now + networkTtlNanos;
+        }
+    }
+
+    // Detalle por sistema de archivos, disco, interfaz y núcleo; se arma de nuevo como mucho una vez por TTL
+    DeviceMetrics getDeviceMetrics() {
+        synchronized (devicesLock) {
+            long now = System.nanoTime();
+            if (now - devicesExpires >= 0) {
+                devices = sampleDevices(now);
+                devicesExpires = now + devicesTtlNanos;
+            }
+            return devices;
+        }
+    }
+
+    private DeviceMetrics sampleDevices(long now) {
+        List<DeviceMetrics.Device> result = new ArrayList<>();
+        // Sólo los locales y con tamaño: se descartan los pseudo sistemas de archivos (proc, sysfs...)
+        for (OSFileStore store : fileSystem.getFileStores(true)) {
+            long total = store.getTotalSpace();
+            if (total > 0) {
+                result.add(new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, store.getMount(),
+                        store.getUsableSpace() / GB, total / GB));
+            }
+        }
+
+        diskRates.begin(diskStores.size());
+        for (int i = 0; i < diskStores.size(); i++) {
+            HWDiskStore disk = diskStores.get(i);
+            disk.updateAttributes();
+            diskRates.set(i, 0, disk.getReads());
+            diskRates.set(i, 1, disk.getWrites());
+            diskRates.set(i, 2, disk.getReadBytes());
+            diskRates.set(i, 3, disk.getWriteBytes());
+        }
+        diskRates.end(now);
+        for (int i = 0; i < diskStores.size(); i++) {
+            result.add(new DeviceMetrics.Device(DeviceMetrics.DISK, diskStores.get(i).getName(),
+                    diskRates.rate(i, 0), diskRates.rate(i, 1), diskRates.rate(i, 2), diskRates.rate(i, 3)));
+        }
+
+        synchronized (networkLock) {
+            refreshNetwork();
+            for (int i = 0; i < networkRates.interfaceCount(); i++) {
+                result.add(new DeviceMetrics.Device(DeviceMetrics.INTERFACE, networkRates.name(i),
+                        networkRates.recvBytesPerSecond(i), networkRates.sentBytesPerSecond(i),
+                        networkRates.packetsPerSecond(i), networkRates.errorsPerSecond(i),
+                        networkRates.capacityMbps(i)));
+            }
+        }
+
+        synchronized (cpuLock) {
+            refreshCpuLoad();
+            double[] perCore = cpuLoad.getFreeCpuPerCore();
+            for (int i = 0; i < perCore.length; i++) {
+                result.add(new DeviceMetrics.Device(DeviceMetrics.CORE, "cpu" + i, perCore[i]));
+            }
+        }
+        return new DeviceMetrics(result);
+    }
+
+    // Llena una muestra completa del equipo local (sin ancho de banda ni detalle por dispositivo,
+    // que cada llamador pide por separado; la carga por núcleo viaja en ese detalle)
+    Computer1 sample(Computer1 into) {
+        into.setHostId(hostId);
+        into.setProcessorModel(processorModel);
+        into.setProcessorSpeed(processorSpeed);
+        into.setCoreCount(coreCount);
+        into.setDiskCapacity(diskCapacity);
+        into.setOperatingSystemVersion(operatingSystemVersion);
+        into.setFreeMemory(getFreeMemory());
+        into.setFreeDiskSpace(getFreeDiskSpace());
+        synchronized (cpuLock) {
+            refreshCpuLoad();
+            into.setFreeCpuPercentage(cpuLoad.getFreeCpuPercentage());
+        }
+        return into;
+    }
+}
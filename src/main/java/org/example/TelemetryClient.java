@@ -0,0 +1,576 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Un equipo reportando al servidor: muestrea, decide qué enviar (ver {@link DeltaTracker} y
+ * {@link AdaptiveInterval}) y mantiene la conexión. {@link ComputerClient} arranca una
+ * instancia con los datos de este equipo; las pruebas levantan muchas en la misma JVM.
+ *
+ * Sin conexión las muestras van a un {@link OfflineBuffer} y al reconectar se envían juntas,
+ * antes del primer registro en vivo, como muestras históricas. Los reintentos esperan según
+ * un {@link Backoff} con jitter para que una caída del servidor no termine en una avalancha
+ * de reconexiones simultáneas.
+ *
+ * Con un servidor de protocolo binario v5 los mensajes van en tubería: no se espera cada
+ * confirmación, sino que {@link UnackedWindow} lleva lo enviado sin confirmar y limita cuánto
+ * puede haber en vuelo. Lo que no llegó a confirmarse antes de una caída se reenvía al
+ * reconectar junto con lo guardado sin conexión. Con la ventana llena la muestra también va
+ * al búfer y sale como histórica en el próximo envío. Las tramas HISTORY no llevan secuencia:
+ * el lote queda en el búfer hasta que un ACK_UPTO cubre el mensaje en vivo que lo siguió, y
+ * mientras tanto no se envía otro.
+ *
+ * Desde la v6 el detalle por dispositivo de la muestra ({@link DeviceMetrics}) viaja en una
+ * trama DETAIL cada vez que el muestreador lo renueva, junto al siguiente mensaje que se
+ * envíe. En modo JSON no se envía.
+ */
+class TelemetryClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int HANDSHAKE_TIMEOUT_MS = 5000;
+
+    private final String host;
+    private final int port;
+    private final Supplier<Computer1> source;
+    private final boolean preferBinary;
+    private final DeltaTracker deltaTracker;
+    private final AdaptiveInterval sendInterval;
+    private final OfflineBuffer buffer;
+    private final Backoff backoff;
+    private final UnackedWindow window;
+    private final ByteBuffer payload = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    private final ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME + 8);
+    // Lo siguiente se protege con deltaTracker: lo comparten el hilo de muestreo y el de conexión
+    private Socket socket;
+    private PrintWriter out;
+    private BufferedReader in;
+    private DataInputStream binaryIn;
+    private OutputStream binaryOut;
+    private boolean binaryMode;
+    private boolean pipelined;
+    private boolean binaryUnsupported;
+    private boolean staticSent;
+    // Ranuras de los dispositivos declarados en la sesión y último detalle enviado
+    private final Map<String, Integer> deviceSlots = new HashMap<>();
+    private DeviceMetrics devicesSent;
+    private int negotiatedVersion;
+    private volatile boolean connected;
+    private volatile boolean running;
+    private volatile boolean verbose = true;
+    private ScheduledExecutorService scheduler;
+    private Thread connectionThread;
+    private volatile long messagesSent;
+    private volatile long samplesReplayed;
+    private volatile long samplesDeferred;
+    // Secuencia cuya confirmación confirma también el lote histórico enviado; 0 si no hay
+    private volatile long historyConfirmedBy;
+    private volatile long connections;
+
+    TelemetryClient(String host, int port, Supplier<Computer1> source, boolean preferBinary,
+                    DeltaTracker deltaTracker, AdaptiveInterval sendInterval, OfflineBuffer buffer, Backoff backoff,
+                    UnackedWindow window) {
+        this.host = host;
+        this.port = port;
+        this.source = source;
+        this.preferBinary = preferBinary;
+        this.deltaTracker = deltaTracker;
+        this.sendInterval = sendInterval;
+        this.buffer = buffer;
+        this.backoff = backoff;
+        this.window = window;
+    }
+
+    // "binary" en computer.client.protocol activa el protocolo binario; si el servidor no lo
+    // entiende se vuelve a JSON
+    static TelemetryClient fromSystemProperties(String host, int port, Supplier<Computer1> source) {
+        return new TelemetryClient(host, port, source,
+                "binary".equalsIgnoreCase(System.getProperty("computer.client.protocol", "json")),
+                DeltaTracker.fromSystemProperties(),
+                AdaptiveInterval.fromSystemProperties(),
+                OfflineBuffer.fromSystemProperties(),
+                Backoff.fromSystemProperties(),
+                UnackedWindow.fromSystemProperties());
+    }
+
+    // Sin mensajes por cada envío (muchos clientes en una misma JVM)
+    void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    void start() {
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cliente-muestreo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(this::periodicUpdate, 0, TimeUnit.MILLISECONDS);
+        connectionThread = new Thread(this::connectionLoop, "cliente-conexion");
+        connectionThread.start();
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    long getMessagesSent() {
+        return messagesSent;
+    }
+
+    long getSamplesReplayed() {
+        return samplesReplayed;
+    }
+
+    // Muestras que esperaron en el búfer porque la ventana de confirmaciones estaba llena
+    long getSamplesDeferred() {
+        return samplesDeferred;
+    }
+
+    long getConnections() {
+        return connections;
+    }
+
+    OfflineBuffer getBuffer() {
+        return buffer;
+    }
+
+    UnackedWindow getWindow() {
+        return window;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (connectionThread != null) {
+            connectionThread.interrupt();
+        }
+        synchronized (deltaTracker) {
+            disconnect();
+        }
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    // ---- Conexión ----
+
+    private void connectionLoop() {
+        while (running) {
+            try {
+                connectToServer();
+                backoff.reset();
+                readResponses();
+            } catch (IOException e) {
+                log("Error en la conexión: " + e.getMessage());
+            }
+            synchronized (deltaTracker) {
+                disconnect();
+            }
+            if (!running) {
+                break;
+            }
+            long delay = backoff.nextDelayMillis();
+            log("Reintentando la conexión en " + delay + " ms");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void connectToServer() throws IOException {
+        Socket s = open();
+        boolean binary = preferBinary && !binaryUnsupported && negotiateBinary(s);
+        if (!binary && preferBinary && s.isClosed()) {
+            // El servidor no respondió al saludo binario: reconectar en modo texto
+            s = open();
+        }
+        synchronized (deltaTracker) {
+            socket = s;
+            binaryMode = binary;
+            pipelined = binary && negotiatedVersion >= BinaryProtocol.MIN_PIPELINE_VERSION;
+            if (!binary) {
+                out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), false);
+            }
+            in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            staticSent = false;
+            deviceSlots.clear();
+            devicesSent = null;
+            deltaTracker.reset();
+            // Lo acumulado sin conexión va antes que cualquier registro en vivo
+            replayBuffered();
+            connected = true;
+            connections++;
+        }
+        log("Conectado al servidor" + (binary ? " (protocolo binario)" : ""));
+    }
+
+    private Socket open() throws IOException {
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        } catch (IOException e) {
+            s.close();
+            throw e;
+        }
+        return s;
+    }
+
+    private boolean negotiateBinary(Socket s) throws IOException {
+        binaryOut = new BufferedOutputStream(s.getOutputStream());
+        binaryIn = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        synchronized (frame) {
+            frame.clear();
+            frame.put(BinaryProtocol.MAGIC);
+            BinaryProtocol.writeHello(frame, BinaryProtocol.VERSION);
+            binaryOut.write(frame.array(), 0, frame.position());
+            binaryOut.flush();
+        }
+
+        s.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+        try {
+            byte[] reply = readFrame();
+            ByteBuffer buffer = ByteBuffer.wrap(reply);
+            if (buffer.get() == BinaryProtocol.HELLO_ACK) {
+                negotiatedVersion = (int) BinaryProtocol.readVarint(buffer);
+                if (negotiatedVersion >= 1) {
+                    return true;
+                }
+            }
+        } catch (SocketTimeoutException | EOFException e) {
+            // Servidor antiguo: sólo entiende líneas JSON
+        } finally {
+            if (!s.isClosed()) s.setSoTimeout(0);
+        }
+        log("El servidor no soporta el protocolo binario, se usará JSON");
+        binaryUnsupported = true;
+        s.close();
+        return false;
+    }
+
+    private void readResponses() throws IOException {
+        while (running) {
+            String serverResponse = binaryMode ? readBinaryResponse() : in.readLine();
+            if (serverResponse == null) {
+                log("Conexión perdida. Intentando reconectar...");
+                return;
+            }
+            if (!binaryMode) {
+                sendInterval.serverHint(IngestionPressure.parseTextHint(serverResponse));
+            }
+            log("Respuesta del servidor: " + serverResponse);
+        }
+    }
+
+    private byte[] readFrame() throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = binaryIn.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            if (shift > 21) throw new IOException("Longitud de trama inválida");
+        }
+        if (length < 1 || length > BinaryProtocol.MAX_FRAME) {
+            throw new IOException("Trama de tamaño inválido: " + length);
+        }
+        byte[] data = new byte[length];
+        binaryIn.readFully(data);
+        return data;
+    }
+
+    private String readBinaryResponse() throws IOException {
+        try {
+            byte[] data = readFrame();
+            if (data[0] == BinaryProtocol.ACK_UPTO) {
+                ByteBuffer ack = ByteBuffer.wrap(data, 1, data.length - 1);
+                long sequence = BinaryProtocol.readVarint(ack);
+                long hint = BinaryProtocol.readAckHint(ack);
+                sendInterval.serverHint(hint);
+                int confirmed = window.ackUpTo(sequence);
+                long confirmedBy = historyConfirmedBy;
+                if (confirmedBy > 0 && sequence >= confirmedBy) {
+                    historyConfirmedBy = 0;
+                    buffer.confirmSent();
+                }
+                return "ACK hasta " + sequence + " (" + confirmed + " mensajes)";
+            }
+            if (data[0] != BinaryProtocol.ACK) {
+                return "trama de tipo " + data[0];
+            }
+            ByteBuffer ack = ByteBuffer.wrap(data, 1, data.length - 1);
+            long hint = BinaryProtocol.readAckHint(ack);
+            sendInterval.serverHint(hint);
+            return hint == 0 ? "ACK" : "ACK (intervalo mínimo " + hint + " ms)";
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    // Llamar con el bloqueo de deltaTracker. Lo enviado sin confirmar vuelve al búfer, antes que
+    // cualquier muestra posterior, para reenviarse en la próxima conexión.
+    private void disconnect() {
+        connected = false;
+        closeSocket();
+        historyConfirmedBy = 0;
+        buffer.releaseSent();
+        window.drainTo(buffer);
+    }
+
+    // Llamar con el bloqueo de deltaTracker
+    private void closeSocket() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar conexiones: " + e.getMessage());
+        }
+        socket = null;
+        out = null;
+    }
+
+    // ---- Envío ----
+
+    // Cada muestra decide cuándo se toma la siguiente
+    private void periodicUpdate() {
+        try {
+            sendSystemInfo();
+        } catch (RuntimeException e) {
+            System.err.println("Error al enviar actualización: " + e.getMessage());
+        } finally {
+            if (running) {
+                scheduler.schedule(this::periodicUpdate, sendInterval.nextDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void sendSystemInfo() {
+        Computer1 sample = source.get();
+        long now = System.currentTimeMillis();
+        // Sólo se envían los campos que superaron su umbral; si ninguno, nada hasta que toque
+        // un keepalive
+        synchronized (deltaTracker) {
+            int fields = deltaTracker.fieldsToSend(sample);
+            sendInterval.sampled(fields != 0 && fields != TelemetryParser.ALL_FIELDS);
+            if (connected && pipelined && window.isStalled(now)) {
+                // El socket sigue abierto pero el servidor dejó de confirmar: conexión muerta
+                log("Sin confirmaciones del servidor, se da la conexión por perdida");
+                disconnect(); // el hilo de conexión lo nota y reintenta
+            }
+            if (!connected) {
+                // Se guarda para enviarla al reconectar; se registra como enviada para que el
+                // intervalo siga la volatilidad real mientras tanto
+                buffer.add(now, sample);
+                deltaTracker.sent(sample, fields);
+                return;
+            }
+            if (!sendInterval.shouldSend(fields, now)) {
+                return;
+            }
+            if (pipelined && window.isFull()) {
+                // Demasiados mensajes en vuelo: la muestra va al historial pendiente y el cambio
+                // se envía en vivo cuando haya lugar (no se registra como enviado)
+                buffer.add(now, sample);
+                samplesDeferred++;
+                return;
+            }
+            try {
+                // Lo que quedó guardado con la ventana llena va antes, como muestras históricas
+                replayBuffered();
+                if (binaryMode) {
+                    sendBinary(sample, fields);
+                } else {
+                    out.println(ComputerClient.toJson(sample, fields));
+                    out.flush();
+                    if (out.checkError()) {
+                        throw new IOException("No se pudo escribir en el socket");
+                    }
+                }
+            } catch (IOException e) {
+                log("Error al enviar, la muestra queda guardada: " + e.getMessage());
+                disconnect(); // el hilo de conexión lo nota y reintenta
+                buffer.add(now, sample);
+                return;
+            }
+            if (pipelined) {
+                window.add(now, sample);
+            }
+            deltaTracker.sent(sample, fields);
+            sendInterval.sent(now);
+            messagesSent++;
+            log(fields == 0
+                    ? "Sin cambios relevantes: keepalive enviado"
+                    : "Información del sistema enviada");
+        }
+    }
+
+    // Envía lo guardado (sin conexión o con la ventana llena) en un solo lote. Llamar con el bloqueo de deltaTracker.
+    private void replayBuffered() throws IOException {
+        if (buffer.isEmpty() || buffer.hasUnconfirmed()) {
+            // Con un lote en vuelo se espera su confirmación antes de mandar el siguiente
+            return;
+        }
+        long count = buffer.size();
+        if (binaryMode && negotiatedVersion < BinaryProtocol.MIN_HISTORY_VERSION) {
+            log("El servidor no acepta muestras históricas: se descartan " + count);
+            buffer.clear();
+            return;
+        }
+        // Identidad y datos estáticos de la muestra actual: el servidor los necesita antes del lote
+        Computer1 current = source.get();
+        if (binaryMode) {
+            replayBinary(current);
+        } else {
+            replayJson(current);
+        }
+        if (pipelined) {
+            // Queda guardado hasta que se confirme el próximo mensaje en vivo, que va detrás
+            buffer.markSent();
+            historyConfirmedBy = window.nextSequence();
+        } else {
+            buffer.clear();
+        }
+        samplesReplayed += count;
+        messagesSent++;
+        log("Enviadas " + count + " muestras guardadas");
+    }
+
+    private void replayJson(Computer1 current) throws IOException {
+        StringBuilder batch = new StringBuilder();
+        long[] previous = {Long.MIN_VALUE};
+        buffer.forEach((timestamp, sample) -> {
+            long at = Math.max(timestamp, previous[0]);
+            previous[0] = at;
+            sample.setHostId(current.getHostId());
+            batch.append(historyJson(at, sample)).append('\n');
+        });
+        out.print(batch);
+        out.flush();
+        if (out.checkError()) {
+            throw new IOException("No se pudo enviar el lote de muestras guardadas");
+        }
+    }
+
+    // Línea histórica: "sampledAt" va primero, así el servidor la reconoce sin parsearla
+    static String historyJson(long sampledAt, Computer1 sample) {
+        String fields = ComputerClient.toJson(sample, DeltaTracker.DYNAMIC_FIELDS);
+        return "{\"sampledAt\":" + sampledAt + ",\"hostId\":" + ComputerClient.jsonString(sample.getHostId())
+                + "," + fields.substring(1);
+    }
+
+    private void replayBinary(Computer1 current) throws IOException {
+        synchronized (frame) {
+            frame.clear();
+            payload.clear();
+            BinaryProtocol.encodeStatic(payload, current);
+            payload.flip();
+            BinaryProtocol.writeFrame(frame, BinaryProtocol.STATIC, payload);
+            staticSent = true;
+            payload.clear();
+            // Base de la diferencia dentro de la trama (0 al empezar cada una) y última marca enviada
+            long[] previous = {0, 0};
+            buffer.forEach((timestamp, sample) -> {
+                if (payload.remaining() < BinaryProtocol.MAX_HISTORY_RECORD) {
+                    flushHistory();
+                    previous[0] = 0;
+                }
+                long at = Math.max(timestamp, previous[1]);
+                BinaryProtocol.encodeHistoryRecord(payload, previous[0], at, sample);
+                previous[0] = at;
+                previous[1] = at;
+            });
+            flushHistory();
+            binaryOut.write(frame.array(), 0, frame.position());
+            binaryOut.flush();
+        }
+    }
+
+    // Cierra la trama HISTORY en curso; si el búfer de salida se llena, lo vacía al socket
+    private void flushHistory() throws IOException {
+        if (payload.position() == 0) {
+            return;
+        }
+        payload.flip();
+        if (frame.remaining() < payload.remaining() + 8) {
+            binaryOut.write(frame.array(), 0, frame.position());
+            frame.clear();
+        }
+        BinaryProtocol.writeFrame(frame, BinaryProtocol.HISTORY, payload);
+        payload.clear();
+    }
+
+    // El detalle puede ocupar una trama entera: va solo en el búfer. Llamar con el bloqueo de frame.
+    private void sendDetail(DeviceMetrics devices) throws IOException {
+        binaryOut.write(frame.array(), 0, frame.position());
+        frame.clear();
+        payload.clear();
+        payload.limit(BinaryProtocol.MAX_FRAME - 1);
+        BinaryProtocol.encodeDetail(payload, negotiatedVersion >= BinaryProtocol.MIN_CORE_DETAIL_VERSION
+                ? devices : devices.without(DeviceMetrics.CORE), deviceSlots);
+        payload.flip();
+        BinaryProtocol.writeFrame(frame, BinaryProtocol.DETAIL, payload);
+        binaryOut.write(frame.array(), 0, frame.position());
+        frame.clear();
+        devicesSent = devices;
+    }
+
+    // Los datos estáticos sólo se envían en la primera actualización de cada sesión (o si cambian).
+    // Con un servidor de versión 1 no hay deltas: se envía siempre UPDATE completo.
+    private void sendBinary(Computer1 sample, int fields) throws IOException {
+        boolean deltas = negotiatedVersion >= BinaryProtocol.MIN_DELTA_VERSION;
+        synchronized (frame) {
+            frame.clear();
+            if (!staticSent || (fields & DeltaTracker.STATIC_FIELDS) != 0) {
+                payload.clear();
+                BinaryProtocol.encodeStatic(payload, sample);
+                payload.flip();
+                BinaryProtocol.writeFrame(frame, BinaryProtocol.STATIC, payload);
+                staticSent = true;
+            }
+            DeviceMetrics devices = sample.getDevices();
+            if (devices != null && devices != devicesSent && negotiatedVersion >= BinaryProtocol.MIN_DETAIL_VERSION) {
+                sendDetail(devices);
+            }
+            payload.clear();
+            if (!deltas) {
+                BinaryProtocol.encodeUpdate(payload, sample);
+                payload.flip();
+                BinaryProtocol.writeFrame(frame, BinaryProtocol.UPDATE, payload);
+            } else if (fields != 0) {
+                // También cuando sólo cambió lo estático: el DELTA vacío hace que el servidor lo aplique
+                BinaryProtocol.encodeDelta(payload, sample, fields);
+                payload.flip();
+                BinaryProtocol.writeFrame(frame, BinaryProtocol.DELTA, payload);
+            } else {
+                BinaryProtocol.writeKeepalive(frame);
+            }
+            binaryOut.write(frame.array(), 0, frame.position());
+            binaryOut.flush();
+        }
+    }
+}
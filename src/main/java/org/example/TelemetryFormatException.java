@@ -0,0 +1,18 @@
+package org.example;
+
+/**
+ * Línea de telemetría mal formada. Indica la posición (en bytes o caracteres)
+ * donde el parser dejó de entender la entrada.
+ */
+class TelemetryFormatException extends RuntimeException {
+    private final int position;
+
+    TelemetryFormatException(String message, int position) {
+        super(message + " (posición " + position + ")");
+        this.position = position;
+    }
+
+    int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,559 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Diario de telemetría en disco: cada actualización aceptada se escribe como un registro
+ * binario de tamaño fijo directamente en un segmento mapeado en memoria
+ * ({@link FileChannel#map}), sin copias intermedias.
+ *
+ * Hay dos tipos de registro: HOST (256 bytes, datos estáticos e índice del host) y SAMPLE
+ * (64 bytes, marca de tiempo y métricas). Cada segmento repite el HOST de los hosts que
+ * aparecen en él, así que se puede leer o borrar de forma independiente. Un byte de tipo 0
+ * marca el final de los datos y cada registro lleva una suma de verificación, de modo que
+ * un registro a medio escribir se detecta al reproducir.
+ *
+ * Lo escrito queda en la caché de páginas del sistema en cuanto se copia al mapeo (sobrevive
+ * a la caída del proceso); un hilo aparte lo fuerza a disco cada {@code flushMillis}
+ * (commit agrupado), así que la ingesta nunca espera un fsync.
+ *
+ * Los hilos de eventos escriben sin un cerrojo común: cada uno reserva su lugar en el
+ * segmento avanzando la posición de forma atómica. Al llenarse o vencer, el segmento se
+ * cambia por otro que el hilo del diario ya dejó abierto y mapeado; ese mismo hilo fuerza
+ * a disco y cierra el anterior y aplica la retención. Si el proceso cae con escrituras en
+ * curso puede quedar un hueco: la reproducción de ese segmento termina allí.
+ */
+class TelemetryJournal implements Closeable {
+    static final int HOST_RECORD = 1;
+    static final int SAMPLE_RECORD = 2;
+    static final int HOST_SIZE = 256;
+    static final int SAMPLE_SIZE = 64;
+
+    private static final int HOST_CHECKSUM_OFFSET = 248;
+    private static final int SAMPLE_CHECKSUM_OFFSET = 56;
+    private static final int MAX_HOST_ID_BYTES = 128;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long segmentMillis;
+    private final long retentionBytes;
+    private final long retentionMillis;
+    private final long flushMillis;
+
+    // Índice y últimos datos estáticos escritos de cada host; se protege con su propio cerrojo
+    private static final class HostRef {
+        final int index;
+        long segment = -1;
+        String type;
+        String processorModel;
+        String operatingSystemVersion;
+        int coreCount;
+        long diskCapacity;
+
+        HostRef(int index) {
+            this.index = index;
+        }
+    }
+
+    // Segmento abierto y mapeado; position es la próxima reserva (puede pasarse del final)
+    private static final class Segment {
+        final long sequence;
+        final Path file;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final AtomicInteger position = new AtomicInteger();
+        // Escrituras en curso: el segmento se fuerza a disco cuando terminan
+        final AtomicInteger writers = new AtomicInteger();
+        volatile long start;
+
+        Segment(long sequence, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Map<String, HostRef> hosts = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHostIndex = new AtomicInteger();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    // Sólo para cambiar de segmento y preparar el siguiente; la escritura no lo toma
+    private final Object rollLock = new Object();
+    private volatile Segment current;
+    private Segment spare;
+    private ScheduledExecutorService flusher;
+
+    TelemetryJournal(Path directory, int segmentBytes, long segmentMillis,
+                     long retentionBytes, long retentionMillis, long flushMillis) {
+        if (segmentBytes < HOST_SIZE + SAMPLE_SIZE) {
+            throw new IllegalArgumentException("Segmento demasiado pequeño: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.segmentMillis = segmentMillis;
+        this.retentionBytes = retentionBytes;
+        this.retentionMillis = retentionMillis;
+        this.flushMillis = flushMillis;
+    }
+
+    // Configurable con computer.journal.*; el tamaño de segmento se limita a 1 GB
+    static TelemetryJournal fromSystemProperties() {
+        long segmentMB = Math.min(1024, Long.getLong("computer.journal.segmentMB", 64));
+        return new TelemetryJournal(
+                Paths.get(System.getProperty("computer.journal.dir", "telemetry-journal")),
+                (int) (segmentMB * 1024 * 1024),
+                Long.getLong("computer.journal.segmentMinutes", 60) * 60_000L,
+                Long.getLong("computer.journal.retentionMB", 2048) * 1024 * 1024,
+                Long.getLong("computer.journal.retentionHours", 72) * 3_600_000L,
+                Long.getLong("computer.journal.flushMillis", 200));
+    }
+
+    // ---- Reproducción ----
+
+    /**
+     * Reconstruye el registro y el historial leyendo los segmentos en orden. Los hosts
+     * recuperados quedan como "Desconectado" hasta que vuelvan a reportar. Un registro
+     * dañado o truncado termina la lectura de su segmento; los siguientes se leen igual.
+     * Devuelve la cantidad de muestras recuperadas.
+     */
+    long replay(HostRegistry registry, TimeSeriesStore history) throws IOException {
+        long samples = 0;
+        List<Path> segments = listSegments();
+        Computer1 scratch = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+        for (Path file : segments) {
+            samples += replaySegment(file, registry, history, scratch);
+        }
+        if (!segments.isEmpty()) {
+            System.out.println("Historial recuperado: " + samples + " muestras de "
+                    + segments.size() + " segmentos");
+        }
+        return samples;
+    }
+
+    private long replaySegment(Path file, HostRegistry registry, TimeSeriesStore history,
+                               Computer1 scratch) throws IOException {
+        Map<Integer, Computer1> segmentHosts = new HashMap<>();
+        long samples = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            int pos = 0;
+            int limit = buffer.limit();
+            while (pos < limit) {
+                int type = buffer.get(pos);
+                if (type == 0) {
+                    break;
+                }
+                int size = type == HOST_RECORD ? HOST_SIZE : type == SAMPLE_RECORD ? SAMPLE_SIZE : -1;
+                if (size < 0 || pos + size > limit
+                        || buffer.getInt(pos + size - 8) != checksum(buffer, pos, (size - 8) / 8)) {
+                    System.err.println("Segmento dañado: " + file.getFileName() + " (byte " + pos
+                            + "); se descarta el resto");
+                    break;
+                }
+                if (type == HOST_RECORD) {
+                    Computer1 host = readHost(buffer, pos);
+                    segmentHosts.put(buffer.getInt(pos + 4), host);
+                } else {
+                    Computer1 host = segmentHosts.get(buffer.getInt(pos + 4));
+                    if (host != null) {
+                        long timestamp = readSample(buffer, pos, host);
+                        scratch.copyFrom(host);
+                        registry.update(host.getHostId(), host.getType(), computer -> {
+                            computer.updateFrom(scratch);
+                            computer.setConnectionStatus("Desconectado");
+                        });
+                        history.append(host.getHostId(), timestamp, host);
+                        samples++;
+                    }
+                }
+                pos += size;
+            }
+        }
+        return samples;
+    }
+
+    private static Computer1 readHost(ByteBuffer buffer, int pos) {
+        Computer1 host = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+        host.setCoreCount(buffer.getInt(pos + 8));
+        host.setDiskCapacity(buffer.getLong(pos + 16));
+        int offset = pos + 24;
+        String[] strings = new String[4];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.get(offset) & 0xFF;
+            byte[] bytes = new byte[length];
+            for (int j = 0; j < length; j++) {
+                bytes[j] = buffer.get(offset + 1 + j);
+            }
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += 1 + length;
+        }
+        host.setHostId(strings[0]);
+        host.setType(strings[1]);
+        host.setProcessorModel(strings[2]);
+        host.setOperatingSystemVersion(strings[3]);
+        return host;
+    }
+
+    private static long readSample(ByteBuffer buffer, int pos, Computer1 into) {
+        into.setFreeMemory(buffer.getDouble(pos + 16));
+        into.setFreeDiskSpace(buffer.getDouble(pos + 24));
+        into.setFreeCpuPercentage(buffer.getDouble(pos + 32));
+        into.setFreeBandwidthPercentage(buffer.getDouble(pos + 40));
+        into.setProcessorSpeed(buffer.getDouble(pos + 48));
+        return buffer.getLong(pos + 8);
+    }
+
+    // ---- Escritura ----
+
+    // Abre un segmento nuevo (nunca se escribe sobre uno existente) y arranca el commit agrupado
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments();
+        segmentSequence.set(existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1)));
+        Segment first = openSegment();
+        first.start = System.currentTimeMillis();
+        current = first;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        flusher.execute(this::prepareSpare);
+    }
+
+    // Escribe la muestra; los errores de disco se registran y desactivan el diario sin frenar la ingesta
+    void append(String hostId, long timestamp, Computer1 computer) {
+        if (current == null) {
+            return;
+        }
+        HostRef ref = hosts.get(hostId);
+        if (ref == null) {
+            ref = hosts.computeIfAbsent(hostId, id -> new HostRef(nextHostIndex.getAndIncrement()));
+        }
+        // Las muestras de un mismo host no se cruzan: su HOST siempre precede a sus SAMPLE
+        synchronized (ref) {
+            Segment segment;
+            while ((segment = current) != null) {
+                // Primero se anota como escritor y después se confirma que el segmento sigue
+                // vigente: si ya se cambió, su retiro puede haber visto cero escritores
+                segment.writers.incrementAndGet();
+                try {
+                    if (current != segment) {
+                        continue;
+                    }
+                    if ((segment.position.get() == 0 || timestamp - segment.start < segmentMillis)
+                            && write(segment, ref, hostId, timestamp, computer)) {
+                        return;
+                    }
+                } finally {
+                    segment.writers.decrementAndGet();
+                }
+                // Vencido o lleno; fuera de la escritura, que el retiro espera a que terminen
+                roll(segment, timestamp);
+            }
+        }
+    }
+
+    // Reserva el lugar y escribe; false si no cabe en el segmento. Llamar anotado como escritor
+    private boolean write(Segment segment, HostRef ref, String hostId, long timestamp, Computer1 computer) {
+        boolean needsHost = ref.segment != segment.sequence || staticChanged(ref, computer);
+        int size = (needsHost ? HOST_SIZE : 0) + SAMPLE_SIZE;
+        int pos = segment.position.getAndAdd(size);
+        if (pos + size > segmentBytes) {
+            return false;
+        }
+        if (needsHost) {
+            writeHost(segment, pos, ref, hostId, computer);
+            pos += HOST_SIZE;
+        }
+        writeSample(segment.buffer, pos, ref, timestamp, computer);
+        return true;
+    }
+
+    private static boolean staticChanged(HostRef ref, Computer1 computer) {
+        return ref.coreCount != computer.getCoreCount()
+                || ref.diskCapacity != computer.getDiskCapacity()
+                || !equals(ref.type, computer.getType())
+                || !equals(ref.processorModel, computer.getProcessorModel())
+                || !equals(ref.operatingSystemVersion, computer.getOperatingSystemVersion());
+    }
+
+    private static void writeHost(Segment segment, int pos, HostRef ref, String hostId, Computer1 computer) {
+        MappedByteBuffer out = segment.buffer;
+        out.put(pos, (byte) HOST_RECORD);
+        out.putInt(pos + 4, ref.index);
+        out.putInt(pos + 8, computer.getCoreCount());
+        out.putLong(pos + 16, computer.getDiskCapacity());
+        int offset = pos + 24;
+        int end = pos + HOST_CHECKSUM_OFFSET;
+        offset = putString(out, offset, hostId, Math.min(MAX_HOST_ID_BYTES, end - offset - 1));
+        offset = putString(out, offset, computer.getType(), end - offset - 1);
+        offset = putString(out, offset, computer.getProcessorModel(), end - offset - 1);
+        putString(out, offset, computer.getOperatingSystemVersion(), end - offset - 1);
+        out.putInt(pos + HOST_CHECKSUM_OFFSET, checksum(out, pos, HOST_CHECKSUM_OFFSET / 8));
+
+        ref.segment = segment.sequence;
+        ref.type = computer.getType();
+        ref.processorModel = computer.getProcessorModel();
+        ref.operatingSystemVersion = computer.getOperatingSystemVersion();
+        ref.coreCount = computer.getCoreCount();
+        ref.diskCapacity = computer.getDiskCapacity();
+    }
+
+    private static void writeSample(MappedByteBuffer out, int pos, HostRef ref, long timestamp, Computer1 computer) {
+        out.putInt(pos + 4, ref.index);
+        out.putLong(pos + 8, timestamp);
+        out.putDouble(pos + 16, computer.getFreeMemory());
+        out.putDouble(pos + 24, computer.getFreeDiskSpace());
+        out.putDouble(pos + 32, computer.getFreeCpuPercentage());
+        out.putDouble(pos + 40, computer.getFreeBandwidthPercentage());
+        out.putDouble(pos + 48, computer.getProcessorSpeed());
+        out.put(pos, (byte) SAMPLE_RECORD);
+        out.putInt(pos + SAMPLE_CHECKSUM_OFFSET, checksum(out, pos, SAMPLE_CHECKSUM_OFFSET / 8));
+    }
+
+    // Longitud (1 byte) y UTF-8 recortado a maxBytes sin partir un carácter
+    private static int putString(ByteBuffer out, int offset, String value, int maxBytes) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Math.min(255, Math.max(0, maxBytes)));
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        out.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            out.put(offset + 1 + i, bytes[i]);
+        }
+        return offset + 1 + length;
+    }
+
+    // Cambia el segmento lleno o vencido por el de repuesto; el resto se hace en el hilo del diario
+    private void roll(Segment full, long now) {
+        synchronized (rollLock) {
+            if (current != full) {
+                return; // otro hilo ya lo cambió
+            }
+            Segment next = spare;
+            spare = null;
+            if (next == null) {
+                // El hilo del diario todavía no preparó el repuesto: se abre aquí
+                try {
+                    next = openSegment();
+                } catch (IOException e) {
+                    System.err.println("Error al escribir el diario de telemetría: " + e.getMessage());
+                    current = null;
+                    retireLater(full);
+                    return;
+                }
+            }
+            next.start = now;
+            current = next;
+        }
+        retireLater(full);
+    }
+
+    private Segment openSegment() throws IOException {
+        long sequence = segmentSequence.incrementAndGet();
+        Path file = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new Segment(sequence, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Deja abierto el próximo segmento, así el cambio no espera al sistema de archivos
+    private void prepareSpare() {
+        synchronized (rollLock) {
+            if (spare != null || current == null) {
+                return;
+            }
+            try {
+                spare = openSegment();
+            } catch (IOException e) {
+                System.err.println("No se pudo preparar el siguiente segmento del diario: " + e.getMessage());
+            }
+        }
+    }
+
+    private void retireLater(Segment segment) {
+        try {
+            flusher.execute(() -> {
+                retire(segment);
+                Segment now = current;
+                if (now != null) {
+                    try {
+                        enforceRetention(now.file);
+                    } catch (IOException e) {
+                        System.err.println("Error al aplicar la retención del diario: " + e.getMessage());
+                    }
+                }
+                prepareSpare();
+            });
+        } catch (RejectedExecutionException e) {
+            retire(segment); // el diario se está cerrando
+        }
+    }
+
+    // Espera las escrituras que todavía reservaron lugar en él, lo fuerza a disco y lo cierra
+    private static void retire(Segment segment) {
+        while (segment.writers.get() > 0) {
+            LockSupport.parkNanos(100_000);
+        }
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al cerrar un segmento del diario: " + e.getMessage());
+        }
+    }
+
+    // Borra los segmentos más viejos que la retención o que exceden el espacio permitido
+    private void enforceRetention(Path current) throws IOException {
+        List<Path> segments = listSegments();
+        long total = 0;
+        for (Path file : segments) {
+            // El repuesto todavía vacío no cuenta
+            if (file.compareTo(current) <= 0) {
+                total += Files.size(file);
+            }
+        }
+        long oldest = System.currentTimeMillis() - retentionMillis;
+        for (Path file : segments) {
+            if (file.equals(current)) {
+                break;
+            }
+            boolean expired = Files.getLastModifiedTime(file).toMillis() < oldest;
+            if (!expired && total <= retentionBytes) {
+                break;
+            }
+            total -= Files.size(file);
+            Files.delete(file);
+        }
+    }
+
+    // Commit agrupado: fuerza a disco lo escrito desde el último flush
+    void flush() {
+        Segment segment = current;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    // Segmentos escritos, sin el repuesto; antes espera el mantenimiento pendiente del diario
+    synchronized int segmentCount() throws IOException {
+        if (flusher != null && !flusher.isShutdown()) {
+            try {
+                flusher.submit(() -> { }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | RejectedExecutionException e) {
+                // Se cerró mientras tanto: se cuentan los archivos que haya
+            }
+        }
+        Path unused;
+        synchronized (rollLock) {
+            unused = spare != null ? spare.file : null;
+        }
+        int count = 0;
+        for (Path file : listSegments()) {
+            if (!file.equals(unused)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        Segment last;
+        Segment unused;
+        synchronized (rollLock) {
+            last = current;
+            unused = spare;
+            current = null;
+            spare = null;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (last != null) {
+            retire(last);
+        }
+        // El repuesto nunca se escribió: no hace falta dejarlo en disco
+        if (unused != null) {
+            unused.channel.close();
+            Files.deleteIfExists(unused.file);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                segments.add(file);
+            }
+        }
+        // Nombres con ancho fijo: el orden alfabético es el orden de escritura
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Suma de verificación de los primeros longs del registro (incluye el byte de tipo)
+    static int checksum(ByteBuffer buffer, int offset, int longs) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < longs; i++) {
+            hash = (hash ^ buffer.getLong(offset + i * 8)) * 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 29;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
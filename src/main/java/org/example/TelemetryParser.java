@@ -0,0 +1,468 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser de una sola pasada para las líneas JSON que envía {@link ComputerClient}.
+ * Lee los bytes (o caracteres) de la línea y escribe directamente en un {@link Computer1}
+ * reutilizable: los campos numéricos no pasan por String y los textos sólo se crean
+ * cuando cambian respecto al valor anterior.
+ *
+ * No es thread-safe: cada hilo de eventos usa su propia instancia.
+ */
+class TelemetryParser {
+    // Bits de los campos presentes en la línea
+    static final int PROCESSOR_MODEL = 1;
+    static final int PROCESSOR_SPEED = 1 << 1;
+    static final int CORE_COUNT = 1 << 2;
+    static final int DISK_CAPACITY = 1 << 3;
+    static final int OPERATING_SYSTEM_VERSION = 1 << 4;
+    static final int FREE_MEMORY = 1 << 5;
+    static final int FREE_DISK_SPACE = 1 << 6;
+    static final int FREE_BANDWIDTH_PERCENTAGE = 1 << 7;
+    static final int FREE_CPU_PERCENTAGE = 1 << 8;
+
+    // Todas las métricas del equipo; el identificador es opcional (clientes antiguos no lo envían)
+    static final int ALL_FIELDS = (1 << 9) - 1;
+    static final int HOST_ID = 1 << 9;
+    // Muestra histórica (tomada sin conexión): lleva su marca de tiempo, ver getSampledAt()
+    static final int SAMPLED_AT = 1 << 10;
+    private static final byte[] HISTORY_PREFIX = "{\"sampledAt\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String[] FIELD_NAMES = {
+            "processorModel",
+            "processorSpeed",
+            "coreCount",
+            "diskCapacity",
+            "operatingSystemVersion",
+            "freeMemory",
+            "freeDiskSpace",
+            "freeBandwidthPercentage",
+            "freeCpuPercentage",
+            "hostId",
+            "sampledAt"
+    };
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ByteBuffer bytes;
+    private CharSequence chars;
+    private int pos;
+    private int end;
+    private char[] text = new char[128];
+    private int textLength;
+    private long sampledAt;
+
+    int parse(ByteBuffer line, Computer1 target) {
+        bytes = line;
+        chars = null;
+        pos = line.position();
+        end = line.limit();
+        try {
+            return parseObject(target);
+        } finally {
+            bytes = null;
+        }
+    }
+
+    int parse(CharSequence line, Computer1 target) {
+        bytes = null;
+        chars = line;
+        pos = 0;
+        end = line.length();
+        try {
+            return parseObject(target);
+        } finally {
+            chars = null;
+        }
+    }
+
+    // Marca de tiempo (ms) de la última línea con SAMPLED_AT
+    long getSampledAt() {
+        return sampledAt;
+    }
+
+    // Las líneas históricas empiezan siempre por "sampledAt": se reconocen antes de parsearlas
+    // para no pisar el estado en vivo de la sesión
+    static boolean isHistorical(ByteBuffer line) {
+        if (line.remaining() < HISTORY_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < HISTORY_PREFIX.length; i++) {
+            if (line.get(line.position() + i) != HISTORY_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int parseObject(Computer1 target) {
+        int fields = 0;
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return expectEnd(fields);
+        }
+
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int field = readFieldName();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            readField(field, target);
+            if (field >= 0) {
+                fields |= 1 << field;
+            }
+            skipWhitespace();
+            int c = next();
+            if (c == '}') {
+                return expectEnd(fields);
+            }
+            if (c != ',') {
+                throw error("Se esperaba ',' o '}'", pos - 1);
+            }
+        }
+    }
+
+    private int expectEnd(int fields) {
+        skipWhitespace();
+        if (pos != end) {
+            throw error("Datos sobrantes después del objeto", pos);
+        }
+        return fields;
+    }
+
+    private void readField(int field, Computer1 target) {
+        switch (field) {
+            case 0:
+                target.setProcessorModel(readString(target.getProcessorModel()));
+                break;
+            case 1:
+                target.setProcessorSpeed(readDouble());
+                break;
+            case 2:
+                target.setCoreCount((int) readLong());
+                break;
+            case 3:
+                target.setDiskCapacity(readLong());
+                break;
+            case 4:
+                target.setOperatingSystemVersion(readString(target.getOperatingSystemVersion()));
+                break;
+            case 5:
+                target.setFreeMemory(readDouble());
+                break;
+            case 6:
+                target.setFreeDiskSpace(readDouble());
+                break;
+            case 7:
+                target.setFreeBandwidthPercentage(readDouble());
+                break;
+            case 8:
+                target.setFreeCpuPercentage(readDouble());
+                break;
+            case 9:
+                target.setHostId(readString(target.getHostId()));
+                break;
+            case 10:
+                sampledAt = readLong();
+                break;
+            default:
+                skipValue();
+        }
+    }
+
+    // Devuelve el índice del campo conocido, o -1 si la clave no se reconoce
+    private int readFieldName() {
+        readText();
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if (textEquals(FIELD_NAMES[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String readString(String previous) {
+        expect('"');
+        readText();
+        return textEquals(previous) ? previous : new String(text, 0, textLength);
+    }
+
+    private boolean textEquals(String value) {
+        if (value == null || value.length() != textLength) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (value.charAt(i) != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lee el contenido de una cadena (la comilla inicial ya se consumió) resolviendo escapes
+    private void readText() {
+        textLength = 0;
+        while (true) {
+            int start = pos;
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                appendText(readEscape());
+            } else if (c < 0x20) {
+                throw error("Carácter de control dentro de una cadena", start);
+            } else if (bytes != null && c >= 0x80) {
+                readUtf8(c, start);
+            } else {
+                appendText((char) c);
+            }
+        }
+    }
+
+    private char readEscape() {
+        int c = next();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw error("Escape \\u inválido", pos - 1);
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw error("Escape inválido", pos - 1);
+        }
+    }
+
+    private void readUtf8(int lead, int start) {
+        int extra;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            codePoint = lead & 0x07;
+        } else {
+            throw error("Secuencia UTF-8 inválida", start);
+        }
+        for (int i = 0; i < extra; i++) {
+            int c = next();
+            if ((c & 0xC0) != 0x80) {
+                throw error("Secuencia UTF-8 inválida", start);
+            }
+            codePoint = (codePoint << 6) | (c & 0x3F);
+        }
+        if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            appendText(Character.highSurrogate(codePoint));
+            appendText(Character.lowSurrogate(codePoint));
+        } else {
+            appendText((char) codePoint);
+        }
+    }
+
+    private void appendText(char c) {
+        if (textLength == text.length) {
+            char[] bigger = new char[text.length * 2];
+            System.arraycopy(text, 0, bigger, 0, textLength);
+            text = bigger;
+        }
+        text[textLength++] = c;
+    }
+
+    private long readLong() {
+        int start = pos;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < end) {
+            int c = at(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                throw error("Número entero fuera de rango", start);
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) {
+            throw error("Se esperaba un número entero", start);
+        }
+        int c = peek();
+        if (c == '.' || c == 'e' || c == 'E') {
+            throw error("Se esperaba un número entero", start);
+        }
+        return negative ? -value : value;
+    }
+
+    private double readDouble() {
+        int start = pos;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+
+        while (pos < end) {
+            int c = at(pos);
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) fractionDigits++;
+                } else {
+                    exact = false;
+                }
+                digits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0) {
+            throw error("Se esperaba un número", start);
+        }
+        int c = peek();
+        if (c == 'e' || c == 'E') {
+            exact = false;
+            pos++;
+            c = peek();
+            if (c == '+' || c == '-') pos++;
+            int exponentStart = pos;
+            while (pos < end && at(pos) >= '0' && at(pos) <= '9') pos++;
+            if (pos == exponentStart) {
+                throw error("Exponente inválido", start);
+            }
+        }
+
+        // Camino rápido: mantisa y potencia de diez exactas en double, la división redondea bien
+        if (exact && mantissa < (1L << 53) && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return slowDouble(start);
+    }
+
+    private double slowDouble(int start) {
+        textLength = 0;
+        for (int i = start; i < pos; i++) {
+            appendText((char) at(i));
+        }
+        try {
+            return Double.parseDouble(new String(text, 0, textLength));
+        } catch (NumberFormatException e) {
+            throw error("Número inválido", start);
+        }
+    }
+
+    // Salta un valor de un campo desconocido, incluidos objetos y arreglos anidados
+    private void skipValue() {
+        int c = peek();
+        if (c == '"') {
+            pos++;
+            readText();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = next();
+                if (c == '"') {
+                    readText();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            int start = pos;
+            while (pos < end) {
+                c = at(pos);
+                if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t') break;
+                pos++;
+            }
+            if (pos == start) {
+                throw error("Se esperaba un valor", start);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            int c = at(pos);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void expect(char expected) {
+        if (pos >= end || at(pos) != expected) {
+            throw error("Se esperaba '" + expected + "'", pos);
+        }
+        pos++;
+    }
+
+    private int peek() {
+        return pos < end ? at(pos) : -1;
+    }
+
+    private int next() {
+        if (pos >= end) {
+            throw error("Fin de línea inesperado", pos);
+        }
+        return at(pos++);
+    }
+
+    private int at(int index) {
+        return bytes != null ? bytes.get(index) & 0xFF : chars.charAt(index);
+    }
+
+    private TelemetryFormatException error(String message, int position) {
+        int offset = bytes != null ? position - bytes.position() : position;
+        return new TelemetryFormatException(message, offset);
+    }
+}
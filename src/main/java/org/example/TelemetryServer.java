@@ -0,0 +1,758 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Núcleo del servidor sin interfaz gráfica: ingesta de clientes, registro de hosts, muestreo
+ * del propio equipo, historial, diario, ubicación de cargas y API HTTP. No usa AWT ni Swing,
+ * así que corre en equipos sin pantalla; la ventana de {@link ComputerServer} es sólo un
+ * suscriptor más del registro y de los mensajes.
+ */
+class TelemetryServer {
+    private static final long NETWORK_UPDATE_INTERVAL = 2; // segundos
+    private static final long PRESSURE_INTERVAL_MILLIS = 1000;
+    private static final ThreadLocal<TelemetryParser> PARSER = ThreadLocal.withInitial(TelemetryParser::new);
+
+    private final HostRegistry registry = new HostRegistry();
+    private final SamplingService sampler = SamplingService.get();
+    private final TimeSeriesStore history = TimeSeriesStore.fromSystemProperties();
+    private final TelemetryJournal journal = TelemetryJournal.fromSystemProperties();
+    private final PlacementEngine placement = PlacementEngine.fromSystemProperties(registry);
+    private final FleetAggregates aggregates = FleetAggregates.fromSystemProperties();
+    private final FleetApiServer api = FleetApiServer.fromSystemProperties(registry, history, aggregates);
+    private final LivenessMonitor liveness = LivenessMonitor.fromSystemProperties(registry);
+    private final AlertEngine alerts = AlertEngine.fromSystemProperties();
+    // Nunca pide a los clientes callar más de la mitad del plazo de sospecha
+    private final IngestionPressure pressure = IngestionPressure.fromSystemProperties(liveness.getSuspectMillis() / 2);
+    // El propio servidor también se muestrea más seguido mientras sus métricas cambian
+    private final AdaptiveInterval systemInterval = new AdaptiveInterval(1000, 10_000, 10_000);
+    private final DeltaTracker systemDelta = DeltaTracker.fromSystemProperties();
+    private final Computer1 systemSample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Servidor");
+    private final CopyOnWriteArrayList<Consumer<String>> messageListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
+    private final int port = Integer.getInteger("computer.server.port", 12345);
+    private final int ioThreads = Integer.getInteger("computer.server.ioThreads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private final int readBufferSize = Integer.getInteger("computer.server.readBuffer", 8 * 1024);
+    // Confirmaciones en tubería (protocolo binario v5): una cada ackEvery mensajes o a los
+    // ackDelayMillis del primero sin confirmar
+    private final int ackEvery = Integer.getInteger("computer.server.ack.every", 32);
+    private final long ackDelayMillis = Long.getLong("computer.server.ack.delayMillis", 100);
+    private final boolean journalEnabled =
+            Boolean.parseBoolean(System.getProperty("computer.journal.enabled", "true"));
+    private final boolean httpEnabled =
+            Boolean.parseBoolean(System.getProperty("computer.http.enabled", "true"));
+    private String serverHostId;
+    private RelayForwarder relay;
+    private IngestionEngine ingestionEngine;
+    private long lastBusyNanos;
+
+    // Arranca todo en el hilo que llama; al volver ya se aceptan clientes
+    void start() {
+        // Percentiles y conteos de la flota, al día con cada cambio del registro
+        registry.addListener(aggregates);
+
+        // Recuperar hosts e historial del diario antes de aceptar datos nuevos
+        restoreFromJournal();
+
+        // Alertas sobre cada cambio del registro (después del diario: no se alerta sobre lo restaurado)
+        startAlerting();
+
+        // Agregar información del servidor al inicio
+        addServerInfo();
+
+        // Iniciar el monitoreo de red
+        startNetworkMonitoring();
+
+        // Iniciar el monitoreo del sistema
+        startSystemMonitoring();
+
+        // Plazos de latido: clientes callados pasan a sospechosos y luego a desconectados
+        startLivenessMonitoring();
+
+        // Iniciar el motor de ingesta (acepta y atiende clientes en sus propios hilos)
+        startServer();
+
+        // Contrapresión: pedir a los clientes que espacien sus envíos si la ingesta se satura
+        startPressureMonitoring();
+
+        // API HTTP/JSON de consulta sobre el mismo registro e historial
+        startApi();
+
+        // En modo relay, reenviar los hosts al servidor central
+        startRelay();
+    }
+
+    private void startRelay() {
+        relay = RelayForwarder.fromSystemProperties(registry, serverHostId);
+        if (relay != null) {
+            relay.start();
+            message("Reenviando hosts al servidor central " + System.getProperty("computer.relay.upstream"));
+        }
+    }
+
+    private void startAlerting() {
+        if (alerts.getRules().isEmpty()) {
+            return;
+        }
+        alerts.addSink(alert -> message(alert.toString()));
+        registry.addListener(alerts);
+        scheduler.scheduleAtFixedRate(() -> alerts.tick(System.currentTimeMillis()), 1, 1, TimeUnit.SECONDS);
+        message("Alertas activas: " + alerts.getRules().size() + " reglas");
+    }
+
+    private void startLivenessMonitoring() {
+        liveness.addListener(this::livenessChanged);
+        long tick = liveness.getTickMillis();
+        scheduler.scheduleAtFixedRate(() -> liveness.advance(System.currentTimeMillis()),
+                tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    private void livenessChanged(LivenessMonitor.Deadline deadline, int state) {
+        String hostId = deadline.getEntry().getHostId();
+        switch (state) {
+            case LivenessMonitor.SUSPECT:
+                message("Host sospechoso (sin latidos): " + hostId);
+                break;
+            case LivenessMonitor.DEAD:
+                message("Host desconectado por falta de latidos: " + hostId);
+                // La conexión quedó medio abierta: se cierra para liberar el socket
+                ((ClientSession) deadline.getOwner()).connection.closeLater();
+                break;
+            default:
+                message("Host volvió a reportar: " + hostId);
+        }
+    }
+
+    void close() {
+        // Primero la ingesta: sus hilos programan confirmaciones en el planificador
+        if (ingestionEngine != null) {
+            ingestionEngine.close();
+        }
+        scheduler.shutdownNow();
+        alerts.close();
+        if (relay != null) {
+            relay.close();
+        }
+        if (httpEnabled) {
+            api.close();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el diario de telemetría: " + e.getMessage());
+        }
+    }
+
+    HostRegistry getRegistry() {
+        return registry;
+    }
+
+    TimeSeriesStore getHistory() {
+        return history;
+    }
+
+    // Ubicación de cargas de trabajo sobre los hosts conectados
+    PlacementEngine getPlacementEngine() {
+        return placement;
+    }
+
+    FleetAggregates getAggregates() {
+        return aggregates;
+    }
+
+    AlertEngine getAlerts() {
+        return alerts;
+    }
+
+    LivenessMonitor getLivenessMonitor() {
+        return liveness;
+    }
+
+    int getPort() {
+        return ingestionEngine.getLocalPort();
+    }
+
+    // Mensajes para el operador; también van a la salida estándar
+    void addMessageListener(Consumer<String> listener) {
+        messageListeners.add(listener);
+    }
+
+    private void message(String text) {
+        System.out.println(text);
+        for (Consumer<String> listener : messageListeners) {
+            listener.accept(text);
+        }
+    }
+
+    private void startApi() {
+        if (!httpEnabled) {
+            return;
+        }
+        try {
+            api.start();
+            message("API HTTP escuchando en el puerto " + api.getPort());
+        } catch (IOException e) {
+            System.err.println("No se pudo iniciar la API HTTP: " + e.getMessage());
+        }
+    }
+
+    private void restoreFromJournal() {
+        if (!journalEnabled) {
+            return;
+        }
+        try {
+            journal.replay(registry, history);
+            journal.open();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Error al cerrar el diario de telemetría: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el diario de telemetría: " + e.getMessage());
+        }
+    }
+
+    // Cada muestra aceptada va al historial en memoria, al diario en disco y a los agregados
+    private void recordSample(String hostId, Computer1 computer) {
+        recordSample(hostId, System.currentTimeMillis(), computer);
+    }
+
+    // Muestras con su propia marca de tiempo (las históricas); nunca en el futuro del servidor
+    private void recordSample(String hostId, long timestamp, Computer1 computer) {
+        long at = Math.min(timestamp, System.currentTimeMillis());
+        history.append(hostId, at, computer);
+        journal.append(hostId, at, computer);
+        // Los grupos salen del registro: las muestras históricas no traen datos estáticos
+        HostEntry entry = registry.get(hostId);
+        aggregates.record(entry != null ? entry.live() : computer, at, computer);
+    }
+
+    private void startSystemMonitoring() {
+        scheduler.schedule(this::sampleSystem, 0, TimeUnit.MILLISECONDS);
+    }
+
+    // Cada muestra decide cuándo se toma la siguiente
+    private void sampleSystem() {
+        try {
+            updateSystemInfo();
+        } finally {
+            scheduler.schedule(this::sampleSystem, systemInterval.nextDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void startPressureMonitoring() {
+        scheduler.scheduleAtFixedRate(this::updatePressure,
+                PRESSURE_INTERVAL_MILLIS, PRESSURE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void updatePressure() {
+        long busy = ingestionEngine.getBusyNanos();
+        double fraction = (busy - lastBusyNanos)
+                / (PRESSURE_INTERVAL_MILLIS * 1_000_000.0 * ingestionEngine.getEventLoopCount());
+        lastBusyNanos = busy;
+        long before = pressure.getHintMillis();
+        long hint = pressure.update(fraction);
+        if (hint != before) {
+            message(hint == 0
+                    ? "Ingesta normalizada: se retira el intervalo mínimo a los clientes"
+                    : String.format("Ingesta saturada (%.0f%% ocupada): intervalo mínimo pedido a los clientes %d ms",
+                    fraction * 100, hint));
+        }
+    }
+
+    private void updateSystemInfo() {
+        // Las lecturas salen del servicio compartido; sólo se consulta OSHI cuando vence su TTL
+        double freeCpuPercentage = sampler.getFreeCpuPercentage();
+        double[] freeCpuPerCore = sampler.getFreeCpuPerCore();
+        double freeMemory = sampler.getFreeMemory();
+        double freeDiskSpace = sampler.getFreeDiskSpace();
+        double processorSpeed = sampler.getProcessorSpeed();
+
+        systemSample.setFreeCpuPercentage(freeCpuPercentage);
+        systemSample.setFreeMemory(freeMemory);
+        systemSample.setFreeDiskSpace(freeDiskSpace);
+        systemSample.setProcessorSpeed(processorSpeed);
+        int fields = systemDelta.fieldsToSend(systemSample);
+        systemInterval.sampled(fields != 0 && fields != TelemetryParser.ALL_FIELDS);
+        systemDelta.sent(systemSample, fields);
+
+        HostEntry entry = registry.update(serverHostId, "Servidor", computer -> {
+            computer.setFreeCpuPercentage(freeCpuPercentage);
+            computer.setFreeCpuPerCore(freeCpuPerCore);
+            computer.setFreeMemory(freeMemory);
+            computer.setFreeDiskSpace(freeDiskSpace);
+            computer.setProcessorSpeed(processorSpeed);
+        });
+        recordSample(serverHostId, entry.live());
+    }
+
+
+    private void startNetworkMonitoring() {
+        scheduler.scheduleAtFixedRate(this::updateNetworkStats, 0, NETWORK_UPDATE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    // Los contadores de las interfaces del servidor se leen una vez por tick y sólo valen para
+    // el propio servidor: cada cliente informa su ancho de banda libre en sus reportes. El
+    // detalle por dispositivo del servidor se renueva según su propio TTL.
+    private void updateNetworkStats() {
+        double freePercentage = sampler.getFreeBandwidthPercentage();
+        DeviceMetrics devices = sampler.getDeviceMetrics();
+        registry.update(serverHostId, "Servidor", computer -> {
+            computer.setFreeBandwidthPercentage(freePercentage);
+            computer.setDevices(devices);
+        });
+    }
+
+    private void addServerInfo() {
+        // Registrar el servidor con su identificador estable y una muestra inicial
+        serverHostId = sampler.getHostId();
+        Computer1 sample = sampler.sample(new Computer1(null, 0, 0, 0, null, 0, 0, 100.0, "Servidor"));
+        registry.update(serverHostId, "Servidor", computer -> {
+            computer.updateFrom(sample);
+            computer.setConnectionStatus("Activo");
+        });
+    }
+
+    private void startServer() {
+        ingestionEngine = new IngestionEngine(port, ioThreads, readBufferSize, new IngestionHandler() {
+            @Override
+            public void onConnect(IngestionEngine.Connection connection) {
+                System.out.println("Cliente conectado desde: " + connection.getRemoteAddress());
+                connection.setAttachment(new ClientSession(connection));
+            }
+
+            @Override
+            public void onLine(IngestionEngine.Connection connection, ByteBuffer line) {
+                handleClientLine(connection, line);
+            }
+
+            @Override
+            public void onFrame(IngestionEngine.Connection connection, ByteBuffer frame) {
+                handleClientFrame(connection, frame);
+            }
+
+            @Override
+            public void onDisconnect(IngestionEngine.Connection connection) {
+                handleClientDisconnection((ClientSession) connection.getAttachment());
+            }
+        });
+        try {
+            ingestionEngine.start();
+        } catch (IOException e) {
+            System.err.println("Error en el servidor: " + e.getMessage());
+        }
+    }
+
+    private void handleClientLine(IngestionEngine.Connection connection, ByteBuffer line) {
+        ClientSession session = (ClientSession) connection.getAttachment();
+        if (TelemetryParser.isHistorical(line)) {
+            acceptHistoryLine(connection, session, line);
+            return;
+        }
+        int fields;
+        // Identidad que ya tomó la sesión con sus muestras históricas, si las hubo
+        String claimed = session.entry == null ? session.update.getHostId() : null;
+        try {
+            // Los campos ausentes conservan el último valor recibido en la sesión (delta)
+            fields = PARSER.get().parse(line, session.update);
+            if (session.entry == null && (fields & TelemetryParser.ALL_FIELDS) != TelemetryParser.ALL_FIELDS) {
+                throw new TelemetryFormatException("El primer mensaje debe ser un registro completo",
+                        line.limit() - line.position());
+            }
+            if (claimed != null && !claimed.equals(session.update.getHostId())) {
+                throw new TelemetryFormatException("El registro no es del host de las muestras históricas: "
+                        + session.update.getHostId(), line.limit() - line.position());
+            }
+        } catch (TelemetryFormatException e) {
+            System.err.println("Error al parsear datos del cliente: " + e.getMessage());
+            connection.close();
+            return;
+        }
+
+        if (fields == 0) {
+            acceptClientKeepalive(session);
+        } else {
+            acceptClientUpdate(session);
+        }
+
+        // Confirmar recepción al cliente, con el intervalo mínimo si la ingesta está saturada
+        connection.send(pressure.textAck());
+    }
+
+    // Muestra que el cliente tomó sin conexión: va sólo al historial, sin tocar el estado en
+    // vivo ni confirmarse (el lote llega entero antes del primer registro de la sesión). La
+    // primera fija la identidad de la sesión: todas las demás, y el primer registro en vivo,
+    // tienen que ser del mismo host
+    private void acceptHistoryLine(IngestionEngine.Connection connection, ClientSession session, ByteBuffer line) {
+        TelemetryParser parser = PARSER.get();
+        Computer1 sample = session.history();
+        String hostId;
+        try {
+            int fields = parser.parse(line, sample);
+            if ((fields & TelemetryParser.HOST_ID) == 0
+                    || (fields & DeltaTracker.DYNAMIC_FIELDS) != DeltaTracker.DYNAMIC_FIELDS) {
+                throw new TelemetryFormatException("Muestra histórica incompleta", line.limit() - line.position());
+            }
+            hostId = session.entry != null ? session.entry.getHostId() : session.update.getHostId();
+            if (hostId == null) {
+                hostId = sample.getHostId();
+                session.update.setHostId(hostId);
+            } else if (!hostId.equals(sample.getHostId())) {
+                throw new TelemetryFormatException("Muestra histórica de otro host: " + sample.getHostId(),
+                        line.limit() - line.position());
+            }
+        } catch (TelemetryFormatException e) {
+            System.err.println("Error al parsear datos del cliente: " + e.getMessage());
+            connection.close();
+            return;
+        }
+        recordSample(hostId, parser.getSampledAt(), sample);
+    }
+
+    private void acceptHistoryFrame(ClientSession session, ByteBuffer frame) {
+        if (!session.staticReceived) {
+            throw new TelemetryFormatException("HISTORY recibido antes de STATIC", 0);
+        }
+        String hostId = hostIdOf(session);
+        Computer1 sample = session.history();
+        long timestamp = 0;
+        while (frame.hasRemaining()) {
+            timestamp = BinaryProtocol.decodeHistoryRecord(frame, timestamp, sample);
+            recordSample(hostId, timestamp, sample);
+        }
+    }
+
+    // Detalle por dispositivo: reemplaza el anterior del host, sin confirmarse ni ir al historial.
+    // Antes del primer registro completo queda en la sesión y se aplica con él.
+    private void acceptDetail(ClientSession session, ByteBuffer frame) {
+        if (!session.staticReceived) {
+            throw new TelemetryFormatException("DETAIL recibido antes de STATIC", 0);
+        }
+        DeviceMetrics devices = BinaryProtocol.decodeDetail(frame, session.deviceSlots());
+        // Los clientes anteriores a la versión 7 no mandan núcleos: se conserva lo que hubiera
+        double[] perCore = devices.freeCpuPerCore();
+        session.update.setDevices(devices);
+        if (perCore != null) {
+            session.update.setFreeCpuPerCore(perCore);
+        }
+        if (session.entry != null) {
+            registry.update(session.entry, computer -> {
+                computer.setDevices(devices);
+                if (perCore != null) {
+                    computer.setFreeCpuPerCore(perCore);
+                }
+            });
+        }
+    }
+
+    private void handleClientFrame(IngestionEngine.Connection connection, ByteBuffer frame) {
+        ClientSession session = (ClientSession) connection.getAttachment();
+        try {
+            byte type = frame.get();
+            switch (type) {
+                case BinaryProtocol.HELLO:
+                    int version = BinaryProtocol.negotiate((int) BinaryProtocol.readVarint(frame));
+                    ByteBuffer reply = ByteBuffer.allocate(8);
+                    BinaryProtocol.writeHelloAck(reply, version);
+                    reply.flip();
+                    connection.send(reply);
+                    session.pipelined = version >= BinaryProtocol.MIN_PIPELINE_VERSION;
+                    if (version < 1) {
+                        System.err.println("Versión de protocolo no soportada: " + connection.getRemoteAddress());
+                        connection.close();
+                    }
+                    break;
+                case BinaryProtocol.STATIC:
+                    BinaryProtocol.decodeStatic(frame, session.update);
+                    session.staticReceived = true;
+                    break;
+                case BinaryProtocol.UPDATE:
+                    if (!session.staticReceived) {
+                        throw new TelemetryFormatException("UPDATE recibido antes de STATIC", 0);
+                    }
+                    BinaryProtocol.decodeUpdate(frame, session.update);
+                    acceptClientUpdate(session);
+                    acknowledge(connection, session);
+                    break;
+                case BinaryProtocol.DELTA:
+                    int fields = BinaryProtocol.decodeDelta(frame, session.update);
+                    if (!session.staticReceived || (session.entry == null && fields != DeltaTracker.DYNAMIC_FIELDS)) {
+                        throw new TelemetryFormatException("DELTA recibido sin un registro completo previo", 0);
+                    }
+                    acceptClientUpdate(session);
+                    acknowledge(connection, session);
+                    break;
+                case BinaryProtocol.KEEPALIVE:
+                    if (session.entry == null) {
+                        throw new TelemetryFormatException("KEEPALIVE recibido sin un registro completo previo", 0);
+                    }
+                    acceptClientKeepalive(session);
+                    acknowledge(connection, session);
+                    break;
+                case BinaryProtocol.HISTORY:
+                    acceptHistoryFrame(session, frame);
+                    break;
+                case BinaryProtocol.DETAIL:
+                    acceptDetail(session, frame);
+                    break;
+                case BinaryProtocol.RELAY_HELLO:
+                    String relayId = BinaryProtocol.readString(frame, null);
+                    session.relay = new RelaySession(relayId);
+                    message("Relay conectado: " + relayId + " desde " + session.remoteAddress);
+                    break;
+                case BinaryProtocol.RELAY_HOST:
+                    requireRelay(session).acceptHost(session, frame);
+                    break;
+                case BinaryProtocol.RELAY_BATCH:
+                    requireRelay(session).acceptBatch(session, frame);
+                    break;
+                default:
+                    throw new TelemetryFormatException("Tipo de trama desconocido: " + type, 0);
+            }
+        } catch (TelemetryFormatException | BufferUnderflowException e) {
+            System.err.println("Error al parsear datos del cliente: " + e);
+            connection.close();
+        }
+    }
+
+    // Confirma un mensaje binario: uno por uno hasta la versión 4; en tubería, acumulado cada
+    // ackEvery mensajes o cuando vence el plazo del primero pendiente
+    private void acknowledge(IngestionEngine.Connection connection, ClientSession session) {
+        if (!session.pipelined) {
+            connection.send(pressure.binaryAck());
+            return;
+        }
+        session.received++;
+        if (session.received - session.acked >= ackEvery) {
+            sendAckUpTo(connection, session);
+        } else if (!session.ackScheduled) {
+            session.ackScheduled = true;
+            scheduler.schedule(() -> connection.execute(() -> {
+                session.ackScheduled = false;
+                if (session.received > session.acked) {
+                    sendAckUpTo(connection, session);
+                }
+            }), ackDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendAckUpTo(IngestionEngine.Connection connection, ClientSession session) {
+        ByteBuffer ack = ByteBuffer.allocate(24);
+        BinaryProtocol.writeAckUpTo(ack, session.received, pressure.getHintMillis());
+        ack.flip();
+        connection.send(ack);
+        session.acked = session.received;
+    }
+
+    private static RelaySession requireRelay(ClientSession session) {
+        if (session.relay == null) {
+            throw new TelemetryFormatException("Trama de relay sin RELAY_HELLO previo", 0);
+        }
+        return session.relay;
+    }
+
+    // Hosts que reenvía un relay por su conexión, indexados por ranura. Sólo lo usa el hilo
+    // de eventos de esa conexión.
+    private final class RelaySession implements Consumer<Computer1> {
+        final String relayId;
+        final List<HostEntry> slots = new ArrayList<>();
+        final Computer1 update = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+        String status;
+        boolean staticOnly;
+
+        RelaySession(String relayId) {
+            this.relayId = relayId;
+        }
+
+        void acceptHost(ClientSession session, ByteBuffer frame) {
+            int slot = (int) BinaryProtocol.readVarint(frame);
+            if (slot > slots.size()) {
+                throw new TelemetryFormatException("Ranura de relay fuera de orden: " + slot, frame.position());
+            }
+            update.setType(BinaryProtocol.readString(frame, update.getType()));
+            update.setHostId(null);
+            BinaryProtocol.decodeStatic(frame, update);
+            if (update.getHostId() == null) {
+                throw new TelemetryFormatException("RELAY_HOST sin identificador", frame.position());
+            }
+            HostEntry entry = registry.getOrCreate(update.getHostId(), update.getType());
+            if (slot == slots.size()) {
+                slots.add(entry);
+            } else {
+                slots.set(slot, entry);
+            }
+            entry.setOwner(session);
+            staticOnly = true;
+            registry.update(entry, this);
+        }
+
+        void acceptBatch(ClientSession session, ByteBuffer frame) {
+            staticOnly = false;
+            while (frame.hasRemaining()) {
+                int slot = (int) BinaryProtocol.readVarint(frame);
+                if (slot >= slots.size()) {
+                    throw new TelemetryFormatException("Ranura de relay desconocida: " + slot, frame.position());
+                }
+                status = BinaryProtocol.relayStatus(frame.get());
+                BinaryProtocol.decodeUpdate(frame, update);
+                HostEntry entry = slots.get(slot);
+                entry.setOwner(session);
+                registry.update(entry, this);
+                recordSample(entry.getHostId(), entry.live());
+            }
+        }
+
+        // Aplica la declaración (sólo datos estáticos) o el registro del lote sobre el host
+        @Override
+        public void accept(Computer1 computer) {
+            computer.setRelay(relayId);
+            if (staticOnly) {
+                computer.setType(update.getType());
+                computer.setProcessorModel(update.getProcessorModel());
+                computer.setOperatingSystemVersion(update.getOperatingSystemVersion());
+                computer.setCoreCount(update.getCoreCount());
+                computer.setDiskCapacity(update.getDiskCapacity());
+                return;
+            }
+            computer.setProcessorSpeed(update.getProcessorSpeed());
+            computer.setFreeMemory(update.getFreeMemory());
+            computer.setFreeDiskSpace(update.getFreeDiskSpace());
+            computer.setFreeBandwidthPercentage(update.getFreeBandwidthPercentage());
+            computer.setFreeCpuPercentage(update.getFreeCpuPercentage());
+            computer.setConnectionStatus(status);
+        }
+    }
+
+    // Vuelca la actualización ya validada de la sesión en el registro del cliente
+    private void acceptClientUpdate(ClientSession session) {
+        if (session.entry == null) {
+            session.entry = registry.getOrCreate(hostIdOf(session), "Cliente");
+        }
+        session.entry.setOwner(session);
+        // El latido va antes que el "Conectado": así no lo pisa un "Sospechoso" en curso
+        heartbeat(session);
+        registry.update(session.entry, session);
+        // La copia de la sesión tiene el estado completo del cliente tras aplicar el delta
+        recordSample(session.entry.getHostId(), session.update);
+    }
+
+    // Clientes antiguos no envían identificador: se usa modelo de CPU y dirección
+    private static String hostIdOf(ClientSession session) {
+        return session.update.getHostId() != null
+                ? session.update.getHostId()
+                : "modelo:" + session.update.getProcessorModel() + "@" + session.remoteAddress;
+    }
+
+    // El equipo no cambió lo suficiente como para enviar datos, pero sigue vivo
+    private void acceptClientKeepalive(ClientSession session) {
+        heartbeat(session);
+        if (!"Conectado".equals(session.entry.live().getConnectionStatus())) {
+            acceptClientUpdate(session);
+        }
+    }
+
+    private void heartbeat(ClientSession session) {
+        long now = System.currentTimeMillis();
+        if (session.deadline == null) {
+            session.deadline = liveness.track(session.entry, session, now);
+        } else {
+            liveness.heartbeat(session.deadline, now);
+        }
+    }
+
+    // Estado por conexión: su entrada en el registro y un Computer1 reutilizable para parsear
+    private static class ClientSession implements Consumer<Computer1> {
+        final Computer1 update = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        final IngestionEngine.Connection connection;
+        final String remoteAddress;
+        HostEntry entry;
+        LivenessMonitor.Deadline deadline;
+        boolean staticReceived;
+        // Tubería de confirmaciones: último mensaje recibido y último confirmado; sólo los
+        // toca el hilo de eventos de la conexión
+        boolean pipelined;
+        long received;
+        long acked;
+        boolean ackScheduled;
+        RelaySession relay; // sólo si la conexión es de un relay
+        private Computer1 history; // muestras históricas; se crea con la primera
+        private List<DeviceMetrics.Device> deviceSlots; // dispositivos declarados; con el primer DETAIL
+
+        Computer1 history() {
+            if (history == null) {
+                history = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+            }
+            return history;
+        }
+
+        List<DeviceMetrics.Device> deviceSlots() {
+            if (deviceSlots == null) {
+                deviceSlots = new ArrayList<>();
+            }
+            return deviceSlots;
+        }
+
+        ClientSession(IngestionEngine.Connection connection) {
+            this.connection = connection;
+            this.remoteAddress = connection.getRemoteAddress();
+        }
+
+        // Aplica la última actualización recibida sobre el registro del host
+        @Override
+        public void accept(Computer1 computer) {
+            computer.updateFrom(update);
+            computer.setType("Cliente");
+            computer.setConnectionStatus("Conectado");
+        }
+    }
+
+    private void handleClientDisconnection(ClientSession session) {
+        if (session.deadline != null) {
+            liveness.untrack(session.deadline);
+        }
+        // Si el host ya se reconectó por otra sesión, no marcarlo desconectado
+        if (session.entry != null && session.entry.getOwner() == session) {
+            registry.update(session.entry, computer -> computer.setConnectionStatus("Desconectado"));
+        }
+        // Al caerse un relay quedan desconectados todos los hosts que reenviaba
+        if (session.relay != null) {
+            for (HostEntry entry : session.relay.slots) {
+                if (entry.getOwner() == session) {
+                    registry.update(entry, computer -> computer.setConnectionStatus("Desconectado"));
+                }
+            }
+            message("Relay desconectado: " + session.relay.relayId);
+        }
+
+        System.out.println("Cliente desconectado: " + session.remoteAddress);
+    }
+
+    // Modo sin pantalla: sólo el núcleo, sin cargar AWT ni Swing
+    public static void main(String[] args) {
+        long startNanos = System.nanoTime();
+        TelemetryServer server = new TelemetryServer();
+        server.start();
+        long startupMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapMB = memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        System.out.println("Servidor sin interfaz listo en " + startupMillis + " ms (JVM: "
+                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms), heap en uso: " + heapMB + " MB");
+    }
+}
@@ -0,0 +1,373 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial en memoria de las métricas de cada host, guardando como mucho
+ * {@code samplesPerHost} muestras por host (las más recientes).
+ *
+ * Cada host escribe en un bloque activo sin comprimir: un arreglo {@code long[]} de marcas
+ * de tiempo compartido por todas sus métricas y un {@code double[]} por métrica, sin objetos
+ * por muestra. Al llenarse, el bloque se sella como {@link GorillaBlock} comprimido y el
+ * bloque activo se reutiliza. Las muestras que exceden la capacidad se descartan desde el
+ * bloque sellado más antiguo, que se libera cuando ya no le queda ninguna.
+ *
+ * La memoria total está acotada: cuando crear el bloque activo de un host nuevo superaría el
+ * presupuesto, ese host queda sin historial (sus datos en vivo siguen en el registro); si un
+ * bloque sellado lo supera, el host pierde primero sus bloques más viejos.
+ */
+class TimeSeriesStore {
+    // Métricas guardadas (índice en los arreglos de valores)
+    static final int FREE_MEMORY = 0;
+    static final int FREE_DISK_SPACE = 1;
+    static final int FREE_CPU_PERCENTAGE = 2;
+    static final int FREE_BANDWIDTH_PERCENTAGE = 3;
+    static final int PROCESSOR_SPEED = 4;
+    static final int METRIC_COUNT = 5;
+
+    static final String[] METRIC_NAMES = {
+            "freeMemory",
+            "freeDiskSpace",
+            "freeCpuPercentage",
+            "freeBandwidthPercentage",
+            "processorSpeed"
+    };
+
+    // Bytes por muestra: la marca de tiempo más un double por métrica
+    static final int BYTES_PER_SAMPLE = 8 + 8 * METRIC_COUNT;
+
+    /** Recibe las muestras de un recorrido, de la más antigua a la más reciente. */
+    interface SampleVisitor {
+        void sample(long timestamp, double value);
+    }
+
+    /** Resultado reutilizable de {@link #window}. */
+    static final class WindowStats implements SampleVisitor {
+        int count;
+        double min;
+        double max;
+        double sum;
+
+        void reset() {
+            count = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+            sum = 0;
+        }
+
+        @Override
+        public void sample(long timestamp, double value) {
+            if (value < min) min = value;
+            if (value > max) max = value;
+            sum += value;
+            count++;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        double getMin() {
+            return min;
+        }
+
+        double getMax() {
+            return max;
+        }
+
+        double getAverage() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+    }
+
+    private final int samplesPerHost;
+    private final int blockSamples;
+    private final long maxBytes;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<>();
+    private volatile boolean budgetWarned;
+
+    TimeSeriesStore(long maxBytes, int samplesPerHost) {
+        this(maxBytes, samplesPerHost, 120);
+    }
+
+    TimeSeriesStore(long maxBytes, int samplesPerHost, int blockSamples) {
+        if (samplesPerHost < 1 || blockSamples < 1) {
+            throw new IllegalArgumentException("samplesPerHost y blockSamples deben ser positivos: "
+                    + samplesPerHost + ", " + blockSamples);
+        }
+        this.maxBytes = maxBytes;
+        this.samplesPerHost = samplesPerHost;
+        this.blockSamples = Math.min(blockSamples, samplesPerHost);
+    }
+
+    // Configurable con computer.history.memoryMB, computer.history.samplesPerHost y computer.history.blockSamples
+    static TimeSeriesStore fromSystemProperties() {
+        return new TimeSeriesStore(
+                Long.getLong("computer.history.memoryMB", 512) * 1024 * 1024,
+                Integer.getInteger("computer.history.samplesPerHost", 1440),
+                Integer.getInteger("computer.history.blockSamples", 120));
+    }
+
+    // Guarda las métricas actuales de computer con la marca de tiempo dada (milisegundos)
+    boolean append(String hostId, long timestamp, Computer1 computer) {
+        Series s = seriesFor(hostId);
+        if (s == null) {
+            return false;
+        }
+        s.append(timestamp, computer);
+        return true;
+    }
+
+    private Series seriesFor(String hostId) {
+        Series s = series.get(hostId);
+        if (s != null) {
+            return s;
+        }
+        long bytes = (long) blockSamples * BYTES_PER_SAMPLE;
+        while (true) {
+            long allocated = allocatedBytes.get();
+            if (allocated + bytes > maxBytes) {
+                if (!budgetWarned) {
+                    budgetWarned = true;
+                    System.err.println("Historial lleno (" + allocated / (1024 * 1024)
+                            + " MB): los hosts nuevos no guardarán historial");
+                }
+                return null;
+            }
+            if (allocatedBytes.compareAndSet(allocated, allocated + bytes)) {
+                break;
+            }
+        }
+        Series created = new Series(this, blockSamples, samplesPerHost);
+        Series previous = series.putIfAbsent(hostId, created);
+        if (previous != null) {
+            allocatedBytes.addAndGet(-bytes);
+            return previous;
+        }
+        return created;
+    }
+
+    // Recorre las muestras de [from, to] en orden; devuelve cuántas visitó
+    int scan(String hostId, int metric, long from, long to, SampleVisitor visitor) {
+        Series s = series.get(hostId);
+        return s == null ? 0 : s.scan(metric, from, to, visitor, Integer.MAX_VALUE);
+    }
+
+    // Copia las muestras de [from, to] (como mucho las que quepan) en los arreglos dados
+    int range(String hostId, int metric, long from, long to, long[] timestamps, double[] values) {
+        Series s = series.get(hostId);
+        if (s == null) {
+            return 0;
+        }
+        int limit = Math.min(timestamps.length, values.length);
+        return s.scan(metric, from, to, new SampleVisitor() {
+            int copied;
+
+            @Override
+            public void sample(long timestamp, double value) {
+                timestamps[copied] = timestamp;
+                values[copied] = value;
+                copied++;
+            }
+        }, limit);
+    }
+
+    // Mínimo, máximo y promedio en [from, to]; devuelve false si no hay muestras
+    boolean window(String hostId, int metric, long from, long to, WindowStats into) {
+        into.reset();
+        Series s = series.get(hostId);
+        if (s != null) {
+            s.scan(metric, from, to, into, Integer.MAX_VALUE);
+        }
+        if (into.count == 0) {
+            into.min = Double.NaN;
+            into.max = Double.NaN;
+            return false;
+        }
+        return true;
+    }
+
+    int sampleCount(String hostId) {
+        Series s = series.get(hostId);
+        return s == null ? 0 : s.count();
+    }
+
+    int getSamplesPerHost() {
+        return samplesPerHost;
+    }
+
+    int hostCount() {
+        return series.size();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    // Reserva memoria para un bloque sellado; si no hay, avisa una vez
+    private boolean reserve(long bytes) {
+        if (allocatedBytes.addAndGet(bytes) <= maxBytes) {
+            return true;
+        }
+        if (!budgetWarned) {
+            budgetWarned = true;
+            System.err.println("Historial lleno (" + allocatedBytes.get() / (1024 * 1024)
+                    + " MB): se descartan los bloques más antiguos");
+        }
+        return false;
+    }
+
+    private void release(long bytes) {
+        allocatedBytes.addAndGet(-bytes);
+    }
+
+    // Historial de un host. Escrituras y lecturas se serializan con el propio objeto: cada
+    // host tiene un solo escritor a la vez y las consultas son cortas.
+    private static final class Series {
+        final TimeSeriesStore store;
+        final int capacity;
+        // Bloque activo sin comprimir
+        final long[] timestamps;
+        final double[][] values;
+        int rawCount;
+        long lastTimestamp = Long.MIN_VALUE;
+        // Bloques sellados, del más viejo al más nuevo
+        final ArrayDeque<GorillaBlock> sealed = new ArrayDeque<>();
+        int sealedSamples; // muestras vigentes en los bloques sellados
+        int skip; // muestras descartadas al principio del bloque sellado más viejo
+
+        Series(TimeSeriesStore store, int blockSamples, int capacity) {
+            this.store = store;
+            this.capacity = capacity;
+            timestamps = new long[blockSamples];
+            values = new double[METRIC_COUNT][blockSamples];
+        }
+
+        synchronized void append(long timestamp, Computer1 computer) {
+            // Las marcas de tiempo no retroceden: las búsquedas por rango dependen del orden
+            if (timestamp < lastTimestamp) timestamp = lastTimestamp;
+            lastTimestamp = timestamp;
+            if (rawCount == timestamps.length) {
+                // Capacidad igual al bloque: nunca se sella y el bloque activo funciona como anillo
+                shiftRaw(1);
+            }
+            int i = rawCount;
+            timestamps[i] = timestamp;
+            values[FREE_MEMORY][i] = computer.getFreeMemory();
+            values[FREE_DISK_SPACE][i] = computer.getFreeDiskSpace();
+            values[FREE_CPU_PERCENTAGE][i] = computer.getFreeCpuPercentage();
+            values[FREE_BANDWIDTH_PERCENTAGE][i] = computer.getFreeBandwidthPercentage();
+            values[PROCESSOR_SPEED][i] = computer.getProcessorSpeed();
+            rawCount = i + 1;
+
+            if (rawCount == timestamps.length && rawCount < capacity) {
+                seal();
+            }
+            trim();
+        }
+
+        private void seal() {
+            GorillaBlock block = GorillaBlock.encode(timestamps, values, rawCount);
+            sealed.addLast(block);
+            sealedSamples += rawCount;
+            rawCount = 0;
+            if (!store.reserve(block.sizeBytes())) {
+                // Sin memoria: se sacrifican los bloques más viejos de este host
+                while (store.allocatedBytes() > store.maxBytes && !sealed.isEmpty()) {
+                    dropOldest();
+                }
+            }
+        }
+
+        // Descarta lo que excede la capacidad, empezando por lo más viejo
+        private void trim() {
+            int excess = sealedSamples + rawCount - capacity;
+            if (excess <= 0) {
+                return;
+            }
+            while (excess > 0 && !sealed.isEmpty()) {
+                int remaining = sealed.peekFirst().count() - skip;
+                if (excess >= remaining) {
+                    excess -= remaining;
+                    dropOldest();
+                } else {
+                    skip += excess;
+                    sealedSamples -= excess;
+                    excess = 0;
+                }
+            }
+        }
+
+        private void shiftRaw(int samples) {
+            System.arraycopy(timestamps, samples, timestamps, 0, rawCount - samples);
+            for (double[] column : values) {
+                System.arraycopy(column, samples, column, 0, rawCount - samples);
+            }
+            rawCount -= samples;
+        }
+
+        private void dropOldest() {
+            GorillaBlock oldest = sealed.removeFirst();
+            sealedSamples -= oldest.count() - skip;
+            skip = 0;
+            store.release(oldest.sizeBytes());
+        }
+
+        synchronized int count() {
+            return sealedSamples + rawCount;
+        }
+
+        // Visita hasta limit muestras de [from, to] en orden; devuelve cuántas visitó
+        synchronized int scan(int metric, long from, long to, SampleVisitor visitor, int limit) {
+            int visited = 0;
+            boolean first = true;
+            for (GorillaBlock block : sealed) {
+                int toSkip = first ? skip : 0;
+                first = false;
+                if (block.lastTimestamp() < from) {
+                    continue;
+                }
+                if (block.firstTimestamp() > to || visited >= limit) {
+                    return visited;
+                }
+                GorillaBlock.Cursor cursor = block.cursor(metric);
+                while (cursor.next()) {
+                    if (toSkip > 0) {
+                        toSkip--;
+                        continue;
+                    }
+                    long timestamp = cursor.timestamp();
+                    if (timestamp < from) continue;
+                    if (timestamp > to || visited >= limit) return visited;
+                    visitor.sample(timestamp, cursor.value());
+                    visited++;
+                }
+            }
+            double[] column = values[metric];
+            for (int i = firstAtOrAfter(from); i < rawCount && visited < limit; i++) {
+                if (timestamps[i] > to) break;
+                visitor.sample(timestamps[i], column[i]);
+                visited++;
+            }
+            return visited;
+        }
+
+        // Búsqueda binaria en el bloque activo del primer índice con marca >= from
+        private int firstAtOrAfter(long from) {
+            int low = 0;
+            int high = rawCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
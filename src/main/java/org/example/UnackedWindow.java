@@ -0,0 +1,115 @@
+package org.example;
+
+/**
+ * Mensajes que el cliente envió en tubería y el servidor todavía no confirmó.
+ *
+ * Cada UPDATE, DELTA o KEEPALIVE de la sesión toma el número de secuencia siguiente (el
+ * primero es 1) y se guarda con su marca de tiempo y sus métricas en un anillo de arreglos
+ * primitivos; un ACK_UPTO quita de una vez todo lo confirmado. La capacidad limita cuántos
+ * mensajes puede haber en vuelo: con el anillo lleno el cliente deja de enviar hasta la
+ * siguiente confirmación.
+ *
+ * Si lo más viejo lleva más de {@code timeoutMillis} sin confirmar la conexión se da por
+ * muerta. Al caerse, lo pendiente pasa al {@link OfflineBuffer} y se reenvía como muestras
+ * históricas al reconectar (si el servidor ya lo había procesado, queda repetido).
+ */
+class UnackedWindow {
+    private final int capacity;
+    private final long timeoutMillis;
+    private final long[] timestamps;
+    private final double[] processorSpeed;
+    private final double[] freeMemory;
+    private final double[] freeDiskSpace;
+    private final double[] freeBandwidthPercentage;
+    private final double[] freeCpuPercentage;
+    private int head;
+    private int size;
+    // Secuencia del mensaje más viejo del anillo (el de head)
+    private long firstSequence = 1;
+
+    UnackedWindow(int capacity, long timeoutMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ventana inválida: " + capacity);
+        }
+        this.capacity = capacity;
+        this.timeoutMillis = timeoutMillis;
+        this.timestamps = new long[capacity];
+        this.processorSpeed = new double[capacity];
+        this.freeMemory = new double[capacity];
+        this.freeDiskSpace = new double[capacity];
+        this.freeBandwidthPercentage = new double[capacity];
+        this.freeCpuPercentage = new double[capacity];
+    }
+
+    // Configurable con computer.client.window y computer.client.ackTimeoutMillis
+    static UnackedWindow fromSystemProperties() {
+        return new UnackedWindow(
+                Integer.getInteger("computer.client.window", 256),
+                Long.getLong("computer.client.ackTimeoutMillis", 30_000));
+    }
+
+    synchronized boolean isFull() {
+        return size == capacity;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Secuencia que tomará el próximo mensaje
+    synchronized long nextSequence() {
+        return firstSequence + size;
+    }
+
+    // Registra un mensaje enviado y devuelve su número de secuencia
+    synchronized long add(long timestamp, Computer1 sample) {
+        if (size == capacity) {
+            throw new IllegalStateException("Ventana de mensajes sin confirmar llena");
+        }
+        int i = (head + size) % capacity;
+        timestamps[i] = timestamp;
+        processorSpeed[i] = sample.getProcessorSpeed();
+        freeMemory[i] = sample.getFreeMemory();
+        freeDiskSpace[i] = sample.getFreeDiskSpace();
+        freeBandwidthPercentage[i] = sample.getFreeBandwidthPercentage();
+        freeCpuPercentage[i] = sample.getFreeCpuPercentage();
+        size++;
+        return firstSequence + size - 1;
+    }
+
+    // Quita todo hasta sequence inclusive; devuelve cuántos mensajes se confirmaron
+    synchronized int ackUpTo(long sequence) {
+        long count = Math.min(size, sequence - firstSequence + 1);
+        if (count <= 0) {
+            return 0;
+        }
+        head = (int) ((head + count) % capacity);
+        size -= (int) count;
+        firstSequence += count;
+        return (int) count;
+    }
+
+    // Lo más viejo sin confirmar superó el plazo: el servidor o el camino no responden
+    synchronized boolean isStalled(long now) {
+        return size > 0 && now - timestamps[head] > timeoutMillis;
+    }
+
+    // Pasa lo pendiente, en orden, al búfer sin conexión y deja la ventana lista para otra sesión
+    synchronized int drainTo(OfflineBuffer buffer) {
+        int drained = size;
+        Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) % capacity;
+            sample.setProcessorSpeed(processorSpeed[i]);
+            sample.setFreeMemory(freeMemory[i]);
+            sample.setFreeDiskSpace(freeDiskSpace[i]);
+            sample.setFreeBandwidthPercentage(freeBandwidthPercentage[i]);
+            sample.setFreeCpuPercentage(freeCpuPercentage[i]);
+            buffer.add(timestamps[i], sample);
+        }
+        head = 0;
+        size = 0;
+        firstSequence = 1;
+        return drained;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class AdaptiveIntervalTest extends TestCase {
+
+    public void testIntervalShrinksWhileChangingAndGrowsWhileStable() {
+        AdaptiveInterval interval = new AdaptiveInterval(1000, 10_000, 15_000);
+        assertEquals(10_000, interval.getIntervalMillis());
+        interval.sampled(true);
+        interval.sampled(true);
+        assertEquals(2500, interval.getIntervalMillis());
+        interval.sampled(true);
+        interval.sampled(true);
+        assertEquals(1000, interval.getIntervalMillis());
+        for (int i = 0; i < 10; i++) {
+            interval.sampled(false);
+        }
+        assertEquals(10_000, interval.getIntervalMillis());
+    }
+
+    public void testOnlyChangesOrDueKeepalivesAreSent() {
+        AdaptiveInterval interval = new AdaptiveInterval(1000, 10_000, 15_000);
+        assertTrue(interval.shouldSend(0, 0));
+        interval.sent(0);
+        assertFalse(interval.shouldSend(0, 10_000));
+        assertTrue(interval.shouldSend(TelemetryParser.FREE_MEMORY, 10_000));
+        assertTrue(interval.shouldSend(0, 15_000));
+    }
+
+    public void testServerHintIsAFloor() {
+        AdaptiveInterval interval = new AdaptiveInterval(1000, 10_000, 15_000);
+        interval.sampled(true);
+        assertEquals(5000, interval.nextDelayMillis());
+        interval.serverHint(8000);
+        assertEquals(8000, interval.nextDelayMillis());
+        interval.serverHint(0);
+        assertEquals(5000, interval.nextDelayMillis());
+    }
+
+    /**
+     * Simulación de una flota: trazas de CPU libre con tramos quietos (ruido bajo el umbral y
+     * algún salto al empezar) y tramos agitados (caminata aleatoria). La latencia de detección
+     * es lo que tarda el servidor en volver a tener un valor dentro del umbral después de que
+     * el real se alejó. Se compara con el intervalo fijo más económico que logra la misma
+     * latencia media.
+     */
+    public void testSimulatedFleetSendsFewerMessagesAtSameDetectionLatency() {
+        int hosts = 40;
+        int seconds = 6 * 3600;
+        Random random = new Random(42);
+        double[][] traces = new double[hosts][];
+        for (int h = 0; h < hosts; h++) {
+            traces[h] = trace(random, seconds);
+        }
+
+        Outcome adaptive = new Outcome();
+        for (double[] trace : traces) {
+            simulateAdaptive(trace, adaptive);
+        }
+        Outcome matched = null;
+        int matchedSeconds = 0;
+        for (int fixed = 10; fixed >= 1 && matched == null; fixed--) {
+            Outcome outcome = new Outcome();
+            for (double[] trace : traces) {
+                simulateFixed(trace, fixed, outcome);
+            }
+            if (outcome.meanLatency() <= adaptive.meanLatency()) {
+                matched = outcome;
+                matchedSeconds = fixed;
+            }
+        }
+        Outcome current = new Outcome();
+        for (double[] trace : traces) {
+            simulateFixed(trace, 10, current);
+        }
+
+        System.out.printf("Adaptativo: %d mensajes, latencia media %.2f s, máxima %d s%n",
+                adaptive.messages, adaptive.meanLatency(), adaptive.maxLatency);
+        System.out.printf("Fijo cada %d s (misma latencia): %d mensajes, latencia media %.2f s, máxima %d s%n",
+                matchedSeconds, matched.messages, matched.meanLatency(), matched.maxLatency);
+        System.out.printf("Fijo cada 10 s (actual): %d mensajes, latencia media %.2f s, máxima %d s%n",
+                current.messages, current.meanLatency(), current.maxLatency);
+
+        assertNotNull(matched);
+        assertTrue(adaptive.messages < matched.messages * 0.6);
+        // Nunca peor que el intervalo fijo actual en el peor caso
+        assertTrue(adaptive.maxLatency <= current.maxLatency);
+    }
+
+    private static final class Outcome {
+        long messages;
+        long episodes;
+        long staleSeconds;
+        int maxLatency;
+
+        double meanLatency() {
+            return episodes == 0 ? 0 : (double) staleSeconds / episodes;
+        }
+    }
+
+    private static double[] trace(Random random, int seconds) {
+        double[] values = new double[seconds];
+        double value = 50;
+        int t = 0;
+        while (t < seconds) {
+            // Tramo quieto de 5 a 30 minutos; a veces arranca o termina un trabajo
+            if (random.nextBoolean()) {
+                value = clamp(value + (random.nextBoolean() ? 1 : -1) * (10 + random.nextInt(20)));
+            }
+            int end = Math.min(seconds, t + 300 + random.nextInt(1500));
+            for (; t < end; t++) {
+                values[t] = clamp(value + (random.nextDouble() - 0.5) * 1.6);
+            }
+            // Tramo agitado de 1 a 5 minutos
+            end = Math.min(seconds, t + 60 + random.nextInt(240));
+            for (; t < end; t++) {
+                value = clamp(value + random.nextGaussian() * 3);
+                values[t] = value;
+            }
+        }
+        return values;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(100, value));
+    }
+
+    private static DeltaTracker tracker() {
+        return new DeltaTracker(0.05, 0.1, 0.5, 2.0, 2.0, 6);
+    }
+
+    private static void simulateFixed(double[] trace, int everySeconds, Outcome outcome) {
+        DeltaTracker tracker = tracker();
+        Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        double known = Double.NaN;
+        int staleSince = -1;
+        for (int t = 0; t < trace.length; t++) {
+            if (t % everySeconds == 0) {
+                sample.setFreeCpuPercentage(trace[t]);
+                int fields = tracker.fieldsToSend(sample);
+                outcome.messages++; // el cliente actual envía siempre, aunque sea un keepalive
+                if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+                    known = trace[t];
+                }
+                tracker.sent(sample, fields);
+            }
+            staleSince = observe(trace[t], known, t, staleSince, outcome);
+        }
+    }
+
+    private static void simulateAdaptive(double[] trace, Outcome outcome) {
+        DeltaTracker tracker = tracker();
+        AdaptiveInterval interval = new AdaptiveInterval(1000, 10_000, 15_000);
+        Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        double known = Double.NaN;
+        int staleSince = -1;
+        long next = 0;
+        for (int t = 0; t < trace.length; t++) {
+            if (t * 1000L >= next) {
+                sample.setFreeCpuPercentage(trace[t]);
+                int fields = tracker.fieldsToSend(sample);
+                interval.sampled(fields != 0 && fields != TelemetryParser.ALL_FIELDS);
+                if (interval.shouldSend(fields, t * 1000L)) {
+                    outcome.messages++;
+                    if ((fields & TelemetryParser.FREE_CPU_PERCENTAGE) != 0) {
+                        known = trace[t];
+                    }
+                    tracker.sent(sample, fields);
+                    interval.sent(t * 1000L);
+                }
+                next = t * 1000L + interval.nextDelayMillis();
+            }
+            staleSince = observe(trace[t], known, t, staleSince, outcome);
+        }
+    }
+
+    // Lleva la cuenta de los tramos en que el servidor tiene un valor fuera del umbral
+    private static int observe(double actual, double known, int t, int staleSince, Outcome outcome) {
+        boolean stale = Double.isNaN(known) || Math.abs(actual - known) > 2.0;
+        if (stale && staleSince < 0) {
+            return t;
+        }
+        if (!stale && staleSince >= 0) {
+            int latency = t - staleSince;
+            outcome.episodes++;
+            outcome.staleSeconds += latency;
+            outcome.maxLatency = Math.max(outcome.maxLatency, latency);
+            return -1;
+        }
+        return staleSince;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por actualización del motor de alertas con 10k reglas y 10k hosts repartidos en 3
+ * tipos, 10 sistemas operativos y 100 modelos. Las reglas se reparten entre los grupos: 40 %
+ * por host, 30 % por sistema operativo, 20 % por modelo, 9 % por tipo y 1 % para toda la
+ * flota, con umbrales en rangos de alerta (poco disco, poca CPU libre...).
+ *
+ * Cada actualización mueve al azar una o dos métricas de un host, como un DELTA; el reloj
+ * avanza 20 µs por actualización (50k por segundo) y cada segundo simulado se llama a
+ * {@code tick}. linearScan evalúa todas las reglas contra el host, sin estado: es lo que
+ * costaría no tener índices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertEngineBenchmark {
+    private static final String[] TYPES = {"Cliente", "Servidor", "Relay"};
+    private static final String[] METRICS = TimeSeriesStore.METRIC_NAMES;
+
+    @Param({"10000"})
+    public int hosts;
+
+    @Param({"10000"})
+    public int rules;
+
+    private AlertEngine engine;
+    private List<AlertRule> ruleList;
+    private HostEntry[] entries;
+    private Random random;
+    private long updates;
+
+    @Setup
+    public void setup() {
+        random = new Random(1);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            int metric = random.nextInt(METRICS.length);
+            String condition = condition(metric);
+            String duration = random.nextBoolean() ? " for " + (1 + random.nextInt(5)) + "m" : "";
+            int group = random.nextInt(100);
+            String filter;
+            if (group < 40) {
+                filter = " on hostId=host-" + random.nextInt(hosts);
+            } else if (group < 70) {
+                filter = " on operatingSystemVersion=so-" + random.nextInt(10);
+            } else if (group < 90) {
+                filter = " on processorModel=modelo-" + random.nextInt(100);
+            } else if (group < 99) {
+                filter = " on type=" + TYPES[random.nextInt(TYPES.length)];
+            } else {
+                filter = "";
+            }
+            lines.add(condition + duration + filter);
+        }
+        ruleList = AlertEngine.parseRules(lines);
+        engine = new AlertEngine(ruleList, Runnable::run);
+
+        HostRegistry registry = new HostRegistry();
+        entries = new HostEntry[hosts];
+        for (int i = 0; i < hosts; i++) {
+            int host = i;
+            entries[i] = registry.update("host-" + i, TYPES[i % TYPES.length], computer -> {
+                computer.setOperatingSystemVersion("so-" + host % 10);
+                computer.setProcessorModel("modelo-" + host % 100);
+                computer.setProcessorSpeed(2 + random.nextDouble() * 2);
+                computer.setFreeMemory(random.nextDouble() * 64);
+                computer.setFreeDiskSpace(random.nextDouble() * 500);
+                computer.setFreeCpuPercentage(random.nextDouble() * 100);
+                computer.setFreeBandwidthPercentage(random.nextDouble() * 100);
+                computer.setConnectionStatus("Conectado");
+            });
+            engine.update(entries[i], entries[i].live(), 0);
+        }
+        // Un minuto simulado antes de medir, para que haya alertas pendientes y disparadas
+        for (int i = 0; i < 60 * 50_000; i++) {
+            indexedUpdate();
+        }
+        System.out.printf("%d reglas, %d alertas disparadas, %d notificaciones%n",
+                ruleList.size(), engine.firing().size(), engine.getNotificationCount());
+    }
+
+    // Umbrales en rangos de alerta según la métrica
+    private String condition(int metric) {
+        switch (metric) {
+            case TimeSeriesStore.FREE_MEMORY:
+                return String.format(Locale.ROOT, "freeMemory < %.2f", 0.5 + random.nextDouble() * 4);
+            case TimeSeriesStore.FREE_DISK_SPACE:
+                return String.format(Locale.ROOT, "freeDiskSpace < %.2f", 1 + random.nextDouble() * 20);
+            case TimeSeriesStore.PROCESSOR_SPEED:
+                return String.format(Locale.ROOT, "processorSpeed > %.2f", 3.5 + random.nextDouble());
+            default:
+                return String.format(Locale.ROOT, "%s < %.2f", METRICS[metric], 1 + random.nextDouble() * 14);
+        }
+    }
+
+    // Camina al azar sin salir del rango de la métrica
+    private static double walk(double value, double step, double max, Random random) {
+        return Math.max(0, Math.min(max, value + (random.nextDouble() - 0.5) * step));
+    }
+
+    private HostEntry next() {
+        long n = updates++;
+        HostEntry entry = entries[(int) (n % entries.length)];
+        Computer1 computer = entry.live();
+        switch (random.nextInt(3)) {
+            case 0:
+                computer.setFreeCpuPercentage(walk(computer.getFreeCpuPercentage(), 20, 100, random));
+                break;
+            case 1:
+                computer.setFreeMemory(walk(computer.getFreeMemory(), 2, 64, random));
+                computer.setFreeBandwidthPercentage(walk(computer.getFreeBandwidthPercentage(), 20, 100, random));
+                break;
+            default:
+                computer.setFreeDiskSpace(walk(computer.getFreeDiskSpace(), 5, 500, random));
+                break;
+        }
+        if (n % 50_000 == 0) {
+            engine.tick(n / 50);
+        }
+        return entry;
+    }
+
+    @Benchmark
+    public HostEntry indexedUpdate() {
+        HostEntry entry = next();
+        engine.update(entry, entry.live(), updates / 50);
+        return entry;
+    }
+
+    @Benchmark
+    public int linearScan() {
+        Computer1 computer = next().live();
+        int matching = 0;
+        for (AlertRule rule : ruleList) {
+            if (rule.dimension >= 0 && !rule.value.equals(AlertRule.dimensionValue(computer, rule.dimension))) {
+                continue;
+            }
+            if (rule.matches(FleetAggregates.value(computer, rule.metric))) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AlertEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
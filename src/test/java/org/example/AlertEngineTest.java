@@ -0,0 +1,144 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AlertEngineTest extends TestCase {
+    private final HostRegistry registry = new HostRegistry();
+    private final List<AlertEngine.Alert> received = new ArrayList<>();
+
+    private AlertEngine engine(String... rules) {
+        AlertEngine engine = new AlertEngine(AlertEngine.parseRules(Arrays.asList(rules)), Runnable::run);
+        engine.addSink(received::add);
+        return engine;
+    }
+
+    private HostEntry host(String hostId, String type, double freeDiskSpace) {
+        return registry.update(hostId, type, computer -> {
+            computer.setFreeDiskSpace(freeDiskSpace);
+            computer.setFreeCpuPercentage(90);
+            computer.setConnectionStatus("Conectado");
+        });
+    }
+
+    private static void disk(HostEntry entry, double freeDiskSpace) {
+        entry.update(computer -> computer.setFreeDiskSpace(freeDiskSpace));
+    }
+
+    public void testParsesRules() {
+        AlertRule rule = AlertRule.parse(0, "freeMemory < 1.5 for 30s on operatingSystemVersion=Windows 11 clear 2");
+        assertEquals(TimeSeriesStore.FREE_MEMORY, rule.metric);
+        assertTrue(rule.below);
+        assertEquals(1.5, rule.threshold, 0.0);
+        assertEquals(2.0, rule.clear, 0.0);
+        assertEquals(30_000, rule.forMillis);
+        assertEquals("operatingSystemVersion", AlertRule.DIMENSIONS[rule.dimension]);
+        assertEquals("Windows 11", rule.value);
+
+        // Sin clear, la banda es el 5 % del umbral hacia el lado sano
+        AlertRule above = AlertRule.parse(1, "processorSpeed > 4 for 2m");
+        assertEquals(3.8, above.clear, 1e-9);
+        assertEquals(120_000, above.forMillis);
+        assertEquals(-1, above.dimension);
+
+        for (String invalid : new String[]{"freeMemory <= 1", "inventada < 1", "freeMemory < x",
+                "freeMemory < 1 for 5", "freeMemory < 1 on color=rojo", "freeMemory < 1 clear 0.5"}) {
+            try {
+                AlertRule.parse(0, invalid);
+                fail(invalid);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        // Las líneas inválidas se omiten sin descartar el resto
+        assertEquals(1, AlertEngine.parseRules(Arrays.asList("# comentario", "", "freeMemory <", "freeMemory < 1")).size());
+    }
+
+    public void testFiresAfterDurationWithHysteresisAndDedupe() {
+        AlertEngine engine = engine("freeDiskSpace < 5 for 2m");
+        HostEntry entry = host("a", "Cliente", 50);
+        engine.update(entry, entry.live(), 0);
+
+        disk(entry, 4);
+        engine.update(entry, entry.live(), 1_000);
+        engine.tick(60_000);
+        assertTrue(received.isEmpty());
+        // Vuelve a estar sano antes de la duración: se corta sin avisar
+        disk(entry, 6);
+        engine.update(entry, entry.live(), 70_000);
+        disk(entry, 4);
+        engine.update(entry, entry.live(), 80_000);
+        engine.tick(190_000);
+        assertTrue(received.isEmpty());
+        engine.tick(200_000);
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).firing);
+        assertEquals("a", received.get(0).hostId);
+        assertEquals(1, engine.firing().size());
+
+        // Oscilar dentro de la banda (5 a 5.25) o volver a bajar no repite ni resuelve
+        disk(entry, 5.1);
+        engine.update(entry, entry.live(), 210_000);
+        disk(entry, 3);
+        engine.update(entry, entry.live(), 220_000);
+        engine.tick(400_000);
+        assertEquals(1, received.size());
+
+        disk(entry, 5.3);
+        engine.update(entry, entry.live(), 410_000);
+        assertEquals(2, received.size());
+        assertFalse(received.get(1).firing);
+        assertEquals(5.3, received.get(1).value, 0.0);
+        assertTrue(engine.firing().isEmpty());
+        assertEquals(2, engine.getNotificationCount());
+    }
+
+    public void testOnlyMatchingGroupsAreEvaluated() {
+        AlertEngine engine = engine("freeDiskSpace < 5 on type=Cliente", "freeCpuPercentage > 95 on hostId=b",
+                "freeDiskSpace < 1");
+        HostEntry client = host("a", "Cliente", 3);
+        HostEntry server = host("b", "Servidor", 3);
+        engine.update(client, client.live(), 0);
+        engine.update(server, server.live(), 0);
+        assertEquals(1, received.size());
+        assertEquals("a", received.get(0).hostId);
+
+        server.update(computer -> computer.setFreeCpuPercentage(99));
+        disk(server, 0.5);
+        engine.update(server, server.live(), 1_000);
+        assertEquals(3, received.size());
+        for (AlertEngine.Alert alert : received.subList(1, 3)) {
+            assertEquals("b", alert.hostId);
+        }
+
+        // Si el host cambia de grupo, lo que ya no aplica se resuelve
+        client.update(computer -> computer.setType("Servidor"));
+        engine.update(client, client.live(), 2_000);
+        assertEquals(4, received.size());
+        assertFalse(received.get(3).firing);
+    }
+
+    public void testDisconnectedHostDropsPendingAlerts() throws Exception {
+        AlertEngine engine = engine("freeDiskSpace < 5 for 1m");
+        HostEntry entry = host("a", "Cliente", 3);
+        engine.update(entry, entry.live(), 0);
+        entry.update(computer -> computer.setConnectionStatus(LivenessMonitor.DEAD_STATUS));
+        engine.update(entry, entry.live(), 10_000);
+        engine.tick(120_000);
+        assertTrue(received.isEmpty());
+
+        Path log = Files.createTempFile("alertas", ".log");
+        try {
+            AlertEngine.logFile(log).alert(new AlertEngine.Alert(engine.getRules().get(0), "a", 3, true, 0));
+            String line = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+            assertTrue(line, line.startsWith("1970-01-01T00:00:00Z ALERTA a: freeDiskSpace < 5 for 1m (valor 3.00)"));
+        } finally {
+            Files.delete(log);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class BackoffTest extends TestCase {
+
+    public void testDelayDoublesUpToTheCap() {
+        Backoff backoff = new Backoff(100, 1000, false, new Random(1));
+        assertEquals(100, backoff.nextDelayMillis());
+        assertEquals(200, backoff.nextDelayMillis());
+        assertEquals(400, backoff.nextDelayMillis());
+        assertEquals(800, backoff.nextDelayMillis());
+        assertEquals(1000, backoff.nextDelayMillis());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1000, backoff.nextDelayMillis());
+        }
+        backoff.reset();
+        assertEquals(100, backoff.nextDelayMillis());
+    }
+
+    public void testJitterStaysBetweenHalfAndFullDelay() {
+        Backoff backoff = new Backoff(100, 1000, true, new Random(7));
+        long ceiling = 100;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            long delay = backoff.nextDelayMillis();
+            assertTrue(delay + " en el intento " + attempt, delay >= ceiling / 2 && delay <= ceiling);
+            ceiling = Math.min(1000, ceiling * 2);
+        }
+    }
+
+    public void testJitterSpreadsClientsThatFailedTogether() {
+        Random random = new Random(3);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int client = 0; client < 1000; client++) {
+            Backoff backoff = new Backoff(1000, 60_000, true, random);
+            long total = 0;
+            for (int attempt = 0; attempt < 4; attempt++) {
+                total += backoff.nextDelayMillis();
+            }
+            min = Math.min(min, total);
+            max = Math.max(max, total);
+        }
+        // Tras cuatro fallos los reintentos quedan repartidos en varios segundos
+        assertTrue(min + ".." + max, max - min > 5000);
+    }
+}
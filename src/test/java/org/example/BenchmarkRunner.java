@@ -0,0 +1,52 @@
+package org.example;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del perfil {@code bench}: corre los benchmarks de las pruebas y deja los
+ * resultados en JSON para comparar entre commits. Se configura con propiedades del sistema:
+ * <ul>
+ * <li>{@code bench.include}: expresión regular de los benchmarks (por defecto, todos).</li>
+ * <li>{@code bench.hosts}: cantidad de hosts, en los benchmarks que la usan ({@code hosts}).</li>
+ * <li>{@code bench.rate}: mensajes por segundo de fondo, en los que la usan ({@code rate}).</li>
+ * <li>{@code bench.result}: archivo de resultados (target/jmh-result.json).</li>
+ * <li>{@code bench.forks}, {@code bench.warmups}, {@code bench.iterations}: si se indican,
+ * reemplazan a los de cada benchmark.</li>
+ * </ul>
+ * Los valores de hosts y rate pueden ser una lista separada por comas. Sin ellos, cada
+ * benchmark usa sus propios {@code @Param}, así que dos corridas sin opciones son comparables.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("bench.include", ".*"))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("bench.result", "target/jmh-result.json"));
+        param(options, "hosts", "bench.hosts");
+        param(options, "rate", "bench.rate");
+        Integer forks = Integer.getInteger("bench.forks");
+        if (forks != null) {
+            options.forks(forks);
+        }
+        Integer warmups = Integer.getInteger("bench.warmups");
+        if (warmups != null) {
+            options.warmupIterations(warmups);
+        }
+        Integer iterations = Integer.getInteger("bench.iterations");
+        if (iterations != null) {
+            options.measurementIterations(iterations);
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static void param(ChainedOptionsBuilder options, String name, String property) {
+        String values = System.getProperty(property, "").trim();
+        if (!values.isEmpty()) {
+            options.param(name, values.split("\\s*,\\s*"));
+        }
+    }
+}
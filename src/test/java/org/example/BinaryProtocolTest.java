@@ -0,0 +1,214 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BinaryProtocolTest extends TestCase {
+
+    private static Computer1 sample() {
+        Computer1 computer = new Computer1("AMD Ryzen 7 5800X, \"8-Core\"", 3.8, 16, 931,
+                "Windows 11: 23H2", 17.42, 402.5, 98.31, "Cliente");
+        computer.setFreeCpuPercentage(87.5);
+        return computer;
+    }
+
+    public void testStaticAndUpdateRoundTrip() {
+        Computer1 original = sample();
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        BinaryProtocol.encodeStatic(buffer, original);
+        BinaryProtocol.encodeUpdate(buffer, original);
+        buffer.flip();
+
+        Computer1 decoded = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        BinaryProtocol.decodeStatic(buffer, decoded);
+        BinaryProtocol.decodeUpdate(buffer, decoded);
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(original.getProcessorModel(), decoded.getProcessorModel());
+        assertEquals(original.getOperatingSystemVersion(), decoded.getOperatingSystemVersion());
+        assertEquals(16, decoded.getCoreCount());
+        assertEquals(931L, decoded.getDiskCapacity());
+        assertEquals(3.8, decoded.getProcessorSpeed(), 0.005);
+        assertEquals(17.42, decoded.getFreeMemory(), 0.005);
+        assertEquals(402.5, decoded.getFreeDiskSpace(), 0.005);
+        assertEquals(98.31, decoded.getFreeBandwidthPercentage(), 0.005);
+        assertEquals(87.5, decoded.getFreeCpuPercentage(), 0.005);
+    }
+
+    public void testDetailDeclaresEachDeviceOnce() {
+        DeviceMetrics devices = new DeviceMetrics(new DeviceMetrics.Device[]{
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/var", 1.5, 200),
+                new DeviceMetrics.Device(DeviceMetrics.DISK, "/dev/sda", 120, 35.5, 4_000_000, 900_000),
+                new DeviceMetrics.Device(DeviceMetrics.INTERFACE, "eth0", 1_250_000, 25_000, 900, 0.5, 10_000)
+        });
+        Map<String, Integer> sent = new HashMap<>();
+        List<DeviceMetrics.Device> received = new ArrayList<>();
+
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        assertEquals(3, BinaryProtocol.encodeDetail(buffer, devices, sent));
+        int firstSize = buffer.position();
+        buffer.flip();
+        DeviceMetrics decoded = BinaryProtocol.decodeDetail(buffer, received);
+        assertEquals(3, decoded.size());
+        assertEquals(3, received.size());
+
+        // En la segunda trama los nombres ya no viajan
+        buffer.clear();
+        BinaryProtocol.encodeDetail(buffer, devices, sent);
+        assertTrue(buffer.position() + 15 < firstSize);
+        buffer.flip();
+        decoded = BinaryProtocol.decodeDetail(buffer, received);
+        assertEquals(3, received.size());
+        assertEquals("/var", decoded.get(0).name);
+        assertEquals(1.5, decoded.get(0).values[0], 0.005);
+        assertEquals(DeviceMetrics.DISK, decoded.get(1).kind);
+        assertEquals(35.5, decoded.get(1).values[1], 0.005);
+        assertEquals("interface", decoded.get(2).kindName());
+        assertEquals(10_000, decoded.get(2).values[4], 0.005);
+
+        // Lo que no cabe en la trama se omite, y sin declararlo
+        Map<String, Integer> small = new HashMap<>();
+        ByteBuffer tiny = ByteBuffer.allocate(13);
+        assertEquals(1, BinaryProtocol.encodeDetail(tiny, devices, small));
+        assertEquals(1, small.size());
+
+        // Una ranura que no se declaró es un error
+        ByteBuffer bad = ByteBuffer.wrap(new byte[]{5, 0});
+        try {
+            BinaryProtocol.decodeDetail(bad, new ArrayList<>());
+            fail();
+        } catch (TelemetryFormatException expected) {
+        }
+    }
+
+    public void testHistoryRecordsUseTimestampDeltas() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        long first = 1_700_000_000_000L;
+        BinaryProtocol.encodeHistoryRecord(buffer, 0, first, sample());
+        int firstSize = buffer.position();
+        BinaryProtocol.encodeHistoryRecord(buffer, first, first + 10_000, sample());
+        assertTrue(firstSize <= BinaryProtocol.MAX_HISTORY_RECORD);
+        // La segunda marca es una diferencia pequeña
+        assertTrue(buffer.position() - firstSize < firstSize);
+        buffer.flip();
+
+        Computer1 decoded = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        long timestamp = BinaryProtocol.decodeHistoryRecord(buffer, 0, decoded);
+        assertEquals(first, timestamp);
+        assertEquals(first + 10_000, BinaryProtocol.decodeHistoryRecord(buffer, timestamp, decoded));
+        assertEquals(87.5, decoded.getFreeCpuPercentage(), 0.005);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    public void testUpdateIsMuchSmallerThanJson() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        BinaryProtocol.encodeUpdate(buffer, sample());
+        int jsonBytes = ComputerClient.toJson(sample()).length() + 1;
+        assertTrue(buffer.position() + 2 < jsonBytes / 10);
+    }
+
+    public void testVarints() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Long.MAX_VALUE};
+        for (long value : values) {
+            buffer.clear();
+            BinaryProtocol.writeVarint(buffer, value);
+            assertEquals(BinaryProtocol.varintSize(value), buffer.position());
+            buffer.flip();
+            assertEquals(value, BinaryProtocol.readVarint(buffer));
+        }
+    }
+
+    // Longitudes y ranuras que no entran en un int son errores de formato, no negativos ni
+    // valores recortados
+    public void testOutOfRangeLengthsAreFormatErrors() {
+        long[] values = {-1, Integer.MAX_VALUE + 1L, 1L << 32};
+        for (long value : values) {
+            ByteBuffer string = ByteBuffer.allocate(32);
+            BinaryProtocol.writeVarint(string, value);
+            string.put((byte) 'x').flip();
+            try {
+                BinaryProtocol.readString(string, null);
+                fail("Longitud " + value);
+            } catch (TelemetryFormatException expected) {
+            }
+
+            ByteBuffer detail = ByteBuffer.allocate(32);
+            BinaryProtocol.writeVarint(detail, value);
+            detail.put(DeviceMetrics.CORE).put((byte) 0).put((byte) 0).flip();
+            try {
+                BinaryProtocol.decodeDetail(detail, new ArrayList<>());
+                fail("Ranura " + value);
+            } catch (TelemetryFormatException expected) {
+            }
+        }
+    }
+
+    public void testEngineSwitchesToBinaryFramingOnMagicByte() throws Exception {
+        final List<Byte> types = new CopyOnWriteArrayList<>();
+        IngestionEngine engine = new IngestionEngine(0, 1, 1024, new IngestionHandler() {
+            @Override
+            public void onConnect(IngestionEngine.Connection connection) {
+            }
+
+            @Override
+            public void onLine(IngestionEngine.Connection connection, ByteBuffer line) {
+                fail("Una conexión binaria no debe recibir líneas");
+            }
+
+            @Override
+            public void onFrame(IngestionEngine.Connection connection, ByteBuffer frame) {
+                types.add(frame.get());
+                connection.send(new byte[]{1, BinaryProtocol.ACK});
+            }
+
+            @Override
+            public void onDisconnect(IngestionEngine.Connection connection) {
+            }
+        });
+        engine.start();
+
+        ByteBuffer out = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        out.put(BinaryProtocol.MAGIC);
+        BinaryProtocol.writeHello(out, BinaryProtocol.VERSION);
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        BinaryProtocol.encodeStatic(payload, sample());
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.STATIC, payload);
+        payload.clear();
+        BinaryProtocol.encodeUpdate(payload, sample());
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.UPDATE, payload);
+
+        try (Socket socket = new Socket("127.0.0.1", engine.getLocalPort())) {
+            OutputStream stream = socket.getOutputStream();
+            // Enviar en dos partes para partir una trama entre lecturas
+            int half = out.position() / 2;
+            stream.write(out.array(), 0, half);
+            stream.flush();
+            Thread.sleep(50);
+            stream.write(out.array(), half, out.position() - half);
+            stream.flush();
+
+            byte[] acks = new byte[6];
+            int read = 0;
+            while (read < acks.length) {
+                read += socket.getInputStream().read(acks, read, acks.length - read);
+            }
+        } finally {
+            engine.close();
+        }
+        assertEquals(3, types.size());
+        assertEquals(BinaryProtocol.HELLO, (byte) types.get(0));
+        assertEquals(BinaryProtocol.STATIC, (byte) types.get(1));
+        assertEquals(BinaryProtocol.UPDATE, (byte) types.get(2));
+    }
+}
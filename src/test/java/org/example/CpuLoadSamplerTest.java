@@ -0,0 +1,64 @@
+package org.example;
+
+import junit.framework.TestCase;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.TickType;
+
+public class CpuLoadSamplerTest extends TestCase {
+
+    private static long[] ticks(long user, long idle, long iowait) {
+        long[] ticks = new long[TickType.values().length];
+        ticks[TickType.USER.getIndex()] = user;
+        ticks[TickType.IDLE.getIndex()] = idle;
+        ticks[TickType.IOWAIT.getIndex()] = iowait;
+        return ticks;
+    }
+
+    public void testLoadFromTickDeltas() {
+        long[] previous = ticks(100, 100, 0);
+        // 30 ticks ocupados, 60 en reposo y 10 esperando E/S: 30% de carga
+        assertEquals(0.30, CpuLoadSampler.load(previous, ticks(130, 160, 10)), 1e-9);
+        // Sin ticks nuevos no hay medición
+        assertEquals(-1.0, CpuLoadSampler.load(previous, previous), 0.0);
+    }
+
+    public void testSampleDoesNotBlockAndReportsEveryCore() {
+        CentralProcessor processor = new SystemInfo().getHardware().getProcessor();
+        CpuLoadSampler sampler = new CpuLoadSampler(processor);
+
+        long start = System.nanoTime();
+        sampler.sample();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("sample() tardó " + elapsedMillis + " ms", elapsedMillis < 500);
+
+        double[] perCore = sampler.getFreeCpuPerCore();
+        assertEquals(processor.getLogicalProcessorCount(), perCore.length);
+        for (double free : perCore) {
+            assertTrue(free >= 0 && free <= 100);
+        }
+    }
+
+    // Misma ventana de un segundo: la diferencia de ticks debe coincidir con la medición bloqueante
+    public void testMatchesBlockingMeasurementWithinTolerance() throws Exception {
+        CentralProcessor processor = new SystemInfo().getHardware().getProcessor();
+        Thread busy = new Thread(() -> {
+            long deadline = System.nanoTime() + 1_500_000_000L;
+            double sink = 0;
+            while (System.nanoTime() < deadline) {
+                sink += Math.sqrt(sink + 1);
+            }
+            if (sink < 0) System.out.println(sink);
+        });
+        busy.start();
+        try {
+            CpuLoadSampler sampler = new CpuLoadSampler(processor);
+            double blocking = processor.getSystemCpuLoad(1000L);
+            sampler.sample();
+            double blockingFree = 100.0 - blocking * 100.0;
+            assertEquals(blockingFree, sampler.getFreeCpuPercentage(), 10.0);
+        } finally {
+            busy.join();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+
+public class DeltaTrackerTest extends TestCase {
+
+    private static Computer1 sample(double freeCpu, double freeMemory) {
+        Computer1 computer = new Computer1("CPU", 3.0, 8, 500, "OS", freeMemory, 100.0, 90.0, "Cliente");
+        computer.setFreeCpuPercentage(freeCpu);
+        return computer;
+    }
+
+    private final DeltaTracker tracker = new DeltaTracker(0.05, 0.1, 0.5, 2.0, 2.0, 3);
+
+    public void testFirstSampleIsFullThenOnlyChangesPastThreshold() {
+        Computer1 first = sample(50.0, 8.0);
+        assertEquals(TelemetryParser.ALL_FIELDS, tracker.fieldsToSend(first));
+        tracker.sent(first, TelemetryParser.ALL_FIELDS);
+
+        // 1.5% de CPU no supera el umbral del 2%: sólo keepalive
+        Computer1 small = sample(51.5, 8.05);
+        assertEquals(0, tracker.fieldsToSend(small));
+        tracker.sent(small, 0);
+
+        // La deriva se mide contra lo último enviado, no contra la última muestra
+        Computer1 drift = sample(52.5, 8.05);
+        assertEquals(TelemetryParser.FREE_CPU_PERCENTAGE, tracker.fieldsToSend(drift));
+        tracker.sent(drift, TelemetryParser.FREE_CPU_PERCENTAGE);
+
+        Computer1 memory = sample(52.5, 7.5);
+        assertEquals(TelemetryParser.FREE_MEMORY, tracker.fieldsToSend(memory));
+        tracker.sent(memory, TelemetryParser.FREE_MEMORY);
+    }
+
+    public void testPeriodicFullResyncAndReset() {
+        Computer1 computer = sample(50.0, 8.0);
+        tracker.sent(computer, tracker.fieldsToSend(computer));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, tracker.fieldsToSend(computer));
+            tracker.sent(computer, 0);
+        }
+        assertEquals(TelemetryParser.ALL_FIELDS, tracker.fieldsToSend(computer));
+        tracker.sent(computer, TelemetryParser.ALL_FIELDS);
+
+        tracker.reset();
+        assertEquals(TelemetryParser.ALL_FIELDS, tracker.fieldsToSend(computer));
+    }
+
+    public void testServerMergesJsonDeltasIntoStoredRecord() {
+        TelemetryParser parser = new TelemetryParser();
+        Computer1 stored = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        Computer1 full = sample(50.0, 8.0);
+        assertEquals(TelemetryParser.ALL_FIELDS, parser.parse(ComputerClient.toJson(full), stored));
+
+        Computer1 changed = sample(20.0, 8.0);
+        int fields = parser.parse(ComputerClient.toJson(changed, TelemetryParser.FREE_CPU_PERCENTAGE), stored);
+        assertEquals(TelemetryParser.FREE_CPU_PERCENTAGE, fields);
+        assertEquals(20.0, stored.getFreeCpuPercentage(), 0.0);
+        assertEquals(8.0, stored.getFreeMemory(), 0.0);
+        assertEquals("CPU", stored.getProcessorModel());
+
+        assertEquals(0, parser.parse(ComputerClient.toJson(changed, 0), stored));
+    }
+
+    public void testBinaryDeltaCarriesOnlyMaskedFields() {
+        Computer1 computer = sample(33.33, 4.5);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeDelta(buffer, computer, TelemetryParser.FREE_CPU_PERCENTAGE | TelemetryParser.FREE_MEMORY);
+        assertEquals(2 + 2 + 2, buffer.position());
+        buffer.flip();
+
+        Computer1 stored = sample(90.0, 1.0);
+        int fields = BinaryProtocol.decodeDelta(buffer, stored);
+        assertEquals(TelemetryParser.FREE_CPU_PERCENTAGE | TelemetryParser.FREE_MEMORY, fields);
+        assertEquals(33.33, stored.getFreeCpuPercentage(), 0.001);
+        assertEquals(4.5, stored.getFreeMemory(), 0.001);
+        assertEquals(90.0, stored.getFreeBandwidthPercentage(), 0.0);
+    }
+}
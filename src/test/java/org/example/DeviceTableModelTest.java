@@ -0,0 +1,31 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeviceTableModelTest extends TestCase {
+
+    public void testRendersOneDeviceOfEveryKind() {
+        assertEquals(DeviceMetrics.KIND_NAMES.length, DeviceMetrics.KIND_LABELS.length);
+
+        List<DeviceMetrics.Device> devices = new ArrayList<>();
+        for (byte kind = 0; kind < DeviceMetrics.KIND_NAMES.length; kind++) {
+            devices.add(new DeviceMetrics.Device(kind, "dispositivo-" + kind,
+                    new double[DeviceMetrics.VALUE_NAMES[kind].length]));
+        }
+        DeviceTableModel model = new DeviceTableModel();
+        assertTrue(model.setDevices(new DeviceMetrics(devices)));
+        assertEquals(devices.size(), model.getRowCount());
+
+        for (int row = 0; row < model.getRowCount(); row++) {
+            assertEquals(DeviceMetrics.KIND_LABELS[row], model.getValueAt(row, 0));
+            assertEquals("dispositivo-" + row, model.getValueAt(row, 1));
+            assertNotNull(model.getValueAt(row, 2));
+        }
+        assertEquals("Núcleo", model.getValueAt(DeviceMetrics.CORE, 0));
+        assertTrue(DeviceTableModel.describe(
+                new DeviceMetrics.Device(DeviceMetrics.CORE, "cpu0", 12.5)).endsWith("% libre"));
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por actualización de los agregados de la flota con 10k hosts repartidos en 3 tipos,
+ * 10 sistemas operativos y 100 modelos: la ventana deslizante ({@code record}, una vez por
+ * muestra aceptada) y el estado actual ({@code hostChanged}, una vez por cambio del registro).
+ * El reloj avanza 20 µs por actualización, como una ingesta de 50k actualizaciones por
+ * segundo, así que las porciones de la ventana se reciclan durante la medición. A ese ritmo
+ * cada microsegundo por actualización es un 5 % de un núcleo.
+ *
+ * También se mide la consulta: p95 de CPU libre por sistema operativo en los últimos 5 min.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetAggregatesBenchmark {
+    private static final String[] TYPES = {"Cliente", "Servidor", "Relay"};
+
+    @Param({"10000"})
+    public int hosts;
+
+    private FleetAggregates aggregates;
+    private HostEntry[] entries;
+    private Computer1 sample;
+    private Random random;
+    private long updates;
+
+    @Setup
+    public void setup() {
+        aggregates = new FleetAggregates(300_000, 10);
+        HostRegistry registry = new HostRegistry();
+        registry.addListener(aggregates);
+        random = new Random(1);
+        entries = new HostEntry[hosts];
+        for (int i = 0; i < hosts; i++) {
+            int host = i;
+            entries[i] = registry.update("host-" + i, TYPES[i % TYPES.length], computer -> {
+                computer.setOperatingSystemVersion("so-" + host % 10);
+                computer.setProcessorModel("modelo-" + host % 100);
+                computer.setFreeMemory(random.nextDouble() * 64);
+                computer.setFreeCpuPercentage(random.nextDouble() * 100);
+                computer.setConnectionStatus("Conectado");
+            });
+        }
+        sample = new Computer1(null, 3.2, 0, 0, null, 0, 200, 95, "Cliente");
+        // Una ventana completa de muestras antes de medir
+        for (int i = 0; i < 300 * 50_000 / 10; i++) {
+            record();
+        }
+    }
+
+    @Benchmark
+    public Computer1 record() {
+        long n = updates++;
+        HostEntry entry = entries[(int) (n % entries.length)];
+        sample.setFreeCpuPercentage(random.nextDouble() * 100);
+        sample.setFreeMemory(random.nextDouble() * 64);
+        aggregates.record(entry.live(), n / 50, sample);
+        return sample;
+    }
+
+    @Benchmark
+    public HostEntry hostChanged() {
+        HostEntry entry = entries[(int) (updates++ % entries.length)];
+        entry.live().setFreeMemory(random.nextDouble() * 64);
+        aggregates.hostChanged(entry);
+        return entry;
+    }
+
+    @Benchmark
+    public double p95ByOperatingSystem() {
+        double sum = 0;
+        Map<String, LogHistogram> byOs = aggregates.windowByGroup(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.OPERATING_SYSTEM, updates / 50);
+        for (LogHistogram histogram : byOs.values()) {
+            sum += histogram.quantile(0.95);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FleetAggregatesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+
+public class FleetAggregatesTest extends TestCase {
+    private static final long MINUTE = 60_000;
+
+    private static Computer1 host(String type, String os, String model) {
+        return new Computer1(model, 3.0, 8, 500, os, 0, 0, 0, type);
+    }
+
+    private static Computer1 sample(double cpu, double memory) {
+        Computer1 sample = new Computer1(null, 3.0, 0, 0, null, memory, 100, 90, "Cliente");
+        sample.setFreeCpuPercentage(cpu);
+        return sample;
+    }
+
+    public void testSlidingWindowForgetsOldSlices() {
+        FleetAggregates aggregates = new FleetAggregates(5 * MINUTE, 5);
+        Computer1 host = host("Cliente", "Windows", "i7");
+        for (int minute = 0; minute < 10; minute++) {
+            for (int i = 0; i < 100; i++) {
+                aggregates.record(host, minute * MINUTE + i, sample(minute * 10, 8));
+            }
+        }
+        // Al final del minuto 9 la ventana cubre los minutos 5 a 9
+        LogHistogram window = aggregates.window(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.FLEET, null, 9 * MINUTE + 30_000);
+        assertEquals(500, window.count());
+        assertEquals(50.0, window.quantile(0.01), 0.5);
+        assertEquals(90.0, window.quantile(1.0), 0.9);
+
+        // Una muestra histórica más vieja que la ventana no pisa una porción reciente
+        aggregates.record(host, 3 * MINUTE, sample(0, 8));
+        assertEquals(500, aggregates.window(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.FLEET, null, 9 * MINUTE + 30_000).count());
+        // Una de hace dos minutos sí cuenta
+        aggregates.record(host, 7 * MINUTE + 5, sample(0, 8));
+        assertEquals(501, aggregates.window(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.FLEET, null, 9 * MINUTE + 30_000).count());
+    }
+
+    public void testWindowGroupsByOperatingSystemAndModel() {
+        FleetAggregates aggregates = new FleetAggregates(5 * MINUTE, 5);
+        Computer1 windows = host("Cliente", "Windows", "i7");
+        Computer1 linux = host("Cliente", "Linux", null);
+        for (int i = 1; i <= 100; i++) {
+            aggregates.record(windows, 1000 + i, sample(i, 8));
+            aggregates.record(linux, 1000 + i, sample(100 + i, 8));
+        }
+        Map<String, LogHistogram> byOs = aggregates.windowByGroup(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.OPERATING_SYSTEM, 2000);
+        assertEquals("[Linux, Windows]", byOs.keySet().toString());
+        assertEquals(95.0, byOs.get("Windows").quantile(0.95), 0.5);
+        assertEquals(195.0, byOs.get("Linux").quantile(0.95), 2.0);
+
+        Map<String, LogHistogram> byModel = aggregates.windowByGroup(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.PROCESSOR_MODEL, 2000);
+        assertEquals("[desconocido, i7]", byModel.keySet().toString());
+        assertEquals(200, aggregates.window(TimeSeriesStore.FREE_CPU_PERCENTAGE,
+                FleetAggregates.GroupBy.FLEET, null, 2000).count());
+    }
+
+    public void testCurrentStateFollowsRegistryChanges() {
+        HostRegistry registry = new HostRegistry();
+        FleetAggregates aggregates = new FleetAggregates(5 * MINUTE, 5);
+        registry.addListener(aggregates);
+        for (int i = 0; i < 10; i++) {
+            double memory = i < 3 ? 0.5 : 16;
+            registry.update("host-" + i, "Cliente", computer -> {
+                computer.setOperatingSystemVersion("Linux");
+                computer.setFreeMemory(memory);
+                computer.setConnectionStatus("Conectado");
+            });
+        }
+        LogHistogram memory = aggregates.current(TimeSeriesStore.FREE_MEMORY, FleetAggregates.GroupBy.FLEET, null);
+        assertEquals(10, memory.count());
+        assertEquals(3, memory.countBelow(1.0));
+
+        // Un host recupera memoria y otro se desconecta: ninguno cuenta dos veces
+        registry.update("host-0", "Cliente", computer -> computer.setFreeMemory(32));
+        registry.update("host-1", "Cliente", computer -> computer.setConnectionStatus("Desconectado"));
+        memory = aggregates.current(TimeSeriesStore.FREE_MEMORY, FleetAggregates.GroupBy.FLEET, null);
+        assertEquals(9, memory.count());
+        assertEquals(1, memory.countBelow(1.0));
+
+        // Cambiar de sistema operativo lo mueve de grupo
+        registry.update("host-2", "Cliente", computer -> computer.setOperatingSystemVersion("Windows"));
+        Map<String, LogHistogram> byOs = aggregates.currentByGroup(TimeSeriesStore.FREE_MEMORY,
+                FleetAggregates.GroupBy.OPERATING_SYSTEM);
+        assertEquals(8, byOs.get("Linux").count());
+        assertEquals(1, byOs.get("Windows").countBelow(1.0));
+    }
+
+    public void testConcurrentHostChangesKeepCountsExact() throws Exception {
+        FleetAggregates aggregates = new FleetAggregates(5 * MINUTE, 5);
+        HostRegistry registry = new HostRegistry();
+        registry.addListener(aggregates);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int first = t * 250;
+            threads[t] = new Thread(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (int host = first; host < first + 250; host++) {
+                        int value = round;
+                        // Los impares terminan desconectados
+                        boolean connected = round < 49 || host % 2 == 0;
+                        registry.update("host-" + host, host % 3 == 0 ? "Servidor" : "Cliente", computer -> {
+                            computer.setFreeMemory(value);
+                            computer.setConnectionStatus(connected ? "Conectado" : "Desconectado");
+                        });
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LogHistogram fleet = aggregates.current(TimeSeriesStore.FREE_MEMORY, FleetAggregates.GroupBy.FLEET, null);
+        assertEquals(500, fleet.count());
+        assertEquals(49.0, fleet.quantile(0.0), 0.5);
+        Map<String, LogHistogram> byType = aggregates.currentByGroup(TimeSeriesStore.FREE_MEMORY,
+                FleetAggregates.GroupBy.TYPE);
+        assertEquals(500, byType.get("Cliente").count() + byType.get("Servidor").count());
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas por loopback a la API HTTP con 10k hosts cargados (una hora de historial cada
+ * uno), desde 4 hilos con conexiones persistentes. En modo muestreo JMH informa los
+ * percentiles de latencia (p50, p99, p99.9) además del promedio.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(1)
+public class FleetApiServerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        @Param({"10000"})
+        public int hosts;
+
+        FleetApiServer api;
+        String base;
+
+        @Setup
+        public void setup() throws IOException {
+            HostRegistry registry = new HostRegistry();
+            TimeSeriesStore history = new TimeSeriesStore(512L * 1024 * 1024, 360);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < hosts; i++) {
+                String hostId = "host-" + i;
+                double memory = random.nextDouble(64);
+                registry.update(hostId, "Cliente", computer -> {
+                    computer.setProcessorModel("Intel(R) Core(TM) i7-9700");
+                    computer.setProcessorSpeed(3.6);
+                    computer.setCoreCount(8);
+                    computer.setDiskCapacity(512);
+                    computer.setOperatingSystemVersion("10.0.19045");
+                    computer.setFreeMemory(memory);
+                    computer.setFreeDiskSpace(200);
+                    computer.setFreeCpuPercentage(50);
+                    computer.setConnectionStatus("Conectado");
+                });
+                for (int s = 0; s < 360; s++) {
+                    sample.setFreeMemory(memory + (s & 7));
+                    history.append(hostId, now - (360 - s) * 10_000L, sample);
+                }
+            }
+            api = new FleetApiServer(registry, history, 0, 4, 1000);
+            api.start();
+            base = "http://127.0.0.1:" + api.getPort();
+        }
+
+        @TearDown
+        public void tearDown() {
+            api.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        final byte[] buffer = new byte[64 * 1024];
+        int hostCount;
+
+        @Setup(Level.Trial)
+        public void setup(Fleet fleet) {
+            hostCount = fleet.hosts;
+        }
+
+        // Lee la respuesta completa para que la conexión vuelva al pool de keep-alive
+        int get(String url) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            int total = 0;
+            try (InputStream in = connection.getInputStream()) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    total += n;
+                }
+            }
+            return total;
+        }
+    }
+
+    @Benchmark
+    public int host(Fleet fleet, Client client) throws IOException {
+        return client.get(fleet.base + "/hosts/host-" + ThreadLocalRandom.current().nextInt(client.hostCount));
+    }
+
+    @Benchmark
+    public int rankingTop10(Fleet fleet, Client client) throws IOException {
+        return client.get(fleet.base + "/ranking?metric=freeMemory&k=10");
+    }
+
+    @Benchmark
+    public int historyHour(Fleet fleet, Client client) throws IOException {
+        return client.get(fleet.base + "/hosts/host-" + ThreadLocalRandom.current().nextInt(client.hostCount)
+                + "/history?metric=freeMemory");
+    }
+
+    @Benchmark
+    public int allHosts(Fleet fleet, Client client) throws IOException {
+        return client.get(fleet.base + "/hosts");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FleetApiServerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class FleetApiServerTest extends TestCase {
+    private HostRegistry registry;
+    private TimeSeriesStore history;
+    private FleetApiServer api;
+
+    @Override
+    protected void setUp() throws Exception {
+        registry = new HostRegistry();
+        history = new TimeSeriesStore(1 << 20, 100);
+        host("a", 8);
+        host("b/1", 16);
+        api = new FleetApiServer(registry, history, 0, 2, 20);
+        api.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        api.close();
+    }
+
+    private void host(String hostId, double freeMemory) {
+        registry.update(hostId, "Cliente", computer -> {
+            computer.setProcessorModel("Intel \"i7\"");
+            computer.setCoreCount(4);
+            computer.setFreeMemory(freeMemory);
+            computer.setConnectionStatus("Conectado");
+        });
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + api.getPort() + path).openConnection();
+    }
+
+    private String get(String path, int expectedStatus) throws IOException {
+        HttpURLConnection connection = open(path);
+        assertEquals(expectedStatus, connection.getResponseCode());
+        InputStream in = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            body.write(buffer, 0, n);
+        }
+        in.close();
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public void testJsonOutputFormatsValuesAndEscapes() {
+        JsonOutput out = new JsonOutput(4);
+        out.beginObject().name("s").value("a\"b\\c\nñ").name("n").value(-42L).name("d").value(-3.14159)
+                .name("x").value(Double.NaN).name("list").beginArray().value(0.5).value(12L).endArray()
+                .endObject();
+        assertEquals("{\"s\":\"a\\\"b\\\\c\\u000añ\",\"n\":-42,\"d\":-3.14,\"x\":null,\"list\":[0.50,12]}",
+                new String(out.array(), 0, out.length(), StandardCharsets.UTF_8));
+        assertEquals(0, out.reset().length());
+    }
+
+    public void testServesFleetAggregates() throws Exception {
+        get("/aggregates", 404);
+        FleetAggregates aggregates = new FleetAggregates(300_000, 10);
+        registry.addListener(aggregates);
+        host("a", 8);
+        host("b/1", 16);
+        host("c", 0.5);
+        api.close();
+        api = new FleetApiServer(registry, history, aggregates, 0, 2, 20);
+        api.start();
+
+        String current = get("/aggregates?metric=freeMemory&scope=current&below=1", 200);
+        assertTrue(current, current.startsWith("{\"metric\":\"freeMemory\",\"groupBy\":\"fleet\",\"scope\":\"current\""));
+        assertTrue(current, current.contains("\"count\":3,") && current.contains("\"below\":1}"));
+
+        aggregates.record(registry.get("a").live(), System.currentTimeMillis(), registry.get("a").live());
+        String window = get("/aggregates?metric=freeMemory&groupBy=processorModel", 200);
+        assertTrue(window, window.contains("\"windowMillis\":300000"));
+        assertTrue(window, window.contains("{\"key\":\"Intel \\\"i7\\\"\",\"count\":1,\"p50\":8.0"));
+        get("/aggregates?groupBy=disco", 400);
+        get("/aggregates?scope=siempre", 400);
+    }
+
+    public void testServesSnapshotsHostsAndRanking() throws Exception {
+        String all = get("/hosts", 200);
+        assertTrue(all, all.startsWith("[{") && all.endsWith("}]"));
+        assertTrue(all, all.contains("\"hostId\":\"a\""));
+        assertTrue(all, all.contains("\"processorModel\":\"Intel \\\"i7\\\"\""));
+
+        String one = get("/hosts/b%2F1", 200);
+        assertTrue(one, one.contains("\"hostId\":\"b/1\"") && one.contains("\"freeMemory\":16.00"));
+        get("/hosts/desconocido", 404);
+
+        // El detalle por dispositivo sólo va en la consulta de un host
+        registry.update("a", "Cliente", computer -> computer.setDevices(new DeviceMetrics(new DeviceMetrics.Device[]{
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/datos", 0.5, 100)})));
+        String detail = get("/hosts/a", 200);
+        assertTrue(detail, detail.contains(
+                "\"devices\":[{\"kind\":\"filesystem\",\"name\":\"/datos\",\"usableGb\":0.50,\"totalGb\":100.00}]"));
+        assertFalse(get("/hosts", 200).contains("\"devices\""));
+
+        String ranking = get("/ranking?metric=freeMemory&k=1", 200);
+        assertTrue(ranking, ranking.contains("\"rank\":1,\"score\":16.00,\"host\":{\"hostId\":\"b/1\""));
+        assertFalse(ranking, ranking.contains("\"hostId\":\"a\""));
+        // El ranking sigue al registro
+        host("a", 32);
+        assertTrue(get("/ranking?k=1", 200).contains("\"hostId\":\"a\""));
+        get("/ranking?metric=inventada", 400);
+    }
+
+    public void testServesHistoryWindow() throws Exception {
+        Computer1 sample = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        for (int i = 0; i < 5; i++) {
+            sample.setFreeCpuPercentage(10 * i);
+            history.append("a", 1000 + i, sample);
+        }
+        String window = get("/hosts/a/history?metric=freeCpuPercentage&from=1001&to=1003", 200);
+        assertEquals("{\"hostId\":\"a\",\"metric\":\"freeCpuPercentage\",\"from\":1001,\"to\":1003,"
+                + "\"samples\":[[1001,10.00],[1002,20.00],[1003,30.00]],"
+                + "\"count\":3,\"min\":10.00,\"max\":30.00,\"average\":20.00}", window);
+        get("/hosts/a/history?from=x", 400);
+    }
+
+    public void testStreamsOnlyChangedHosts() throws Exception {
+        HttpURLConnection connection = open("/events");
+        assertEquals("text/event-stream; charset=utf-8", connection.getContentType());
+        BufferedReader events = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals(": conectado", events.readLine());
+        assertEquals("", events.readLine());
+        while (api.subscriberCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        host("b/1", 20);
+        assertEquals("event: host", events.readLine());
+        String data = events.readLine();
+        assertTrue(data, data.startsWith("data: {\"hostId\":\"b/1\"") && data.contains("\"freeMemory\":20.00"));
+        assertEquals("", events.readLine());
+        connection.disconnect();
+    }
+}
@@ -0,0 +1,143 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresión de bloques del historial con telemetría realista: un host que reporta cada
+ * 10 s (con unos ms de desfase) y valores con dos decimales, como llegan por JSON o binario.
+ * {@link #main} imprime la razón de compresión por métrica; el benchmark mide cuántas
+ * muestras por segundo decodifica un cursor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GorillaBlockBenchmark {
+    static final int BLOCK = 120;
+    static final int BLOCKS = 1000;
+
+    private GorillaBlock[] blocks;
+    private long[] timestamps;
+    private double[][] columns;
+
+    @Setup
+    public void setup() {
+        blocks = new GorillaBlock[BLOCKS];
+        Random random = new Random(1);
+        timestamps = new long[BLOCK];
+        columns = new double[TimeSeriesStore.METRIC_COUNT][BLOCK];
+        for (int b = 0; b < BLOCKS; b++) {
+            generate(random, timestamps, columns);
+            blocks[b] = GorillaBlock.encode(timestamps, columns, BLOCK);
+        }
+    }
+
+    // Una hora de reportes de un host (120 muestras) a partir de los campos de Computer1
+    static void generate(Random random, long[] timestamps, double[][] columns) {
+        long time = 1_700_000_000_000L + random.nextInt(1_000_000);
+        double memory = 4 + random.nextDouble() * 28;
+        double disk = 50 + random.nextDouble() * 400;
+        double cpuLoad = random.nextDouble() * 40;
+        double speed = 2.0 + random.nextInt(20) / 10.0;
+        for (int i = 0; i < BLOCK; i++) {
+            time += 10_000 + random.nextInt(21) - 10;
+            timestamps[i] = time;
+            memory = clamp(memory + random.nextGaussian() * 0.05, 0.5, 64);
+            if (random.nextInt(20) == 0) disk = Math.max(0, disk - random.nextDouble() * 0.2);
+            cpuLoad = clamp(cpuLoad + random.nextGaussian() * 3, 0, 100);
+            double bandwidth = random.nextInt(10) == 0 ? 100 - random.nextDouble() * 5 : 100.0;
+            columns[TimeSeriesStore.FREE_MEMORY][i] = hundredths(memory);
+            columns[TimeSeriesStore.FREE_DISK_SPACE][i] = hundredths(disk);
+            columns[TimeSeriesStore.FREE_CPU_PERCENTAGE][i] = hundredths(100 - cpuLoad);
+            columns[TimeSeriesStore.FREE_BANDWIDTH_PERCENTAGE][i] = hundredths(bandwidth);
+            columns[TimeSeriesStore.PROCESSOR_SPEED][i] = speed;
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double hundredths(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS * BLOCK)
+    public double decodeFreeMemory() {
+        double sum = 0;
+        for (GorillaBlock block : blocks) {
+            GorillaBlock.Cursor cursor = block.cursor(TimeSeriesStore.FREE_MEMORY);
+            while (cursor.next()) {
+                sum += cursor.value();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCKS * BLOCK)
+    public double rawArrayScan() {
+        // Referencia: recorrer el bloque activo sin comprimir
+        double sum = 0;
+        double[] column = columns[TimeSeriesStore.FREE_MEMORY];
+        for (int b = 0; b < BLOCKS; b++) {
+            for (int i = 0; i < BLOCK; i++) {
+                sum += column[i] + timestamps[i];
+            }
+        }
+        return sum;
+    }
+
+    // Bits por muestra de cada columna, midiendo bloques de una sola métrica
+    static void printCompression() {
+        Random random = new Random(1);
+        long[] timestamps = new long[BLOCK];
+        double[][] columns = new double[TimeSeriesStore.METRIC_COUNT][BLOCK];
+        long[] columnBytes = new long[TimeSeriesStore.METRIC_COUNT];
+        long totalBytes = 0;
+        long timestampOnlyBytes = 0;
+        for (int b = 0; b < BLOCKS; b++) {
+            generate(random, timestamps, columns);
+            totalBytes += GorillaBlock.encode(timestamps, columns, BLOCK).sizeBytes();
+            long empty = GorillaBlock.encode(timestamps, new double[0][], BLOCK).sizeBytes();
+            timestampOnlyBytes += empty;
+            for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+                columnBytes[m] += GorillaBlock.encode(timestamps, new double[][]{columns[m]}, BLOCK).sizeBytes() - empty;
+            }
+        }
+        long samples = (long) BLOCKS * BLOCK;
+        long raw = samples * TimeSeriesStore.BYTES_PER_SAMPLE;
+        System.out.printf("Bloque completo: %.2f bytes/muestra frente a %d sin comprimir (%.1fx)%n",
+                totalBytes / (double) samples, TimeSeriesStore.BYTES_PER_SAMPLE, raw / (double) totalBytes);
+        System.out.printf("  marcas de tiempo: %.2f bits/muestra%n", timestampOnlyBytes * 8.0 / samples);
+        for (int m = 0; m < TimeSeriesStore.METRIC_COUNT; m++) {
+            System.out.printf("  %s: %.2f bits/muestra (%.1fx)%n", TimeSeriesStore.METRIC_NAMES[m],
+                    columnBytes[m] * 8.0 / samples, 64.0 * samples / (columnBytes[m] * 8.0));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        printCompression();
+        new Runner(new OptionsBuilder()
+                .include(GorillaBlockBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class GorillaBlockTest extends TestCase {
+
+    private static void assertRoundTrip(long[] timestamps, double[][] columns, int count) {
+        GorillaBlock block = GorillaBlock.encode(timestamps, columns, count);
+        assertEquals(count, block.count());
+        assertEquals(timestamps[0], block.firstTimestamp());
+        assertEquals(timestamps[count - 1], block.lastTimestamp());
+        for (int metric = 0; metric < columns.length; metric++) {
+            GorillaBlock.Cursor cursor = block.cursor(metric);
+            for (int i = 0; i < count; i++) {
+                assertTrue(cursor.next());
+                assertEquals(timestamps[i], cursor.timestamp());
+                // Igualdad bit a bit, incluidos NaN y -0.0
+                assertEquals(Double.doubleToRawLongBits(columns[metric][i]),
+                        Double.doubleToRawLongBits(cursor.value()));
+            }
+            assertFalse(cursor.next());
+        }
+    }
+
+    public void testRoundTripOfRealisticTelemetry() {
+        Random random = new Random(42);
+        int count = 120;
+        long[] timestamps = new long[count];
+        double[][] columns = new double[3][count];
+        long time = 1_700_000_000_000L;
+        double memory = 12.5;
+        for (int i = 0; i < count; i++) {
+            time += 10_000 + random.nextInt(41) - 20;
+            timestamps[i] = time;
+            memory = Math.max(0, memory + random.nextGaussian() * 0.1);
+            columns[0][i] = Math.round(memory * 100) / 100.0;
+            columns[1][i] = Math.round(random.nextDouble() * 10000) / 100.0;
+            columns[2][i] = 100.0;
+        }
+        assertRoundTrip(timestamps, columns, count);
+
+        GorillaBlock block = GorillaBlock.encode(timestamps, columns, count);
+        assertTrue(block.sizeBytes() < (long) count * 8 * 4);
+    }
+
+    public void testRoundTripOfEdgeCases() {
+        long[] timestamps = {0, 1, 1, 5_000_000_000L, 5_000_000_064L, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 + 300};
+        double[][] columns = {{
+                0.0, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE,
+                Double.NEGATIVE_INFINITY, 1.0 / 3
+        }};
+        assertRoundTrip(timestamps, columns, timestamps.length);
+        assertRoundTrip(new long[]{7}, new double[][]{{3.14}}, 1);
+    }
+
+    public void testRoundTripOfRandomBits() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int count = 1 + random.nextInt(300);
+            long[] timestamps = new long[count];
+            double[][] columns = new double[2][count];
+            long time = random.nextLong() >>> 2;
+            for (int i = 0; i < count; i++) {
+                time += random.nextInt(3) == 0 ? random.nextInt(5000) : 10_000;
+                timestamps[i] = time;
+                columns[0][i] = Double.longBitsToDouble(random.nextLong());
+                columns[1][i] = random.nextBoolean() ? 42.0 : random.nextDouble();
+            }
+            assertRoundTrip(timestamps, columns, count);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de las operaciones del registro con {@code hosts} entradas: buscar un host por su
+ * identificador, actualizarlo por identificador (lo que hace la ingesta con cada registro
+ * completo) y actualizar una entrada ya resuelta (lo que hace con cada DELTA de la sesión).
+ * Los hosts se recorren en orden aleatorio para no favorecer a la caché.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostRegistryBenchmark {
+    private static final String[] TYPES = {"Cliente", "Servidor", "Relay"};
+
+    @Param({"1000", "10000", "100000"})
+    public int hosts;
+
+    private HostRegistry registry;
+    private String[] ids;
+    private HostEntry[] entries;
+    private int[] order;
+    private int next;
+    private double value;
+
+    @Setup
+    public void setup() {
+        registry = new HostRegistry();
+        ids = new String[hosts];
+        entries = new HostEntry[hosts];
+        for (int i = 0; i < hosts; i++) {
+            ids[i] = "host-" + i;
+            entries[i] = registry.update(ids[i], TYPES[i % TYPES.length],
+                    computer -> computer.setConnectionStatus("Conectado"));
+        }
+        Random random = new Random(1);
+        order = new int[1 << 16];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = random.nextInt(hosts);
+        }
+    }
+
+    private int nextHost() {
+        return order[next++ & (order.length - 1)];
+    }
+
+    @Benchmark
+    public HostEntry lookup() {
+        return registry.get(ids[nextHost()]);
+    }
+
+    @Benchmark
+    public HostEntry updateById() {
+        int host = nextHost();
+        double free = value++ % 100;
+        return registry.update(ids[host], TYPES[host % TYPES.length], computer -> computer.setFreeCpuPercentage(free));
+    }
+
+    @Benchmark
+    public HostEntry updateEntry() {
+        HostEntry entry = entries[nextHost()];
+        double free = value++ % 100;
+        registry.update(entry, computer -> computer.setFreeCpuPercentage(free));
+        return entry;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HostRegistryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Muchos escritores y lectores sobre pocos hosts: ninguna lectura debe ver una
+ * actualización a medias y ninguna actualización debe perderse.
+ */
+public class HostRegistryStressTest extends TestCase {
+    private static final int HOSTS = 64;
+    private static final int WRITERS = 6;
+    private static final int READERS = 3;
+    private static final int UPDATES_PER_WRITER = 50_000;
+
+    public void testConcurrentUpdatesAreAtomicPerHostAndNeverLost() throws Exception {
+        final HostRegistry registry = new HostRegistry();
+        final AtomicLong notifications = new AtomicLong();
+        registry.addListener(entry -> notifications.incrementAndGet());
+
+        final long[][] perHostUpdates = new long[WRITERS][HOSTS];
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                await(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                    int host = random.nextInt(HOSTS);
+                    final double value = random.nextInt(1_000_000);
+                    // Todos los hosts tienen el mismo modelo de CPU: no deben pisarse entre sí
+                    registry.update("host-" + host, "Cliente", computer -> {
+                        computer.setProcessorModel("Intel(R) Core(TM) i5");
+                        computer.setFreeMemory(value);
+                        computer.setFreeDiskSpace(value);
+                        computer.setFreeCpuPercentage(value);
+                        computer.setFreeBandwidthPercentage(value);
+                    });
+                    perHostUpdates[writer][host]++;
+                }
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                await(start);
+                Computer1 snapshot = new Computer1(null, 0, 0, 0, null, 0, 0, 0, null);
+                long[] lastVersion = new long[HOSTS];
+                while (writing.get()) {
+                    for (int host = 0; host < HOSTS; host++) {
+                        HostEntry entry = registry.get("host-" + host);
+                        if (entry == null) {
+                            continue;
+                        }
+                        long version = entry.version();
+                        if (version < lastVersion[host]) {
+                            failure.compareAndSet(null, "La versión retrocedió en host-" + host);
+                        }
+                        lastVersion[host] = version;
+
+                        entry.snapshot(snapshot);
+                        if (snapshot.getProcessorModel() == null) {
+                            failure.compareAndSet(null, "Entrada sin su primera actualización en host-" + host);
+                        }
+                        double memory = snapshot.getFreeMemory();
+                        if (snapshot.getFreeDiskSpace() != memory || snapshot.getFreeCpuPercentage() != memory
+                                || snapshot.getFreeBandwidthPercentage() != memory) {
+                            failure.compareAndSet(null, "Lectura incoherente en host-" + host);
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (int i = 0; i < WRITERS; i++) {
+            threads.get(i).join();
+        }
+        writing.set(false);
+        for (int i = WRITERS; i < threads.size(); i++) {
+            threads.get(i).join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(HOSTS, registry.size());
+        assertEquals((long) WRITERS * UPDATES_PER_WRITER, notifications.get());
+        for (int host = 0; host < HOSTS; host++) {
+            long expected = 0;
+            for (int w = 0; w < WRITERS; w++) {
+                expected += perHostUpdates[w][host];
+            }
+            assertEquals(expected, registry.get("host-" + host).version());
+        }
+    }
+
+    public void testGetOrCreateReturnsSameEntryUnderContention() throws Exception {
+        final HostRegistry registry = new HostRegistry();
+        final HostEntry[] seen = new HostEntry[8];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[seen.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                await(start);
+                seen[index] = registry.getOrCreate("uuid-1", "Cliente");
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (HostEntry entry : seen) {
+            assertSame(seen[0], entry);
+        }
+        assertEquals("uuid-1", seen[0].live().getHostId());
+    }
+
+    public void testEntriesAreHiddenUntilTheirFirstUpdate() {
+        HostRegistry registry = new HostRegistry();
+        HostEntry entry = registry.getOrCreate("uuid-1", "Cliente");
+        assertNull(registry.get("uuid-1"));
+        assertFalse(registry.entries().iterator().hasNext());
+        assertEquals(0, registry.addRanking(RankingIndex.FREE_MEMORY).size());
+
+        registry.update(entry, computer -> computer.setProcessorModel("Intel(R) Core(TM) i5"));
+        assertSame(entry, registry.get("uuid-1"));
+        assertEquals(1, registry.entries().size());
+        assertSame(entry, registry.entries().iterator().next());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
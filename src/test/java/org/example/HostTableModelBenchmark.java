@@ -0,0 +1,123 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de EDT por refresco de la tabla, sin pantalla (java.awt.headless=true).
+ * Cada operación cambia {@code changedPerFrame} hosts y refresca la tabla una vez:
+ * con el modelo incremental o con la reconstrucción completa anterior.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class HostTableModelBenchmark {
+    private static final String[] COLUMNS = {
+            "Ranking", "Tipo", "Modelo del Procesador", "Velocidad (GHz)", "Núcleos", "Capacidad (GB)",
+            "Versión del SO", "Memoria Libre (GB)", "Espacio Libre (GB)", "CPU Libre (%)",
+            "Ancho de Banda Libre (%)", "Estado de Conexión"
+    };
+
+    @Param({"1000", "10000"})
+    public int hosts;
+
+    @Param({"1", "10"})
+    public int changedPerFrame;
+
+    private HostRegistry registry;
+    private HostTableModel model;
+    private DefaultTableModel legacyModel;
+
+    @Setup
+    public void setup() {
+        registry = new HostRegistry();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < hosts; i++) {
+            final double memory = random.nextDouble(64);
+            registry.update("host-" + i, "Cliente", computer -> {
+                computer.setProcessorModel("Intel(R) Core(TM) i7-8700 CPU @ 3.20GHz");
+                computer.setOperatingSystemVersion("10.0.19045");
+                computer.setFreeMemory(memory);
+                computer.setConnectionStatus("Conectado");
+            });
+        }
+        model = new HostTableModel(registry);
+        model.flush();
+        new JTable(model);
+
+        legacyModel = new DefaultTableModel(COLUMNS, 0);
+        new JTable(legacyModel);
+    }
+
+    private void changeHosts() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < changedPerFrame; i++) {
+            final double memory = random.nextDouble(64);
+            registry.update("host-" + random.nextInt(hosts), "Cliente", computer -> computer.setFreeMemory(memory));
+        }
+    }
+
+    @Benchmark
+    public int incrementalModel() {
+        changeHosts();
+        model.flush();
+        return model.getRowCount();
+    }
+
+    // Lo que hacía updateTableWithSystemInfo en cada mensaje
+    @Benchmark
+    public int legacyFullRebuild() {
+        changeHosts();
+        ArrayList<Computer1> sorted = new ArrayList<>(registry.size());
+        for (HostEntry entry : registry.entries()) {
+            sorted.add(entry.snapshot());
+        }
+        sorted.sort(Comparator.comparingDouble(Computer1::getFreeMemory).reversed());
+        legacyModel.setRowCount(0);
+        int rank = 1;
+        for (Computer1 computer : sorted) {
+            legacyModel.addRow(new Object[]{
+                    rank++,
+                    computer.getType(),
+                    computer.getProcessorModel(),
+                    String.format("%.2f", computer.getProcessorSpeed()),
+                    computer.getCoreCount(),
+                    computer.getDiskCapacity(),
+                    computer.getOperatingSystemVersion(),
+                    String.format("%.2f", computer.getFreeMemory()),
+                    String.format("%.2f", computer.getFreeDiskSpace()),
+                    String.format("%.1f", computer.getFreeCpuPercentage()),
+                    String.format("%.1f", computer.getFreeBandwidthPercentage()),
+                    computer.getConnectionStatus()
+            });
+        }
+        return legacyModel.getRowCount();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HostTableModelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HostTableModelTest extends TestCase {
+
+    private final HostRegistry registry = new HostRegistry();
+    private final List<TableModelEvent> events = new ArrayList<>();
+
+    private void setMemory(String hostId, double freeMemory) {
+        registry.update(hostId, "Cliente", computer -> computer.setFreeMemory(freeMemory));
+    }
+
+    public void testKeepsRowsRankedByFreeMemoryAcrossRandomUpdates() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            setMemory("host-" + i, random.nextInt(64));
+        }
+        HostTableModel model = new HostTableModel(registry);
+        model.flush();
+        assertEquals(500, model.getRowCount());
+
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                setMemory("host-" + random.nextInt(600), random.nextInt(64));
+            }
+            model.flush();
+            assertRanked(model);
+        }
+        assertEquals(registry.size(), model.getRowCount());
+    }
+
+    public void testSingleChangeFiresOnlyTheAffectedRange() {
+        for (int i = 0; i < 100; i++) {
+            setMemory("host-" + i, i);
+        }
+        HostTableModel model = new HostTableModel(registry);
+        model.flush();
+        model.addTableModelListener(events::add);
+
+        // host-50 está en la fila 49 (ranking 50); sube a la primera posición
+        setMemory("host-50", 1000);
+        setMemory("host-50", 1001);
+        assertEquals(1, model.pendingCount());
+        model.flush();
+
+        assertEquals(1, events.size());
+        TableModelEvent event = events.get(0);
+        assertEquals(TableModelEvent.UPDATE, event.getType());
+        assertEquals(0, event.getFirstRow());
+        assertEquals(49, event.getLastRow());
+        assertEquals("host-50", model.getEntryAt(0).getHostId());
+        assertEquals(1, model.getValueAt(0, 0));
+
+        // Un cambio que no altera el orden sólo actualiza su propia fila
+        events.clear();
+        setMemory("host-50", 999);
+        model.flush();
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertEquals(0, events.get(0).getLastRow());
+
+        // Sin cambios pendientes no hay eventos
+        events.clear();
+        model.flush();
+        assertTrue(events.isEmpty());
+    }
+
+    private static void assertRanked(HostTableModel model) {
+        for (int row = 1; row < model.getRowCount(); row++) {
+            double previous = model.getEntryAt(row - 1).live().getFreeMemory();
+            double current = model.getEntryAt(row).live().getFreeMemory();
+            assertTrue("Fila " + row + " fuera de orden", previous >= current);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga del motor de ingesta con miles de clientes de loopback simultáneos.
+ */
+public class IngestionEngineSoakTest extends TestCase {
+    private static final byte[] ACK = "Datos actualizados correctamente\n".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger connects = new AtomicInteger();
+    private final AtomicInteger lines = new AtomicInteger();
+    private final AtomicInteger disconnects = new AtomicInteger();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private IngestionEngine newEngine(final boolean keepLines) {
+        return new IngestionEngine(0, 2, 1024, new IngestionHandler() {
+            @Override
+            public void onConnect(IngestionEngine.Connection connection) {
+                connects.incrementAndGet();
+            }
+
+            @Override
+            public void onLine(IngestionEngine.Connection connection, ByteBuffer line) {
+                if (keepLines) {
+                    byte[] bytes = new byte[line.remaining()];
+                    line.get(bytes);
+                    received.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                lines.incrementAndGet();
+                connection.send(ACK);
+            }
+
+            @Override
+            public void onDisconnect(IngestionEngine.Connection connection) {
+                disconnects.incrementAndGet();
+            }
+        });
+    }
+
+    public void testFramesLinesSplitAcrossReads() throws Exception {
+        IngestionEngine engine = newEngine(true);
+        engine.start();
+        try (Socket socket = new Socket("127.0.0.1", engine.getLocalPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("{\"a\":1}\r\n{\"b\"".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread.sleep(50);
+            out.write(":2}\n{\"c\":3}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Datos actualizados correctamente", in.readLine());
+            }
+        } finally {
+            engine.close();
+        }
+        assertEquals(3, received.size());
+        assertEquals("{\"a\":1}", received.get(0));
+        assertEquals("{\"b\":2}", received.get(1));
+        assertEquals("{\"c\":3}", received.get(2));
+    }
+
+    // Un cliente que escribe sin leer las respuestas no hace crecer la salida pendiente sin
+    // límite: se le deja de leer y se le retoma cuando vacía las confirmaciones
+    public void testStopsReadingFromClientsThatDoNotReadReplies() throws Exception {
+        int total = 200_000;
+        byte[] batch = new byte[1000 * 8];
+        for (int i = 0; i < batch.length; i += 8) {
+            System.arraycopy("{\"a\":1}\n".getBytes(StandardCharsets.UTF_8), 0, batch, i, 8);
+        }
+        IngestionEngine engine = newEngine(false);
+        engine.start();
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("127.0.0.1", engine.getLocalPort()));
+            OutputStream out = socket.getOutputStream();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < total / 1000; i++) {
+                        out.write(batch);
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.start();
+
+            // Sin leer nada, el servidor deja de procesar líneas
+            int seen;
+            do {
+                seen = lines.get();
+                Thread.sleep(300);
+            } while (lines.get() != seen);
+            assertTrue("Se procesaron " + seen + " líneas", seen > 0 && seen < total);
+
+            // Al leer las confirmaciones, se retoma hasta el final
+            InputStream in = socket.getInputStream();
+            byte[] chunk = new byte[64 * 1024];
+            long expected = (long) total * ACK.length;
+            long read = 0;
+            socket.setSoTimeout(30_000);
+            while (read < expected) {
+                int n = in.read(chunk);
+                assertTrue(n > 0);
+                read += n;
+            }
+            writer.join(30_000);
+            assertEquals(total, lines.get());
+        } finally {
+            engine.close();
+        }
+    }
+
+    public void testHoldsTenThousandLoopbackClients() throws Exception {
+        int clients = soakClients();
+        IngestionEngine engine = newEngine(false);
+        engine.start();
+        Process process = null;
+        try {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LoopbackLoadClient.class.getName(), String.valueOf(engine.getLocalPort()), String.valueOf(clients))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+
+            long started = System.nanoTime();
+            BufferedReader childOut = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            String result = childOut.readLine();
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            assertEquals("OK " + clients, result);
+
+            assertEquals(clients, engine.getOpenConnections());
+            assertEquals(clients, connects.get());
+            assertEquals(clients, lines.get());
+            System.out.printf("Soak: %d clientes simultáneos atendidos en %d ms%n", clients, elapsedMs);
+
+            process.getOutputStream().write('\n');
+            process.getOutputStream().flush();
+            assertEquals(0, process.waitFor());
+            waitFor(() -> engine.getOpenConnections() == 0, 30_000);
+            assertEquals(clients, disconnects.get());
+        } finally {
+            if (process != null) process.destroy();
+            engine.close();
+        }
+    }
+
+    // 10k por defecto, limitado por los descriptores de archivo disponibles en esta máquina
+    private static int soakClients() {
+        int requested = Integer.getInteger("soak.clients", 10_000);
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            long maxFds = ((com.sun.management.UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount();
+            return (int) Math.min(requested, maxFds - 512);
+        }
+        return requested;
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static void waitFor(Condition condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.holds()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Tiempo de espera agotado");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IngestionPressureTest extends TestCase {
+
+    public void testHintGrowsUnderLoadAndIsWithdrawnWhenIdle() {
+        IngestionPressure pressure = new IngestionPressure(0.8, 0.5, 2000, 10_000);
+        assertEquals(0, pressure.update(0.6));
+        assertEquals(2000, pressure.update(0.9));
+        assertEquals(4000, pressure.update(0.95));
+        assertEquals(8000, pressure.update(0.95));
+        assertEquals(10_000, pressure.update(0.95));
+        // Entre los umbrales se mantiene
+        assertEquals(10_000, pressure.update(0.7));
+        assertEquals(5000, pressure.update(0.2));
+        assertEquals(2500, pressure.update(0.2));
+        assertEquals(0, pressure.update(0.2));
+    }
+
+    public void testTextAckIsUnchangedWithoutPressure() {
+        IngestionPressure pressure = new IngestionPressure(0.8, 0.5, 2000, 10_000);
+        assertEquals("Datos actualizados correctamente\n", new String(pressure.textAck(), StandardCharsets.UTF_8));
+        assertEquals(0, IngestionPressure.parseTextHint("Datos actualizados correctamente"));
+
+        pressure.update(1.0);
+        String ack = new String(pressure.textAck(), StandardCharsets.UTF_8).trim();
+        assertTrue(ack, ack.startsWith("Datos actualizados correctamente"));
+        assertEquals(2000, IngestionPressure.parseTextHint(ack));
+    }
+
+    public void testBinaryAckCarriesHint() {
+        IngestionPressure pressure = new IngestionPressure(0.8, 0.5, 2000, 10_000);
+        assertEquals(0, hintOf(pressure.binaryAck()));
+        assertEquals(2, pressure.binaryAck().length);
+
+        pressure.update(1.0);
+        pressure.update(1.0);
+        assertEquals(4000, hintOf(pressure.binaryAck()));
+    }
+
+    private static long hintOf(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        int length = (int) BinaryProtocol.readVarint(buffer);
+        assertEquals(frame.length - 1, length);
+        assertEquals(BinaryProtocol.ACK, buffer.get());
+        return BinaryProtocol.readAckHint(buffer);
+    }
+
+    public void testSaturatedServerNeverSilencesClientsPastTheSuspectWindow() {
+        HostRegistry registry = new HostRegistry();
+        // Tic de 10 ms y sospecha a los 100 ms; el máximo configurado (1 s) la superaría
+        LivenessMonitor monitor = new LivenessMonitor(registry, 10, 16, 100, 300, 0);
+        System.setProperty("computer.server.pressure.baseMillis", "20");
+        System.setProperty("computer.server.pressure.maxMillis", "1000");
+        IngestionPressure pressure;
+        try {
+            pressure = IngestionPressure.fromSystemProperties(monitor.getSuspectMillis() / 2);
+        } finally {
+            System.clearProperty("computer.server.pressure.baseMillis");
+            System.clearProperty("computer.server.pressure.maxMillis");
+        }
+        for (int i = 0; i < 20; i++) {
+            pressure.update(1.0);
+        }
+        assertEquals(50, pressure.getHintMillis());
+
+        HostEntry entry = registry.getOrCreate("a", "Cliente");
+        entry.setOwner("s1");
+        registry.update(entry, computer -> computer.setConnectionStatus("Conectado"));
+        LivenessMonitor.Deadline deadline = monitor.track(entry, "s1", 0);
+        List<Integer> events = new ArrayList<>();
+        monitor.addListener((d, state) -> events.add(state));
+
+        // El cliente obedece el intervalo pedido y manda un latido en cada envío
+        AdaptiveInterval interval = new AdaptiveInterval(10, 40, 40);
+        interval.serverHint(pressure.getHintMillis());
+        long nextSend = interval.nextDelayMillis();
+        for (long now = 0; now <= 2000; now += 10) {
+            if (now >= nextSend) {
+                monitor.heartbeat(deadline, now);
+                nextSend = now + interval.nextDelayMillis();
+            }
+            monitor.advance(now);
+        }
+        assertEquals("[]", events.toString());
+        assertEquals("Conectado", registry.get("a").snapshot().getConnectionStatus());
+    }
+}
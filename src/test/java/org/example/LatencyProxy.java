@@ -0,0 +1,112 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auxiliar de las pruebas: proxy TCP por loopback que retrasa cada sentido la mitad de la
+ * latencia pedida, como un enlace de ida y vuelta de {@code latencyMillis}. El ancho de banda
+ * no se limita; sólo se simula la demora.
+ */
+public class LatencyProxy implements Closeable {
+    private final ServerSocket listener;
+    private final int upstreamPort;
+    private final long oneWayNanos;
+    private volatile boolean running = true;
+
+    public LatencyProxy(int upstreamPort, long latencyMillis) throws IOException {
+        this.listener = new ServerSocket();
+        this.listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        this.upstreamPort = upstreamPort;
+        this.oneWayNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis) / 2;
+        Thread accept = new Thread(this::acceptLoop, "proxy-accept");
+        accept.setDaemon(true);
+        accept.start();
+    }
+
+    public int getPort() {
+        return listener.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket client = listener.accept();
+                Socket server = new Socket("127.0.0.1", upstreamPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                pipe(client, server);
+                pipe(server, client);
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Error en el proxy: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Un hilo lee y marca cada bloque con su hora de entrega; otro lo escribe al vencer
+    private void pipe(Socket from, Socket to) {
+        BlockingQueue<Object[]> delayed = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    byte[] chunk = new byte[read];
+                    System.arraycopy(buffer, 0, chunk, 0, read);
+                    delayed.add(new Object[]{System.nanoTime() + oneWayNanos, chunk});
+                }
+            } catch (IOException e) {
+                // La otra punta cerró
+            }
+            delayed.add(new Object[]{System.nanoTime() + oneWayNanos, null});
+        }, "proxy-lectura");
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = to.getOutputStream()) {
+                while (true) {
+                    Object[] next = delayed.take();
+                    long wait = (Long) next[0] - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (next[1] == null) {
+                        break;
+                    }
+                    out.write((byte[]) next[1]);
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "proxy-escritura");
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ya cerrado
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        listener.close();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de seguir los plazos de latido por host y por latido, con un reloj simulado: cada
+ * host late cada 10 s y la rueda avanza cada 100 ms. Con la rueda el costo por operación no
+ * depende de la cantidad de hosts; con un índice ordenado de plazos (TreeSet, lo habitual
+ * con un planificador por host) cada latido cuesta O(log N).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class LivenessMonitorBenchmark {
+    private static final long HEARTBEAT_MILLIS = 10_000;
+    private static final long TICK_MILLIS = 100;
+    private static final long SUSPECT_MILLIS = 30_000;
+    private static final int ID_BITS = 21;
+
+    @Param({"10000", "100000", "1000000"})
+    public int hosts;
+
+    private LivenessMonitor monitor;
+    private LivenessMonitor.Deadline[] deadlines;
+    private TreeSet<Long> sorted;
+    private long[] dueAt;
+    private double step;
+    private double now;
+    private long nextTick;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        HostRegistry registry = new HostRegistry();
+        monitor = new LivenessMonitor(registry, TICK_MILLIS, 1024, SUSPECT_MILLIS, 3 * SUSPECT_MILLIS, 0);
+        deadlines = new LivenessMonitor.Deadline[hosts];
+        sorted = new TreeSet<>();
+        dueAt = new long[hosts];
+        // Los latidos llegan repartidos en el periodo, como con clientes reales
+        step = (double) HEARTBEAT_MILLIS / hosts;
+        for (int i = 0; i < hosts; i++) {
+            long heard = (long) (i * step);
+            HostEntry entry = registry.getOrCreate("host-" + i, "Cliente");
+            deadlines[i] = monitor.track(entry, entry, heard);
+            dueAt[i] = heard + SUSPECT_MILLIS;
+            sorted.add(dueAt[i] << ID_BITS | i);
+        }
+        now = HEARTBEAT_MILLIS;
+        nextTick = HEARTBEAT_MILLIS;
+    }
+
+    // Un latido del siguiente host y, cuando toca, un tic de la rueda
+    @Benchmark
+    public long timerWheel() {
+        long t = tick();
+        monitor.heartbeat(deadlines[cursor], t);
+        if (t >= nextTick) {
+            monitor.advance(t);
+            nextTick += TICK_MILLIS;
+        }
+        return t;
+    }
+
+    // Lo mismo con los plazos en un índice ordenado: reubicar el plazo en cada latido
+    @Benchmark
+    public long sortedDeadlines() {
+        long t = tick();
+        int host = cursor;
+        sorted.remove(dueAt[host] << ID_BITS | host);
+        dueAt[host] = t + SUSPECT_MILLIS;
+        sorted.add(dueAt[host] << ID_BITS | host);
+        if (t >= nextTick) {
+            while (!sorted.isEmpty() && (sorted.first() >>> ID_BITS) <= t) {
+                sorted.pollFirst();
+            }
+            nextTick += TICK_MILLIS;
+        }
+        return t;
+    }
+
+    private long tick() {
+        now += step;
+        if (++cursor == hosts) {
+            cursor = 0;
+        }
+        return (long) now;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(LivenessMonitorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LivenessMonitorTest extends TestCase {
+    private static final long START = 1_000_000L;
+
+    private HostRegistry registry;
+    private LivenessMonitor monitor;
+    private List<String> events;
+
+    @Override
+    protected void setUp() {
+        registry = new HostRegistry();
+        // Tic de 10 ms, sospecha a los 100 ms y baja a los 300 ms, con una rueda chica
+        // para que los plazos den más de una vuelta
+        monitor = new LivenessMonitor(registry, 10, 16, 100, 300, START);
+        events = new ArrayList<>();
+        monitor.addListener((deadline, state) -> events.add(deadline.getEntry().getHostId() + ":" + state));
+    }
+
+    private LivenessMonitor.Deadline connect(String hostId, Object session, long now) {
+        HostEntry entry = registry.getOrCreate(hostId, "Cliente");
+        entry.setOwner(session);
+        registry.update(entry, computer -> computer.setConnectionStatus("Conectado"));
+        return monitor.track(entry, session, now);
+    }
+
+    private void advanceTo(long now) {
+        for (long t = START; t <= now; t += 10) {
+            monitor.advance(t);
+        }
+    }
+
+    private String status(String hostId) {
+        return registry.get(hostId).snapshot().getConnectionStatus();
+    }
+
+    public void testSilentHostGoesSuspectThenDead() {
+        LivenessMonitor.Deadline a = connect("a", "s1", START);
+
+        advanceTo(START + 90);
+        assertEquals("Conectado", status("a"));
+        advanceTo(START + 110);
+        assertEquals("Sospechoso", status("a"));
+        assertEquals(LivenessMonitor.SUSPECT, a.getState());
+
+        advanceTo(START + 290);
+        assertEquals("Sospechoso", status("a"));
+        advanceTo(START + 310);
+        assertEquals("Desconectado", status("a"));
+        assertEquals(LivenessMonitor.DEAD, a.getState());
+        assertEquals("[a:1, a:2]", events.toString());
+    }
+
+    public void testHeartbeatsKeepHostAliveAcrossManyTurns() {
+        LivenessMonitor.Deadline a = connect("a", "s1", START);
+        for (long t = START; t <= START + 5000; t += 10) {
+            if (t % 50 == 0) {
+                monitor.heartbeat(a, t);
+            }
+            monitor.advance(t);
+        }
+        assertEquals("Conectado", status("a"));
+        assertTrue(events.isEmpty());
+    }
+
+    public void testHeartbeatRevivesSuspectAndDeadHosts() {
+        LivenessMonitor.Deadline a = connect("a", "s1", START);
+        advanceTo(START + 150);
+        assertEquals(LivenessMonitor.SUSPECT, a.getState());
+
+        monitor.heartbeat(a, START + 150);
+        assertEquals(LivenessMonitor.ALIVE, a.getState());
+        advanceTo(START + 240);
+        assertEquals(LivenessMonitor.ALIVE, a.getState());
+
+        // Vuelve a callar: sospechoso a los 100 ms del último latido y baja a los 300 ms
+        advanceTo(START + 260);
+        assertEquals(LivenessMonitor.SUSPECT, a.getState());
+        advanceTo(START + 460);
+        assertEquals(LivenessMonitor.DEAD, a.getState());
+
+        monitor.heartbeat(a, START + 470);
+        assertEquals(LivenessMonitor.ALIVE, a.getState());
+        advanceTo(START + 580);
+        assertEquals(LivenessMonitor.SUSPECT, a.getState());
+        assertEquals("[a:1, a:0, a:1, a:2, a:0, a:1]", events.toString());
+    }
+
+    public void testUntrackedHostIsNeverExpired() {
+        LivenessMonitor.Deadline a = connect("a", "s1", START);
+        connect("b", "s2", START);
+        monitor.untrack(a);
+        monitor.untrack(a);
+        assertEquals(1, monitor.trackedCount());
+
+        advanceTo(START + 400);
+        assertEquals("Conectado", status("a"));
+        assertEquals("Desconectado", status("b"));
+        monitor.heartbeat(a, START + 400);
+        assertEquals(LivenessMonitor.REMOVED, a.getState());
+    }
+
+    public void testStaleSessionDoesNotOverwriteNewOwner() {
+        connect("a", "vieja", START);
+        // El host se reconectó por otra sesión que sí late
+        LivenessMonitor.Deadline current = connect("a", "nueva", START + 50);
+        for (long t = START; t <= START + 400; t += 10) {
+            monitor.heartbeat(current, t);
+            monitor.advance(t);
+        }
+        assertEquals("Conectado", status("a"));
+        // El plazo viejo sí venció y se avisó, pero no tocó el registro
+        assertEquals("[a:1, a:2]", events.toString());
+    }
+
+    public void testLateAdvanceCatchesUpInOnePass() {
+        for (int i = 0; i < 100; i++) {
+            connect("h" + i, "s" + i, START + i);
+        }
+        // Un solo avance muy atrasado (muchas vueltas de la rueda)
+        monitor.advance(START + 10_000);
+        monitor.advance(START + 10_010);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Desconectado", status("h" + i));
+        }
+        assertEquals(200, events.size());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class LogHistogramTest extends TestCase {
+    private static final double[] QUANTILES = {0.01, 0.1, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+    // Percentil exacto con la misma definición de rango que el histograma
+    private static double exact(double[] sorted, double q) {
+        int rank = (int) Math.max(1, Math.ceil(q * sorted.length));
+        return sorted[rank - 1];
+    }
+
+    private static void assertAccurate(double[] values) {
+        LogHistogram histogram = new LogHistogram();
+        for (double value : values) {
+            histogram.add(value);
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double expected = exact(sorted, q);
+            // 1 % del valor, más media centésima por la cuantización
+            double tolerance = expected * 0.01 + 0.005;
+            assertEquals("p" + q * 100, expected, histogram.quantile(q), tolerance);
+        }
+        assertEquals(values.length, histogram.count());
+    }
+
+    public void testPercentagesStayWithinOnePercent() {
+        Random random = new Random(1);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round(random.nextDouble() * 10_000) / 100.0;
+        }
+        assertAccurate(values);
+    }
+
+    public void testSkewedValuesStayWithinOnePercent() {
+        Random random = new Random(2);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Memoria libre en GB: la mayoría pocos GB, algunos cientos
+            values[i] = Math.round(Math.exp(random.nextGaussian() * 1.5 + 1.5) * 100) / 100.0;
+        }
+        assertAccurate(values);
+    }
+
+    public void testMergeEqualsRecordingEverythingInOne() {
+        Random random = new Random(3);
+        LogHistogram all = new LogHistogram();
+        LogHistogram merged = new LogHistogram();
+        for (int part = 0; part < 4; part++) {
+            LogHistogram piece = new LogHistogram();
+            for (int i = 0; i < 10_000; i++) {
+                double value = random.nextDouble() * (part + 1) * 500;
+                all.add(value);
+                piece.add(value);
+            }
+            merged.merge(piece);
+        }
+        assertEquals(all.count(), merged.count());
+        for (double q : QUANTILES) {
+            assertEquals(all.quantile(q), merged.quantile(q), 0.0);
+        }
+    }
+
+    public void testCountBelowAndRemoval() {
+        LogHistogram histogram = new LogHistogram();
+        for (int gb = 0; gb < 64; gb++) {
+            histogram.add(gb + 0.5);
+        }
+        assertEquals(1, histogram.countBelow(1.0));
+        assertEquals(16, histogram.countBelow(16.0));
+        assertEquals(64, histogram.countBelow(1000));
+
+        // Un host que pasó de 0,5 GB a 20 GB
+        histogram.add(0.5, -1);
+        histogram.add(20, 1);
+        assertEquals(0, histogram.countBelow(1.0));
+        assertEquals(64, histogram.count());
+
+        histogram.clear();
+        assertEquals(0, histogram.count());
+        assertTrue(Double.isNaN(histogram.quantile(0.5)));
+    }
+}
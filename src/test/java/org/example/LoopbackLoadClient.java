@@ -0,0 +1,92 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Proceso auxiliar de la prueba de carga: abre muchas conexiones de loopback contra el
+ * servidor, envía una línea de telemetría por cada una y espera los acuses. Se ejecuta
+ * en su propia JVM para no compartir el límite de descriptores con el servidor.
+ */
+public class LoopbackLoadClient {
+    private static final int MAX_PENDING_CONNECTS = 256;
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int clients = Integer.parseInt(args[1]);
+        String line = args.length > 2 ? args[2] : "{\"processorModel\":\"soak\",\"processorSpeed\":1.00,"
+                + "\"coreCount\":1,\"diskCapacity\":1,\"operatingSystemVersion\":\"x\",\"freeMemory\":1.00,"
+                + "\"freeDiskSpace\":1.00,\"freeBandwidthPercentage\":1.00,\"freeCpuPercentage\":1.00}";
+        byte[] payload = (line + "\n").getBytes(StandardCharsets.UTF_8);
+
+        Selector selector = Selector.open();
+        List<SocketChannel> channels = new ArrayList<>(clients);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+
+        int started = 0;
+        int pendingConnects = 0;
+        int acked = 0;
+        ByteBuffer readBuffer = ByteBuffer.allocate(256);
+
+        while (acked < clients) {
+            while (started < clients && pendingConnects < MAX_PENDING_CONNECTS) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channels.add(channel);
+                if (channel.connect(address)) {
+                    channel.write(ByteBuffer.wrap(payload));
+                    channel.register(selector, SelectionKey.OP_READ);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT);
+                    pendingConnects++;
+                }
+                started++;
+            }
+
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    pendingConnects--;
+                    channel.write(ByteBuffer.wrap(payload));
+                    key.interestOps(SelectionKey.OP_READ);
+                } else if (key.isReadable()) {
+                    readBuffer.clear();
+                    int read = channel.read(readBuffer);
+                    if (read < 0) {
+                        throw new IllegalStateException("El servidor cerró una conexión");
+                    }
+                    for (int i = 0; i < readBuffer.position(); i++) {
+                        if (readBuffer.get(i) == '\n') {
+                            acked++;
+                            key.interestOps(0);
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println("OK " + acked);
+        System.out.flush();
+
+        // Mantener las conexiones abiertas hasta que el proceso padre lo indique
+        new BufferedReader(new InputStreamReader(System.in)).readLine();
+        for (SocketChannel channel : channels) {
+            channel.close();
+        }
+        selector.close();
+    }
+}
@@ -0,0 +1,237 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ida y vuelta completa contra el servidor real por loopback: el cliente medido envía una
+ * actualización (línea JSON o DELTA binario) y espera su ACK. Mientras tanto, {@code hosts}
+ * conexiones de fondo, registradas antes de medir, envían entre todas {@code rate} líneas por
+ * segundo, así que el servidor tiene esa cantidad de hosts y esa carga de ingesta. Con rate 0
+ * no hay carga de fondo. Se muestrea cada operación para tener la distribución (p50, p99...).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoopbackRoundTripBenchmark {
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.enabled", "computer.journal.enabled", "computer.history.memoryMB"
+    };
+
+    @Param({"json", "binary"})
+    public String protocol;
+
+    @Param({"1", "1000"})
+    public int hosts;
+
+    @Param({"0", "10000"})
+    public int rate;
+
+    private TelemetryServer server;
+    private Socket socket;
+    private OutputStream out;
+    private BufferedReader lines;
+    private DataInputStream in;
+    private final ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    private final ByteBuffer payload = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    private final Computer1 sample = WireProtocolBenchmark.sample();
+    private final List<SocketChannel> background = new ArrayList<>();
+    private volatile boolean loading;
+    private Thread load;
+    private long updates;
+
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty("computer.server.port", "0");
+        System.setProperty("computer.http.enabled", "false");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "64");
+        server = new TelemetryServer();
+        server.start();
+
+        connectBackground();
+        socket = new Socket("127.0.0.1", server.getPort());
+        socket.setTcpNoDelay(true);
+        out = socket.getOutputStream();
+        sample.setHostId("benchmark-" + protocol);
+        if ("binary".equals(protocol)) {
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            frame.clear();
+            frame.put(BinaryProtocol.MAGIC);
+            // Un ACK por mensaje, como el cliente en modo lockstep
+            BinaryProtocol.writeHello(frame, BinaryProtocol.MIN_PIPELINE_VERSION - 1);
+            payload.clear();
+            BinaryProtocol.encodeStatic(payload, sample);
+            payload.flip();
+            BinaryProtocol.writeFrame(frame, BinaryProtocol.STATIC, payload);
+            out.write(frame.array(), 0, frame.position());
+            if (readFrame()[0] != BinaryProtocol.HELLO_ACK) {
+                throw new IllegalStateException("El servidor no respondió HELLO_ACK");
+            }
+            sendBinary(DeltaTracker.DYNAMIC_FIELDS);
+        } else {
+            lines = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            sendJson(TelemetryParser.ALL_FIELDS);
+        }
+
+        if (rate > 0) {
+            loading = true;
+            load = new Thread(this::generateLoad, "benchmark-carga");
+            load.setDaemon(true);
+            load.start();
+        }
+    }
+
+    // Cada conexión de fondo registra su host con un registro completo antes de medir
+    private void connectBackground() throws IOException {
+        Computer1 host = WireProtocolBenchmark.sample();
+        ByteBuffer ack = ByteBuffer.allocate(256);
+        for (int i = 0; i < hosts; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+            channel.socket().setTcpNoDelay(true);
+            host.setHostId("carga-" + i);
+            writeFully(channel, ComputerClient.toJson(host) + "\n");
+            ack.clear();
+            while (ack.position() == 0 || ack.get(ack.position() - 1) != '\n') {
+                if (channel.read(ack) < 0) {
+                    throw new EOFException("El servidor cerró una conexión de fondo");
+                }
+            }
+            channel.configureBlocking(false);
+            background.add(channel);
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Reparte rate líneas por segundo entre las conexiones de fondo, en turnos de 1 ms; los
+    // ACK se descartan antes de volver a escribir en la misma conexión
+    private void generateLoad() {
+        Computer1 host = WireProtocolBenchmark.sample();
+        ByteBuffer discard = ByteBuffer.allocate(16 * 1024);
+        long start = System.nanoTime();
+        long sent = 0;
+        try {
+            while (loading) {
+                long due = (System.nanoTime() - start) * rate / 1_000_000_000L;
+                for (; sent < due; sent++) {
+                    SocketChannel channel = background.get((int) (sent % background.size()));
+                    discard.clear();
+                    while (channel.read(discard) > 0) {
+                        discard.clear();
+                    }
+                    host.setFreeCpuPercentage(sent % 100);
+                    writeFully(channel, ComputerClient.toJson(host, TelemetryParser.FREE_CPU_PERCENTAGE) + "\n");
+                }
+                LockSupport.parkNanos(1_000_000);
+            }
+        } catch (IOException e) {
+            if (loading) {
+                System.err.println("Error en la carga de fondo: " + e.getMessage());
+            }
+        }
+    }
+
+    private byte[] readFrame() throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    private void sendBinary(int fields) throws IOException {
+        frame.clear();
+        payload.clear();
+        BinaryProtocol.encodeDelta(payload, sample, fields);
+        payload.flip();
+        BinaryProtocol.writeFrame(frame, BinaryProtocol.DELTA, payload);
+        out.write(frame.array(), 0, frame.position());
+        if (readFrame()[0] != BinaryProtocol.ACK) {
+            throw new EOFException("Se esperaba un ACK");
+        }
+    }
+
+    private void sendJson(int fields) throws IOException {
+        out.write((ComputerClient.toJson(sample, fields) + "\n").getBytes(StandardCharsets.UTF_8));
+        String ack = lines.readLine();
+        if (ack == null || !ack.startsWith(IngestionPressure.ACK_TEXT)) {
+            throw new EOFException("Se esperaba un ACK: " + ack);
+        }
+    }
+
+    @Benchmark
+    public long roundTrip() throws IOException {
+        sample.setFreeCpuPercentage(updates++ % 100);
+        if (in != null) {
+            sendBinary(TelemetryParser.FREE_CPU_PERCENTAGE);
+        } else {
+            sendJson(TelemetryParser.FREE_CPU_PERCENTAGE);
+        }
+        return updates;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        loading = false;
+        if (load != null) {
+            load.join();
+        }
+        for (SocketChannel channel : background) {
+            channel.close();
+        }
+        background.clear();
+        socket.close();
+        server.close();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LoopbackRoundTripBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
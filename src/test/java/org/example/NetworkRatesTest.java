@@ -0,0 +1,41 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+public class NetworkRatesTest extends TestCase {
+    private static final long SECOND = 1_000_000_000L;
+
+    public void testRatesComeFromCounterDeltas() {
+        NetworkRates rates = new NetworkRates();
+        long[] speeds = {10_000_000_000L, 0};
+        rates.sample(new long[]{1_000, 5_000}, new long[]{1_000, 5_000}, speeds, 2, 0);
+        // El primer tick no tiene con qué comparar
+        assertEquals(0.0, rates.totalUsedMbps(), 0.0);
+        assertEquals(100.0, rates.freeBandwidthPercentage(), 0.0);
+
+        // 2 s después: 250 MB recibidos y 250 MB enviados por la primera, 1 MB por la segunda
+        rates.sample(new long[]{250_001_000, 1_005_000}, new long[]{250_001_000, 5_000}, speeds, 2, 2 * SECOND);
+        assertEquals(2000.0, rates.usedMbps(0), 1e-9);
+        assertEquals(4.0, rates.usedMbps(1), 1e-9);
+        assertEquals(10_000.0, rates.capacityMbps(), 0.0);
+        assertEquals(0.0, rates.capacityMbps(1), 0.0);
+        assertEquals(79.96, rates.freeBandwidthPercentage(), 0.0);
+    }
+
+    public void testCounterResetAndNewInterfacesCountAsIdle() {
+        NetworkRates rates = new NetworkRates();
+        long[] speeds = {0, 0, 0};
+        rates.sample(new long[]{1_000_000}, new long[]{0}, speeds, 1, 0);
+        rates.sample(new long[]{10}, new long[]{0}, speeds, 1, SECOND);
+        assertEquals(0.0, rates.usedMbps(0), 0.0);
+
+        // Aparece una interfaz: ese tick no hay tasas, el siguiente sí
+        rates.sample(new long[]{10, 0}, new long[]{0, 0}, speeds, 2, 2 * SECOND);
+        assertEquals(2, rates.interfaceCount());
+        assertEquals(0.0, rates.totalUsedMbps(), 0.0);
+        rates.sample(new long[]{125_010, 0}, new long[]{0, 125_000}, speeds, 2, 3 * SECOND);
+        assertEquals(2.0, rates.totalUsedMbps(), 1e-9);
+        // Sin velocidades informadas se usa la referencia de 1 Gbps
+        assertEquals(99.8, rates.freeBandwidthPercentage(), 0.0);
+    }
+}
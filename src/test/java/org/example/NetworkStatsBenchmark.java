@@ -0,0 +1,130 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de un tick de updateNetworkStats según la cantidad de hosts y de interfaces. Los
+ * contadores son arreglos que avanzan en cada tick, así que no se mide OSHI (en el tick viejo
+ * se leía hosts × interfaces veces; en el nuevo, una vez por interfaz).
+ *
+ * legacyTick repite el tick anterior: por cada host recorría todas las interfaces, escribía el
+ * ancho de banda del servidor en la entrada del host y dejaba una línea de depuración (aquí
+ * a un flujo descartado). currentTick muestrea una vez y sólo actualiza al servidor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkStatsBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int hosts;
+
+    @Param({"2", "8"})
+    public int nics;
+
+    private HostRegistry registry;
+    private NetworkRates rates;
+    private long[] recv;
+    private long[] sent;
+    private long[] speeds;
+    private long[] lastRecv;
+    private long[] lastSent;
+    private long now;
+    private final PrintStream discard = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    @Setup
+    public void setup() {
+        registry = new HostRegistry();
+        registry.update("servidor", "Servidor", computer -> computer.setConnectionStatus("Conectado"));
+        for (int i = 0; i < hosts; i++) {
+            registry.update("host-" + i, "Cliente", computer -> computer.setConnectionStatus("Conectado"));
+        }
+        rates = new NetworkRates();
+        recv = new long[nics];
+        sent = new long[nics];
+        speeds = new long[nics];
+        lastRecv = new long[nics];
+        lastSent = new long[nics];
+        for (int i = 0; i < nics; i++) {
+            speeds[i] = i == 0 ? 10_000_000_000L : 0;
+        }
+    }
+
+    // Dos segundos de tráfico entre ticks
+    private void advance() {
+        now += 2_000_000_000L;
+        for (int i = 0; i < nics; i++) {
+            recv[i] += 25_000_000;
+            sent[i] += 5_000_000;
+        }
+    }
+
+    @Benchmark
+    public double legacyTick() {
+        advance();
+        double timeElapsed = 2.0;
+        double last = 0;
+        for (HostEntry entry : registry.entries()) {
+            double maxBandwidth = 1000.0;
+            double totalUsedBandwidth = 0.0;
+            for (int i = 0; i < nics; i++) {
+                long bytesRecvDelta = recv[i] - (lastRecv[i] != 0 ? lastRecv[i] : recv[i]);
+                long bytesSentDelta = sent[i] - (lastSent[i] != 0 ? lastSent[i] : sent[i]);
+                lastRecv[i] = recv[i];
+                lastSent[i] = sent[i];
+                totalUsedBandwidth += ((bytesRecvDelta + bytesSentDelta) * 8.0) / (timeElapsed * 1_000_000);
+                if (speeds[i] > 0) {
+                    maxBandwidth = Math.max(maxBandwidth, speeds[i] / 1_000_000.0);
+                }
+            }
+            double usedPercentage = (totalUsedBandwidth / maxBandwidth) * 100;
+            double freePercentage = Math.round(Math.max(0, Math.min(100, 100 - usedPercentage)) * 100.0) / 100.0;
+            registry.update(entry, computer -> computer.setFreeBandwidthPercentage(freePercentage));
+            discard.printf("Bandwidth Stats - Used: %.2f Mbps, Max: %.2f Mbps, Free: %.2f%%\n",
+                    totalUsedBandwidth, maxBandwidth, freePercentage);
+            last = freePercentage;
+        }
+        return last;
+    }
+
+    @Benchmark
+    public double currentTick() {
+        advance();
+        rates.sample(recv, sent, speeds, nics, now);
+        double freePercentage = rates.freeBandwidthPercentage();
+        registry.update("servidor", "Servidor", computer -> computer.setFreeBandwidthPercentage(freePercentage));
+        return freePercentage;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NetworkStatsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
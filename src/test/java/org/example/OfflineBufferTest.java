@@ -0,0 +1,123 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OfflineBufferTest extends TestCase {
+    private File spill;
+
+    @Override
+    protected void setUp() throws Exception {
+        spill = File.createTempFile("offline-buffer", ".bin");
+        assertTrue(spill.delete());
+    }
+
+    @Override
+    protected void tearDown() {
+        spill.delete();
+    }
+
+    private static Computer1 sample(double cpu) {
+        Computer1 computer = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        computer.setFreeCpuPercentage(cpu);
+        computer.setFreeMemory(cpu / 10);
+        return computer;
+    }
+
+    private static List<Long> timestamps(OfflineBuffer buffer) throws Exception {
+        List<Long> result = new ArrayList<>();
+        buffer.forEach((timestamp, sample) -> {
+            assertEquals((double) timestamp, sample.getFreeCpuPercentage(), 0.0);
+            assertEquals(timestamp / 10.0, sample.getFreeMemory(), 1e-9);
+            result.add(timestamp);
+        });
+        return result;
+    }
+
+    public void testFullBufferDropsOldestWithoutSpill() throws Exception {
+        OfflineBuffer buffer = new OfflineBuffer(4, null, 0);
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(i, sample(i));
+        }
+        assertEquals(4, buffer.size());
+        assertEquals(2, buffer.dropped());
+        assertEquals("[3, 4, 5, 6]", timestamps(buffer).toString());
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals("[]", timestamps(buffer).toString());
+    }
+
+    public void testSpillKeepsOrderAndSurvivesRestart() throws Exception {
+        OfflineBuffer buffer = new OfflineBuffer(4, spill, 1024);
+        for (int i = 1; i <= 9; i++) {
+            buffer.add(i, sample(i));
+        }
+        assertEquals(0, buffer.dropped());
+        assertEquals(9, buffer.size());
+        assertTrue(spill.length() > 0);
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9]", timestamps(buffer).toString());
+
+        // Lo que quedó en disco lo recupera una instancia nueva
+        OfflineBuffer restarted = new OfflineBuffer(4, spill, 1024);
+        assertEquals("[1, 2, 3, 4, 5, 6]", timestamps(restarted).toString());
+        restarted.clear();
+        assertFalse(spill.exists());
+    }
+
+    public void testSpillLimitFallsBackToDropping() throws Exception {
+        // Sólo entra una tanda de dos registros de 48 bytes
+        OfflineBuffer buffer = new OfflineBuffer(4, spill, 100);
+        for (int i = 1; i <= 8; i++) {
+            buffer.add(i, sample(i));
+        }
+        assertEquals(2, buffer.dropped());
+        assertEquals("[1, 2, 5, 6, 7, 8]", timestamps(buffer).toString());
+    }
+
+    // Lo marcado como enviado sólo se quita al confirmarse, aunque haya pasado al disco
+    public void testConfirmRemovesOnlyWhatWasMarkedSent() throws Exception {
+        OfflineBuffer buffer = new OfflineBuffer(4, spill, 1024);
+        for (int i = 1; i <= 3; i++) {
+            buffer.add(i, sample(i));
+        }
+        buffer.markSent();
+        assertTrue(buffer.hasUnconfirmed());
+        for (int i = 4; i <= 9; i++) {
+            buffer.add(i, sample(i));
+        }
+        buffer.confirmSent();
+        assertFalse(buffer.hasUnconfirmed());
+        assertEquals(6, buffer.size());
+        assertEquals("[4, 5, 6, 7, 8, 9]", timestamps(buffer).toString());
+
+        // Si la conexión se cae antes de confirmar, todo queda para reenviarse
+        buffer.markSent();
+        buffer.add(10, sample(10));
+        buffer.releaseSent();
+        buffer.confirmSent();
+        assertEquals("[4, 5, 6, 7, 8, 9, 10]", timestamps(buffer).toString());
+
+        buffer.markSent();
+        buffer.confirmSent();
+        assertTrue(buffer.isEmpty());
+        assertFalse(spill.exists());
+    }
+
+    public void testDroppedMarkedSamplesAreNotConfirmedTwice() throws Exception {
+        OfflineBuffer buffer = new OfflineBuffer(4, null, 0);
+        for (int i = 1; i <= 3; i++) {
+            buffer.add(i, sample(i));
+        }
+        buffer.markSent();
+        for (int i = 4; i <= 6; i++) {
+            buffer.add(i, sample(i));
+        }
+        // Se descartaron 1 y 2, que estaban marcados: la confirmación sólo quita el 3
+        buffer.confirmSent();
+        assertEquals("[4, 5, 6]", timestamps(buffer).toString());
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actualizaciones por segundo que sostiene una sola conexión binaria contra el servidor real
+ * a través de un enlace con latencia simulada ({@link LatencyProxy}). En "lockstep" (protocolo
+ * v4) cada DELTA espera su ACK, así que el techo es una actualización por ida y vuelta; en
+ * "pipelined" (v5) hay hasta {@code window} mensajes en vuelo y el servidor confirma en bloque.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PipelinedAckBenchmark {
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.enabled", "computer.journal.enabled", "computer.history.memoryMB"
+    };
+
+    @Param({"lockstep", "pipelined"})
+    public String mode;
+
+    @Param({"100", "250"})
+    public long latencyMillis;
+
+    @Param({"256"})
+    public int window;
+
+    private TelemetryServer server;
+    private LatencyProxy proxy;
+    private Socket socket;
+    private OutputStream out;
+    private DataInputStream in;
+    private UnackedWindow unacked;
+    private final ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    private final ByteBuffer payload = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    private final Computer1 sample = WireProtocolBenchmark.sample();
+    private long updates;
+
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty("computer.server.port", "0");
+        System.setProperty("computer.http.enabled", "false");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "64");
+        server = new TelemetryServer();
+        server.start();
+        proxy = new LatencyProxy(server.getPort(), latencyMillis);
+
+        boolean pipelined = "pipelined".equals(mode);
+        socket = new Socket("127.0.0.1", proxy.getPort());
+        socket.setTcpNoDelay(true);
+        out = socket.getOutputStream();
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+        sample.setHostId("benchmark-" + mode);
+        frame.clear();
+        frame.put(BinaryProtocol.MAGIC);
+        BinaryProtocol.writeHello(frame, pipelined ? BinaryProtocol.MIN_PIPELINE_VERSION : BinaryProtocol.MIN_PIPELINE_VERSION - 1);
+        payload.clear();
+        BinaryProtocol.encodeStatic(payload, sample);
+        payload.flip();
+        BinaryProtocol.writeFrame(frame, BinaryProtocol.STATIC, payload);
+        out.write(frame.array(), 0, frame.position());
+        if (readFrame()[0] != BinaryProtocol.HELLO_ACK) {
+            throw new IllegalStateException("El servidor no respondió HELLO_ACK");
+        }
+
+        if (pipelined) {
+            unacked = new UnackedWindow(window, 60_000);
+            Thread acks = new Thread(this::readAcks, "benchmark-acks");
+            acks.setDaemon(true);
+            acks.start();
+        }
+        // El primer mensaje de la sesión lleva todos los campos
+        send(DeltaTracker.DYNAMIC_FIELDS);
+    }
+
+    private void readAcks() {
+        try {
+            while (true) {
+                byte[] data = readFrame();
+                if (data[0] == BinaryProtocol.ACK_UPTO) {
+                    long sequence = BinaryProtocol.readVarint(ByteBuffer.wrap(data, 1, data.length - 1));
+                    synchronized (unacked) {
+                        unacked.ackUpTo(sequence);
+                        unacked.notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Fin de la prueba
+        }
+    }
+
+    private byte[] readFrame() throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    private void send(int fields) throws IOException, InterruptedException {
+        if (unacked != null) {
+            synchronized (unacked) {
+                while (unacked.isFull()) {
+                    unacked.wait();
+                }
+            }
+        }
+        frame.clear();
+        payload.clear();
+        BinaryProtocol.encodeDelta(payload, sample, fields);
+        payload.flip();
+        BinaryProtocol.writeFrame(frame, BinaryProtocol.DELTA, payload);
+        out.write(frame.array(), 0, frame.position());
+        if (unacked != null) {
+            unacked.add(System.currentTimeMillis(), sample);
+        } else if (readFrame()[0] != BinaryProtocol.ACK) {
+            throw new EOFException("Se esperaba un ACK");
+        }
+    }
+
+    @Benchmark
+    public long update() throws Exception {
+        sample.setFreeCpuPercentage(updates++ % 100);
+        send(TelemetryParser.FREE_CPU_PERCENTAGE);
+        return updates;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        socket.close();
+        proxy.close();
+        server.close();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PipelinedAckBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
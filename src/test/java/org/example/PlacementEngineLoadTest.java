@@ -0,0 +1,109 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prueba de carga de {@link PlacementEngine}: varios hilos piden ubicaciones mientras otro
+ * actualiza la telemetría de los hosts. Mide consultas por segundo y la latencia de cada una.
+ */
+public class PlacementEngineLoadTest extends TestCase {
+    private static final int HOSTS = Integer.getInteger("placement.load.hosts", 10_000);
+    private static final int THREADS = 4;
+    private static final long MILLIS = Long.getLong("placement.load.millis", 2000);
+
+    public void testThousandsOfPlacementsPerSecondUnderAMillisecond() throws Exception {
+        HostRegistry registry = new HostRegistry();
+        for (int i = 0; i < HOSTS; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int cores = 4 << random.nextInt(4);
+            double memory = random.nextDouble(4, 256);
+            double disk = random.nextDouble(50, 2000);
+            registry.update("host-" + i, "Cliente", computer -> {
+                computer.setCoreCount(cores);
+                computer.setFreeCpuPercentage(100);
+                computer.setFreeMemory(memory);
+                computer.setFreeDiskSpace(disk);
+                computer.setFreeBandwidthPercentage(90);
+                computer.setConnectionStatus("Conectado");
+            });
+        }
+        // Las reservas duran lo que la prueba: la capacidad se va consumiendo
+        PlacementEngine engine = new PlacementEngine(registry, 60_000);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread telemetry = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                double memory = random.nextDouble(4, 256);
+                registry.update("host-" + random.nextInt(HOSTS), "Cliente", computer -> computer.setFreeMemory(memory));
+            }
+        });
+        telemetry.start();
+
+        long[][] latencies = new long[THREADS][];
+        int[] counts = new int[THREADS];
+        int[] placed = new int[THREADS];
+        Thread[] workers = new Thread[THREADS];
+        long deadline = System.nanoTime() + MILLIS * 1_000_000;
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1 << 16];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    ResourceRequest request = new ResourceRequest(1 + random.nextInt(4), 1 + random.nextInt(16),
+                            random.nextInt(100), 50);
+                    PlacementEngine.Strategy strategy = (n & 1) == 0
+                            ? PlacementEngine.Strategy.SPREAD : PlacementEngine.Strategy.BIN_PACK;
+                    long start = System.nanoTime();
+                    PlacementEngine.Reservation reservation = engine.place(request, strategy);
+                    long elapsed = System.nanoTime() - start;
+                    if (reservation != null) {
+                        placed[id]++;
+                    }
+                    if (n == samples.length) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                    }
+                    samples[n++] = elapsed;
+                }
+                latencies[id] = samples;
+                counts[id] = n;
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        telemetry.join();
+
+        int total = 0;
+        int totalPlaced = 0;
+        for (int t = 0; t < THREADS; t++) {
+            total += counts[t];
+            totalPlaced += placed[t];
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(latencies[t], 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+        double perSecond = total * 1000.0 / MILLIS;
+        double p50 = all[total / 2] / 1000.0;
+        double p99 = all[(int) (total * 0.99)] / 1000.0;
+        double p999 = all[(int) (total * 0.999)] / 1000.0;
+        System.out.printf("Ubicación con %d hosts y %d hilos: %.0f consultas/s, %d ubicadas, p50 %.1f us, p99 %.1f us, p99.9 %.1f us%n",
+                HOSTS, THREADS, perSecond, totalPlaced, p50, p99, p999);
+
+        assertTrue("consultas/s: " + perSecond, perSecond > 2000);
+        assertTrue("p99 (us): " + p99, p99 < 1000);
+        assertTrue(totalPlaced > 0);
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+public class PlacementEngineTest extends TestCase {
+    private static final long TTL = 1000;
+
+    private HostRegistry registry;
+    private PlacementEngine engine;
+
+    @Override
+    protected void setUp() {
+        registry = new HostRegistry();
+        engine = new PlacementEngine(registry, TTL);
+    }
+
+    private void host(String hostId, String status, int cores, double freeCpu, double memory, double disk, double bandwidth) {
+        registry.update(hostId, "Cliente", computer -> {
+            computer.setCoreCount(cores);
+            computer.setFreeCpuPercentage(freeCpu);
+            computer.setFreeMemory(memory);
+            computer.setFreeDiskSpace(disk);
+            computer.setFreeBandwidthPercentage(bandwidth);
+            computer.setConnectionStatus(status);
+        });
+    }
+
+    public void testSpreadPicksMostFreeAndBinPackTightestFit() {
+        host("chico", "Conectado", 8, 100, 4, 100, 100);
+        host("mediano", "Conectado", 8, 100, 8, 100, 100);
+        host("grande", "Activo", 8, 100, 32, 100, 100);
+        ResourceRequest request = new ResourceRequest(1, 6, 10, 0);
+
+        assertEquals("grande", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+        assertEquals("mediano", engine.place(request, PlacementEngine.Strategy.BIN_PACK, 0).getHostId());
+    }
+
+    public void testSkipsDisconnectedAndHostsMissingOtherResources() {
+        host("desconectado", "Desconectado", 64, 100, 128, 1000, 100);
+        host("sin-disco", "Conectado", 16, 100, 64, 5, 100);
+        host("sin-nucleos", "Conectado", 4, 25, 48, 500, 100);
+        host("sin-red", "Conectado", 16, 100, 40, 500, 10);
+        host("valido", "Conectado", 16, 50, 16, 500, 80);
+        ResourceRequest request = new ResourceRequest(4, 8, 50, 50);
+
+        assertEquals("valido", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+        assertEquals("valido", engine.place(request, PlacementEngine.Strategy.BIN_PACK, 0).getHostId());
+        // 8 núcleos libres (16 al 50%) y ya hay 8 reservados
+        assertNull(engine.place(request, PlacementEngine.Strategy.SPREAD, 0));
+    }
+
+    public void testReservationsSpreadConcurrentRequestsUntilTheyExpire() {
+        host("a", "Conectado", 8, 100, 16, 100, 100);
+        host("b", "Conectado", 8, 100, 12, 100, 100);
+        ResourceRequest request = new ResourceRequest(1, 8, 0, 0);
+
+        // Sin reservas las tres consultas elegirían "a"
+        assertEquals("a", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+        assertEquals("b", engine.place(request, PlacementEngine.Strategy.SPREAD, 10).getHostId());
+        assertEquals("a", engine.place(request, PlacementEngine.Strategy.SPREAD, 20).getHostId());
+        assertNull(engine.place(request, PlacementEngine.Strategy.SPREAD, 30));
+        assertEquals(3, engine.pendingReservations());
+
+        // Al vencer las dos primeras vuelve a haber lugar
+        assertEquals("a", engine.place(request, PlacementEngine.Strategy.BIN_PACK, TTL + 10).getHostId());
+        assertEquals(2, engine.pendingReservations());
+    }
+
+    public void testReleaseAndTelemetryUpdatesReRankHosts() {
+        host("a", "Conectado", 8, 100, 16, 100, 100);
+        host("b", "Conectado", 8, 100, 10, 100, 100);
+        ResourceRequest request = new ResourceRequest(1, 10, 0, 0);
+
+        PlacementEngine.Reservation first = engine.place(request, PlacementEngine.Strategy.SPREAD, 0);
+        assertEquals("a", first.getHostId());
+        assertEquals(7.0, engine.availableCores(first.getEntry()), 0.0);
+        assertEquals("b", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+
+        engine.release(first);
+        engine.release(first);
+        assertEquals(8.0, engine.availableCores(first.getEntry()), 0.0);
+        assertEquals("a", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+
+        // Un host nuevo con más memoria entra en el ranking con su primer reporte
+        host("c", "Conectado", 8, 100, 64, 100, 100);
+        assertEquals("c", engine.place(request, PlacementEngine.Strategy.SPREAD, 0).getHostId());
+        // Y sale de los candidatos al desconectarse
+        registry.update("c", "Cliente", computer -> computer.setConnectionStatus("Desconectado"));
+        assertNull(engine.place(request, PlacementEngine.Strategy.SPREAD, 0));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un host cambia y se piden los 10 mejores por memoria libre: con el índice de ranking
+ * (reubicar un nodo y recorrer k) o con la copia y ordenamiento completos que hacía
+ * updateTableWithSystemInfo en cada refresco.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingIndexBenchmark {
+    @Param({"100000"})
+    public int hosts;
+
+    @Param({"10"})
+    public int k;
+
+    private HostRegistry registry;
+    private RankingIndex ranking;
+    private HostEntry[] entries;
+
+    @Setup
+    public void setup() {
+        registry = new HostRegistry();
+        ranking = registry.addRanking(RankingIndex.FREE_MEMORY);
+        entries = new HostEntry[hosts];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < hosts; i++) {
+            double memory = random.nextDouble(64);
+            entries[i] = registry.update("host-" + i, "Cliente", computer -> computer.setFreeMemory(memory));
+        }
+    }
+
+    private void changeOneHost() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double memory = random.nextDouble(64);
+        registry.update(entries[random.nextInt(hosts)], computer -> computer.setFreeMemory(memory));
+    }
+
+    @Benchmark
+    public List<HostEntry> rankingIndex() {
+        changeOneHost();
+        return ranking.topK(k);
+    }
+
+    @Benchmark
+    public int rankOf() {
+        changeOneHost();
+        return ranking.rankOf(entries[ThreadLocalRandom.current().nextInt(hosts)]);
+    }
+
+    @Benchmark
+    public List<Computer1> copyAndSort() {
+        changeOneHost();
+        // Lo que hacía el servidor: copiar todos los equipos y ordenarlos por memoria libre
+        List<Computer1> sorted = new ArrayList<>(hosts);
+        for (HostEntry entry : registry.entries()) {
+            sorted.add(entry.live());
+        }
+        sorted.sort(Comparator.comparingDouble(Computer1::getFreeMemory).reversed());
+        return sorted.subList(0, k);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RankingIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class RankingIndexTest extends TestCase {
+
+    private static void setMemory(HostRegistry registry, String hostId, double freeMemory) {
+        registry.update(hostId, "Cliente", computer -> computer.setFreeMemory(freeMemory));
+    }
+
+    public void testTopKAndRankFollowUpdates() {
+        HostRegistry registry = new HostRegistry();
+        setMemory(registry, "a", 8);
+        setMemory(registry, "b", 16);
+        RankingIndex ranking = registry.addRanking(RankingIndex.FREE_MEMORY);
+        setMemory(registry, "c", 4);
+
+        assertEquals(3, ranking.size());
+        List<HostEntry> top = ranking.topK(2);
+        assertEquals("b", top.get(0).getHostId());
+        assertEquals("a", top.get(1).getHostId());
+        assertEquals(2, ranking.rankOf(registry.get("c")));
+
+        // Sólo se reubica el host que cambió
+        setMemory(registry, "c", 32);
+        assertEquals(0, ranking.rankOf(registry.get("c")));
+        assertEquals("a", ranking.get(2).getHostId());
+        assertNull(ranking.get(3));
+        assertEquals(32.0, ranking.scoreOf(registry.get("c")), 0.0);
+
+        // Empates: por identificador
+        setMemory(registry, "a", 16);
+        assertEquals(1, ranking.rankOf(registry.get("a")));
+        assertEquals(2, ranking.rankOf(registry.get("b")));
+
+        ranking.remove(registry.get("c"));
+        assertEquals(-1, ranking.rankOf(registry.get("c")));
+        assertEquals(2, ranking.topK(10).size());
+    }
+
+    public void testCompositeScore() {
+        HostRegistry registry = new HostRegistry();
+        RankingIndex ranking = registry.addRanking(RankingIndex.composite(1.0, 0.1, 0.0, 0.0));
+        registry.update("mucha-memoria", "Cliente", computer -> {
+            computer.setFreeMemory(20);
+            computer.setFreeCpuPercentage(10);
+        });
+        registry.update("mucha-cpu", "Cliente", computer -> {
+            computer.setFreeMemory(11);
+            computer.setFreeCpuPercentage(95);
+        });
+        // 20 + 1 frente a 11 + 9.5
+        assertEquals("mucha-memoria", ranking.get(0).getHostId());
+        assertEquals(21.0, ranking.scoreOf(registry.get("mucha-memoria")), 1e-9);
+    }
+
+    public void testMatchesFullSortAfterRandomUpdates() {
+        HostRegistry registry = new HostRegistry();
+        RankingIndex ranking = registry.addRanking(RankingIndex.FREE_CPU);
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            String hostId = "host-" + random.nextInt(2000);
+            double cpu = random.nextInt(1000) / 10.0;
+            registry.update(hostId, "Cliente", computer -> computer.setFreeCpuPercentage(cpu));
+        }
+
+        List<HostEntry> sorted = new ArrayList<>(registry.entries());
+        sorted.sort(Comparator.comparingDouble((HostEntry e) -> -e.live().getFreeCpuPercentage())
+                .thenComparing(HostEntry::getHostId));
+        assertEquals(sorted.size(), ranking.size());
+        assertEquals(sorted.subList(0, 50), ranking.topK(50));
+        for (int i = 0; i < sorted.size(); i += 97) {
+            assertEquals(i, ranking.rankOf(sorted.get(i)));
+            assertSame(sorted.get(i), ranking.get(i));
+        }
+    }
+}
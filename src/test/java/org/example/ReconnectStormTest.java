@@ -0,0 +1,178 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Caída del servidor con muchos clientes conectados: mientras no está, los clientes guardan
+ * sus muestras; al volver se mide cómo se reparten las reconexiones en el tiempo (con jitter
+ * y con una espera fija, como el reintento de 5 s que había antes, escalado) y que ninguna
+ * muestra guardada se pierda.
+ */
+public class ReconnectStormTest extends TestCase {
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.port", "computer.journal.enabled", "computer.history.memoryMB"
+    };
+    private static final int CLIENTS = 200;
+    private static final long OUTAGE_MILLIS = 2000;
+    private static final long BUCKET_MILLIS = 100;
+
+    private PrintStream originalOut;
+    private final List<TelemetryClient> clients = new ArrayList<>();
+    private final List<TelemetryServer> servers = new ArrayList<>();
+
+    @Override
+    protected void setUp() {
+        System.setProperty("computer.http.port", "0");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "16");
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @Override
+    protected void tearDown() {
+        for (TelemetryClient client : clients) {
+            client.close();
+        }
+        for (TelemetryServer server : servers) {
+            server.close();
+        }
+        System.setOut(originalOut);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    private static final class Storm {
+        int peakPerBucket;
+        long medianMillis;
+        long lastMillis;
+        long replayed;
+        long dropped;
+    }
+
+    public void testJitteredReconnectsAreSpreadAndBufferedSamplesArrive() throws Exception {
+        Storm jittered = outage(true);
+        Storm fixed = outage(false);
+        System.setOut(originalOut);
+        System.out.printf("Con jitter:  pico %d reconexiones/%d ms, mediana %d ms, última %d ms, %d muestras reenviadas%n",
+                jittered.peakPerBucket, BUCKET_MILLIS, jittered.medianMillis, jittered.lastMillis, jittered.replayed);
+        System.out.printf("Espera fija: pico %d reconexiones/%d ms, mediana %d ms, última %d ms, %d muestras reenviadas%n",
+                fixed.peakPerBucket, BUCKET_MILLIS, fixed.medianMillis, fixed.lastMillis, fixed.replayed);
+
+        assertTrue(jittered.peakPerBucket * 2 < fixed.peakPerBucket);
+        assertTrue(jittered.replayed >= CLIENTS * (OUTAGE_MILLIS / 200) / 2);
+        assertEquals(0, jittered.dropped);
+        assertEquals(0, fixed.dropped);
+    }
+
+    private Storm outage(boolean jitter) throws Exception {
+        System.setProperty("computer.server.port", "0");
+        TelemetryServer first = startServer();
+        int port = first.getPort();
+
+        Random random = new Random(jitter ? 1 : 2);
+        List<TelemetryClient> fleet = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            String hostId = (jitter ? "jitter-" : "fijo-") + i;
+            double[] cpu = {random.nextDouble() * 100};
+            TelemetryClient client = new TelemetryClient("127.0.0.1", port, () -> {
+                Computer1 sample = new Computer1("modelo", 3.0, 4, 500, "so", 8, 200, 90, "Cliente");
+                sample.setHostId(hostId);
+                cpu[0] = Math.max(0, Math.min(100, cpu[0] + (random.nextDouble() - 0.5) * 10));
+                sample.setFreeCpuPercentage(cpu[0]);
+                return sample;
+            }, i % 2 == 0,
+                    new DeltaTracker(0.05, 0.1, 0.5, 2.0, 2.0, 6),
+                    new AdaptiveInterval(100, 200, 1000),
+                    new OfflineBuffer(1000, null, 0),
+                    jitter ? new Backoff(100, 3200, true, new Random(random.nextLong()))
+                            : new Backoff(500, 500, false, random),
+                    new UnackedWindow(256, 30_000));
+            client.setVerbose(false);
+            fleet.add(client);
+            clients.add(client);
+            client.start();
+        }
+        awaitConnected(fleet, 1);
+
+        // Caída: los clientes detectan el cierre y empiezan a guardar y reintentar
+        first.close();
+        Thread.sleep(OUTAGE_MILLIS);
+        for (TelemetryClient client : fleet) {
+            assertFalse(client.isConnected());
+            assertTrue(client.getBuffer().size() > 0);
+        }
+        System.setProperty("computer.server.port", String.valueOf(port));
+        TelemetryServer second = startServer();
+        long restarted = System.currentTimeMillis();
+
+        long[] reconnectedAt = new long[CLIENTS];
+        int pending = CLIENTS;
+        while (pending > 0) {
+            assertTrue("Clientes sin reconectar: " + pending, System.currentTimeMillis() - restarted < 30_000);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < CLIENTS; i++) {
+                if (reconnectedAt[i] == 0 && fleet.get(i).getConnections() >= 2) {
+                    reconnectedAt[i] = Math.max(1, now - restarted);
+                    pending--;
+                }
+            }
+            Thread.sleep(5);
+        }
+
+        Storm storm = new Storm();
+        int[] buckets = new int[(int) (30_000 / BUCKET_MILLIS) + 1];
+        for (long at : reconnectedAt) {
+            storm.peakPerBucket = Math.max(storm.peakPerBucket, ++buckets[(int) (at / BUCKET_MILLIS)]);
+        }
+        Arrays.sort(reconnectedAt);
+        storm.medianMillis = reconnectedAt[CLIENTS / 2];
+        storm.lastMillis = reconnectedAt[CLIENTS - 1];
+
+        // Todo lo guardado llegó al historial del servidor nuevo, antes que las muestras en vivo
+        Thread.sleep(500);
+        for (int i = 0; i < CLIENTS; i++) {
+            TelemetryClient client = fleet.get(i);
+            String hostId = (jitter ? "jitter-" : "fijo-") + i;
+            storm.replayed += client.getSamplesReplayed();
+            storm.dropped += client.getBuffer().dropped();
+            assertTrue(hostId, second.getHistory().sampleCount(hostId) >= client.getSamplesReplayed());
+            assertTrue(client.getSamplesReplayed() > 0);
+        }
+
+        for (TelemetryClient client : fleet) {
+            client.close();
+        }
+        second.close();
+        return storm;
+    }
+
+    private TelemetryServer startServer() {
+        TelemetryServer server = new TelemetryServer();
+        servers.add(server);
+        server.start();
+        return server;
+    }
+
+    private static void awaitConnected(List<TelemetryClient> fleet, int connections) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        for (TelemetryClient client : fleet) {
+            while (client.getConnections() < connections) {
+                assertTrue("El cliente no se conectó", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        }
+    }
+}
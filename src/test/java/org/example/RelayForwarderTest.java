@@ -0,0 +1,112 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+public class RelayForwarderTest extends TestCase {
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.enabled", "computer.journal.enabled", "computer.history.memoryMB"
+    };
+
+    private TelemetryServer central;
+    private HostRegistry edge;
+    private RelayForwarder forwarder;
+
+    @Override
+    protected void setUp() {
+        System.setProperty("computer.server.port", "0");
+        System.setProperty("computer.http.enabled", "false");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "16");
+        central = new TelemetryServer();
+        central.start();
+        edge = new HostRegistry();
+        forwarder = new RelayForwarder(edge, "relay-norte", "127.0.0.1", central.getPort(), 20);
+    }
+
+    @Override
+    protected void tearDown() {
+        forwarder.close();
+        central.close();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    private void report(String hostId, String model, double freeMemory) {
+        edge.update(hostId, "Cliente", computer -> {
+            computer.setProcessorModel(model);
+            computer.setOperatingSystemVersion("10.0.19045");
+            computer.setCoreCount(8);
+            computer.setDiskCapacity(512);
+            computer.setFreeMemory(freeMemory);
+            computer.setFreeCpuPercentage(75);
+            computer.setConnectionStatus("Conectado");
+        });
+    }
+
+    private Computer1 waitFor(String hostId, double freeMemory) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            HostEntry entry = central.getRegistry().get(hostId);
+            if (entry != null) {
+                Computer1 snapshot = entry.snapshot();
+                if (snapshot.getFreeMemory() == freeMemory) {
+                    return snapshot;
+                }
+            }
+            Thread.sleep(5);
+        }
+        fail("El servidor central no recibió " + hostId + " con " + freeMemory + " GB");
+        return null;
+    }
+
+    public void testForwardsTaggedHostsOverOneConnection() throws Exception {
+        report("existente", "Intel i5", 4);
+        forwarder.start();
+        for (int i = 0; i < 50; i++) {
+            report("host-" + i, "Intel i7", i);
+        }
+
+        Computer1 first = waitFor("existente", 4);
+        assertEquals("relay-norte", first.getRelay());
+        assertEquals("Intel i5", first.getProcessorModel());
+        assertEquals("Cliente", first.getType());
+        assertEquals("Conectado", first.getConnectionStatus());
+        Computer1 last = waitFor("host-49", 49);
+        assertEquals(8, last.getCoreCount());
+        assertEquals(512, last.getDiskCapacity());
+        assertEquals(75.0, last.getFreeCpuPercentage(), 0.0);
+        assertEquals(1, central.getHistory().sampleCount("host-49"));
+    }
+
+    public void testSendsOnlyTheLatestStateAndRedeclaresChangedStaticData() throws Exception {
+        forwarder.start();
+        report("a", "Intel i7", 1);
+        waitFor("a", 1);
+        long before = forwarder.getForwardedRecords();
+
+        // Muchas actualizaciones dentro de un mismo intervalo viajan como una sola
+        for (int i = 2; i <= 1000; i++) {
+            report("a", "Intel i7", i);
+        }
+        waitFor("a", 1000);
+        assertTrue("registros reenviados: " + (forwarder.getForwardedRecords() - before),
+                forwarder.getForwardedRecords() - before < 100);
+
+        report("a", "AMD Ryzen 9", 1001);
+        assertEquals("AMD Ryzen 9", waitFor("a", 1001).getProcessorModel());
+    }
+
+    public void testHostsGoOfflineWhenTheRelayDisconnects() throws Exception {
+        forwarder.start();
+        report("a", "Intel i7", 3);
+        waitFor("a", 3);
+        forwarder.close();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"Desconectado".equals(central.getRegistry().get("a").snapshot().getConnectionStatus())) {
+            assertTrue("El host sigue conectado tras cerrar el relay", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
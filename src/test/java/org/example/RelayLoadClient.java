@@ -0,0 +1,142 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Proceso auxiliar de {@link RelayLoadTest}: simula muchos equipos conectados a un relay, uno
+ * por conexión. Cada equipo envía un registro completo al conectar y, cuando el proceso padre
+ * escribe una línea, una ronda de deltas por intervalo.
+ *
+ * En las rondas freeMemory lleva la hora de envío (milisegundos módulo 100000, en centésimas):
+ * el servidor central la compara con su reloj para medir la latencia de punta a punta.
+ */
+public class RelayLoadClient {
+    private static final int MAX_PENDING_CONNECTS = 256;
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int hosts = Integer.parseInt(args[1]);
+        String prefix = args[2];
+        int rounds = Integer.parseInt(args[3]);
+        long intervalMillis = Long.parseLong(args[4]);
+
+        Selector selector = Selector.open();
+        List<SocketChannel> channels = new ArrayList<>(hosts);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+        ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+        long[] acked = new long[1];
+
+        int started = 0;
+        int pendingConnects = 0;
+        while (acked[0] < hosts) {
+            while (started < hosts && pendingConnects < MAX_PENDING_CONNECTS) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channels.add(channel);
+                int index = started;
+                if (channel.connect(address)) {
+                    channel.write(fullRecord(prefix, index));
+                    channel.register(selector, SelectionKey.OP_READ);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, index);
+                    pendingConnects++;
+                }
+                started++;
+            }
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    pendingConnects--;
+                    channel.write(fullRecord(prefix, (Integer) key.attachment()));
+                    key.interestOps(SelectionKey.OP_READ);
+                } else if (key.isReadable()) {
+                    countAcks(channel, readBuffer, acked);
+                }
+            }
+        }
+        System.out.println("CONECTADOS " + acked[0]);
+        System.out.flush();
+
+        BufferedReader parent = new BufferedReader(new InputStreamReader(System.in));
+        parent.readLine();
+
+        long expected = (long) hosts * (1 + rounds);
+        long next = System.currentTimeMillis();
+        for (int round = 0; round < rounds; round++) {
+            long now = System.currentTimeMillis();
+            long stamp = now % 100_000;
+            ByteBuffer delta = ByteBuffer.wrap(String.format(Locale.ROOT, "{\"freeMemory\":%d.%02d}\n",
+                    stamp / 100, stamp % 100).getBytes(StandardCharsets.UTF_8));
+            for (SocketChannel channel : channels) {
+                delta.rewind();
+                channel.write(delta);
+            }
+            next += intervalMillis;
+            drain(selector, readBuffer, acked, Long.MAX_VALUE, next);
+        }
+        drain(selector, readBuffer, acked, expected, System.currentTimeMillis() + 30_000);
+        System.out.println("LISTO " + acked[0]);
+        System.out.flush();
+
+        // Mantener las conexiones abiertas hasta que el proceso padre lo indique
+        parent.readLine();
+        for (SocketChannel channel : channels) {
+            channel.close();
+        }
+        selector.close();
+    }
+
+    private static ByteBuffer fullRecord(String prefix, int index) {
+        String line = "{\"hostId\":\"" + prefix + "-" + index + "\",\"processorModel\":\"simulado\","
+                + "\"processorSpeed\":2.40,\"coreCount\":4,\"diskCapacity\":256,\"operatingSystemVersion\":\"sim\","
+                + "\"freeMemory\":0.00,\"freeDiskSpace\":100.00,\"freeBandwidthPercentage\":90.00,"
+                + "\"freeCpuPercentage\":50.00}\n";
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Lee acuses hasta tener expected o hasta la hora límite
+    private static void drain(Selector selector, ByteBuffer readBuffer, long[] acked, long expected, long deadline)
+            throws Exception {
+        long now;
+        while (acked[0] < expected && (now = System.currentTimeMillis()) < deadline) {
+            selector.select(Math.max(1, deadline - now));
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isReadable()) {
+                    countAcks((SocketChannel) key.channel(), readBuffer, acked);
+                }
+            }
+        }
+    }
+
+    private static void countAcks(SocketChannel channel, ByteBuffer readBuffer, long[] acked) throws Exception {
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            throw new IllegalStateException("El relay cerró una conexión");
+        }
+        for (int i = 0; i < readBuffer.position(); i++) {
+            if (readBuffer.get(i) == '\n') {
+                acked[0]++;
+            }
+        }
+    }
+}
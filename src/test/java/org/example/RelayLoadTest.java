@@ -0,0 +1,233 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prueba de carga de la agregación jerárquica, en varios procesos: 3 relays (cada uno un
+ * {@link TelemetryServer} en su propia JVM) con un simulador de equipos cada uno, y el
+ * servidor central en esta JVM. Mide la latencia de punta a punta (envío en el simulador
+ * hasta la actualización en el registro central) y la CPU del proceso central.
+ */
+public class RelayLoadTest extends TestCase {
+    private static final int RELAYS = 3;
+    private static final int ROUNDS = Integer.getInteger("relay.load.rounds", 5);
+    private static final long INTERVAL_MILLIS = 1000;
+    private static final int WRAP = 100_000; // las marcas de envío son milisegundos módulo 100000
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.enabled", "computer.journal.enabled", "computer.history.memoryMB"
+    };
+
+    private final List<Process> processes = new ArrayList<>();
+    private final AtomicLongArray latencyMillis = new AtomicLongArray(WRAP);
+    private final Map<HostEntry, Long> lastStamp = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+    private TelemetryServer central;
+    private PrintStream originalOut;
+
+    @Override
+    protected void setUp() {
+        System.setProperty("computer.server.port", "0");
+        System.setProperty("computer.http.enabled", "false");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "64");
+        central = new TelemetryServer();
+        originalOut = System.out;
+    }
+
+    @Override
+    protected void tearDown() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        central.close();
+        System.setOut(originalOut);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    public void testThreeRelaysForwardThirtyThousandHosts() throws Exception {
+        int hostsPerRelay = hostsPerRelay();
+        // El servidor central imprime estadísticas por host; no se mezclan con el informe
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        central.start();
+        central.getRegistry().addListener(this::recordLatency);
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        List<Process> simulators = new ArrayList<>();
+        for (int r = 0; r < RELAYS; r++) {
+            Process relay = start(new ProcessBuilder(java, "-Xmx256m", "-cp", classPath,
+                    "-Dcomputer.server.port=0", "-Dcomputer.http.enabled=false", "-Dcomputer.journal.enabled=false",
+                    "-Dcomputer.history.memoryMB=16", "-Dcomputer.relay.id=relay-" + r,
+                    "-Dcomputer.relay.upstream=127.0.0.1:" + central.getPort(),
+                    TelemetryServer.class.getName()));
+            int relayPort = relayPort(relay);
+            simulators.add(start(new ProcessBuilder(java, "-cp", classPath, RelayLoadClient.class.getName(),
+                    String.valueOf(relayPort), String.valueOf(hostsPerRelay), "sim" + r,
+                    String.valueOf(ROUNDS), String.valueOf(INTERVAL_MILLIS))));
+        }
+        for (Process simulator : simulators) {
+            assertEquals("CONECTADOS " + hostsPerRelay, readLine(simulator));
+        }
+        int expectedHosts = RELAYS * hostsPerRelay;
+        waitForCentral(expectedHosts, 60_000);
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuBefore = os.getProcessCpuTime();
+        long wallBefore = System.nanoTime();
+        measuring = true;
+        for (Process simulator : simulators) {
+            simulator.getOutputStream().write('\n');
+            simulator.getOutputStream().flush();
+        }
+        for (Process simulator : simulators) {
+            String done = readLine(simulator);
+            assertEquals("LISTO " + (long) hostsPerRelay * (1 + ROUNDS), done);
+        }
+        // Lo último enviado tarda a lo sumo un par de lotes en llegar al central
+        Thread.sleep(1000);
+        measuring = false;
+        double cpuPercent = 100.0 * (os.getProcessCpuTime() - cpuBefore) / (System.nanoTime() - wallBefore);
+
+        long count = 0;
+        for (int i = 0; i < WRAP; i++) {
+            count += latencyMillis.get(i);
+        }
+        long p50 = percentile(count, 0.50);
+        long p99 = percentile(count, 0.99);
+        long max = percentile(count, 1.0);
+        Set<String> relays = new HashSet<>();
+        int connected = 0;
+        for (HostEntry entry : central.getRegistry().entries()) {
+            Computer1 host = entry.snapshot();
+            if (host.getHostId().startsWith("sim")) {
+                relays.add(host.getRelay());
+                if ("Conectado".equals(host.getConnectionStatus())) connected++;
+            }
+        }
+        originalOut.printf("Relays: %d relays x %d hosts, %d rondas: %d actualizaciones medidas en el central, "
+                        + "latencia p50 %d ms, p99 %d ms, máx %d ms; CPU del central %.1f%% de un núcleo "
+                        + "(%d núcleos en la máquina)%n",
+                RELAYS, hostsPerRelay, ROUNDS, count, p50, p99, max, cpuPercent,
+                Runtime.getRuntime().availableProcessors());
+
+        assertEquals(expectedHosts, connected);
+        assertEquals(RELAYS, relays.size());
+        // Cada host aporta al menos su última ronda (las anteriores pueden haberse fusionado)
+        assertTrue("actualizaciones medidas: " + count, count >= expectedHosts);
+        assertTrue("p99 (ms): " + p99, p99 < 10_000);
+
+        for (Process simulator : simulators) {
+            simulator.getOutputStream().write('\n');
+            simulator.getOutputStream().flush();
+        }
+    }
+
+    // Latencia de cada valor nuevo de freeMemory; los demás cambios del host no cuentan
+    private void recordLatency(HostEntry entry) {
+        if (!measuring || !entry.getHostId().startsWith("sim")) {
+            return;
+        }
+        long stamp = Math.round(entry.live().getFreeMemory() * 100);
+        Long previous = lastStamp.put(entry, stamp);
+        if (stamp == 0 || previous != null && previous == stamp) {
+            return;
+        }
+        long latency = Math.floorMod(System.currentTimeMillis() % WRAP - stamp, WRAP);
+        latencyMillis.incrementAndGet((int) latency);
+    }
+
+    private long percentile(long count, double fraction) {
+        long target = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for (int i = 0; i < WRAP; i++) {
+            seen += latencyMillis.get(i);
+            if (seen >= target) {
+                return i;
+            }
+        }
+        return WRAP;
+    }
+
+    private void waitForCentral(int hosts, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            int forwarded = 0;
+            for (HostEntry entry : central.getRegistry().entries()) {
+                if (entry.getHostId().startsWith("sim")) forwarded++;
+            }
+            if (forwarded >= hosts) {
+                return;
+            }
+            assertTrue("El central sólo recibió " + forwarded + " de " + hosts + " hosts",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private Process start(ProcessBuilder builder) throws Exception {
+        Process process = builder.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        processes.add(process);
+        return process;
+    }
+
+    private static String readLine(Process process) throws Exception {
+        return new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+    }
+
+    // Lee la salida del relay hasta encontrar su puerto y después la sigue descartando
+    private static int relayPort(Process relay) throws Exception {
+        BufferedReader out = new BufferedReader(new InputStreamReader(relay.getInputStream()));
+        String prefix = "Servidor iniciado en el puerto: ";
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                Thread drain = new Thread(() -> {
+                    try {
+                        while (out.readLine() != null) {
+                            // descartar
+                        }
+                    } catch (Exception ignored) {
+                        // el proceso terminó
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring(prefix.length()).trim());
+            }
+        }
+        throw new IllegalStateException("El relay terminó sin abrir su puerto");
+    }
+
+    // 10k por relay por defecto, limitado por los descriptores de archivo de cada proceso
+    private static int hostsPerRelay() {
+        int requested = Integer.getInteger("relay.load.hostsPerRelay", 10_000);
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            long maxFds = ((com.sun.management.UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount();
+            return (int) Math.min(requested, maxFds - 512);
+        }
+        return requested;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OperatingSystem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de un tick de muestreo (tiempo de CPU del hilo y, con el perfilador GC, bytes
+ * asignados por tick). La espera de 1 segundo de la carga de CPU se deja fuera en todos
+ * los casos: no consume CPU y enmascararía el resto.
+ *
+ * legacyTick repite lo que hacían antes updateSystemInfo/updateNetworkStats/sendSystemInfo
+ * con un SystemInfo nuevo por tick; serviceNoCache refresca todo en cada llamada (TTL 0) y
+ * serviceCached usa los TTL por defecto.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SamplingServiceBenchmark {
+    private SamplingService noCache;
+    private SamplingService cached;
+
+    @Setup
+    public void setup() {
+        noCache = new SamplingService(0, 0, 0, 0, 0);
+        cached = new SamplingService(1_000, 30_000, 1_000, 1_000, 10_000);
+    }
+
+    @Benchmark
+    public void legacyTick(Blackhole blackhole) {
+        SystemInfo systemInfo = new SystemInfo();
+        CentralProcessor processor = systemInfo.getHardware().getProcessor();
+        OperatingSystem os = systemInfo.getOperatingSystem();
+        blackhole.consume(processor.getProcessorIdentifier().getName());
+        blackhole.consume(processor.getMaxFreq());
+        blackhole.consume(processor.getLogicalProcessorCount());
+        List<HWDiskStore> diskStores = systemInfo.getHardware().getDiskStores();
+        if (!diskStores.isEmpty()) {
+            blackhole.consume(diskStores.get(0).getSize());
+        }
+        List<OSFileStore> fileStores = os.getFileSystem().getFileStores();
+        if (!fileStores.isEmpty()) {
+            blackhole.consume(fileStores.get(0).getUsableSpace());
+        }
+        blackhole.consume(os.getVersionInfo().getVersion());
+        blackhole.consume(systemInfo.getHardware().getMemory().getAvailable());
+        for (NetworkIF net : systemInfo.getHardware().getNetworkIFs()) {
+            net.updateAttributes();
+            blackhole.consume(net.getBytesRecv() + net.getBytesSent());
+        }
+    }
+
+    @Benchmark
+    public void serviceNoCache(Blackhole blackhole) {
+        tick(noCache, blackhole);
+    }
+
+    @Benchmark
+    public void serviceCached(Blackhole blackhole) {
+        tick(cached, blackhole);
+    }
+
+    private static void tick(SamplingService service, Blackhole blackhole) {
+        blackhole.consume(service.getProcessorModel());
+        blackhole.consume(service.getProcessorSpeed());
+        blackhole.consume(service.getCoreCount());
+        blackhole.consume(service.getDiskCapacity());
+        blackhole.consume(service.getOperatingSystemVersion());
+        blackhole.consume(service.getFreeMemory());
+        blackhole.consume(service.getFreeDiskSpace());
+        for (NetworkIF net : service.getNetworkInterfaces()) {
+            blackhole.consume(net.getBytesRecv() + net.getBytesSent());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SamplingServiceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
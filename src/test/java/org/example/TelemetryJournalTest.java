@@ -0,0 +1,179 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TelemetryJournalTest extends TestCase {
+    private static final long HOUR = 3_600_000L;
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("journal-test");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (Path file : segments()) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private TelemetryJournal journal(int segmentBytes, long segmentMillis, long retentionBytes) {
+        return new TelemetryJournal(directory, segmentBytes, segmentMillis, retentionBytes, 24 * HOUR, 50);
+    }
+
+    private static Computer1 sample(String type, double freeMemory) {
+        Computer1 computer = new Computer1("Intel(R) Core(TM) i7", 3.2, 8, 512, "10.0.19045",
+                freeMemory, 200.0, 95.0, type);
+        computer.setFreeCpuPercentage(40.0);
+        return computer;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    public void testReplayRebuildsRegistryAndHistory() throws Exception {
+        TelemetryJournal writer = journal(1 << 20, HOUR, Long.MAX_VALUE);
+        writer.open();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            writer.append("host-a", now + i, sample("Cliente", i));
+            writer.append("host-b", now + i, sample("Servidor", 10 + i));
+        }
+        writer.close();
+
+        HostRegistry registry = new HostRegistry();
+        TimeSeriesStore history = new TimeSeriesStore(1 << 20, 100);
+        assertEquals(10, journal(1 << 20, HOUR, Long.MAX_VALUE).replay(registry, history));
+
+        Computer1 a = registry.get("host-a").snapshot();
+        assertEquals("Cliente", a.getType());
+        assertEquals("Intel(R) Core(TM) i7", a.getProcessorModel());
+        assertEquals("10.0.19045", a.getOperatingSystemVersion());
+        assertEquals(8, a.getCoreCount());
+        assertEquals(512, a.getDiskCapacity());
+        assertEquals(4.0, a.getFreeMemory(), 0.0);
+        assertEquals(40.0, a.getFreeCpuPercentage(), 0.0);
+        assertEquals("Desconectado", a.getConnectionStatus());
+        assertEquals("Servidor", registry.get("host-b").snapshot().getType());
+
+        assertEquals(5, history.sampleCount("host-a"));
+        TimeSeriesStore.WindowStats stats = new TimeSeriesStore.WindowStats();
+        assertTrue(history.window("host-b", TimeSeriesStore.FREE_MEMORY, now, now + 10, stats));
+        assertEquals(12.0, stats.getAverage(), 1e-9);
+    }
+
+    public void testRollsBySizeAndTimeAndEnforcesRetention() throws Exception {
+        int segmentBytes = TelemetryJournal.HOST_SIZE + 10 * TelemetryJournal.SAMPLE_SIZE;
+        TelemetryJournal writer = journal(segmentBytes, HOUR, 3L * segmentBytes);
+        writer.open();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 45; i++) {
+            writer.append("host-a", now + i, sample("Cliente", i));
+        }
+        // 45 muestras a 10 por segmento: 5 segmentos escritos, la retención deja los 3 últimos
+        assertEquals(3, writer.segmentCount());
+
+        // Pasada la hora el segmento actual se cierra aunque no esté lleno
+        writer.append("host-a", now + 2 * HOUR, sample("Cliente", 99));
+        assertEquals(3, writer.segmentCount());
+        writer.close();
+        // Al cerrar se borra el segmento de repuesto que nunca se usó
+        assertEquals(3, segments().size());
+        assertEquals("segment-0000000000000006.journal", segments().get(2).getFileName().toString());
+
+        // Cada segmento repite los datos estáticos: los que quedan se leen por sí solos
+        HostRegistry registry = new HostRegistry();
+        TimeSeriesStore history = new TimeSeriesStore(1 << 20, 100);
+        assertEquals(16, journal(segmentBytes, HOUR, Long.MAX_VALUE).replay(registry, history));
+        assertEquals(99.0, registry.get("host-a").snapshot().getFreeMemory(), 0.0);
+        assertEquals("Intel(R) Core(TM) i7", registry.get("host-a").snapshot().getProcessorModel());
+    }
+
+    public void testRecoversFromSegmentTruncatedMidRecord() throws Exception {
+        int segmentBytes = TelemetryJournal.HOST_SIZE + 20 * TelemetryJournal.SAMPLE_SIZE;
+        TelemetryJournal writer = journal(segmentBytes, HOUR, Long.MAX_VALUE);
+        writer.open();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 30; i++) {
+            writer.append("host-a", now + i, sample("Cliente", i));
+        }
+        writer.close();
+
+        // Simula una caída a mitad de la muestra 8 del primer segmento
+        List<Path> files = segments();
+        assertEquals(2, files.size());
+        try (RandomAccessFile file = new RandomAccessFile(files.get(0).toFile(), "rw")) {
+            file.setLength(TelemetryJournal.HOST_SIZE + 7 * TelemetryJournal.SAMPLE_SIZE + 30);
+        }
+
+        HostRegistry registry = new HostRegistry();
+        TimeSeriesStore history = new TimeSeriesStore(1 << 20, 100);
+        TelemetryJournal recovered = journal(segmentBytes, HOUR, Long.MAX_VALUE);
+        // 7 muestras completas del primer segmento y las 10 del segundo
+        assertEquals(17, recovered.replay(registry, history));
+        assertEquals(29.0, registry.get("host-a").snapshot().getFreeMemory(), 0.0);
+
+        // Un registro con la suma de verificación rota también corta la lectura
+        try (RandomAccessFile file = new RandomAccessFile(files.get(1).toFile(), "rw")) {
+            file.seek(TelemetryJournal.HOST_SIZE + 3 * TelemetryJournal.SAMPLE_SIZE + 20);
+            file.write(0x55);
+        }
+        assertEquals(10, recovered.replay(new HostRegistry(), new TimeSeriesStore(1 << 20, 100)));
+
+        // Tras recuperar, se sigue escribiendo en un segmento nuevo
+        recovered.open();
+        recovered.append("host-a", now + 100, sample("Cliente", 50));
+        recovered.close();
+        assertEquals(3, segments().size());
+        assertEquals(11, journal(segmentBytes, HOUR, Long.MAX_VALUE)
+                .replay(new HostRegistry(), new TimeSeriesStore(1 << 20, 100)));
+    }
+
+    public void testConcurrentWritersAcrossRollsLoseNothing() throws Exception {
+        int segmentBytes = 4 * TelemetryJournal.HOST_SIZE + 50 * TelemetryJournal.SAMPLE_SIZE;
+        TelemetryJournal writer = journal(segmentBytes, HOUR, Long.MAX_VALUE);
+        writer.open();
+        long now = System.currentTimeMillis();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String hostId = "host-" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    writer.append(hostId, now + i, sample("Cliente", i));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        HostRegistry registry = new HostRegistry();
+        TimeSeriesStore history = new TimeSeriesStore(1 << 24, 4_000);
+        assertEquals(8_000, journal(segmentBytes, HOUR, Long.MAX_VALUE).replay(registry, history));
+        for (int t = 0; t < threads.length; t++) {
+            assertEquals(1_999.0, registry.get("host-" + t).snapshot().getFreeMemory(), 0.0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el parser anterior (substring/split/HashMap) con {@link TelemetryParser}.
+ * Con el perfilador de GC, "gc.alloc.rate.norm" da los bytes asignados por mensaje.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryParserBenchmark {
+    private static final String LINE = "{\"processorModel\":\"Intel(R) Core(TM) i7-8700 CPU @ 3.20GHz\","
+            + "\"processorSpeed\":3.19,\"coreCount\":12,\"diskCapacity\":476,"
+            + "\"operatingSystemVersion\":\"10.0.19045\",\"freeMemory\":7.25,"
+            + "\"freeDiskSpace\":120.50,\"freeBandwidthPercentage\":99.87,\"freeCpuPercentage\":42.10}";
+
+    private String line;
+    private ByteBuffer bytes;
+    private TelemetryParser parser;
+    private Computer1 target;
+
+    @Setup
+    public void setup() {
+        line = LINE;
+        byte[] raw = LINE.getBytes(StandardCharsets.UTF_8);
+        bytes = ByteBuffer.allocateDirect(raw.length);
+        bytes.put(raw).flip();
+        parser = new TelemetryParser();
+        target = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+    }
+
+    @Benchmark
+    public Computer1 legacyParser() {
+        return legacyParse(line);
+    }
+
+    @Benchmark
+    public Computer1 streamingParserBytes() {
+        parser.parse(bytes, target);
+        return target;
+    }
+
+    @Benchmark
+    public Computer1 streamingParserChars() {
+        parser.parse(line, target);
+        return target;
+    }
+
+    // Copia del antiguo ComputerServer.parseClientSystemInfo, como referencia
+    static Computer1 legacyParse(String jsonData) {
+        jsonData = jsonData.substring(1, jsonData.length() - 1);
+        String[] pairs = jsonData.split(",");
+        Map<String, String> values = new HashMap<>();
+        for (String pair : pairs) {
+            String[] keyValue = pair.split(":");
+            String key = keyValue[0].replace("\"", "").trim();
+            String value = keyValue[1].replace("\"", "").trim();
+            values.put(key, value);
+        }
+        return new Computer1(
+                values.get("processorModel"),
+                Double.parseDouble(values.get("processorSpeed")),
+                Integer.parseInt(values.get("coreCount")),
+                Long.parseLong(values.get("diskCapacity")),
+                values.get("operatingSystemVersion"),
+                Double.parseDouble(values.get("freeMemory")),
+                Double.parseDouble(values.get("freeDiskSpace")),
+                Double.parseDouble(values.get("freeBandwidthPercentage")),
+                "Cliente"
+        );
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TelemetryParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class TelemetryParserTest extends TestCase {
+    private static final String LINE = "{\"processorModel\":\"Intel(R) Core(TM) i7, 3.4GHz: \\\"rev B\\\"\","
+            + "\"processorSpeed\":3.40,\"coreCount\":8,\"diskCapacity\":476,"
+            + "\"operatingSystemVersion\":\"10.0 (build 19045), Pro\",\"freeMemory\":7.25,"
+            + "\"freeDiskSpace\":120.50,\"freeBandwidthPercentage\":99.87,\"freeCpuPercentage\":42.10}";
+
+    private final TelemetryParser parser = new TelemetryParser();
+
+    private static Computer1 empty() {
+        return new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+    }
+
+    private static ByteBuffer direct(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 4);
+        buffer.position(2);
+        buffer.put(bytes);
+        buffer.limit(buffer.position()).position(2);
+        return buffer;
+    }
+
+    public void testParsesCommasColonsAndEscapedQuotesInStrings() {
+        Computer1 target = empty();
+        int fields = parser.parse(direct(LINE), target);
+
+        assertEquals(TelemetryParser.ALL_FIELDS, fields);
+        assertEquals("Intel(R) Core(TM) i7, 3.4GHz: \"rev B\"", target.getProcessorModel());
+        assertEquals("10.0 (build 19045), Pro", target.getOperatingSystemVersion());
+        assertEquals(3.40, target.getProcessorSpeed(), 0.0);
+        assertEquals(8, target.getCoreCount());
+        assertEquals(476L, target.getDiskCapacity());
+        assertEquals(7.25, target.getFreeMemory(), 0.0);
+        assertEquals(120.50, target.getFreeDiskSpace(), 0.0);
+        assertEquals(99.87, target.getFreeBandwidthPercentage(), 0.0);
+        assertEquals(42.10, target.getFreeCpuPercentage(), 0.0);
+    }
+
+    public void testBytesAndCharSequenceGiveSameResult() {
+        Computer1 fromBytes = empty();
+        Computer1 fromChars = empty();
+        String line = LINE.replace("Pro", "Pro ñ € 😀");
+        parser.parse(direct(line), fromBytes);
+        parser.parse(line, fromChars);
+        assertEquals(fromChars.getOperatingSystemVersion(), fromBytes.getOperatingSystemVersion());
+        assertTrue(fromBytes.getOperatingSystemVersion().endsWith("ñ € 😀"));
+    }
+
+    public void testReusesUnchangedStrings() {
+        Computer1 target = empty();
+        parser.parse(LINE, target);
+        String model = target.getProcessorModel();
+        parser.parse(LINE.replace("7.25", "6.00"), target);
+        assertSame(model, target.getProcessorModel());
+        assertEquals(6.0, target.getFreeMemory(), 0.0);
+    }
+
+    public void testSkipsUnknownFieldsAndReportsMissingOnes() {
+        Computer1 target = empty();
+        int fields = parser.parse("{\"extra\":{\"a\":[1,\"}\"]},\"freeMemory\":1e1, \"flag\":true}", target);
+        assertEquals(TelemetryParser.FREE_MEMORY, fields);
+        assertEquals(10.0, target.getFreeMemory(), 0.0);
+    }
+
+    public void testHistoricalLineCarriesItsTimestamp() {
+        Computer1 sample = new Computer1(null, 2.5, 0, 0, null, 7.25, 120.5, 99.0, "Cliente");
+        sample.setHostId("equipo-1");
+        sample.setFreeCpuPercentage(42.1);
+        String line = TelemetryClient.historyJson(1_700_000_000_123L, sample);
+        ByteBuffer bytes = direct(line);
+        assertTrue(TelemetryParser.isHistorical(bytes));
+        assertFalse(TelemetryParser.isHistorical(direct(LINE)));
+
+        Computer1 target = empty();
+        int fields = parser.parse(bytes, target);
+        assertEquals(TelemetryParser.SAMPLED_AT | TelemetryParser.HOST_ID | DeltaTracker.DYNAMIC_FIELDS, fields);
+        assertEquals(1_700_000_000_123L, parser.getSampledAt());
+        assertEquals("equipo-1", target.getHostId());
+        assertEquals(42.1, target.getFreeCpuPercentage(), 0.0);
+    }
+
+    public void testMalformedInputFailsWithPosition() {
+        assertMalformed("{\"freeMemory\":}", 14);
+        assertMalformed("{\"freeMemory\":1.0", 17);
+        assertMalformed("{\"coreCount\":8.5}", 13);
+        assertMalformed("{\"processorModel\":\"abc}", 23);
+        assertMalformed("{\"processorModel\":\"a\\x\"}", 21);
+        assertMalformed("{\"freeMemory\":1} extra", 17);
+    }
+
+    private void assertMalformed(String line, int position) {
+        try {
+            parser.parse(direct(line), empty());
+            fail("Se esperaba error para " + line);
+        } catch (TelemetryFormatException e) {
+            assertEquals(line, position, e.getPosition());
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class TelemetryServerTest extends TestCase {
+    private static final String[] PROPERTIES = {
+            "computer.server.port", "computer.http.port", "computer.journal.enabled", "computer.history.memoryMB",
+            "computer.liveness.tickMillis", "computer.liveness.suspectMillis", "computer.liveness.deadMillis",
+            "computer.server.ack.every", "computer.server.ack.delayMillis"
+    };
+    private static final String FULL_RECORD = "{\"hostId\":\"cliente-1\",\"processorModel\":\"x\",\"processorSpeed\":1.00,"
+            + "\"coreCount\":2,\"diskCapacity\":10,\"operatingSystemVersion\":\"y\",\"freeMemory\":3.00,"
+            + "\"freeDiskSpace\":4.00,\"freeBandwidthPercentage\":50.00,\"freeCpuPercentage\":60.00}\n";
+
+    private TelemetryServer server;
+
+    @Override
+    protected void setUp() {
+        System.setProperty("computer.server.port", "0");
+        System.setProperty("computer.http.port", "0");
+        System.setProperty("computer.journal.enabled", "false");
+        System.setProperty("computer.history.memoryMB", "16");
+        System.setProperty("computer.liveness.tickMillis", "20");
+        System.setProperty("computer.liveness.suspectMillis", "300");
+        System.setProperty("computer.liveness.deadMillis", "900");
+        server = new TelemetryServer();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.close();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    public void testCoreRunsWithoutUserInterface() throws Exception {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        server.addMessageListener(messages::add);
+        server.start();
+        assertTrue(messages.toString(), messages.get(0).startsWith("API HTTP escuchando en el puerto"));
+
+        // El propio servidor ya figura en el registro
+        assertEquals(1, server.getRegistry().size());
+
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(FULL_RECORD.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("Datos actualizados correctamente", in.readLine());
+        }
+
+        HostEntry client = server.getRegistry().get("cliente-1");
+        assertEquals(3.0, client.snapshot().getFreeMemory(), 0.0);
+        assertEquals(1, server.getHistory().sampleCount("cliente-1"));
+        assertNotNull(server.getPlacementEngine());
+    }
+
+    // Una conexión sólo escribe historial del host que dice ser: la primera muestra histórica
+    // fija la identidad y lo que llegue de otro host cierra la conexión
+    public void testHistoryLinesCannotWriteForAnotherHost() throws Exception {
+        server.start();
+        Computer1 sample = new Computer1("x", 1, 2, 10, "y", 3, 4, 50, "Cliente");
+        long now = System.currentTimeMillis();
+
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            sample.setHostId("cliente-1");
+            String own = TelemetryClient.historyJson(now - 2000, sample) + "\n";
+            sample.setHostId("victima");
+            String forged = TelemetryClient.historyJson(now - 1000, sample) + "\n";
+            out.write((own + forged + FULL_RECORD).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals(null, in.readLine());
+        }
+        assertEquals(1, server.getHistory().sampleCount("cliente-1"));
+        assertEquals(0, server.getHistory().sampleCount("victima"));
+
+        // Tampoco puede pasar a otro host con el primer registro en vivo
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            sample.setHostId("victima");
+            out.write((TelemetryClient.historyJson(now, sample) + "\n" + FULL_RECORD).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals(null, in.readLine());
+        }
+        assertNull(server.getRegistry().get("cliente-1"));
+    }
+
+    // El tick de red sólo toca al propio servidor: el ancho de banda del cliente es el que informó
+    public void testNetworkTickKeepsClientBandwidth() throws Exception {
+        server.start();
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(FULL_RECORD.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("Datos actualizados correctamente", in.readLine());
+            out.write("{}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("Datos actualizados correctamente", in.readLine());
+            // Más de un tick de red (2 s)
+            Thread.sleep(2200);
+            assertEquals(50.0, server.getRegistry().get("cliente-1").snapshot().getFreeBandwidthPercentage(), 0.0);
+        }
+    }
+
+    // Un cliente que deja de enviar sin cerrar el socket pasa a sospechoso y luego a desconectado
+    public void testSilentClientIsSuspectedThenDisconnected() throws Exception {
+        server.start();
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(FULL_RECORD.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("Datos actualizados correctamente", in.readLine());
+            HostEntry client = server.getRegistry().get("cliente-1");
+            assertEquals(1, server.getLivenessMonitor().trackedCount());
+
+            awaitStatus(client, "Sospechoso");
+            // Un keepalive lo devuelve a conectado
+            out.write("{}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("Datos actualizados correctamente", in.readLine());
+            assertEquals("Conectado", client.snapshot().getConnectionStatus());
+
+            awaitStatus(client, "Sospechoso");
+            awaitStatus(client, "Desconectado");
+            // El servidor cerró la conexión medio abierta
+            socket.setSoTimeout(5000);
+            assertEquals(null, in.readLine());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getLivenessMonitor().trackedCount() > 0) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    // En v5 el servidor confirma en bloque: al llegar a ack.every mensajes y, para el resto,
+    // cuando vence ack.delayMillis
+    public void testPipelinedSessionGetsCumulativeAcks() throws Exception {
+        System.setProperty("computer.server.ack.every", "4");
+        System.setProperty("computer.server.ack.delayMillis", "50");
+        server = new TelemetryServer(); // el de setUp no llegó a arrancar
+        server.start();
+
+        Computer1 sample = new Computer1("x", 1, 2, 10, "y", 3, 4, 50, "Cliente");
+        sample.setHostId("cliente-v5");
+        ByteBuffer out = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        out.put(BinaryProtocol.MAGIC);
+        BinaryProtocol.writeHello(out, BinaryProtocol.VERSION);
+        BinaryProtocol.encodeStatic(payload, sample);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.STATIC, payload);
+        payload.clear();
+        BinaryProtocol.encodeDelta(payload, sample, DeltaTracker.DYNAMIC_FIELDS);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.DELTA, payload);
+        for (int i = 0; i < 5; i++) {
+            BinaryProtocol.writeKeepalive(out);
+        }
+
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(out.array(), 0, out.position());
+            socket.getOutputStream().flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            ByteBuffer hello = readFrame(in);
+            assertEquals(BinaryProtocol.HELLO_ACK, hello.get());
+            assertEquals(BinaryProtocol.VERSION, BinaryProtocol.readVarint(hello));
+            long start = System.nanoTime();
+            ByteBuffer first = readFrame(in);
+            assertEquals(BinaryProtocol.ACK_UPTO, first.get());
+            assertEquals(4, BinaryProtocol.readVarint(first));
+            ByteBuffer second = readFrame(in);
+            assertEquals(BinaryProtocol.ACK_UPTO, second.get());
+            assertEquals(6, BinaryProtocol.readVarint(second));
+            assertTrue((System.nanoTime() - start) / 1_000_000 >= 30);
+        }
+        // Los keepalive confirman la sesión pero no agregan muestras
+        assertEquals(1, server.getHistory().sampleCount("cliente-v5"));
+    }
+
+    // El detalle por dispositivo reemplaza al anterior del host; los nombres sólo van la primera vez
+    public void testDetailFramesReachTheRegistry() throws Exception {
+        server.start();
+        Computer1 sample = new Computer1("x", 1, 2, 10, "y", 3, 4, 50, "Cliente");
+        sample.setHostId("cliente-v6");
+        Map<String, Integer> slots = new HashMap<>();
+        ByteBuffer out = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME * 2);
+        ByteBuffer payload = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        out.put(BinaryProtocol.MAGIC);
+        BinaryProtocol.writeHello(out, BinaryProtocol.VERSION);
+        BinaryProtocol.encodeStatic(payload, sample);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.STATIC, payload);
+        payload.clear();
+        BinaryProtocol.encodeDetail(payload, new DeviceMetrics(new DeviceMetrics.Device[]{
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/", 50, 100),
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/datos", 80, 100)
+        }), slots);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.DETAIL, payload);
+        payload.clear();
+        BinaryProtocol.encodeDelta(payload, sample, DeltaTracker.DYNAMIC_FIELDS);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.DELTA, payload);
+        payload.clear();
+        BinaryProtocol.encodeDetail(payload, new DeviceMetrics(new DeviceMetrics.Device[]{
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/", 50, 100),
+                new DeviceMetrics.Device(DeviceMetrics.FILESYSTEM, "/datos", 0.5, 100),
+                new DeviceMetrics.Device(DeviceMetrics.CORE, "cpu0", 25),
+                new DeviceMetrics.Device(DeviceMetrics.CORE, "cpu1", 75)
+        }), slots);
+        payload.flip();
+        BinaryProtocol.writeFrame(out, BinaryProtocol.DETAIL, payload);
+
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.getOutputStream().write(out.array(), 0, out.position());
+            socket.getOutputStream().flush();
+            long deadline = System.currentTimeMillis() + 5000;
+            HostEntry entry;
+            while ((entry = server.getRegistry().get("cliente-v6")) == null
+                    || entry.live().getDevices() == null || entry.live().getDevices().get(1).values[0] != 0.5) {
+                assertTrue("No llegó el segundo detalle", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            Computer1 snapshot = entry.snapshot();
+            DeviceMetrics devices = snapshot.getDevices();
+            assertEquals(4, devices.size());
+            assertEquals("/datos", devices.get(1).name);
+            assertEquals(50.0, devices.get(0).values[0], 0.0);
+            // Los núcleos del detalle también quedan como carga por núcleo del host
+            assertEquals("[25.0, 75.0]", Arrays.toString(snapshot.getFreeCpuPerCore()));
+        }
+    }
+
+    // Con la ventana llena la muestra no se pierde: sale como histórica en el próximo envío
+    public void testFullWindowDefersSamplesToHistory() throws Exception {
+        System.setProperty("computer.server.ack.every", "1000");
+        System.setProperty("computer.server.ack.delayMillis", "300");
+        server = new TelemetryServer(); // el de setUp no llegó a arrancar
+        server.start();
+
+        double[] cpu = {0};
+        TelemetryClient client = new TelemetryClient("127.0.0.1", server.getPort(), () -> {
+            Computer1 sample = new Computer1("x", 1, 2, 10, "y", 3, 4, 50, "Cliente");
+            sample.setHostId("cliente-lento");
+            cpu[0] = (cpu[0] + 10) % 100;
+            sample.setFreeCpuPercentage(cpu[0]);
+            return sample;
+        }, true,
+                new DeltaTracker(0.05, 0.1, 0.5, 2.0, 2.0, 6),
+                new AdaptiveInterval(10, 10, 1000),
+                new OfflineBuffer(1000, null, 0),
+                new Backoff(100, 100, false, new Random(1)),
+                new UnackedWindow(2, 30_000));
+        client.setVerbose(false);
+        client.start();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (client.getSamplesDeferred() == 0) {
+                assertTrue("La ventana nunca se llenó", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            // Lo reenviado antes es lo que se muestreó mientras conectaba
+            long replayed = client.getSamplesReplayed();
+            while (client.getSamplesReplayed() == replayed) {
+                assertTrue("Sin muestras reenviadas", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            // Las dos muestras en vuelo más las que esperaron en el búfer llegan al historial
+            long expected = 2 + client.getSamplesReplayed();
+            while (server.getHistory().sampleCount("cliente-lento") < expected) {
+                assertTrue("Faltan muestras en el historial", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    private static ByteBuffer readFrame(DataInputStream in) throws Exception {
+        int length = in.readUnsignedByte();
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return ByteBuffer.wrap(frame);
+    }
+
+    private static void awaitStatus(HostEntry entry, String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!status.equals(entry.snapshot().getConnectionStatus())) {
+            assertTrue("Estado esperado: " + status, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de inserción en el historial recorriendo {@code hosts} hosts en turno, y
+ * consulta de min/max/promedio sobre la última hora de un host. {@link #main} además mide
+ * el heap ocupado por muestra con el historial lleno.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TimeSeriesStoreBenchmark {
+    @Param({"10000"})
+    public int hosts;
+
+    private TimeSeriesStore store;
+    private String[] hostIds;
+    private Computer1 sample;
+    private final TimeSeriesStore.WindowStats stats = new TimeSeriesStore.WindowStats();
+    private int next;
+    private long clock;
+
+    @Setup
+    public void setup() {
+        store = new TimeSeriesStore(Long.MAX_VALUE, 360);
+        hostIds = new String[hosts];
+        sample = new Computer1("CPU", 3.2, 8, 512, "10.0", 12.5, 200.0, 95.0, "Cliente");
+        for (int i = 0; i < hosts; i++) {
+            hostIds[i] = "host-" + i;
+            for (int j = 0; j < 360; j++) {
+                store.append(hostIds[i], j * 10_000L, sample);
+            }
+        }
+        clock = 360 * 10_000L;
+    }
+
+    @Benchmark
+    public boolean append() {
+        int i = next;
+        next = i + 1 == hosts ? 0 : i + 1;
+        if (i == 0) clock += 10_000;
+        sample.setFreeMemory(i & 63);
+        return store.append(hostIds[i], clock, sample);
+    }
+
+    @Benchmark
+    public double windowLastHour() {
+        int i = next;
+        next = i + 1 == hosts ? 0 : i + 1;
+        store.window(hostIds[i], TimeSeriesStore.FREE_MEMORY, clock - 3_600_000L, clock, stats);
+        return stats.getAverage();
+    }
+
+    // Heap realmente ocupado por muestra, comparado con el tamaño teórico de los arreglos
+    static void printMemoryPerSample(int hosts, int samplesPerHost) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        TimeSeriesStore store = new TimeSeriesStore(Long.MAX_VALUE, samplesPerHost);
+        Computer1 sample = new Computer1("CPU", 3.2, 8, 512, "10.0", 12.5, 200.0, 95.0, "Cliente");
+        for (int i = 0; i < hosts; i++) {
+            String hostId = "host-" + i;
+            for (int j = 0; j < samplesPerHost; j++) {
+                store.append(hostId, j, sample);
+            }
+        }
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        long samples = (long) hosts * samplesPerHost;
+        System.out.printf("%d hosts x %d muestras: %.1f MB de heap, %.1f bytes/muestra (teórico %d)%n",
+                hosts, samplesPerHost, (after - before) / (1024.0 * 1024.0),
+                (after - before) / (double) samples, TimeSeriesStore.BYTES_PER_SAMPLE);
+        if (store.hostCount() != hosts) throw new IllegalStateException();
+    }
+
+    public static void main(String[] args) throws Exception {
+        printMemoryPerSample(10_000, 360);
+        new Runner(new OptionsBuilder()
+                .include(TimeSeriesStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimeSeriesStoreTest extends TestCase {
+
+    private static Computer1 sample(double freeMemory, double freeCpu) {
+        Computer1 computer = new Computer1("CPU", 3.0, 8, 500, "OS", freeMemory, 100.0, 90.0, "Cliente");
+        computer.setFreeCpuPercentage(freeCpu);
+        return computer;
+    }
+
+    public void testRingKeepsNewestSamplesInOrder() {
+        TimeSeriesStore store = new TimeSeriesStore(1 << 20, 4);
+        for (int i = 1; i <= 6; i++) {
+            assertTrue(store.append("a", i * 1000L, sample(i, 50)));
+        }
+        assertEquals(4, store.sampleCount("a"));
+
+        long[] timestamps = new long[10];
+        double[] values = new double[10];
+        int count = store.range("a", TimeSeriesStore.FREE_MEMORY, 0, Long.MAX_VALUE, timestamps, values);
+        assertEquals(4, count);
+        for (int i = 0; i < 4; i++) {
+            assertEquals((i + 3) * 1000L, timestamps[i]);
+            assertEquals(i + 3.0, values[i], 0.0);
+        }
+    }
+
+    public void testRangeScanAndWindowStats() {
+        TimeSeriesStore store = new TimeSeriesStore(1 << 20, 100);
+        for (int i = 0; i < 50; i++) {
+            store.append("a", i * 10L, sample(8, i));
+        }
+
+        final List<Long> seen = new ArrayList<>();
+        int visited = store.scan("a", TimeSeriesStore.FREE_CPU_PERCENTAGE, 95, 130,
+                (timestamp, value) -> seen.add(timestamp));
+        assertEquals(4, visited);
+        assertEquals(Long.valueOf(100), seen.get(0));
+        assertEquals(Long.valueOf(130), seen.get(3));
+
+        TimeSeriesStore.WindowStats stats = new TimeSeriesStore.WindowStats();
+        assertTrue(store.window("a", TimeSeriesStore.FREE_CPU_PERCENTAGE, 100, 190, stats));
+        assertEquals(10, stats.getCount());
+        assertEquals(10.0, stats.getMin(), 0.0);
+        assertEquals(19.0, stats.getMax(), 0.0);
+        assertEquals(14.5, stats.getAverage(), 1e-9);
+
+        assertFalse(store.window("a", TimeSeriesStore.FREE_CPU_PERCENTAGE, 1000, 2000, stats));
+        assertFalse(store.window("otro", TimeSeriesStore.FREE_CPU_PERCENTAGE, 0, 2000, stats));
+    }
+
+    public void testTimestampsNeverGoBackwards() {
+        TimeSeriesStore store = new TimeSeriesStore(1 << 20, 10);
+        store.append("a", 5000, sample(1, 50));
+        store.append("a", 4000, sample(2, 50)); // reloj ajustado hacia atrás
+        long[] timestamps = new long[2];
+        double[] values = new double[2];
+        store.range("a", TimeSeriesStore.FREE_MEMORY, 0, Long.MAX_VALUE, timestamps, values);
+        assertEquals(5000, timestamps[1]);
+    }
+
+    public void testMemoryBudgetLimitsHosts() {
+        int perHost = 10 * TimeSeriesStore.BYTES_PER_SAMPLE;
+        TimeSeriesStore store = new TimeSeriesStore(3 * perHost, 10);
+        assertTrue(store.append("a", 1, sample(1, 1)));
+        assertTrue(store.append("b", 1, sample(1, 1)));
+        assertTrue(store.append("c", 1, sample(1, 1)));
+        assertFalse(store.append("d", 1, sample(1, 1)));
+        // Los hosts que ya tienen anillo siguen guardando
+        assertTrue(store.append("a", 2, sample(1, 1)));
+        assertEquals(3, store.hostCount());
+        assertEquals(3L * perHost, store.allocatedBytes());
+    }
+
+    public void testQueriesSpanSealedAndActiveBlocks() {
+        // Bloques de 16 muestras y capacidad para 50: la ventana cruza bloques sellados y el activo
+        TimeSeriesStore store = new TimeSeriesStore(1 << 20, 50, 16);
+        for (int i = 0; i < 100; i++) {
+            store.append("a", i * 10_000L, sample(i / 4.0, 50));
+        }
+        assertEquals(50, store.sampleCount("a"));
+
+        long[] timestamps = new long[100];
+        double[] values = new double[100];
+        int count = store.range("a", TimeSeriesStore.FREE_MEMORY, 0, Long.MAX_VALUE, timestamps, values);
+        assertEquals(50, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals((50 + i) * 10_000L, timestamps[i]);
+            assertEquals((50 + i) / 4.0, values[i], 0.0);
+        }
+
+        TimeSeriesStore.WindowStats stats = new TimeSeriesStore.WindowStats();
+        assertTrue(store.window("a", TimeSeriesStore.FREE_MEMORY, 600_000, 899_999, stats));
+        assertEquals(30, stats.getCount());
+        assertEquals(15.0, stats.getMin(), 0.0);
+        assertEquals(22.25, stats.getMax(), 0.0);
+
+        // Los arreglos de destino acotan la copia
+        assertEquals(3, store.range("a", TimeSeriesStore.FREE_MEMORY, 0, Long.MAX_VALUE,
+                new long[3], new double[3]));
+    }
+
+    public void testSealedBlocksUseLessMemoryThanRawSamples() {
+        TimeSeriesStore store = new TimeSeriesStore(Long.MAX_VALUE, 1200, 120);
+        for (int i = 0; i < 1200; i++) {
+            store.append("a", i * 10_000L, sample(8.0 + (i % 7) / 100.0, 40.0));
+        }
+        assertEquals(1200, store.sampleCount("a"));
+        assertTrue(store.allocatedBytes() < 1200L * TimeSeriesStore.BYTES_PER_SAMPLE / 2);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UnackedWindowTest extends TestCase {
+
+    private static Computer1 sample(double cpu) {
+        Computer1 computer = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        computer.setFreeCpuPercentage(cpu);
+        return computer;
+    }
+
+    public void testCumulativeAcksReleaseTheWindow() {
+        UnackedWindow window = new UnackedWindow(4, 1000);
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, window.add(i, sample(i)));
+        }
+        assertTrue(window.isFull());
+
+        assertEquals(3, window.ackUpTo(3));
+        assertEquals(1, window.size());
+        // Una confirmación repetida o vieja no quita nada
+        assertEquals(0, window.ackUpTo(2));
+        assertEquals(5, window.add(5, sample(5)));
+        // El servidor nunca confirma más de lo enviado
+        assertEquals(2, window.ackUpTo(100));
+        assertEquals(0, window.size());
+        assertEquals(6, window.add(6, sample(6)));
+    }
+
+    public void testOldestUnackedMessageMarksTheConnectionStalled() {
+        UnackedWindow window = new UnackedWindow(8, 1000);
+        assertFalse(window.isStalled(10_000));
+        window.add(1000, sample(1));
+        window.add(1500, sample(2));
+        assertFalse(window.isStalled(2000));
+        assertTrue(window.isStalled(2001));
+        window.ackUpTo(1);
+        assertFalse(window.isStalled(2001));
+        assertTrue(window.isStalled(2501));
+    }
+
+    public void testUnackedMessagesMoveToTheOfflineBufferInOrder() throws Exception {
+        UnackedWindow window = new UnackedWindow(3, 1000);
+        for (int i = 1; i <= 3; i++) {
+            window.add(i, sample(i));
+        }
+        window.ackUpTo(1);
+        window.add(4, sample(4));
+
+        OfflineBuffer buffer = new OfflineBuffer(8, null, 0);
+        assertEquals(3, window.drainTo(buffer));
+        assertEquals(0, window.size());
+        List<Long> timestamps = new ArrayList<>();
+        buffer.forEach((timestamp, sample) -> {
+            assertEquals((double) timestamp, sample.getFreeCpuPercentage(), 0.0);
+            timestamps.add(timestamp);
+        });
+        assertEquals("[2, 3, 4]", timestamps.toString());
+        // La sesión siguiente vuelve a numerar desde 1
+        assertEquals(1, window.add(5, sample(5)));
+    }
+}
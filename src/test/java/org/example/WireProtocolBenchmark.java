@@ -0,0 +1,110 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en el servidor (decodificación) y en el cliente (codificación) de una actualización
+ * en JSON frente al protocolo binario. Los bytes por actualización se imprimen al arrancar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireProtocolBenchmark {
+    private Computer1 sample;
+    private Computer1 target;
+    private TelemetryParser parser;
+    private ByteBuffer jsonLine;
+    private ByteBuffer binaryUpdate;
+    private ByteBuffer scratch;
+
+    @Setup
+    public void setup() {
+        sample = sample();
+        target = new Computer1(null, 0, 0, 0, null, 0, 0, 0, "Cliente");
+        parser = new TelemetryParser();
+
+        byte[] json = ComputerClient.toJson(sample).getBytes(StandardCharsets.UTF_8);
+        jsonLine = ByteBuffer.allocateDirect(json.length);
+        jsonLine.put(json).flip();
+
+        ByteBuffer heap = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeUpdate(heap, sample);
+        heap.flip();
+        binaryUpdate = ByteBuffer.allocateDirect(heap.remaining());
+        binaryUpdate.put(heap).flip();
+
+        scratch = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+    }
+
+    static Computer1 sample() {
+        Computer1 computer = new Computer1("Intel(R) Core(TM) i7-8700 CPU @ 3.20GHz", 3.19, 12, 476,
+                "10.0.19045", 7.25, 120.5, 99.87, "Cliente");
+        computer.setFreeCpuPercentage(42.1);
+        return computer;
+    }
+
+    @Benchmark
+    public Computer1 serverDecodeJson() {
+        parser.parse(jsonLine, target);
+        return target;
+    }
+
+    @Benchmark
+    public Computer1 serverDecodeBinary() {
+        binaryUpdate.rewind();
+        BinaryProtocol.decodeUpdate(binaryUpdate, target);
+        return target;
+    }
+
+    @Benchmark
+    public byte[] clientEncodeJson() {
+        return ComputerClient.toJson(sample).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer clientEncodeBinary() {
+        scratch.clear();
+        BinaryProtocol.encodeUpdate(scratch, sample);
+        return scratch;
+    }
+
+    // Bytes en el cable por actualización, con su delimitador o cabecera de trama
+    static void printWireSizes() {
+        Computer1 computer = sample();
+        int json = ComputerClient.toJson(computer).getBytes(StandardCharsets.UTF_8).length + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        BinaryProtocol.encodeStatic(buffer, computer);
+        int staticFrame = buffer.position() + 2;
+        buffer.clear();
+        BinaryProtocol.encodeUpdate(buffer, computer);
+        int updateFrame = buffer.position() + 2;
+        System.out.printf("JSON: %d bytes/actualización%n", json);
+        System.out.printf("Binario: %d bytes/actualización (+%d bytes de STATIC una vez por sesión)%n",
+                updateFrame, staticFrame);
+    }
+
+    public static void main(String[] args) throws Exception {
+        printWireSizes();
+        new Runner(new OptionsBuilder()
+                .include(WireProtocolBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}